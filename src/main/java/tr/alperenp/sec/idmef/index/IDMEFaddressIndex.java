@@ -0,0 +1,139 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.index;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import lombok.NonNull;
+import tr.alperenp.sec.idmef.model.alert.Alert;
+import tr.alperenp.sec.idmef.model.alert.support.Address;
+import tr.alperenp.sec.idmef.model.alert.support.Node;
+import tr.alperenp.sec.idmef.model.core.Source;
+import tr.alperenp.sec.idmef.model.core.Target;
+import tr.alperenp.sec.idmef.model.misc.IDMEFipAddress;
+
+/**
+ * Index of alerts by ipv4 and ipv6 addresses of their Source and Target nodes, e.g. for a sliding window of alerts
+ * which are added when they arrive and removed when they expire. Alerts are compared by identity and must not change
+ * while they are indexed, since removal looks them up by their addresses.
+ * <p>
+ * This class is not thread safe.
+ * 
+ * @author alperenp
+ * 
+ */
+public class IDMEFaddressIndex {
+	
+	private final IDMEFaddressTrie<Alert> trie = new IDMEFaddressTrie<>();
+	
+	/**
+	 * @param alert
+	 * @return number of addresses alert is indexed by, 0 if it has no ipv4 or ipv6 address
+	 */
+	public int add(@NonNull Alert alert) {
+		int[] added = new int[1];
+		forEachAddress(alert, ip -> {
+			if (trie.put(ip, alert)) {
+				added[0]++;
+			}
+		});
+		return added[0];
+	}
+	
+	/**
+	 * @param alert alert added before, unchanged since then
+	 * @return number of addresses alert was removed from
+	 */
+	public int remove(@NonNull Alert alert) {
+		int[] removed = new int[1];
+		forEachAddress(alert, ip -> {
+			if (trie.remove(ip, alert)) {
+				removed[0]++;
+			}
+		});
+		return removed[0];
+	}
+	
+	/**
+	 * @param prefixes network or host addresses
+	 * @return alerts with a Source or Target address within any of given prefixes
+	 */
+	public Set<Alert> findWithin(@NonNull Collection<IDMEFipAddress> prefixes) {
+		Set<Alert> alerts = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (IDMEFipAddress prefix : prefixes) {
+			trie.forEachWithin(prefix, alerts::add);
+		}
+		return alerts;
+	}
+	
+	/**
+	 * @param prefix network or host address
+	 * @return alerts with a Source or Target address within given prefix
+	 */
+	public Set<Alert> findWithin(@NonNull IDMEFipAddress prefix) {
+		return findWithin(Collections.singleton(prefix));
+	}
+	
+	/**
+	 * @param address host address
+	 * @return alerts indexed by the most specific address or network containing given address
+	 */
+	public List<Alert> findLongestPrefix(@NonNull IDMEFipAddress address) {
+		return trie.longestPrefixMatch(address);
+	}
+	
+	/**
+	 * @return number of (address, alert) entries
+	 */
+	public int size() {
+		return trie.size();
+	}
+	
+	public void clear() {
+		trie.clear();
+	}
+	
+	private static void forEachAddress(Alert alert, Consumer<IDMEFipAddress> action) {
+		if (alert.getSources() != null) {
+			for (Source source : alert.getSources()) {
+				forEachAddress(source.getNode(), action);
+			}
+		}
+		if (alert.getTargets() != null) {
+			for (Target target : alert.getTargets()) {
+				forEachAddress(target.getNode(), action);
+			}
+		}
+	}
+	
+	private static void forEachAddress(Node node, Consumer<IDMEFipAddress> action) {
+		if (node == null || node.getAddresses() == null) {
+			return;
+		}
+		for (Address address : node.getAddresses()) {
+			IDMEFipAddress ip = address.getIp();
+			if (ip != null) {
+				action.accept(ip);
+			}
+		}
+	}
+}
@@ -0,0 +1,323 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.index;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import lombok.NonNull;
+import tr.alperenp.sec.idmef.model.misc.IDMEFipAddress;
+
+/**
+ * Radix (Patricia) trie of IPv4 and IPv6 prefixes, each prefix holding a set of values compared by identity. Nodes
+ * are only created where prefixes branch, so depth is bounded by number of distinct prefixes and 128 bits.
+ * <p>
+ * A key is the network part of an {@link IDMEFipAddress} with its prefix length; host addresses use all bits. Network
+ * masks which are not contiguous are indexed as host addresses.
+ * <p>
+ * This class is not thread safe.
+ * 
+ * @author alperenp
+ * 
+ * @param <V> type of values
+ */
+public class IDMEFaddressTrie<V> {
+	
+	private Node root4;
+	
+	private Node root6;
+	
+	/**
+	 * number of (prefix, value) pairs
+	 */
+	private int size;
+	
+	/**
+	 * Adds value under prefix of given address
+	 * 
+	 * @param address host or network address
+	 * @param value
+	 * @return false if value was already under the same prefix
+	 */
+	public boolean put(@NonNull IDMEFipAddress address, @NonNull V value) {
+		Node node = insert(address);
+		if (!node.add(value)) {
+			return false;
+		}
+		size++;
+		return true;
+	}
+	
+	/**
+	 * Removes value from prefix of given address, prefixes left without values are removed
+	 * 
+	 * @param address host or network address
+	 * @param value
+	 * @return false if value was not under the prefix
+	 */
+	public boolean remove(@NonNull IDMEFipAddress address, @NonNull V value) {
+		Key key = new Key(address);
+		Node grandParent = null;
+		Node parent = null;
+		Node node = key.ipv6 ? root6 : root4;
+		while (node != null && node.length <= key.length && key.commonLength(node) >= node.length) {
+			if (node.length == key.length) {
+				if (!node.remove(value)) {
+					return false;
+				}
+				size--;
+				if (node.count == 0) {
+					prune(key.ipv6, grandParent, parent, node);
+				}
+				return true;
+			}
+			grandParent = parent;
+			parent = node;
+			node = node.child(key.bit(node.length));
+		}
+		return false;
+	}
+	
+	/**
+	 * @return number of (prefix, value) pairs
+	 */
+	public int size() {
+		return size;
+	}
+	
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	public void clear() {
+		root4 = null;
+		root6 = null;
+		size = 0;
+	}
+	
+	/**
+	 * Longest prefix match, e.g. values of 10.1.0.0/16 rather than of 10.0.0.0/8 for 10.1.2.3
+	 * 
+	 * @param address host or network address
+	 * @return values of the longest prefix containing address, empty if there is none
+	 */
+	public List<V> longestPrefixMatch(@NonNull IDMEFipAddress address) {
+		Key key = new Key(address);
+		Node match = null;
+		Node node = key.ipv6 ? root6 : root4;
+		while (node != null && node.length <= key.length && key.commonLength(node) >= node.length) {
+			if (node.count > 0) {
+				match = node;
+			}
+			if (node.length == key.length) {
+				break;
+			}
+			node = node.child(key.bit(node.length));
+		}
+		List<V> values = new LinkedList<>();
+		if (match != null) {
+			match.<V> forEach(values::add);
+		}
+		return values;
+	}
+	
+	/**
+	 * Subtree query, e.g. values of 10.1.2.3 and 10.1.0.0/16 for 10.0.0.0/8
+	 * 
+	 * @param prefix network address
+	 * @param action called once for each (prefix, value) pair within given prefix
+	 */
+	public void forEachWithin(@NonNull IDMEFipAddress prefix, @NonNull Consumer<? super V> action) {
+		Key key = new Key(prefix);
+		Node node = key.ipv6 ? root6 : root4;
+		while (node != null && node.length < key.length) {
+			if (key.commonLength(node) < node.length) {
+				return;
+			}
+			node = node.child(key.bit(node.length));
+		}
+		if (node == null || key.commonLength(node) < key.length) {
+			return;
+		}
+		Deque<Node> stack = new ArrayDeque<>();
+		stack.push(node);
+		while (!stack.isEmpty()) {
+			Node current = stack.pop();
+			current.<V> forEach(action);
+			if (current.right != null) {
+				stack.push(current.right);
+			}
+			if (current.left != null) {
+				stack.push(current.left);
+			}
+		}
+	}
+	
+	/**
+	 * @param prefix network address
+	 * @return values within given prefix, ordered by address
+	 * @see #forEachWithin(IDMEFipAddress, Consumer)
+	 */
+	public List<V> within(@NonNull IDMEFipAddress prefix) {
+		List<V> values = new LinkedList<>();
+		forEachWithin(prefix, values::add);
+		return values;
+	}
+	
+	private Node insert(IDMEFipAddress address) {
+		Key key = new Key(address);
+		Node parent = null;
+		Node node = key.ipv6 ? root6 : root4;
+		while (node != null) {
+			int common = Math.min(key.commonLength(node), Math.min(node.length, key.length));
+			if (common < node.length) {
+				Node created = new Node(key.high, key.low, key.length);
+				Node replacement = created;
+				if (common == key.length) {
+					// new prefix is above node
+					created.setChild(node.bit(common), node);
+				} else {
+					// new prefix and node branch below their common prefix
+					replacement = new Node(key.high, key.low, common);
+					replacement.setChild(key.bit(common), created);
+					replacement.setChild(node.bit(common), node);
+				}
+				replace(key.ipv6, parent, node, replacement);
+				return created;
+			}
+			if (node.length == key.length) {
+				return node;
+			}
+			parent = node;
+			node = node.child(key.bit(node.length));
+		}
+		Node created = new Node(key.high, key.low, key.length);
+		if (parent == null) {
+			replace(key.ipv6, null, null, created);
+		} else {
+			parent.setChild(key.bit(parent.length), created);
+		}
+		return created;
+	}
+	
+	/**
+	 * removes node which has no values left, and its parent if it only joined two branches
+	 */
+	private void prune(boolean ipv6, Node grandParent, Node parent, Node node) {
+		if (node.left != null && node.right != null) {
+			return;
+		}
+		Node child = node.left != null ? node.left : node.right;
+		replace(ipv6, parent, node, child);
+		if (child == null && parent != null && parent.count == 0) {
+			replace(ipv6, grandParent, parent, parent.left != null ? parent.left : parent.right);
+		}
+	}
+	
+	private void replace(boolean ipv6, Node parent, Node node, Node replacement) {
+		if (parent == null) {
+			if (ipv6) {
+				root6 = replacement;
+			} else {
+				root4 = replacement;
+			}
+		} else if (parent.left == node) {
+			parent.left = replacement;
+		} else {
+			parent.right = replacement;
+		}
+	}
+	
+	/**
+	 * left aligned bits of a prefix, i.e. IPv4 bits are in the first 32 bits of high
+	 */
+	private static class Bits extends IndexValues {
+		
+		final long high;
+		
+		final long low;
+		
+		final int length;
+		
+		Bits(long high, long low, int length) {
+			// bits after length are cleared, so that branches do not depend on them
+			this.high = length == 0 ? 0L : length >= 64 ? high : high & (-1L << (64 - length));
+			this.low = length <= 64 ? 0L : length == 128 ? low : low & (-1L << (128 - length));
+			this.length = length;
+		}
+		
+		int bit(int index) {
+			return (int) (index < 64 ? high >>> (63 - index) : low >>> (127 - index)) & 1;
+		}
+		
+		/**
+		 * @return number of leading bits equal in both, not limited by lengths
+		 */
+		int commonLength(Bits other) {
+			long difference = high ^ other.high;
+			if (difference != 0L) {
+				return Long.numberOfLeadingZeros(difference);
+			}
+			return 64 + Long.numberOfLeadingZeros(low ^ other.low);
+		}
+	}
+	
+	private static final class Key extends Bits {
+		
+		final boolean ipv6;
+		
+		Key(IDMEFipAddress address) {
+			super(address.isIpv6() ? address.getHigh() : address.getLow() << 32,
+					address.isIpv6() ? address.getLow() : 0L, prefixLength(address));
+			this.ipv6 = address.isIpv6();
+		}
+		
+		private static int prefixLength(IDMEFipAddress address) {
+			int prefixLength = address.getPrefixLength();
+			return prefixLength < 0 ? address.getBitLength() : prefixLength;
+		}
+	}
+	
+	/**
+	 * prefix with its values; a node without values only joins two branches
+	 */
+	private static final class Node extends Bits {
+		
+		Node left;
+		
+		Node right;
+		
+		Node(long high, long low, int length) {
+			super(high, low, length);
+		}
+		
+		Node child(int bit) {
+			return bit == 0 ? left : right;
+		}
+		
+		void setChild(int bit, Node child) {
+			if (bit == 0) {
+				left = child;
+			} else {
+				right = child;
+			}
+		}
+	}
+}
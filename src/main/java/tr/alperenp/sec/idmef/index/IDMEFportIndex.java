@@ -0,0 +1,149 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.index;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import lombok.NonNull;
+import tr.alperenp.sec.idmef.model.alert.Alert;
+import tr.alperenp.sec.idmef.model.alert.support.Service;
+import tr.alperenp.sec.idmef.model.core.Source;
+import tr.alperenp.sec.idmef.model.core.Target;
+import tr.alperenp.sec.idmef.model.misc.IDMEFportRange;
+import tr.alperenp.sec.idmef.model.misc.IDMEFportSet;
+
+/**
+ * Index of alerts by port and portlist of their Source and Target services, e.g. for a sliding window of alerts which
+ * are added when they arrive and removed when they expire. Alerts are compared by identity and must not change while
+ * they are indexed, since removal looks them up by their ports.
+ * <p>
+ * This class is not thread safe.
+ * 
+ * @author alperenp
+ * 
+ */
+public class IDMEFportIndex {
+	
+	private final IDMEFportIntervalTree<Alert> tree = new IDMEFportIntervalTree<>();
+	
+	/**
+	 * @param alert
+	 * @return number of port ranges alert is indexed by, 0 if it has no service port
+	 */
+	public int add(@NonNull Alert alert) {
+		int added = 0;
+		for (Service service : services(alert)) {
+			if (service.getPort() >= 0 && tree.put(service.getPort(), service.getPort(), alert)) {
+				added++;
+			}
+			if (service.getPortSet() != null) {
+				for (IDMEFportRange range : service.getPortSet()) {
+					if (tree.put(range.getMin(), range.getMax(), alert)) {
+						added++;
+					}
+				}
+			}
+		}
+		return added;
+	}
+	
+	/**
+	 * @param alert alert added before, unchanged since then
+	 * @return number of port ranges alert was removed from
+	 */
+	public int remove(@NonNull Alert alert) {
+		int removed = 0;
+		for (Service service : services(alert)) {
+			if (service.getPort() >= 0 && tree.remove(service.getPort(), service.getPort(), alert)) {
+				removed++;
+			}
+			if (service.getPortSet() != null) {
+				for (IDMEFportRange range : service.getPortSet()) {
+					if (tree.remove(range.getMin(), range.getMax(), alert)) {
+						removed++;
+					}
+				}
+			}
+		}
+		return removed;
+	}
+	
+	/**
+	 * @param port
+	 * @return alerts with a Source or Target service on given port
+	 */
+	public Set<Alert> findByPort(int port) {
+		return findOverlapping(port, port);
+	}
+	
+	/**
+	 * @param from first port, inclusive
+	 * @param to last port, inclusive
+	 * @return alerts with a Source or Target service on any port between from and to
+	 */
+	public Set<Alert> findOverlapping(int from, int to) {
+		Set<Alert> alerts = Collections.newSetFromMap(new IdentityHashMap<>());
+		tree.forEachOverlapping(from, to, alerts::add);
+		return alerts;
+	}
+	
+	/**
+	 * @param ports e.g. 135-139,445
+	 * @return alerts with a Source or Target service on any of given ports
+	 */
+	public Set<Alert> findOverlapping(@NonNull IDMEFportSet ports) {
+		Set<Alert> alerts = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (IDMEFportRange range : ports) {
+			tree.forEachOverlapping(range.getMin(), range.getMax(), alerts::add);
+		}
+		return alerts;
+	}
+	
+	/**
+	 * @return number of (port range, alert) entries
+	 */
+	public int size() {
+		return tree.size();
+	}
+	
+	public void clear() {
+		tree.clear();
+	}
+	
+	private static List<Service> services(Alert alert) {
+		List<Service> services = new LinkedList<>();
+		if (alert.getSources() != null) {
+			for (Source source : alert.getSources()) {
+				if (source.getService() != null) {
+					services.add(source.getService());
+				}
+			}
+		}
+		if (alert.getTargets() != null) {
+			for (Target target : alert.getTargets()) {
+				if (target.getService() != null) {
+					services.add(target.getService());
+				}
+			}
+		}
+		return services;
+	}
+}
@@ -0,0 +1,299 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.index;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import lombok.NonNull;
+
+/**
+ * Interval tree of port ranges, i.e. an AVL tree ordered by range start where each node also keeps the greatest range
+ * end of its subtree. Stabbing and overlap queries take O(log n + k) for k matching ranges. Each distinct range holds
+ * a set of values compared by identity.
+ * <p>
+ * This class is not thread safe.
+ * 
+ * @author alperenp
+ * 
+ * @param <V> type of values
+ */
+public class IDMEFportIntervalTree<V> {
+	
+	private Node root;
+	
+	/**
+	 * number of (range, value) pairs
+	 */
+	private int size;
+	
+	/**
+	 * node of last {@link #insert(Node, int, int)}
+	 */
+	private Node inserted;
+	
+	/**
+	 * true if last {@link #delete(Node, int, int, Object)} removed value
+	 */
+	private boolean deleted;
+	
+	/**
+	 * Adds value under given range
+	 * 
+	 * @param from first port, inclusive
+	 * @param to last port, inclusive
+	 * @param value
+	 * @return false if value was already under the same range
+	 * @throws IllegalArgumentException if from is greater than to
+	 */
+	public boolean put(int from, int to, @NonNull V value) {
+		if (from > to) {
+			throw new IllegalArgumentException("invalid port range: " + from + "-" + to);
+		}
+		root = insert(root, from, to);
+		Node node = inserted;
+		inserted = null;
+		if (!node.add(value)) {
+			return false;
+		}
+		size++;
+		return true;
+	}
+	
+	/**
+	 * Removes value from given range, ranges left without values are removed
+	 * 
+	 * @param from first port, inclusive
+	 * @param to last port, inclusive
+	 * @param value
+	 * @return false if value was not under the range
+	 */
+	public boolean remove(int from, int to, @NonNull V value) {
+		deleted = false;
+		root = delete(root, from, to, value);
+		if (!deleted) {
+			return false;
+		}
+		size--;
+		return true;
+	}
+	
+	/**
+	 * @return number of (range, value) pairs
+	 */
+	public int size() {
+		return size;
+	}
+	
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	public void clear() {
+		root = null;
+		size = 0;
+	}
+	
+	/**
+	 * Overlap query, e.g. values of 100-200 and 139 for 135-139
+	 * 
+	 * @param from first port, inclusive
+	 * @param to last port, inclusive
+	 * @param action called once for each (range, value) pair whose range has a port between from and to
+	 */
+	public void forEachOverlapping(int from, int to, @NonNull Consumer<? super V> action) {
+		if (from <= to) {
+			forEachOverlapping(root, from, to, action);
+		}
+	}
+	
+	/**
+	 * @param from first port, inclusive
+	 * @param to last port, inclusive
+	 * @return values whose range has a port between from and to, ordered by range start
+	 * @see #forEachOverlapping(int, int, Consumer)
+	 */
+	public List<V> overlapping(int from, int to) {
+		List<V> values = new LinkedList<>();
+		forEachOverlapping(from, to, values::add);
+		return values;
+	}
+	
+	/**
+	 * Stabbing query
+	 * 
+	 * @param port
+	 * @return values whose range contains port, ordered by range start
+	 */
+	public List<V> containing(int port) {
+		return overlapping(port, port);
+	}
+	
+	private void forEachOverlapping(Node node, int from, int to, Consumer<? super V> action) {
+		while (node != null && node.maxTo >= from) {
+			forEachOverlapping(node.left, from, to, action);
+			if (node.from > to) {
+				// right subtree starts even later
+				return;
+			}
+			if (node.to >= from) {
+				node.<V> forEach(action);
+			}
+			node = node.right;
+		}
+	}
+	
+	private Node insert(Node node, int from, int to) {
+		if (node == null) {
+			inserted = new Node(from, to);
+			return inserted;
+		}
+		int order = compare(from, to, node);
+		if (order == 0) {
+			inserted = node;
+			return node;
+		}
+		if (order < 0) {
+			node.left = insert(node.left, from, to);
+		} else {
+			node.right = insert(node.right, from, to);
+		}
+		return balance(node);
+	}
+	
+	private Node delete(Node node, int from, int to, Object value) {
+		if (node == null) {
+			return null;
+		}
+		int order = compare(from, to, node);
+		if (order < 0) {
+			node.left = delete(node.left, from, to, value);
+		} else if (order > 0) {
+			node.right = delete(node.right, from, to, value);
+		} else {
+			deleted = node.remove(value);
+			if (node.count > 0) {
+				return node;
+			}
+			if (node.left == null || node.right == null) {
+				return node.left != null ? node.left : node.right;
+			}
+			// replace by the first range of right subtree
+			Node successor = node.right;
+			while (successor.left != null) {
+				successor = successor.left;
+			}
+			node.right = removeFirst(node.right);
+			successor.left = node.left;
+			successor.right = node.right;
+			node = successor;
+		}
+		return balance(node);
+	}
+	
+	private Node removeFirst(Node node) {
+		if (node.left == null) {
+			return node.right;
+		}
+		node.left = removeFirst(node.left);
+		return balance(node);
+	}
+	
+	private static int compare(int from, int to, Node node) {
+		int order = Integer.compare(from, node.from);
+		return order != 0 ? order : Integer.compare(to, node.to);
+	}
+	
+	private static int height(Node node) {
+		return node == null ? 0 : node.height;
+	}
+	
+	private static Node balance(Node node) {
+		int difference = height(node.left) - height(node.right);
+		if (difference > 1) {
+			if (height(node.left.left) < height(node.left.right)) {
+				node.left = rotateLeft(node.left);
+			}
+			return rotateRight(node);
+		}
+		if (difference < -1) {
+			if (height(node.right.right) < height(node.right.left)) {
+				node.right = rotateRight(node.right);
+			}
+			return rotateLeft(node);
+		}
+		node.update();
+		return node;
+	}
+	
+	private static Node rotateRight(Node node) {
+		Node left = node.left;
+		node.left = left.right;
+		left.right = node;
+		node.update();
+		left.update();
+		return left;
+	}
+	
+	private static Node rotateLeft(Node node) {
+		Node right = node.right;
+		node.right = right.left;
+		right.left = node;
+		node.update();
+		right.update();
+		return right;
+	}
+	
+	/**
+	 * distinct range with its values
+	 */
+	private static final class Node extends IndexValues {
+		
+		final int from;
+		
+		final int to;
+		
+		/**
+		 * greatest range end in this subtree
+		 */
+		int maxTo;
+		
+		int height = 1;
+		
+		Node left;
+		
+		Node right;
+		
+		Node(int from, int to) {
+			this.from = from;
+			this.to = to;
+			this.maxTo = to;
+		}
+		
+		void update() {
+			height = 1 + Math.max(height(left), height(right));
+			maxTo = to;
+			if (left != null && left.maxTo > maxTo) {
+				maxTo = left.maxTo;
+			}
+			if (right != null && right.maxTo > maxTo) {
+				maxTo = right.maxTo;
+			}
+		}
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.index;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Set of values compared by identity, kept inline while it has a single value, since most keys of an index are only
+ * used by one alert. Base of index nodes.
+ * 
+ * @author alperenp
+ * 
+ */
+class IndexValues {
+	
+	/**
+	 * null, the single value, or identity set of values if there are more
+	 */
+	private Object values;
+	
+	/**
+	 * number of values
+	 */
+	int count;
+	
+	/**
+	 * @param value
+	 * @return false if value is already in this set
+	 */
+	@SuppressWarnings("unchecked")
+	boolean add(Object value) {
+		if (count == 0) {
+			values = value;
+		} else if (count == 1) {
+			if (values == value) {
+				return false;
+			}
+			Set<Object> set = Collections.newSetFromMap(new IdentityHashMap<>());
+			set.add(values);
+			set.add(value);
+			values = set;
+		} else if (!((Set<Object>) values).add(value)) {
+			return false;
+		}
+		count++;
+		return true;
+	}
+	
+	/**
+	 * @param value
+	 * @return false if value is not in this set
+	 */
+	@SuppressWarnings("unchecked")
+	boolean remove(Object value) {
+		if (count == 1) {
+			if (values != value) {
+				return false;
+			}
+			values = null;
+		} else if (count > 1) {
+			Set<Object> set = (Set<Object>) values;
+			if (!set.remove(value)) {
+				return false;
+			}
+			if (count == 2) {
+				values = set.iterator().next();
+			}
+		} else {
+			return false;
+		}
+		count--;
+		return true;
+	}
+	
+	@SuppressWarnings("unchecked")
+	<T> void forEach(Consumer<? super T> action) {
+		if (count == 1) {
+			action.accept((T) values);
+		} else if (count > 1) {
+			((Set<T>) values).forEach(action);
+		}
+	}
+}
@@ -110,4 +110,19 @@ public class Alert extends IDMEFMessage {
 	 * piece of data, or a large amount of data provided through an extension to the IDMEF
 	 */
 	private List<AdditionalData> additionalDatas;
+	
+	@Override
+	public void reset() {
+		super.reset();
+		messageid = null;
+		analyzer = null;
+		createTime = null;
+		classification = null;
+		detectTime = null;
+		analyzerTime = null;
+		sources = null;
+		targets = null;
+		assessment = null;
+		additionalDatas = null;
+	}
 }
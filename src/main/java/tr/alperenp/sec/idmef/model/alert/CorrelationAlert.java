@@ -50,4 +50,10 @@ public class CorrelationAlert extends Alert {
 	 */
 	private List<AlertIdent> alertidents;
 	
+	@Override
+	public void reset() {
+		super.reset();
+		name = null;
+		alertidents = null;
+	}
 }
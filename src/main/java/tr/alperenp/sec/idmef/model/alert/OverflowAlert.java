@@ -17,6 +17,8 @@
 package tr.alperenp.sec.idmef.model.alert;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
 import java.util.List;
 
 import lombok.Data;
@@ -51,5 +53,62 @@ public class OverflowAlert extends Alert {
 	/**
 	 * Zero or one. Some or all of the overflow data itself (dependent on how much the analyzer can capture).
 	 */
-	private List<Byte> buffer;
+	private byte[] bufferBytes;
+	
+	/**
+	 * @return read-only view of {@link #bufferBytes}, null if buffer is not set
+	 */
+	public ByteBuffer getBufferView() {
+		return bufferBytes == null ? null : ByteBuffer.wrap(bufferBytes).asReadOnlyBuffer();
+	}
+	
+	/**
+	 * Kept for compatibility, {@link #getBufferBytes()} should be preferred
+	 * 
+	 * @return unmodifiable view of {@link #bufferBytes}, null if buffer is not set
+	 */
+	public List<Byte> getBuffer() {
+		if (bufferBytes == null) {
+			return null;
+		}
+		byte[] bytes = bufferBytes;
+		return new AbstractList<Byte>() {
+			
+			@Override
+			public Byte get(int index) {
+				return bytes[index];
+			}
+			
+			@Override
+			public int size() {
+				return bytes.length;
+			}
+		};
+	}
+	
+	/**
+	 * Kept for compatibility, {@link #setBufferBytes(byte[])} should be preferred
+	 * 
+	 * @param buffer copied into {@link #bufferBytes}, null clears buffer
+	 */
+	public void setBuffer(List<Byte> buffer) {
+		if (buffer == null) {
+			bufferBytes = null;
+			return;
+		}
+		byte[] bytes = new byte[buffer.size()];
+		int i = 0;
+		for (Byte b : buffer) {
+			bytes[i++] = b;
+		}
+		bufferBytes = bytes;
+	}
+	
+	@Override
+	public void reset() {
+		super.reset();
+		program = null;
+		size = null;
+		bufferBytes = null;
+	}
 }
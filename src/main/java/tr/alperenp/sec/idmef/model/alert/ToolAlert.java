@@ -57,4 +57,13 @@ public class ToolAlert extends Alert {
 	 * is assumed to have come from the same analyzer that is sending the ToolAlert.
 	 */
 	private List<AlertIdent> alertidents;
+	
+	@Override
+	public void reset() {
+		super.reset();
+		analyzerid = null;
+		name = null;
+		command = null;
+		alertidents = null;
+	}
 }
@@ -16,9 +16,14 @@
 
 package tr.alperenp.sec.idmef.model.alert.support;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import tr.alperenp.sec.idmef.model.misc.IDMEFipAddress;
 import tr.alperenp.sec.idmef.model.misc.IenumIDMEF;
 
 /**
@@ -67,6 +72,75 @@ public class Address {
 	 */
 	String netmask;
 	
+	/**
+	 * binary form of address and netmask, parsed on first {@link #getIp()}
+	 */
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private transient IDMEFipAddress ip;
+	
+	/**
+	 * true if {@link #ip} is up to date, written after it
+	 */
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private transient volatile boolean ipParsed;
+	
+	public void setCategory(Category category) {
+		this.category = category;
+		this.ipParsed = false;
+	}
+	
+	public void setAddress(String address) {
+		this.address = address;
+		this.ipParsed = false;
+	}
+	
+	public void setNetmask(String netmask) {
+		this.netmask = netmask;
+		this.ipParsed = false;
+	}
+	
+	/**
+	 * Binary form of address and netmask for prefix matching and comparison without string work. It is parsed once
+	 * and cached until category, address or netmask changes.
+	 * 
+	 * @return null if category is not one of ipv4 or ipv6 categories, or address is not a valid IP address
+	 */
+	public IDMEFipAddress getIp() {
+		if (!ipParsed) {
+			IDMEFipAddress parsed = null;
+			if (address != null && category != null && category.isIP()) {
+				try {
+					parsed = IDMEFipAddress.parse(address, netmask);
+				} catch (IllegalArgumentException e) {
+					// not an IP address, e.g. invalid content
+				}
+			}
+			ip = parsed;
+			ipParsed = true;
+		}
+		return ip;
+	}
+	
+	/**
+	 * Clears all fields and cached {@link #getIp() ip} so that this instance can be reused
+	 */
+	public void reset() {
+		ident = null;
+		category = null;
+		vlan_name = null;
+		vlan_num = -1;
+		address = null;
+		netmask = null;
+		ip = null;
+		ipParsed = false;
+	}
+	
 	@AllArgsConstructor
 	public enum Category implements IenumIDMEF {
 		/**
@@ -208,5 +282,12 @@ public class Address {
 		
 		@Override
 		public abstract String getKeyword();
+		
+		/**
+		 * @return true for ipv4 and ipv6 categories
+		 */
+		public boolean isIP() {
+			return value >= IPV4ADDR.value;
+		}
 	}
 }
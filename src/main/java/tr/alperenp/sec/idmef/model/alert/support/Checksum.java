@@ -45,6 +45,15 @@ public class Checksum {
 	 */
 	private Algorithm algorithm;
 	
+	/**
+	 * Clears all fields so that this instance can be reused
+	 */
+	public void reset() {
+		value = null;
+		key = null;
+		algorithm = null;
+	}
+	
 	@AllArgsConstructor
 	public enum Algorithm implements IenumIDMEF {
 		/**
@@ -129,6 +129,27 @@ public class File {
 	 */
 	private List<Checksum> checksums;
 	
+	/**
+	 * Clears all fields so that this instance can be reused
+	 */
+	public void reset() {
+		ident = null;
+		category = null;
+		fstype = null;
+		file_type = null;
+		name = null;
+		path = null;
+		createTime = null;
+		modifyTime = null;
+		accessTime = null;
+		dataSize = null;
+		diskSize = null;
+		fileAccesses = null;
+		linkages = null;
+		inode = null;
+		checksums = null;
+	}
+	
 	@AllArgsConstructor
 	public enum Category implements IenumIDMEF {
 		/**
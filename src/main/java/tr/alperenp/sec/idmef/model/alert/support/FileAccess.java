@@ -53,6 +53,14 @@ public class FileAccess {
 	 * @author alperenp
 	 *
 	 */
+	/**
+	 * Clears all fields so that this instance can be reused
+	 */
+	public void reset() {
+		userId = null;
+		permissions = null;
+	}
+	
 	@AllArgsConstructor
 	public enum Permission implements IenumIDMEF {
 		/**
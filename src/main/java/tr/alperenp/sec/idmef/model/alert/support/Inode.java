@@ -56,4 +56,16 @@ public class Inode {
 	 * Zero or one. The minor device of the file itself, if it is a character special device.
 	 */
 	private int cMinorDevice;
+	
+	/**
+	 * Clears all fields, numbers back to 0, so that this instance can be reused
+	 */
+	public void reset() {
+		changeTime = null;
+		number = 0;
+		majorDevice = 0;
+		minorDevice = 0;
+		cMajorDevice = 0;
+		cMinorDevice = 0;
+	}
 }
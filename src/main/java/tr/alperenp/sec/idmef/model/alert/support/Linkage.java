@@ -54,6 +54,16 @@ public class Linkage {
 	 */
 	private Category category;
 	
+	/**
+	 * Clears all fields so that this instance can be reused
+	 */
+	public void reset() {
+		name = null;
+		path = null;
+		file = null;
+		category = null;
+	}
+	
 	@AllArgsConstructor
 	public enum Category implements IenumIDMEF {
 		/**
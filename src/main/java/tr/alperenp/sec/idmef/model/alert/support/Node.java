@@ -58,6 +58,17 @@ public class Node {
 	 */
 	private List<Address> addresses;
 	
+	/**
+	 * Clears all fields so that this instance can be reused
+	 */
+	public void reset() {
+		ident = null;
+		category = null;
+		location = null;
+		name = null;
+		addresses = null;
+	}
+	
 	@AllArgsConstructor
 	public enum Category implements IenumIDMEF {
 		/**
@@ -62,4 +62,16 @@ public class Process {
 	 * Multiple environment strings may be specified with multiple uses of env.
 	 */
 	List<String> envs;
+	
+	/**
+	 * Clears all fields, pid back to -1, so that this instance can be reused
+	 */
+	public void reset() {
+		ident = null;
+		name = null;
+		pid = -1;
+		path = null;
+		args = null;
+		envs = null;
+	}
 }
@@ -58,6 +58,16 @@ public class Reference {
 	 * Required. The source from which the name of the alert originates. The permitted values for this attribute are
 	 * shown below. The default value is "unknown".
 	 */
+	/**
+	 * Clears all fields, origin back to its default unknown, so that this instance can be reused
+	 */
+	public void reset() {
+		name = null;
+		url = null;
+		origin = Origin.UNKNOWN;
+		meaning = null;
+	}
+	
 	@AllArgsConstructor
 	public enum Origin implements IenumIDMEF {
 		/**
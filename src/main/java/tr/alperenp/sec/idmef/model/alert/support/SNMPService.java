@@ -81,4 +81,17 @@ public class SNMPService extends Service {
 	 * Zero or one. The command sent to the SNMP server (GET, SET, etc.).
 	 */
 	private String command;
+	
+	@Override
+	public void reset() {
+		super.reset();
+		oid = null;
+		messageProcessingModel = -1;
+		securityModel = 0;
+		securityName = null;
+		securityLevel = -1;
+		contextName = null;
+		contextEngineID = null;
+		command = null;
+	}
 }
@@ -16,11 +16,13 @@
 
 package tr.alperenp.sec.idmef.model.alert.support;
 
+import java.util.Collections;
 import java.util.List;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import tr.alperenp.sec.idmef.model.misc.IDMEFportRange;
+import tr.alperenp.sec.idmef.model.misc.IDMEFportSet;
 
 /**
  * The Service class describes network services on sources and targets. It can identify services by name, port, and
@@ -87,8 +89,10 @@ public class Service {
 	/**
 	 * Zero or one. A list of port numbers being used; see Section 3.2.8 for formatting rules. If a portlist is given,
 	 * the iana_protocol_number and iana_protocol_name MUST apply to all the elements of the list.
+	 * <p>
+	 * Kept as sorted, merged ranges; see {@link IDMEFportSet}
 	 */
-	private List<IDMEFportRange> portlist;
+	private IDMEFportSet portSet;
 	
 	/**
 	 * Zero or one. Additional information about the protocol being used. The intent of the protocol field is to carry
@@ -96,4 +100,36 @@ public class Service {
 	 * iana_protocol_number or/and iana_protocol_name are filed.
 	 */
 	private String protocol;
+	
+	/**
+	 * Unlike earlier versions, returned list is an unmodifiable view built from {@link #getPortSet() portSet}, not the
+	 * stored portlist: adding to it throws {@link UnsupportedOperationException}. Use {@link #setPortlist(List)} or
+	 * {@link #setPortSet(IDMEFportSet)} to change ports.
+	 * 
+	 * @return ranges of {@link #getPortSet() portSet} in ascending order, null if there is no portlist
+	 */
+	public List<IDMEFportRange> getPortlist() {
+		return portSet == null ? null : Collections.unmodifiableList(portSet.toList());
+	}
+	
+	/**
+	 * @param portlist ranges to be merged into {@link #getPortSet() portSet}, null to remove portlist
+	 */
+	public void setPortlist(List<IDMEFportRange> portlist) {
+		this.portSet = portlist == null ? null : IDMEFportSet.of(portlist);
+	}
+	
+	/**
+	 * Clears all fields, numbers back to -1, so that this instance can be reused
+	 */
+	public void reset() {
+		ident = null;
+		ip_version = -1;
+		iana_protocol_number = -1;
+		iana_protocol_name = null;
+		name = null;
+		port = -1;
+		portSet = null;
+		protocol = null;
+	}
 }
@@ -47,6 +47,15 @@ public class User {
 	 */
 	private List<UserId> userIds;
 	
+	/**
+	 * Clears all fields so that this instance can be reused
+	 */
+	public void reset() {
+		ident = null;
+		category = null;
+		userIds = null;
+	}
+	
 	@AllArgsConstructor
 	public enum Category implements IenumIDMEF {
 		/**
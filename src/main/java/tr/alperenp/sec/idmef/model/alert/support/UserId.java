@@ -59,6 +59,17 @@ public class UserId {
 	 */
 	private int number = -1;
 	
+	/**
+	 * Clears all fields, type back to its default original-user and number to -1, so that this instance can be reused
+	 */
+	public void reset() {
+		ident = null;
+		type = Type.ORIGINALUSER;
+		tty = null;
+		name = null;
+		number = -1;
+	}
+	
 	@AllArgsConstructor
 	public enum Type implements IenumIDMEF {
 		/**
@@ -54,4 +54,13 @@ public class WebService extends Service {
 	 * Zero or more. The arguments to the CGI script.
 	 */
 	List<String> args;
+	
+	@Override
+	public void reset() {
+		super.reset();
+		url = null;
+		cgi = null;
+		http_method = null;
+		args = null;
+	}
 }
@@ -46,6 +46,15 @@ public class Action {
 		category = Category.valueOf(categoryStr);
 	}
 	
+	/**
+	 * Action with given category
+	 * 
+	 * @param category
+	 */
+	public Action(Category category) {
+		this.category = category;
+	}
+	
 	/**
 	 * The element itself may be empty, or may contain a textual description of the action, if the analyzer is able to
 	 * provide additional details.
@@ -57,6 +66,14 @@ public class Action {
 	 */
 	Category category = Category.OTHER;
 	
+	/**
+	 * Clears description and sets category back to its default other, so that this instance can be reused
+	 */
+	public void reset() {
+		description = null;
+		category = Category.OTHER;
+	}
+	
 	@AllArgsConstructor
 	public enum Category implements IenumIDMEF {
 		/**
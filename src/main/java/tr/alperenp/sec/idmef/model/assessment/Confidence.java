@@ -34,12 +34,28 @@ public class Confidence {
 		rating = Rating.valueOf(ratingStr);
 	}
 	
+	/**
+	 * Confidence with given rating
+	 * 
+	 * @param rating
+	 */
+	public Confidence(Rating rating) {
+		this.rating = rating;
+	}
+	
 	/**
 	 * The analyzer's rating of its analytical validity. The permitted values are shown below. The default value is
 	 * "numeric".
 	 */
 	private Rating rating = Rating.NUMERIC;
 	
+	/**
+	 * Sets rating back to its default numeric so that this instance can be reused
+	 */
+	public void reset() {
+		rating = Rating.NUMERIC;
+	}
+	
 	@AllArgsConstructor
 	public enum Rating implements IenumIDMEF {
 		/**
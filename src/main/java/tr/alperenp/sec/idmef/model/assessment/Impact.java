@@ -51,6 +51,15 @@ public class Impact {
 	 */
 	Type type = Type.OTHER;
 	
+	/**
+	 * Clears all fields, type back to its default other, so that this instance can be reused
+	 */
+	public void reset() {
+		severity = null;
+		completion = null;
+		type = Type.OTHER;
+	}
+	
 	@AllArgsConstructor
 	public enum Severity implements IenumIDMEF {
 		/**
@@ -50,6 +50,15 @@ public class AdditionalData {
 	
 	Type dataType;
 	
+	/**
+	 * Clears all fields so that this instance can be reused
+	 */
+	public void reset() {
+		meaning = null;
+		values = null;
+		dataType = null;
+	}
+	
 	@AllArgsConstructor
 	public enum Type implements IenumIDMEF {
 		/**
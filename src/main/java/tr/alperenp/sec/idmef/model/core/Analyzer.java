@@ -16,6 +16,8 @@
 
 package tr.alperenp.sec.idmef.model.core;
 
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import tr.alperenp.sec.idmef.model.alert.support.Node;
@@ -33,6 +35,7 @@ import tr.alperenp.sec.idmef.model.alert.support.Process;
  */
 @Data
 @Builder
+@AllArgsConstructor(access = AccessLevel.PROTECTED)
 public class Analyzer {
 	
 	/**
@@ -100,4 +103,21 @@ public class Analyzer {
 	 * substitute the original analyzer
 	 */
 	private Analyzer analyzer;
+	
+	/**
+	 * Clears all fields so that this instance can be reused
+	 */
+	public void reset() {
+		analyzerid = null;
+		name = null;
+		manufacturer = null;
+		model = null;
+		version = null;
+		clazz = null;
+		ostype = null;
+		osversion = null;
+		node = null;
+		process = null;
+		analyzer = null;
+	}
 }
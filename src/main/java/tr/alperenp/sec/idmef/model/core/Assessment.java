@@ -46,4 +46,13 @@ public class Assessment {
 	 * Zero or one. A measurement of the confidence the analyzer has in its evaluation of the event.
 	 */
 	private Confidence confidence;
+	
+	/**
+	 * Clears all fields so that this instance can be reused
+	 */
+	public void reset() {
+		impact = null;
+		actions = null;
+		confidence = null;
+	}
 }
@@ -46,4 +46,13 @@ public class Classification {
 	 * background information about the alert.
 	 */
 	private List<Reference> references;
+	
+	/**
+	 * Clears all fields so that this instance can be reused
+	 */
+	public void reset() {
+		ident = null;
+		text = null;
+		references = null;
+	}
 }
@@ -73,6 +73,19 @@ public class Source {
 	 */
 	private Service service;
 	
+	/**
+	 * Clears all fields so that this instance can be reused
+	 */
+	public void reset() {
+		ident = null;
+		spoofed = null;
+		iface = null;
+		node = null;
+		user = null;
+		process = null;
+		service = null;
+	}
+	
 	@AllArgsConstructor
 	public enum Spoofed implements IenumIDMEF {
 		/**
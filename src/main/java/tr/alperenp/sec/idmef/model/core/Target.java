@@ -80,6 +80,20 @@ public class Target {
 	 */
 	private List<File> files;
 	
+	/**
+	 * Clears all fields so that this instance can be reused
+	 */
+	public void reset() {
+		ident = null;
+		decoy = null;
+		iface = null;
+		node = null;
+		user = null;
+		process = null;
+		service = null;
+		files = null;
+	}
+	
 	@AllArgsConstructor
 	public enum Decoy implements IenumIDMEF {
 		/**
@@ -76,4 +76,14 @@ public class Heartbeat extends IDMEFMessage {
 	 */
 	private List<AdditionalData> additionalDatas;
 	
+	@Override
+	public void reset() {
+		super.reset();
+		messageid = null;
+		analyzer = null;
+		createTime = null;
+		analyzerTime = null;
+		heartbeatInterval = -1;
+		additionalDatas = null;
+	}
 }
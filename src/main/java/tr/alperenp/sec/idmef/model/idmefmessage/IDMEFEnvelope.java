@@ -0,0 +1,46 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.model.idmefmessage;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * A single IDMEF-Message document carrying any number of Alerts and Heartbeats. The IDMEF DTD allows the IDMEF-Message
+ * element to contain one or more of them, so that a manager may receive a batch of messages in one document.
+ * <p>
+ * WARNING: This class is not part of RFC 4765 data model but used to represent the IDMEF-Message element of the DTD
+ * 
+ * @author alperenp
+ * 
+ */
+@Data
+public class IDMEFEnvelope {
+	
+	/**
+	 * The version of the IDMEF-Message specification the messages conform to. Applications specifying a value for this
+	 * attribute MUST specify the value "1.0".
+	 */
+	private String version = "1.0";
+	
+	/**
+	 * Alerts and Heartbeats in document order
+	 */
+	private List<IDMEFMessage> messages = new LinkedList<>();
+}
@@ -35,4 +35,11 @@ public abstract class IDMEFMessage {
 	 * attribute MUST specify the value "1.0".
 	 */
 	public String version = "1.0";
+	
+	/**
+	 * Clears all fields to their initial values so that this instance can be reused
+	 */
+	public void reset() {
+		version = "1.0";
+	}
 }
@@ -16,9 +16,13 @@
 
 package tr.alperenp.sec.idmef.model.misc;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 /**
  * Time class defined in Section 3.2.6 (Date-Time Strings).
@@ -34,6 +38,13 @@ public class IDMEFTime {
 	 */
 	long UTCtimeInMilis;
 	
+	/**
+	 * WARNING: this attribute does not exist in rfc documentation
+	 * <p>
+	 * Fraction of second finer than {@link #UTCtimeInMilis}, in nanoseconds between 0 and 999999
+	 */
+	int fractionNanos;
+	
 	/**
 	 * WARNING: this attribute does not exist in rfc documentation
 	 * <p>
@@ -66,6 +77,90 @@ public class IDMEFTime {
 	/**
 	 * 3.2.7 NTP timestamp is a 64-bit unsigned fixed-point number. The integer part is in the first 32 bits, and the
 	 * fraction part is in the last 32 bits.
+	 * <p>
+	 * Kept packed as in {@link NTPStamp#getValue()}, so that parsers set it without creating an {@link NTPStamp};
+	 * valid only if {@link #hasNtpstamp}
+	 */
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	@ToString.Exclude
+	long ntpstampValue;
+	
+	/**
+	 * true if time has an ntpstamp
+	 */
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	@ToString.Exclude
+	boolean hasNtpstamp;
+	
+	/**
+	 * {@link NTPStamp} of {@link #ntpstampValue}, created on first {@link #getNtpstamp()}
+	 */
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private transient NTPStamp ntpstamp;
+	
+	/**
+	 * @return ntpstamp of the time, null if it does not have one
+	 */
+	@ToString.Include(name = "ntpstamp")
+	public NTPStamp getNtpstamp() {
+		if (!hasNtpstamp) {
+			return null;
+		}
+		if (ntpstamp == null) {
+			ntpstamp = new NTPStamp(ntpstampValue);
+		}
+		return ntpstamp;
+	}
+	
+	/**
+	 * @param ntpstamp null to remove ntpstamp
+	 */
+	public void setNtpstamp(NTPStamp ntpstamp) {
+		this.ntpstamp = ntpstamp;
+		this.hasNtpstamp = ntpstamp != null;
+		this.ntpstampValue = ntpstamp == null ? 0L : ntpstamp.getValue();
+	}
+	
+	/**
+	 * @return packed ntpstamp as in {@link NTPStamp#getValue()}, 0 if time does not have one
+	 */
+	public long getNtpstampValue() {
+		return ntpstampValue;
+	}
+	
+	/**
+	 * sets ntpstamp without creating an {@link NTPStamp}
+	 * 
+	 * @param value packed ntpstamp as in {@link NTPStamp#getValue()}
 	 */
-	NTPStamp ntpstamp;
+	public void setNtpstampValue(long value) {
+		this.ntpstamp = null;
+		this.hasNtpstamp = true;
+		this.ntpstampValue = value;
+	}
+	
+	/**
+	 * @return true if time has an ntpstamp
+	 */
+	public boolean hasNtpstamp() {
+		return hasNtpstamp;
+	}
+	
+	/**
+	 * Clears all fields so that this instance can be reused
+	 */
+	public void reset() {
+		UTCtimeInMilis = 0L;
+		fractionNanos = 0;
+		operator = null;
+		adjustedTime = 0L;
+		ntpstampValue = 0L;
+		hasNtpstamp = false;
+		ntpstamp = null;
+	}
 }
@@ -0,0 +1,466 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.model.misc;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Binary form of the ipv4 and ipv6 categories of Address (Section 4.2.7.2.1), i.e. a host or network address with its
+ * network mask. Address and mask are kept as 128 bit values in two longs each; IPv4 uses the low 32 bits only.
+ * <p>
+ * Warning: This class does not part of original RFC 4765 documentation
+ * 
+ * @author alperenp
+ * 
+ */
+@EqualsAndHashCode
+public final class IDMEFipAddress implements Comparable<IDMEFipAddress> {
+	
+	private static final long IPV4_MASK = 0xFFFFFFFFL;
+	
+	@Getter private final boolean ipv6;
+	
+	/**
+	 * first 64 bits of IPv6 address, 0 for IPv4
+	 */
+	@Getter private final long high;
+	
+	/**
+	 * last 64 bits of IPv6 address, IPv4 address in the last 32 bits
+	 */
+	@Getter private final long low;
+	
+	private final long maskHigh;
+	
+	private final long maskLow;
+	
+	/**
+	 * canonical text, created on first {@link #toString()}
+	 */
+	@EqualsAndHashCode.Exclude private String text;
+	
+	private IDMEFipAddress(boolean ipv6, long high, long low, long maskHigh, long maskLow) {
+		this.ipv6 = ipv6;
+		this.high = high;
+		this.low = low;
+		this.maskHigh = maskHigh;
+		this.maskLow = maskLow;
+	}
+	
+	/**
+	 * @param address IPv4 address, e.g. 0xC0000201 for 192.0.2.1
+	 * @return host address
+	 */
+	public static IDMEFipAddress ofIPv4(int address) {
+		return new IDMEFipAddress(false, 0L, address & IPV4_MASK, 0L, IPV4_MASK);
+	}
+	
+	/**
+	 * @param high first 64 bits of IPv6 address
+	 * @param low last 64 bits of IPv6 address
+	 * @return host address
+	 */
+	public static IDMEFipAddress ofIPv6(long high, long low) {
+		return new IDMEFipAddress(true, high, low, -1L, -1L);
+	}
+	
+	/**
+	 * Parses address text of any ipv4 or ipv6 category: dotted-decimal IPv4, IPv6 (RFC 4291 text, with "::" and
+	 * embedded IPv4), hexadecimal with or without "0x" (8 digits for IPv4, 32 for IPv6), each optionally followed by
+	 * "/" and either significant bits or a network mask.
+	 * 
+	 * @param address content of address element
+	 * @param netmask content of netmask element, significant bits or a network mask; null if there is none. It is
+	 *            ignored if address has its own mask
+	 * @return
+	 * @throws IllegalArgumentException if address or netmask is not an IP address
+	 */
+	public static IDMEFipAddress parse(@NonNull CharSequence address, CharSequence netmask) {
+		int start = skipWhitespace(address, 0, address.length());
+		int end = trimWhitespace(address, start, address.length());
+		int slash = indexOf(address, '/', start, end);
+		IDMEFipAddress host = parseHost(address, start, slash < 0 ? end : slash);
+		if (slash >= 0) {
+			return host.withMask(address, slash + 1, end);
+		}
+		if (netmask != null) {
+			int maskStart = skipWhitespace(netmask, 0, netmask.length());
+			return host.withMask(netmask, maskStart, trimWhitespace(netmask, maskStart, netmask.length()));
+		}
+		return host;
+	}
+	
+	/**
+	 * @param address
+	 * @return
+	 * @throws IllegalArgumentException if address is not an IP address
+	 * @see #parse(CharSequence, CharSequence)
+	 */
+	public static IDMEFipAddress parse(@NonNull CharSequence address) {
+		return parse(address, null);
+	}
+	
+	/**
+	 * @param prefixLength significant bits, 0 to 32 for IPv4 and 0 to 128 for IPv6
+	 * @return network address with same address bits and given prefix length
+	 * @throws IllegalArgumentException if prefixLength is out of range
+	 */
+	public IDMEFipAddress withPrefixLength(int prefixLength) {
+		if (prefixLength < 0 || prefixLength > getBitLength()) {
+			throw new IllegalArgumentException("invalid prefix length: " + prefixLength);
+		}
+		if (!ipv6) {
+			long mask = prefixLength == 0 ? 0L : (IPV4_MASK << (32 - prefixLength)) & IPV4_MASK;
+			return new IDMEFipAddress(false, 0L, low, 0L, mask);
+		}
+		long newMaskHigh = prefixLength == 0 ? 0L : prefixLength >= 64 ? -1L : -1L << (64 - prefixLength);
+		long newMaskLow = prefixLength <= 64 ? 0L : prefixLength == 128 ? -1L : -1L << (128 - prefixLength);
+		return new IDMEFipAddress(true, high, low, newMaskHigh, newMaskLow);
+	}
+	
+	/**
+	 * @return 32 for IPv4, 128 for IPv6
+	 */
+	public int getBitLength() {
+		return ipv6 ? 128 : 32;
+	}
+	
+	/**
+	 * @return number of leading one bits of network mask, -1 if mask is not contiguous, e.g. 255.0.255.0
+	 */
+	public int getPrefixLength() {
+		if (!ipv6) {
+			return isContiguous(maskLow | ~IPV4_MASK) ? Long.bitCount(maskLow) : -1;
+		}
+		if (!isContiguous(maskHigh) || !isContiguous(maskLow) || (maskHigh != -1L && maskLow != 0L)) {
+			return -1;
+		}
+		return Long.bitCount(maskHigh) + Long.bitCount(maskLow);
+	}
+	
+	/**
+	 * @return true if all bits are significant, i.e. a single host
+	 */
+	public boolean isHost() {
+		return maskLow == (ipv6 ? -1L : IPV4_MASK) && maskHigh == (ipv6 ? -1L : 0L);
+	}
+	
+	/**
+	 * @return network part of this address, i.e. address bits under the mask with the same mask
+	 */
+	public IDMEFipAddress getNetwork() {
+		return new IDMEFipAddress(ipv6, high & maskHigh, low & maskLow, maskHigh, maskLow);
+	}
+	
+	/**
+	 * Prefix matching, e.g. 10.0.0.0/8 contains 10.1.2.3 and 10.1.0.0/16 but not 11.0.0.1 or 0.0.0.0/0
+	 * 
+	 * @param other host or network address
+	 * @return true if other is of the same IP version and all addresses of other are in this network
+	 */
+	public boolean contains(@NonNull IDMEFipAddress other) {
+		return ipv6 == other.ipv6
+				&& (other.maskHigh & maskHigh) == maskHigh && (other.maskLow & maskLow) == maskLow
+				&& ((other.high ^ high) & maskHigh) == 0L && ((other.low ^ low) & maskLow) == 0L;
+	}
+	
+	/**
+	 * @return address in network byte order, 4 bytes for IPv4 and 16 bytes for IPv6
+	 */
+	public byte[] getAddressBytes() {
+		byte[] bytes = new byte[ipv6 ? 16 : 4];
+		for (int i = 0; i < bytes.length; i++) {
+			int shift = 8 * (bytes.length - 1 - i);
+			bytes[i] = (byte) (shift >= 64 ? high >>> (shift - 64) : low >>> shift);
+		}
+		return bytes;
+	}
+	
+	/**
+	 * Orders IPv4 before IPv6, then by address and mask as unsigned numbers
+	 */
+	@Override
+	public int compareTo(IDMEFipAddress other) {
+		int result = Boolean.compare(ipv6, other.ipv6);
+		if (result == 0) {
+			result = Long.compareUnsigned(high, other.high);
+		}
+		if (result == 0) {
+			result = Long.compareUnsigned(low, other.low);
+		}
+		if (result == 0) {
+			result = Long.compareUnsigned(maskHigh, other.maskHigh);
+		}
+		if (result == 0) {
+			result = Long.compareUnsigned(maskLow, other.maskLow);
+		}
+		return result;
+	}
+	
+	/**
+	 * @return canonical text: dotted-decimal IPv4 or RFC 5952 IPv6, followed by "/" and significant bits (or network
+	 *         mask if it is not contiguous) unless this is a host address
+	 */
+	@Override
+	public String toString() {
+		String result = text;
+		if (result == null) {
+			StringBuilder builder = new StringBuilder(ipv6 ? 43 : 18);
+			appendAddress(builder, high, low);
+			if (!isHost()) {
+				int prefixLength = getPrefixLength();
+				builder.append('/');
+				if (prefixLength >= 0) {
+					builder.append(prefixLength);
+				} else {
+					appendAddress(builder, maskHigh, maskLow);
+				}
+			}
+			result = builder.toString();
+			text = result;
+		}
+		return result;
+	}
+	
+	private IDMEFipAddress withMask(CharSequence mask, int start, int end) {
+		if (start < end && indexOf(mask, '.', start, end) < 0 && indexOf(mask, ':', start, end) < 0
+				&& (end - start <= 3)) {
+			return withPrefixLength(parseDecimal(mask, start, end, getBitLength()));
+		}
+		IDMEFipAddress parsed = parseHost(mask, start, end);
+		if (parsed.ipv6 != ipv6) {
+			throw new IllegalArgumentException("network mask does not match address version: " + mask);
+		}
+		return new IDMEFipAddress(ipv6, high, low, parsed.high, parsed.low);
+	}
+	
+	private void appendAddress(StringBuilder builder, long bitsHigh, long bitsLow) {
+		if (!ipv6) {
+			for (int shift = 24; shift >= 0; shift -= 8) {
+				builder.append((bitsLow >>> shift) & 0xFF);
+				if (shift > 0) {
+					builder.append('.');
+				}
+			}
+			return;
+		}
+		int[] groups = new int[8];
+		for (int i = 0; i < 8; i++) {
+			groups[i] = (int) ((i < 4 ? bitsHigh >>> (48 - 16 * i) : bitsLow >>> (112 - 16 * i)) & 0xFFFF);
+		}
+		// longest run of at least two zero groups is written as "::"
+		int zerosStart = -1;
+		int zerosLength = 1;
+		for (int i = 0; i < 8;) {
+			int j = i;
+			while (j < 8 && groups[j] == 0) {
+				j++;
+			}
+			if (j - i > zerosLength) {
+				zerosStart = i;
+				zerosLength = j - i;
+			}
+			i = j == i ? i + 1 : j;
+		}
+		for (int i = 0; i < 8; i++) {
+			if (i == zerosStart) {
+				builder.append("::");
+				i += zerosLength - 1;
+				continue;
+			}
+			if (i > 0 && i != zerosStart + zerosLength) {
+				builder.append(':');
+			}
+			builder.append(Integer.toHexString(groups[i]));
+		}
+	}
+	
+	private static IDMEFipAddress parseHost(CharSequence text, int start, int end) {
+		if (start == end) {
+			throw new IllegalArgumentException("empty IP address: " + text);
+		}
+		if (indexOf(text, ':', start, end) >= 0) {
+			return parseIPv6(text, start, end);
+		}
+		if (indexOf(text, '.', start, end) >= 0) {
+			return ofIPv4(parseIPv4(text, start, end));
+		}
+		if (end - start > 2 && text.charAt(start) == '0' && (text.charAt(start + 1) | 0x20) == 'x') {
+			start += 2;
+		}
+		if (end - start == 8) {
+			return ofIPv4((int) parseHex(text, start, end));
+		}
+		if (end - start == 32) {
+			return ofIPv6(parseHex(text, start, start + 16), parseHex(text, start + 16, end));
+		}
+		throw new IllegalArgumentException("invalid IP address: " + text);
+	}
+	
+	private static int parseIPv4(CharSequence text, int start, int end) {
+		int result = 0;
+		int pos = start;
+		for (int i = 0; i < 4; i++) {
+			int dot = i < 3 ? indexOf(text, '.', pos, end) : end;
+			if (dot < 0 || dot - pos > 3) {
+				throw new IllegalArgumentException("invalid IPv4 address: " + text);
+			}
+			result = result << 8 | parseDecimal(text, pos, dot, 255);
+			pos = dot + 1;
+		}
+		return result;
+	}
+	
+	private static IDMEFipAddress parseIPv6(CharSequence text, int start, int end) {
+		int[] groups = new int[8];
+		int count = 0;
+		int compressAt = -1;
+		int pos = start;
+		if (end - pos >= 2 && text.charAt(pos) == ':' && text.charAt(pos + 1) == ':') {
+			compressAt = 0;
+			pos += 2;
+		}
+		while (pos < end) {
+			int digitsEnd = pos;
+			while (digitsEnd < end && hexValue(text.charAt(digitsEnd)) >= 0) {
+				digitsEnd++;
+			}
+			if (digitsEnd < end && text.charAt(digitsEnd) == '.') {
+				// embedded IPv4 in last 32 bits
+				if (count > 6) {
+					throw new IllegalArgumentException("invalid IPv6 address: " + text);
+				}
+				int ipv4 = parseIPv4(text, pos, end);
+				groups[count++] = ipv4 >>> 16;
+				groups[count++] = ipv4 & 0xFFFF;
+				break;
+			}
+			if (digitsEnd == pos || digitsEnd - pos > 4 || count == 8) {
+				throw new IllegalArgumentException("invalid IPv6 address: " + text);
+			}
+			groups[count++] = (int) parseHex(text, pos, digitsEnd);
+			pos = digitsEnd;
+			if (pos == end) {
+				break;
+			}
+			if (text.charAt(pos) != ':' || pos + 1 == end) {
+				throw new IllegalArgumentException("invalid IPv6 address: " + text);
+			}
+			pos++;
+			if (text.charAt(pos) == ':') {
+				if (compressAt >= 0) {
+					throw new IllegalArgumentException("invalid IPv6 address: " + text);
+				}
+				compressAt = count;
+				pos++;
+			}
+		}
+		if (compressAt < 0 ? count != 8 : count > 7) {
+			throw new IllegalArgumentException("invalid IPv6 address: " + text);
+		}
+		if (compressAt >= 0) {
+			int moved = count - compressAt;
+			System.arraycopy(groups, compressAt, groups, 8 - moved, moved);
+			for (int i = compressAt; i < 8 - moved; i++) {
+				groups[i] = 0;
+			}
+		}
+		long high = 0L;
+		long low = 0L;
+		for (int i = 0; i < 4; i++) {
+			high = high << 16 | groups[i];
+			low = low << 16 | groups[i + 4];
+		}
+		return ofIPv6(high, low);
+	}
+	
+	private static int parseDecimal(CharSequence text, int start, int end, int max) {
+		if (start == end) {
+			throw new IllegalArgumentException("number expected: " + text);
+		}
+		int result = 0;
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (c < '0' || c > '9') {
+				throw new IllegalArgumentException("invalid number: " + text);
+			}
+			result = result * 10 + c - '0';
+		}
+		if (result > max) {
+			throw new IllegalArgumentException("number out of range: " + text);
+		}
+		return result;
+	}
+	
+	private static long parseHex(CharSequence text, int start, int end) {
+		long result = 0L;
+		for (int i = start; i < end; i++) {
+			int digit = hexValue(text.charAt(i));
+			if (digit < 0) {
+				throw new IllegalArgumentException("invalid hex digit: " + text);
+			}
+			result = result << 4 | digit;
+		}
+		return result;
+	}
+	
+	private static int hexValue(char c) {
+		if (c >= '0' && c <= '9') {
+			return c - '0';
+		}
+		if (c >= 'a' && c <= 'f') {
+			return c - 'a' + 10;
+		}
+		if (c >= 'A' && c <= 'F') {
+			return c - 'A' + 10;
+		}
+		return -1;
+	}
+	
+	/**
+	 * @return true if bits are ones followed by zeros
+	 */
+	private static boolean isContiguous(long mask) {
+		long inverse = ~mask;
+		return (inverse & (inverse + 1)) == 0L;
+	}
+	
+	private static int indexOf(CharSequence text, char c, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (text.charAt(i) == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	private static int skipWhitespace(CharSequence text, int start, int end) {
+		while (start < end && text.charAt(start) <= ' ') {
+			start++;
+		}
+		return start;
+	}
+	
+	private static int trimWhitespace(CharSequence text, int start, int end) {
+		while (end > start && text.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		return end;
+	}
+}
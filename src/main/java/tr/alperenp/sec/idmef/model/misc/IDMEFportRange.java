@@ -17,6 +17,7 @@
 package tr.alperenp.sec.idmef.model.misc;
 
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 
 /**
  * This class is created to represent port ranges defined in RFC 4765 (IDMEF)
@@ -27,6 +28,7 @@ import lombok.EqualsAndHashCode;
  *
  */
 @EqualsAndHashCode
+@Getter
 public class IDMEFportRange {
 	
 	/**
@@ -0,0 +1,362 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.model.misc;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+
+/**
+ * Immutable set of port numbers, e.g. portlist of Service (Section 3.2.8). Ports are kept as a sorted array of
+ * disjoint ranges, overlapping and adjacent ranges are merged while building, so that membership is a binary search
+ * and two sets are equal if they contain the same ports.
+ * <p>
+ * Warning: This class does not part of original RFC 4765 documentation
+ * 
+ * @author alperenp
+ * 
+ */
+@EqualsAndHashCode
+public final class IDMEFportSet implements Iterable<IDMEFportRange> {
+	
+	public static final int MAX_PORT = 65535;
+	
+	public static final IDMEFportSet EMPTY = new IDMEFportSet(new int[0]);
+	
+	/**
+	 * inclusive bounds of ranges in ascending order, i-th range starts at 2i and ends at 2i+1
+	 */
+	private final int[] bounds;
+	
+	private IDMEFportSet(int[] bounds) {
+		this.bounds = bounds;
+	}
+	
+	/**
+	 * Parses portlist text defined in Section 3.2.8, e.g. "5-25,37,42,43,53,69-119,123-514". Whitespace around
+	 * numbers is ignored. As in earlier versions, ranges whose start is greater than their end are skipped.
+	 * 
+	 * @param text
+	 * @return
+	 * @throws IllegalArgumentException if text is not a portlist or a port is greater than {@link #MAX_PORT}
+	 */
+	public static IDMEFportSet parse(@NonNull CharSequence text) {
+		Builder builder = new Builder();
+		int length = text.length();
+		int pos = skipWhitespace(text, 0);
+		if (pos == length) {
+			return EMPTY;
+		}
+		while (true) {
+			int start = readPort(text, pos);
+			pos = skipWhitespace(text, skipDigits(text, pos));
+			int end = start;
+			if (pos < length && text.charAt(pos) == '-') {
+				pos = skipWhitespace(text, pos + 1);
+				end = readPort(text, pos);
+				pos = skipWhitespace(text, skipDigits(text, pos));
+			}
+			if (start <= end) {
+				builder.add(start, end);
+			}
+			if (pos == length) {
+				return builder.build();
+			}
+			if (text.charAt(pos) != ',') {
+				throw new IllegalArgumentException("invalid portlist at index " + pos + ": " + text);
+			}
+			pos = skipWhitespace(text, pos + 1);
+		}
+	}
+	
+	/**
+	 * @param ranges
+	 * @return set of all ports of given ranges
+	 */
+	public static IDMEFportSet of(@NonNull Collection<IDMEFportRange> ranges) {
+		Builder builder = new Builder();
+		for (IDMEFportRange range : ranges) {
+			builder.add(range.getMin(), range.getMax());
+		}
+		return builder.build();
+	}
+	
+	/**
+	 * @param ports
+	 * @return set of given ports
+	 */
+	public static IDMEFportSet of(@NonNull int... ports) {
+		Builder builder = new Builder();
+		for (int port : ports) {
+			builder.add(port);
+		}
+		return builder.build();
+	}
+	
+	public static Builder builder() {
+		return new Builder();
+	}
+	
+	/**
+	 * @param port
+	 * @return true if port is in this set
+	 */
+	public boolean contains(int port) {
+		int index = indexOfRange(port);
+		return index >= 0 && port <= bounds[2 * index + 1];
+	}
+	
+	/**
+	 * @param from first port, inclusive
+	 * @param to last port, inclusive
+	 * @return true if any port between from and to is in this set
+	 */
+	public boolean intersects(int from, int to) {
+		if (from > to) {
+			return false;
+		}
+		// last range starting at or before to
+		int index = indexOfRange(to);
+		return index >= 0 && bounds[2 * index + 1] >= from;
+	}
+	
+	/**
+	 * @param other
+	 * @return true if a port is in both sets
+	 */
+	public boolean intersects(@NonNull IDMEFportSet other) {
+		int i = 0;
+		int j = 0;
+		while (i < bounds.length && j < other.bounds.length) {
+			if (bounds[i + 1] < other.bounds[j]) {
+				i += 2;
+			} else if (other.bounds[j + 1] < bounds[i]) {
+				j += 2;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	public boolean isEmpty() {
+		return bounds.length == 0;
+	}
+	
+	/**
+	 * @return number of ports in this set
+	 */
+	public int size() {
+		int size = 0;
+		for (int i = 0; i < bounds.length; i += 2) {
+			size += bounds[i + 1] - bounds[i] + 1;
+		}
+		return size;
+	}
+	
+	/**
+	 * @return number of disjoint ranges in this set
+	 */
+	public int getRangeCount() {
+		return bounds.length / 2;
+	}
+	
+	/**
+	 * @return all ports of this set in ascending order
+	 */
+	public IntStream ports() {
+		return IntStream.range(0, bounds.length / 2)
+				.flatMap(i -> IntStream.rangeClosed(bounds[2 * i], bounds[2 * i + 1]));
+	}
+	
+	/**
+	 * iterates disjoint ranges of this set in ascending order
+	 */
+	@Override
+	public Iterator<IDMEFportRange> iterator() {
+		return new Iterator<IDMEFportRange>() {
+			
+			private int index;
+			
+			@Override
+			public boolean hasNext() {
+				return index < bounds.length;
+			}
+			
+			@Override
+			public IDMEFportRange next() {
+				if (index == bounds.length) {
+					throw new NoSuchElementException();
+				}
+				int start = bounds[index];
+				int end = bounds[index + 1];
+				index += 2;
+				return start == end ? new IDMEFportRange(start) : new IDMEFportRange(start, end);
+			}
+		};
+	}
+	
+	/**
+	 * @return disjoint ranges of this set in ascending order
+	 */
+	public List<IDMEFportRange> toList() {
+		List<IDMEFportRange> list = new LinkedList<>();
+		for (IDMEFportRange range : this) {
+			list.add(range);
+		}
+		return list;
+	}
+	
+	/**
+	 * @return portlist text defined in Section 3.2.8. Two adjacent ports are written one by one, longer runs as a
+	 *         range
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(bounds.length * 4);
+		for (int i = 0; i < bounds.length; i += 2) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append(bounds[i]);
+			if (bounds[i + 1] == bounds[i] + 1) {
+				builder.append(',').append(bounds[i + 1]);
+			} else if (bounds[i + 1] != bounds[i]) {
+				builder.append('-').append(bounds[i + 1]);
+			}
+		}
+		return builder.toString();
+	}
+	
+	/**
+	 * @return index of the last range starting at or before port, -1 if none
+	 */
+	private int indexOfRange(int port) {
+		int low = 0;
+		int high = bounds.length / 2 - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (bounds[2 * mid] <= port) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return high;
+	}
+	
+	private static int skipWhitespace(CharSequence text, int pos) {
+		while (pos < text.length() && text.charAt(pos) <= ' ') {
+			pos++;
+		}
+		return pos;
+	}
+	
+	private static int skipDigits(CharSequence text, int pos) {
+		while (pos < text.length() && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+			pos++;
+		}
+		return pos;
+	}
+	
+	private static int readPort(CharSequence text, int pos) {
+		int end = skipDigits(text, pos);
+		if (end == pos) {
+			throw new IllegalArgumentException("port number expected at index " + pos + ": " + text);
+		}
+		int port = 0;
+		for (int i = pos; i < end; i++) {
+			port = port * 10 + text.charAt(i) - '0';
+			if (port > MAX_PORT) {
+				throw new IllegalArgumentException("port number out of range at index " + pos + ": " + text);
+			}
+		}
+		return port;
+	}
+	
+	/**
+	 * Collects ports and ranges in any order, {@link #build()} sorts and merges them
+	 */
+	public static final class Builder {
+		
+		/**
+		 * ranges packed as start in the high and end in the low 32 bits, so that sorting orders them by start
+		 */
+		private long[] ranges = new long[8];
+		
+		private int count;
+		
+		private Builder() {
+		}
+		
+		/**
+		 * @param port
+		 * @return this builder
+		 * @throws IllegalArgumentException if port is not between 0 and {@link IDMEFportSet#MAX_PORT}
+		 */
+		public Builder add(int port) {
+			return add(port, port);
+		}
+		
+		/**
+		 * @param from first port, inclusive
+		 * @param to last port, inclusive
+		 * @return this builder
+		 * @throws IllegalArgumentException if ports are not between 0 and {@link IDMEFportSet#MAX_PORT} or from is
+		 *             greater than to
+		 */
+		public Builder add(int from, int to) {
+			if (from < 0 || to > MAX_PORT || from > to) {
+				throw new IllegalArgumentException("invalid port range: " + from + "-" + to);
+			}
+			if (count == ranges.length) {
+				ranges = Arrays.copyOf(ranges, count * 2);
+			}
+			ranges[count++] = (long) from << 32 | to;
+			return this;
+		}
+		
+		public IDMEFportSet build() {
+			if (count == 0) {
+				return EMPTY;
+			}
+			long[] sorted = Arrays.copyOf(ranges, count);
+			Arrays.sort(sorted);
+			int[] bounds = new int[count * 2];
+			int length = 0;
+			for (long range : sorted) {
+				int from = (int) (range >>> 32);
+				int to = (int) range;
+				if (length > 0 && from <= bounds[length - 1] + 1) {
+					// overlapping or adjacent
+					bounds[length - 1] = Math.max(bounds[length - 1], to);
+				} else {
+					bounds[length++] = from;
+					bounds[length++] = to;
+				}
+			}
+			return new IDMEFportSet(length == bounds.length ? bounds : Arrays.copyOf(bounds, length));
+		}
+	}
+}
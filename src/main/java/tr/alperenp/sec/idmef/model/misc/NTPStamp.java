@@ -18,31 +18,227 @@ package tr.alperenp.sec.idmef.model.misc;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.NonNull;
 
 /**
  * 3.2.7 NTP timestamp is a 64-bit unsigned fixed-point number. The integer part is in the first 32 bits, and the
  * fraction part is in the last 32 bits.
+ * <p>
+ * Timestamp is kept as a single packed long, compared as unsigned. Seconds are counted from 1900-01-01T00:00:00Z
+ * (NTP era 0, until 2036-02-07T06:28:16Z).
  * 
  * @author alperenp
  */
 @EqualsAndHashCode
-public class NTPStamp {
-	@Getter String ntpstamp;
+public class NTPStamp implements Comparable<NTPStamp> {
 	
-	public NTPStamp(String stamp) {
-		String[] values = stamp.split("\\.");
-		if (validate32bitHex(values[0]) && validate32bitHex(values[1]) && values.length == 2) {
-			this.ntpstamp = stamp;
+	/**
+	 * length of text form, e.g. 0xbc722ebe.0x00000000
+	 */
+	public static final int LENGTH = 21;
+	
+	/**
+	 * seconds from 1900-01-01T00:00:00Z to 1970-01-01T00:00:00Z
+	 */
+	private static final long EPOCH_OFFSET_SECONDS = 2208988800L;
+	
+	private static final long FRACTION_MASK = 0xFFFFFFFFL;
+	
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	
+	/**
+	 * seconds in the first 32 bits, fraction of second in the last 32 bits, unsigned
+	 */
+	@Getter private final long value;
+	
+	/**
+	 * @param value packed timestamp, seconds in the first 32 bits and fraction in the last 32 bits
+	 */
+	public NTPStamp(long value) {
+		this.value = value;
+	}
+	
+	/**
+	 * @param stamp text form, e.g. 0xbc722ebe.0x00000000
+	 * @throws IllegalArgumentException if stamp is not two 32 bit hex numbers separated by '.'
+	 */
+	public NTPStamp(@NonNull String stamp) {
+		this.value = parseValue(stamp, 0, stamp.length());
+	}
+	
+	/**
+	 * @param seconds seconds since 1900-01-01T00:00:00Z, unsigned 32 bits
+	 * @param fraction fraction of second in units of 2^-32 seconds, unsigned 32 bits
+	 * @return
+	 */
+	public static NTPStamp of(long seconds, long fraction) {
+		return new NTPStamp((seconds & FRACTION_MASK) << 32 | (fraction & FRACTION_MASK));
+	}
+	
+	/**
+	 * @param epochMilis milliseconds since 1970-01-01T00:00:00Z
+	 * @return timestamp which converts back to the same milliseconds
+	 */
+	public static NTPStamp ofEpochMilis(long epochMilis) {
+		return ofEpochNanos(Math.floorDiv(epochMilis, 1000L), (int) Math.floorMod(epochMilis, 1000L) * 1000000);
+	}
+	
+	/**
+	 * @param epochSeconds seconds since 1970-01-01T00:00:00Z
+	 * @param nanos nanoseconds of the second, 0 to 999999999
+	 * @return timestamp which converts back to the same nanoseconds
+	 */
+	public static NTPStamp ofEpochNanos(long epochSeconds, int nanos) {
+		// rounded up, so that truncation in getNanos gives nanos back
+		long fraction = (((long) nanos << 32) + 999999999L) / 1000000000L;
+		return of(epochSeconds + EPOCH_OFFSET_SECONDS, fraction);
+	}
+	
+	/**
+	 * Creates timestamp of the instant given by time, taking its offset from UTC and fraction of second into account
+	 * 
+	 * @param time
+	 * @return
+	 */
+	public static NTPStamp of(@NonNull IDMEFTime time) {
+		long utcMilis = time.getUTCtimeInMilis();
+		if (time.getOperator() == IDMEFTime.Operator.MINUS) {
+			utcMilis += time.getAdjustedTime();
+		} else {
+			utcMilis -= time.getAdjustedTime();
 		}
+		int nanos = (int) Math.floorMod(utcMilis, 1000L) * 1000000 + time.getFractionNanos();
+		return ofEpochNanos(Math.floorDiv(utcMilis, 1000L), nanos);
+	}
+	
+	/**
+	 * @return seconds since 1900-01-01T00:00:00Z
+	 */
+	public long getSeconds() {
+		return value >>> 32;
+	}
+	
+	/**
+	 * @return fraction of second in units of 2^-32 seconds
+	 */
+	public long getFraction() {
+		return value & FRACTION_MASK;
+	}
+	
+	/**
+	 * @return seconds since 1970-01-01T00:00:00Z
+	 */
+	public long toEpochSeconds() {
+		return getSeconds() - EPOCH_OFFSET_SECONDS;
 	}
 	
-	private boolean validate32bitHex(String hexString) {
-		// escape "0x" and convert hex into number
-		Long.parseLong(hexString.substring(2), 16);
-		if (hexString.length() == 10) {
-			return true;
+	/**
+	 * @return nanoseconds of the second, truncated
+	 */
+	public int getNanos() {
+		return (int) ((getFraction() * 1000000000L) >>> 32);
+	}
+	
+	/**
+	 * @return milliseconds since 1970-01-01T00:00:00Z, truncated
+	 */
+	public long toEpochMilis() {
+		return toEpochSeconds() * 1000L + getNanos() / 1000000;
+	}
+	
+	/**
+	 * Creates UTC time of this timestamp, with this timestamp as ntpstamp
+	 * 
+	 * @return
+	 */
+	public IDMEFTime toIDMEFTime() {
+		IDMEFTime time = new IDMEFTime();
+		int nanos = getNanos();
+		time.setUTCtimeInMilis(toEpochSeconds() * 1000L + nanos / 1000000);
+		time.setFractionNanos(nanos % 1000000);
+		time.setNtpstamp(this);
+		return time;
+	}
+	
+	/**
+	 * @return text form, e.g. 0xbc722ebe.0x00000000
+	 */
+	public String getNtpstamp() {
+		char[] chars = new char[LENGTH];
+		format(value, chars, 0);
+		return new String(chars);
+	}
+	
+	@Override
+	public int compareTo(NTPStamp other) {
+		return Long.compareUnsigned(value, other.value);
+	}
+	
+	@Override
+	public String toString() {
+		return getNtpstamp();
+	}
+	
+	/**
+	 * parses text form of a timestamp between start (inclusive) and end (exclusive) without creating any object
+	 * 
+	 * @param text
+	 * @param start
+	 * @param end
+	 * @return packed timestamp
+	 * @throws IllegalArgumentException if range is not two 32 bit hex numbers separated by '.', e.g.
+	 *             0xbc722ebe.0x00000000
+	 */
+	public static long parseValue(@NonNull CharSequence text, int start, int end) {
+		if (end - start != LENGTH || text.charAt(start + 10) != '.') {
+			throw new IllegalArgumentException("invalid ntpstamp: " + text.subSequence(start, end));
+		}
+		return parseHex32(text, start) << 32 | parseHex32(text, start + 11);
+	}
+	
+	/**
+	 * writes text form of given packed timestamp, {@link #LENGTH} chars
+	 * 
+	 * @param value
+	 * @param chars
+	 * @param offset
+	 * @return offset after the last written char
+	 */
+	public static int format(long value, @NonNull char[] chars, int offset) {
+		int pos = writeHex32(value >>> 32, chars, offset);
+		chars[pos++] = '.';
+		return writeHex32(value, chars, pos);
+	}
+	
+	private static long parseHex32(CharSequence text, int start) {
+		char x = text.charAt(start + 1);
+		if (text.charAt(start) != '0' || (x != 'x' && x != 'X')) {
+			throw new IllegalArgumentException("invalid ntpstamp: " + text);
+		}
+		long result = 0;
+		for (int i = start + 2; i < start + 10; i++) {
+			char c = text.charAt(i);
+			int digit;
+			if (c >= '0' && c <= '9') {
+				digit = c - '0';
+			} else if (c >= 'a' && c <= 'f') {
+				digit = c - 'a' + 10;
+			} else if (c >= 'A' && c <= 'F') {
+				digit = c - 'A' + 10;
+			} else {
+				throw new IllegalArgumentException("invalid ntpstamp: " + text);
+			}
+			result = result << 4 | digit;
 		}
-		return false;
+		return result;
 	}
 	
+	private static int writeHex32(long value, char[] chars, int offset) {
+		chars[offset] = '0';
+		chars[offset + 1] = 'x';
+		for (int i = 0; i < 8; i++) {
+			chars[offset + 9 - i] = HEX_DIGITS[(int) (value >>> (4 * i)) & 0xF];
+		}
+		return offset + 10;
+	}
 }
@@ -20,13 +20,13 @@ import java.math.BigInteger;
 import java.text.ParseException;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Properties;
 
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import lombok.NonNull;
 import tr.alperenp.sec.idmef.model.alert.Alert;
 import tr.alperenp.sec.idmef.model.alert.CorrelationAlert;
 import tr.alperenp.sec.idmef.model.alert.OverflowAlert;
@@ -52,30 +52,32 @@ import tr.alperenp.sec.idmef.model.core.Classification;
 import tr.alperenp.sec.idmef.model.core.Source;
 import tr.alperenp.sec.idmef.model.core.Target;
 import tr.alperenp.sec.idmef.model.misc.AlertIdent;
-import tr.alperenp.sec.idmef.model.misc.IDMEFportRange;
+import tr.alperenp.sec.idmef.model.misc.IDMEFportSet;
 import tr.alperenp.sec.idmef.xml.utils.ConstantAttributes;
-import tr.alperenp.sec.idmef.xml.utils.ConstantElementNames;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFhexCodec;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFkeywordTable;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtagDictionary;
 
 /**
  * 
  * @author alperenp
- *
+ * 
  */
 public class AlertxmlParser {
 	
 	/**
-	 * Properties object containing XML Tag Names to be used in parse operation
+	 * compiled XML Tag Names to be used in parse operation
 	 */
-	Properties tagNames;
+	IDMEFtagDictionary tags;
 	
 	/**
 	 * parser for common functionality
 	 */
 	HeartbeatxmlParser commonParser;
 	
-	protected AlertxmlParser(Properties properties) {
-		this.tagNames = properties;
-		commonParser = new HeartbeatxmlParser(tagNames);
+	protected AlertxmlParser(@NonNull IDMEFtagDictionary tags) {
+		this.tags = tags;
+		commonParser = new HeartbeatxmlParser(tags);
 	}
 	
 	/**
@@ -99,53 +101,55 @@ public class AlertxmlParser {
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.ANALYZER))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case ANALYZER:
 					// parse analyzer
-					alert.setAnalyzer(commonParser.parseAnalyzer((Element) child));
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.CREATETIME))) {
+					alert.setAnalyzer(commonParser.registered(commonParser.parseAnalyzer((Element) child)));
+					break;
+				case CREATETIME:
 					// parse create time
 					alert.setCreateTime(commonParser.parseTime((Element) child));
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.DETECTTIME))) {
+					break;
+				case DETECTTIME:
 					// parse detect time
 					alert.setDetectTime(commonParser.parseTime((Element) child));
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.ANALYZERTIME))) {
+					break;
+				case ANALYZERTIME:
 					// parse analyzer time
 					alert.setAnalyzerTime(commonParser.parseTime((Element) child));
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.SOURCE))) {
+					break;
+				case SOURCE:
 					// parse source
 					sources.add(parseSource((Element) child));
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.TARGET))) {
+					break;
+				case TARGET:
 					// parse target
 					targets.add(parseTarget((Element) child));
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.CLASSIFICATION))) {
+					break;
+				case CLASSIFICATION:
 					// parse classification
 					alert.setClassification(parseClassification((Element) child));
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.ASSESSMENT))) {
+					break;
+				case ASSESSMENT:
 					// parse assessment
 					alert.setAssessment(parseAssessment((Element) child));
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.ADDITIONALDATA))) {
+					break;
+				case ADDITIONALDATA:
 					// parse additional data
 					extradata.add(commonParser.parseAdditionalData((Element) child));
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.CORRELATIONALERT))) {
+					break;
+				case CORRELATIONALERT:
 					// parse correlation alert
 					alert = parseCorrelationAlert(alert, (Element) child);
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.TOOLALERT))) {
+					break;
+				case TOOLALERT:
 					// parse tool alert
 					alert = parseToolAlert(alert, (Element) child);
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.OVERFLOWALERT))) {
+					break;
+				case OVERFLOWALERT:
 					// parse overflow alert
 					alert = parseOverflowAlert(alert, (Element) child);
+					break;
 				}
 			}
 		}
@@ -176,15 +180,20 @@ public class AlertxmlParser {
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.IMPACT))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case IMPACT:
 					assessment.setImpact(parseImpact((Element) child));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.ACTION))) {
+					break;
+				case ACTION:
 					actions.add(parseAction((Element) child));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.CONFIDENCE))) {
-					String rating = ((Element) child).getAttribute(ConstantAttributes.RATING).trim().toUpperCase();
-					if (!"".equals(rating)) {
+					break;
+				case CONFIDENCE:
+					Confidence.Rating rating = commonParser.keyword(IDMEFkeywordTable.CONFIDENCE_RATING,
+							((Element) child).getAttribute(ConstantAttributes.RATING));
+					if (rating != null) {
 						assessment.setConfidence(new Confidence(rating));
 					}
+					break;
 				}
 			}
 		}
@@ -202,19 +211,22 @@ public class AlertxmlParser {
 	 */
 	private Impact parseImpact(Element impactRoot) {
 		Impact impact = new Impact();
-		String severity = impactRoot.getAttribute(ConstantAttributes.SEVERITY).trim().toUpperCase();
-		if (!"".equals(severity)) {
-			impact.setSeverity(Impact.Severity.valueOf(severity));
+		Impact.Severity severity = commonParser.keyword(IDMEFkeywordTable.IMPACT_SEVERITY,
+				impactRoot.getAttribute(ConstantAttributes.SEVERITY));
+		if (severity != null) {
+			impact.setSeverity(severity);
 		}
 		
-		String completion = impactRoot.getAttribute(ConstantAttributes.COMPLETION).trim().toUpperCase();
-		if (!"".equals(completion)) {
-			impact.setCompletion(Impact.Completion.valueOf(completion));
+		Impact.Completion completion = commonParser.keyword(IDMEFkeywordTable.IMPACT_COMPLETION,
+				impactRoot.getAttribute(ConstantAttributes.COMPLETION));
+		if (completion != null) {
+			impact.setCompletion(completion);
 		}
 		
-		String type = impactRoot.getAttribute(ConstantAttributes.TYPE).trim().toUpperCase();
-		if (!"".equals(type)) {
-			impact.setType(Impact.Type.valueOf(type));
+		Impact.Type type = commonParser.keyword(IDMEFkeywordTable.IMPACT_TYPE,
+				impactRoot.getAttribute(ConstantAttributes.TYPE));
+		if (type != null) {
+			impact.setType(type);
 		}
 		return impact;
 	}
@@ -226,10 +238,10 @@ public class AlertxmlParser {
 	 * @return
 	 */
 	private Action parseAction(Element actionRoot) {
-		String category = actionRoot.getAttribute(ConstantAttributes.CATEGORY).trim().toUpperCase();
-		category = category.replaceAll("-", "");
+		Action.Category category = commonParser.keyword(IDMEFkeywordTable.ACTION_CATEGORY,
+				actionRoot.getAttribute(ConstantAttributes.CATEGORY));
 		Action action = null;
-		if (!"".equals(category)) {
+		if (category != null) {
 			action = new Action(category);
 		} else {
 			// default value
@@ -257,10 +269,13 @@ public class AlertxmlParser {
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.name))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case NAME:
 					correlationAlert.setName(child.getTextContent().trim());
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.alertident))) {
+					break;
+				case ALERTIDENT:
 					alertidents.add(parseAlertIdent((Element) child));
+					break;
 				}
 			}
 		}
@@ -285,12 +300,16 @@ public class AlertxmlParser {
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.name))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case NAME:
 					toolAlert.setName(child.getTextContent().trim());
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.alertident))) {
+					break;
+				case ALERTIDENT:
 					alertidents.add(parseAlertIdent((Element) child));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.command))) {
+					break;
+				case COMMAND:
 					toolAlert.setCommand(child.getTextContent().trim());
+					break;
 				}
 			}
 		}
@@ -315,42 +334,22 @@ public class AlertxmlParser {
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.program))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case PROGRAM:
 					overflowAlert.setProgram(child.getTextContent().trim());
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.size))) {
+					break;
+				case SIZE:
 					overflowAlert.setSize(new BigInteger(child.getTextContent().trim()));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.buffer))) {
-					overflowAlert.setBuffer(parseHexBinary(child.getTextContent().trim()));
+					break;
+				case BUFFER:
+					overflowAlert.setBufferBytes(IDMEFhexCodec.decode(child.getTextContent()));
+					break;
 				}
 			}
 		}
 		return overflowAlert;
 	}
 	
-	/**
-	 * @see <a href=
-	 *      "https://stackoverflow.com/questions/140131/convert-a-string-representation-of-a-hex-dump-to-a-byte-array-using-java">stackoverflow</a>
-	 *      <p>
-	 *      Warning: may contain negative elements since byte is defined [-2^7, (2^7 - 1)]
-	 * @param s
-	 * @return list of Decimal from signed 2's complement: for each 2 digits of hex
-	 */
-	private List<Byte> parseHexBinary(final String hexString) {
-		int len = hexString.length();
-		if (len % 2 != 0) {
-			throw new IllegalArgumentException("hexBinary needs to be even-length: " + hexString);
-		}
-		
-		List<Byte> byteList = new LinkedList<>();
-		for (int i = 0; i < len; i += 2) {
-			Byte data = (byte) ((Character.digit(hexString.charAt(i), 16) << 4)
-					+ Character.digit(hexString.charAt(i + 1), 16));
-			byteList.add(data);
-		}
-		
-		return byteList;
-	}
-	
 	/**
 	 * Extracts {@link AlertIdent} object from xml {@link Element}
 	 * 
@@ -361,7 +360,7 @@ public class AlertxmlParser {
 		AlertIdent alertIdent = new AlertIdent();
 		String analyzerId = alertIdentRoot.getAttribute(ConstantAttributes.ANALYZERID).trim();
 		if (!"".equals(analyzerId)) {
-			alertIdent.setAnalyzerId(analyzerId);
+			alertIdent.setAnalyzerId(commonParser.pooled(analyzerId));
 		}
 		
 		alertIdent.setAlertident(alertIdentRoot.getTextContent().trim());
@@ -382,15 +381,17 @@ public class AlertxmlParser {
 		}
 		String text = classificationRoot.getAttribute(ConstantAttributes.TEXT).trim();
 		if (!"".equals(text)) {
-			classification.setText(text);
+			classification.setText(commonParser.pooled(text));
 		}
 		NodeList children = classificationRoot.getChildNodes();
 		List<Reference> references = new LinkedList<>();
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.REFERENCE))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case REFERENCE:
 					references.add(parseReference((Element) child));
+					break;
 				}
 			}
 		}
@@ -408,10 +409,10 @@ public class AlertxmlParser {
 	 */
 	private Reference parseReference(Element referenceRoot) {
 		Reference reference = new Reference();
-		String origin = referenceRoot.getAttribute(ConstantAttributes.ORIGIN).trim();
-		if (!"".equals(origin)) {
-			origin = origin.replaceAll("-", "");
-			reference.setOrigin(Reference.Origin.valueOf(origin.toUpperCase()));
+		Reference.Origin origin = commonParser.keyword(IDMEFkeywordTable.REFERENCE_ORIGIN,
+				referenceRoot.getAttribute(ConstantAttributes.ORIGIN));
+		if (origin != null) {
+			reference.setOrigin(origin);
 		} else {
 			reference.setOrigin(Reference.Origin.UNKNOWN);
 		}
@@ -424,10 +425,13 @@ public class AlertxmlParser {
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.name))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case NAME:
 					reference.setName(child.getTextContent().trim());
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.url))) {
+					break;
+				case URL:
 					reference.setUrl(child.getTextContent().trim());
+					break;
 				}
 			}
 		}
@@ -442,9 +446,10 @@ public class AlertxmlParser {
 	 */
 	private Source parseSource(Element sourceRoot) {
 		Source source = parseCommonSourceTarget(sourceRoot);
-		String spoofed = sourceRoot.getAttribute(ConstantAttributes.SPOOFED).trim();
-		if (!"".equals(spoofed)) {
-			source.setSpoofed(Source.Spoofed.valueOf(spoofed.toUpperCase()));
+		Source.Spoofed spoofed = commonParser.keyword(IDMEFkeywordTable.SOURCE_SPOOFED,
+				sourceRoot.getAttribute(ConstantAttributes.SPOOFED));
+		if (spoofed != null) {
+			source.setSpoofed(spoofed);
 		}
 		return source;
 	}
@@ -460,17 +465,20 @@ public class AlertxmlParser {
 	 */
 	private Target parseTarget(Element targetRoot) {
 		Target target = createTargetFromSource(parseCommonSourceTarget(targetRoot));
-		String decoy = targetRoot.getAttribute(ConstantAttributes.DECOY).trim();
-		if (!"".equals(decoy)) {
-			target.setDecoy(Target.Decoy.valueOf(decoy.toUpperCase()));
+		Target.Decoy decoy = commonParser.keyword(IDMEFkeywordTable.TARGET_DECOY,
+				targetRoot.getAttribute(ConstantAttributes.DECOY));
+		if (decoy != null) {
+			target.setDecoy(decoy);
 		}
 		NodeList children = targetRoot.getChildNodes();
 		List<File> files = new LinkedList<>();
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.FILE))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case FILE:
 					files.add(parseFile((Element) child));
+					break;
 				}
 			}
 		}
@@ -489,20 +497,23 @@ public class AlertxmlParser {
 	 */
 	private Checksum parseCheckSum(Element checksumRoot) {
 		Checksum checksum = new Checksum();
-		String algorithm = checksumRoot.getAttribute(ConstantAttributes.ALGORITHM).trim();
-		if (!"".equals(algorithm)) {
-			algorithm = algorithm.replaceAll("-", "").toUpperCase();
-			checksum.setAlgorithm(Checksum.Algorithm.valueOf(algorithm));
+		Checksum.Algorithm algorithm = commonParser.keyword(IDMEFkeywordTable.CHECKSUM_ALGORITHM,
+				checksumRoot.getAttribute(ConstantAttributes.ALGORITHM));
+		if (algorithm != null) {
+			checksum.setAlgorithm(algorithm);
 		}
 		NodeList children = checksumRoot.getChildNodes();
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
 				String text = ((Element) child).getTextContent().trim();
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.value))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case VALUE:
 					checksum.setValue(text);
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.key))) {
+					break;
+				case KEY:
 					checksum.setKey(text);
+					break;
 				}
 			}
 		}
@@ -517,8 +528,18 @@ public class AlertxmlParser {
 	 * @param source
 	 * @return
 	 */
-	private Target createTargetFromSource(Source source) {
-		Target target = new Target();
+	static Target createTargetFromSource(Source source) {
+		return createTargetFromSource(source, new Target());
+	}
+	
+	/**
+	 * Puts common fields from source to given target
+	 * 
+	 * @param source
+	 * @param target empty target, e.g. a reused one
+	 * @return target
+	 */
+	static Target createTargetFromSource(Source source, Target target) {
 		target.setIdent(source.getIdent());
 		target.setIface(source.getIface());
 		target.setNode(source.getNode());
@@ -540,10 +561,10 @@ public class AlertxmlParser {
 		if (!"".equals(ident)) {
 			file.setIdent(ident);
 		}
-		String category = fileRoot.getAttribute(ConstantAttributes.CATEGORY).trim();
-		if (!"".equals(category)) {
-			category = category.toUpperCase();
-			file.setCategory(File.Category.valueOf(category));
+		File.Category category = commonParser.keyword(IDMEFkeywordTable.FILE_CATEGORY,
+				fileRoot.getAttribute(ConstantAttributes.CATEGORY));
+		if (category != null) {
+			file.setCategory(category);
 		}
 		
 		String fsType = fileRoot.getAttribute(ConstantAttributes.FSTYPE).trim();
@@ -563,30 +584,42 @@ public class AlertxmlParser {
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.name))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case NAME:
 					file.setName(child.getTextContent().trim());
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.path))) {
+					break;
+				case PATH:
 					file.setPath(child.getTextContent().trim());
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.create_time))) {
+					break;
+				case CREATE_TIME:
 					file.setCreateTime(commonParser.parseTime((Element) child));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.modify_time))) {
+					break;
+				case MODIFY_TIME:
 					file.setModifyTime(commonParser.parseTime((Element) child));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.access_time))) {
+					break;
+				case ACCESS_TIME:
 					file.setAccessTime(commonParser.parseTime((Element) child));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.data_size))) {
+					break;
+				case DATA_SIZE:
 					String data_size = child.getTextContent().trim();
 					file.setDataSize(new BigInteger(data_size));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.disk_size))) {
+					break;
+				case DISK_SIZE:
 					String disk_size = child.getTextContent().trim();
 					file.setDiskSize(new BigInteger(disk_size));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.FileAccess))) {
+					break;
+				case FILEACCESS:
 					fileAccesses.add(parseFileAccess((Element) child));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.Linkage))) {
+					break;
+				case LINKAGE:
 					linkages.add(parseLinkage((Element) child));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.Inode))) {
+					break;
+				case INODE:
 					file.setInode(parseInode((Element) child));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.CHECKSUM))) {
+					break;
+				case CHECKSUM:
 					checksums.add(parseCheckSum((Element) child));
+					break;
 				}
 			}
 		}
@@ -619,23 +652,30 @@ public class AlertxmlParser {
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.change_time))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case CHANGE_TIME:
 					inode.setChangeTime(commonParser.parseTime((Element) child));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.number))) {
+					break;
+				case NUMBER:
 					String number = ((Element) child).getTextContent().trim();
 					inode.setNumber(Integer.parseInt(number));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.major_device))) {
+					break;
+				case MAJOR_DEVICE:
 					String major_device = ((Element) child).getTextContent().trim();
 					inode.setMajorDevice(Integer.parseInt(major_device));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.minor_device))) {
+					break;
+				case MINOR_DEVICE:
 					String minor_device = ((Element) child).getTextContent().trim();
 					inode.setMinorDevice(Integer.parseInt(minor_device));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.c_major_device))) {
+					break;
+				case C_MAJOR_DEVICE:
 					String c_major_device = ((Element) child).getTextContent().trim();
 					inode.setCMajorDevice(Integer.parseInt(c_major_device));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.c_minor_device))) {
+					break;
+				case C_MINOR_DEVICE:
 					String c_minor_device = ((Element) child).getTextContent().trim();
 					inode.setCMinorDevice(Integer.parseInt(c_minor_device));
+					break;
 				}
 			}
 		}
@@ -655,11 +695,17 @@ public class AlertxmlParser {
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.USERID))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case USERID:
 					fileAccess.setUserId(parseUserId((Element) child));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.permission))) {
-					String perms = ((Element) child).getAttribute(ConstantAttributes.perms).trim();
-					permissions.add(FileAccess.Permission.valueOf(perms.toUpperCase()));
+					break;
+				case PERMISSION:
+					Permission permission = commonParser.keyword(IDMEFkeywordTable.FILEACCESS_PERMISSION,
+							((Element) child).getAttribute(ConstantAttributes.perms));
+					if (permission != null) {
+						permissions.add(permission);
+					}
+					break;
 				}
 			}
 		}
@@ -678,22 +724,26 @@ public class AlertxmlParser {
 	 */
 	private Linkage parseLinkage(Element linkageRoot) {
 		Linkage linkage = new Linkage();
-		String category = linkageRoot.getAttribute(ConstantAttributes.CATEGORY).trim();
-		if (!"".equals(category)) {
-			category = category.replaceAll("-", "").toUpperCase();
-			linkage.setCategory(Linkage.Category.valueOf(category));
+		Linkage.Category category = commonParser.keyword(IDMEFkeywordTable.LINKAGE_CATEGORY,
+				linkageRoot.getAttribute(ConstantAttributes.CATEGORY));
+		if (category != null) {
+			linkage.setCategory(category);
 		}
 		
 		NodeList children = linkageRoot.getChildNodes();
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.name))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case NAME:
 					linkage.setName(child.getTextContent().trim());
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.path))) {
+					break;
+				case PATH:
 					linkage.setPath(child.getTextContent().trim());
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.FILE))) {
+					break;
+				case FILE:
 					linkage.setFile(parseFile((Element) child));
+					break;
 				}
 			}
 		}
@@ -722,21 +772,23 @@ public class AlertxmlParser {
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.NODE))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case NODE:
 					// parse node
 					source.setNode(commonParser.parseNode((Element) child));
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.USER))) {
+					break;
+				case USER:
 					// parse user
 					source.setUser(parseUser((Element) child));
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.SERVICE))) {
+					break;
+				case SERVICE:
 					// parse service
 					source.setService(parseService((Element) child));
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.PROCESS))) {
+					break;
+				case PROCESS:
 					// parse process
 					source.setProcess(commonParser.parseProcess((Element) child));
+					break;
 				}
 			}
 		}
@@ -771,26 +823,30 @@ public class AlertxmlParser {
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.name))) {
-					service.setName(child.getTextContent().trim());
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.port))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case NAME:
+					service.setName(commonParser.pooled(child.getTextContent().trim()));
+					break;
+				case PORT:
 					// parse port
 					service.setPort(Integer.parseInt(child.getTextContent().trim()));
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.portlist))) {
+					break;
+				case PORTLIST:
 					// parse portlist
-					service.setPortlist(parsePortList((Element) child));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.protocol))) {
+					service.setPortSet(IDMEFportSet.parse(child.getTextContent()));
+					break;
+				case PROTOCOL:
 					// parse protocol
 					service.setProtocol(child.getTextContent().trim());
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.WEBSERVICE))) {
+					break;
+				case WEBSERVICE:
 					// parse webservice
 					service = parseWebService(service, (Element) child);
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.SNMPSERVICE))) {
+					break;
+				case SNMPSERVICE:
 					// parse snmp service
 					service = parseSNMPService(service, (Element) child);
+					break;
 				}
 			}
 		}
@@ -798,33 +854,6 @@ public class AlertxmlParser {
 		return service;
 	}
 	
-	/**
-	 * Extracts {@link List portlist} object from xml {@link Element}
-	 * 
-	 * @param portListRoot
-	 * @return
-	 */
-	private List<IDMEFportRange> parsePortList(Element portListRoot) {
-		List<IDMEFportRange> portlist = new LinkedList<>();
-		String text = portListRoot.getTextContent().trim();
-		String[] ports = text.split(",");
-		for (int i = 0; i < ports.length; i++) {
-			String[] portRange = ports[i].split("-");
-			if (portRange.length == 1) {
-				int portNum = Integer.parseInt(portRange[0]);
-				portlist.add(new IDMEFportRange(portNum));
-			} else if (portRange.length == 2) {
-				int start = Integer.parseInt(portRange[0]);
-				int end = Integer.parseInt(portRange[1]);
-				if (start < end) {
-					portlist.add(new IDMEFportRange(start, end));
-				}
-			}
-			
-		}
-		return portlist;
-	}
-	
 	/**
 	 * Extracts {@link WebService} object from xml {@link Element}
 	 * 
@@ -840,14 +869,19 @@ public class AlertxmlParser {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
 				String text = child.getTextContent().trim();
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.url))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case URL:
 					webService.setUrl(text);
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.cgi))) {
+					break;
+				case CGI:
 					webService.setCgi(text);
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.http_method))) {
+					break;
+				case HTTP_METHOD:
 					webService.setHttp_method(text);
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.arg))) {
+					break;
+				case ARG:
 					args.add(text);
+					break;
 				}
 			}
 		}
@@ -872,23 +906,31 @@ public class AlertxmlParser {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
 				String text = child.getTextContent().trim();
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.oid))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case OID:
 					snmpService.setOid(text);
-				} else if (child.getNodeName()
-						.equals(tagNames.getProperty(ConstantElementNames.messageProcessingModel))) {
+					break;
+				case MESSAGEPROCESSINGMODEL:
 					snmpService.setMessageProcessingModel(Integer.parseInt(text));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.securityModel))) {
+					break;
+				case SECURITYMODEL:
 					snmpService.setSecurityModel(Integer.parseInt(text));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.securityName))) {
+					break;
+				case SECURITYNAME:
 					snmpService.setSecurityName(text);
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.securityLevel))) {
+					break;
+				case SECURITYLEVEL:
 					snmpService.setSecurityLevel(Integer.parseInt(text));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.contextName))) {
+					break;
+				case CONTEXTNAME:
 					snmpService.setContextName(text);
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.contextEngineID))) {
+					break;
+				case CONTEXTENGINEID:
 					snmpService.setContextEngineID(text);
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.command))) {
+					break;
+				case COMMAND:
 					snmpService.setCommand(text);
+					break;
 				}
 			}
 		}
@@ -907,18 +949,20 @@ public class AlertxmlParser {
 		if (!"".equals(ident)) {
 			user.setIdent(ident);
 		}
-		String category = userRoot.getAttribute(ConstantAttributes.CATEGORY).trim();
-		if (!"".equals(category)) {
-			category = category.replaceAll("-", "");
-			user.setCategory(User.Category.valueOf(category.toUpperCase()));
+		User.Category category = commonParser.keyword(IDMEFkeywordTable.USER_CATEGORY,
+				userRoot.getAttribute(ConstantAttributes.CATEGORY));
+		if (category != null) {
+			user.setCategory(category);
 		}
 		NodeList children = userRoot.getChildNodes();
 		List<UserId> userIds = new LinkedList<>();
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.USERID))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case USERID:
 					userIds.add(parseUserId((Element) child));
+					break;
 				}
 			}
 		}
@@ -940,10 +984,10 @@ public class AlertxmlParser {
 		if (!"".equals(ident)) {
 			userid.setIdent(ident);
 		}
-		String type = userIdRoot.getAttribute(ConstantAttributes.TYPE).trim();
-		if (!"".equals(type)) {
-			type = type.replaceAll("-", "");
-			userid.setType(UserId.Type.valueOf(type.toUpperCase()));
+		UserId.Type type = commonParser.keyword(IDMEFkeywordTable.USERID_TYPE,
+				userIdRoot.getAttribute(ConstantAttributes.TYPE));
+		if (type != null) {
+			userid.setType(type);
 		}
 		String tty = userIdRoot.getAttribute(ConstantAttributes.TTY).trim();
 		if (!"".equals(tty)) {
@@ -953,10 +997,13 @@ public class AlertxmlParser {
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.name))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case NAME:
 					userid.setName(child.getTextContent().trim());
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.number))) {
+					break;
+				case NUMBER:
 					userid.setNumber(Integer.parseInt(child.getTextContent().trim()));
+					break;
 				}
 			}
 		}
@@ -0,0 +1,1088 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.parser;
+
+import static tr.alperenp.sec.idmef.xml.parser.HeartbeatxmlStreamParser.getAttribute;
+import static tr.alperenp.sec.idmef.xml.parser.HeartbeatxmlStreamParser.getTag;
+import static tr.alperenp.sec.idmef.xml.parser.HeartbeatxmlStreamParser.getTextContent;
+import static tr.alperenp.sec.idmef.xml.parser.HeartbeatxmlStreamParser.nextChildElement;
+import static tr.alperenp.sec.idmef.xml.parser.HeartbeatxmlStreamParser.skipElement;
+
+import java.math.BigInteger;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import lombok.NonNull;
+import tr.alperenp.sec.idmef.model.alert.Alert;
+import tr.alperenp.sec.idmef.model.alert.CorrelationAlert;
+import tr.alperenp.sec.idmef.model.alert.OverflowAlert;
+import tr.alperenp.sec.idmef.model.alert.ToolAlert;
+import tr.alperenp.sec.idmef.model.alert.support.Checksum;
+import tr.alperenp.sec.idmef.model.alert.support.File;
+import tr.alperenp.sec.idmef.model.alert.support.FileAccess;
+import tr.alperenp.sec.idmef.model.alert.support.FileAccess.Permission;
+import tr.alperenp.sec.idmef.model.alert.support.Inode;
+import tr.alperenp.sec.idmef.model.alert.support.Linkage;
+import tr.alperenp.sec.idmef.model.alert.support.Reference;
+import tr.alperenp.sec.idmef.model.alert.support.SNMPService;
+import tr.alperenp.sec.idmef.model.alert.support.Service;
+import tr.alperenp.sec.idmef.model.alert.support.User;
+import tr.alperenp.sec.idmef.model.alert.support.UserId;
+import tr.alperenp.sec.idmef.model.alert.support.WebService;
+import tr.alperenp.sec.idmef.model.assessment.Action;
+import tr.alperenp.sec.idmef.model.assessment.Confidence;
+import tr.alperenp.sec.idmef.model.assessment.Impact;
+import tr.alperenp.sec.idmef.model.core.AdditionalData;
+import tr.alperenp.sec.idmef.model.core.Assessment;
+import tr.alperenp.sec.idmef.model.core.Classification;
+import tr.alperenp.sec.idmef.model.core.Source;
+import tr.alperenp.sec.idmef.model.core.Target;
+import tr.alperenp.sec.idmef.model.misc.AlertIdent;
+import tr.alperenp.sec.idmef.model.misc.IDMEFportSet;
+import tr.alperenp.sec.idmef.xml.utils.ConstantAttributes;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFhexCodec;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFkeywordTable;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtag;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtagDictionary;
+
+/**
+ * StAX counterpart of {@link AlertxmlParser}. Builds the same model objects directly from {@link XMLStreamReader}
+ * events without creating a DOM tree.
+ * <p>
+ * Every parse method expects the reader to be positioned on the START_ELEMENT of the element it extracts and leaves
+ * the reader on the matching END_ELEMENT.
+ * 
+ * @author alperenp
+ * 
+ */
+public class AlertxmlStreamParser {
+	
+	/**
+	 * compiled XML Tag Names to be used in parse operation
+	 */
+	IDMEFtagDictionary tags;
+	
+	/**
+	 * parser for common functionality
+	 */
+	HeartbeatxmlStreamParser commonParser;
+	
+	protected AlertxmlStreamParser(@NonNull IDMEFtagDictionary tags) {
+		this.tags = tags;
+		commonParser = new HeartbeatxmlStreamParser(tags);
+	}
+	
+	/**
+	 * Extracts routing values of an Alert into given header. Analyzer, Classification and Assessment are read for their
+	 * attributes only, other subtrees are skipped without building them and nothing after Assessment is read
+	 * 
+	 * @param reader positioned on Alert start element
+	 * @param header
+	 * @throws XMLStreamException
+	 */
+	protected void parseAlertHeader(XMLStreamReader reader, IDMEFalertHeader header) throws XMLStreamException {
+		String messageId = getAttribute(reader, ConstantAttributes.MESSAGEID);
+		if (!"".equals(messageId)) {
+			header.setMessageid(messageId);
+		}
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case ANALYZER:
+				String analyzerId = getAttribute(reader, ConstantAttributes.ANALYZERID).trim();
+				if (!"".equals(analyzerId)) {
+					header.setAnalyzerid(commonParser.pooled(analyzerId));
+				}
+				skipElement(reader);
+				break;
+			case CREATETIME:
+				header.setCreateTime(commonParser.parseTime(reader));
+				break;
+			case CLASSIFICATION:
+				String text = getAttribute(reader, ConstantAttributes.TEXT).trim();
+				if (!"".equals(text)) {
+					header.setClassificationText(commonParser.pooled(text));
+				}
+				skipElement(reader);
+				break;
+			case DETECTTIME:
+			case ANALYZERTIME:
+			case SOURCE:
+			case TARGET:
+				skipElement(reader);
+				break;
+			case ASSESSMENT:
+				while (nextChildElement(reader)) {
+					if (getTag(tags, reader) == IDMEFtag.IMPACT) {
+						header.setSeverity(commonParser.keyword(IDMEFkeywordTable.IMPACT_SEVERITY,
+								getAttribute(reader, ConstantAttributes.SEVERITY)));
+					}
+					skipElement(reader);
+				}
+				return;
+			default:
+				// AdditionalData and subclass elements follow Assessment
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Extracts {@link Alert} object from xml stream
+	 * 
+	 * @param reader positioned on Alert start element
+	 * @return {@link Alert} object defined under current element
+	 * @throws XMLStreamException
+	 */
+	protected Alert parseAlert(XMLStreamReader reader) throws XMLStreamException {
+		return parseAlert(reader, null);
+	}
+	
+	/**
+	 * Extracts {@link Alert} object from xml stream, reusing objects of given holder
+	 * 
+	 * @param reader positioned on Alert start element
+	 * @param holder null to create all objects
+	 * @return {@link Alert} object defined under current element
+	 * @throws XMLStreamException
+	 */
+	Alert parseAlert(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		Alert alert = holder == null ? new Alert() : holder.alert();
+		String messageId = getAttribute(reader, ConstantAttributes.MESSAGEID);
+		if (!"".equals(messageId)) {
+			alert.setMessageid(messageId);
+		}
+		List<AdditionalData> extradata = holder == null ? new LinkedList<>() : holder.list();
+		List<Source> sources = holder == null ? new LinkedList<>() : holder.list();
+		List<Target> targets = holder == null ? new LinkedList<>() : holder.list();
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case ANALYZER:
+				// parse analyzer
+				alert.setAnalyzer(commonParser.registered(commonParser.parseAnalyzer(reader, holder)));
+				break;
+			case CREATETIME:
+				// parse create time
+				alert.setCreateTime(commonParser.parseTime(reader, holder));
+				break;
+			case DETECTTIME:
+				// parse detect time
+				alert.setDetectTime(commonParser.parseTime(reader, holder));
+				break;
+			case ANALYZERTIME:
+				// parse analyzer time
+				alert.setAnalyzerTime(commonParser.parseTime(reader, holder));
+				break;
+			case SOURCE:
+				// parse source
+				sources.add(parseSource(reader, holder));
+				break;
+			case TARGET:
+				// parse target
+				targets.add(parseTarget(reader, holder));
+				break;
+			case CLASSIFICATION:
+				// parse classification
+				alert.setClassification(parseClassification(reader, holder));
+				break;
+			case ASSESSMENT:
+				// parse assessment
+				alert.setAssessment(parseAssessment(reader, holder));
+				break;
+			case ADDITIONALDATA:
+				// parse additional data
+				extradata.add(commonParser.parseAdditionalData(reader, holder));
+				break;
+			case CORRELATIONALERT:
+				// parse correlation alert
+				alert = parseCorrelationAlert(alert, reader);
+				break;
+			case TOOLALERT:
+				// parse tool alert
+				alert = parseToolAlert(alert, reader);
+				break;
+			case OVERFLOWALERT:
+				// parse overflow alert
+				alert = parseOverflowAlert(alert, reader);
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		if (!extradata.isEmpty()) {
+			alert.setAdditionalDatas(extradata);
+		}
+		
+		if (!sources.isEmpty()) {
+			alert.setSources(sources);
+		}
+		
+		if (!targets.isEmpty()) {
+			alert.setTargets(targets);
+		}
+		return alert;
+	}
+	
+	/**
+	 * Extracts {@link Assessment} object from xml stream
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private Assessment parseAssessment(XMLStreamReader reader, IDMEFmessageHolder holder)
+			throws XMLStreamException {
+		Assessment assessment = holder == null ? new Assessment() : holder.assessment();
+		List<Action> actions = holder == null ? new LinkedList<>() : holder.list();
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case IMPACT:
+				assessment.setImpact(parseImpact(reader, holder));
+				break;
+			case ACTION:
+				actions.add(parseAction(reader, holder));
+				break;
+			case CONFIDENCE:
+				Confidence.Rating rating = commonParser.keyword(IDMEFkeywordTable.CONFIDENCE_RATING,
+						getAttribute(reader, ConstantAttributes.RATING));
+				if (rating != null) {
+					Confidence confidence = holder == null ? new Confidence(rating) : holder.confidence();
+					confidence.setRating(rating);
+					assessment.setConfidence(confidence);
+				}
+				skipElement(reader);
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		if (!actions.isEmpty()) {
+			assessment.setActions(actions);
+		}
+		return assessment;
+	}
+	
+	/**
+	 * Extracts {@link Impact} object from xml stream
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private Impact parseImpact(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		Impact impact = holder == null ? new Impact() : holder.impact();
+		Impact.Severity severity = commonParser.keyword(IDMEFkeywordTable.IMPACT_SEVERITY,
+				getAttribute(reader, ConstantAttributes.SEVERITY));
+		if (severity != null) {
+			impact.setSeverity(severity);
+		}
+		
+		Impact.Completion completion = commonParser.keyword(IDMEFkeywordTable.IMPACT_COMPLETION,
+				getAttribute(reader, ConstantAttributes.COMPLETION));
+		if (completion != null) {
+			impact.setCompletion(completion);
+		}
+		
+		Impact.Type type = commonParser.keyword(IDMEFkeywordTable.IMPACT_TYPE,
+				getAttribute(reader, ConstantAttributes.TYPE));
+		if (type != null) {
+			impact.setType(type);
+		}
+		skipElement(reader);
+		return impact;
+	}
+	
+	/**
+	 * Extracts {@link Action} object from xml stream
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private Action parseAction(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		Action.Category category = commonParser.keyword(IDMEFkeywordTable.ACTION_CATEGORY,
+				getAttribute(reader, ConstantAttributes.CATEGORY));
+		Action action = null;
+		if (holder != null) {
+			// reset to default value
+			action = holder.action();
+			if (category != null) {
+				action.setCategory(category);
+			}
+		} else if (category != null) {
+			action = new Action(category);
+		} else {
+			// default value
+			action = new Action();
+		}
+		
+		String description = getTextContent(reader).trim();
+		if (!"".equals(description)) {
+			action.setDescription(description);
+		}
+		return action;
+	}
+	
+	/**
+	 * Extracts {@link CorrelationAlert} object from xml stream
+	 * 
+	 * @param alert
+	 * @param reader
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private CorrelationAlert parseCorrelationAlert(Alert alert, XMLStreamReader reader) throws XMLStreamException {
+		CorrelationAlert correlationAlert = new CorrelationAlert(alert);
+		List<AlertIdent> alertidents = new LinkedList<>();
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case NAME:
+				correlationAlert.setName(getTextContent(reader).trim());
+				break;
+			case ALERTIDENT:
+				alertidents.add(parseAlertIdent(reader));
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		
+		if (!alertidents.isEmpty()) {
+			correlationAlert.setAlertidents(alertidents);
+		}
+		return correlationAlert;
+	}
+	
+	/**
+	 * Extracts {@link ToolAlert} object from xml stream
+	 * 
+	 * @param alert
+	 * @param reader
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private ToolAlert parseToolAlert(Alert alert, XMLStreamReader reader) throws XMLStreamException {
+		ToolAlert toolAlert = new ToolAlert(alert);
+		List<AlertIdent> alertidents = new LinkedList<>();
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case NAME:
+				toolAlert.setName(getTextContent(reader).trim());
+				break;
+			case ALERTIDENT:
+				alertidents.add(parseAlertIdent(reader));
+				break;
+			case COMMAND:
+				toolAlert.setCommand(getTextContent(reader).trim());
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		
+		if (!alertidents.isEmpty()) {
+			toolAlert.setAlertidents(alertidents);
+		}
+		return toolAlert;
+	}
+	
+	/**
+	 * Extracts {@link OverflowAlert} object from xml stream
+	 * 
+	 * @param alert
+	 * @param reader
+	 * @return
+	 * @throws XMLStreamException
+	 * @throws NumberFormatException
+	 */
+	private OverflowAlert parseOverflowAlert(Alert alert, XMLStreamReader reader)
+			throws XMLStreamException, NumberFormatException {
+		OverflowAlert overflowAlert = new OverflowAlert(alert);
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case PROGRAM:
+				overflowAlert.setProgram(getTextContent(reader).trim());
+				break;
+			case SIZE:
+				overflowAlert.setSize(new BigInteger(getTextContent(reader).trim()));
+				break;
+			case BUFFER:
+				overflowAlert.setBufferBytes(IDMEFhexCodec.decode(getTextContent(reader)));
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		return overflowAlert;
+	}
+	
+	/**
+	 * Extracts {@link AlertIdent} object from xml stream
+	 * 
+	 * @param reader
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private AlertIdent parseAlertIdent(XMLStreamReader reader) throws XMLStreamException {
+		AlertIdent alertIdent = new AlertIdent();
+		String analyzerId = getAttribute(reader, ConstantAttributes.ANALYZERID).trim();
+		if (!"".equals(analyzerId)) {
+			alertIdent.setAnalyzerId(commonParser.pooled(analyzerId));
+		}
+		
+		alertIdent.setAlertident(getTextContent(reader).trim());
+		return alertIdent;
+	}
+	
+	/**
+	 * Extracts {@link Classification} object from xml stream
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private Classification parseClassification(XMLStreamReader reader, IDMEFmessageHolder holder)
+			throws XMLStreamException {
+		Classification classification = holder == null ? new Classification() : holder.classification();
+		String ident = getAttribute(reader, ConstantAttributes.IDENT).trim();
+		if (!"".equals(ident)) {
+			classification.setIdent(ident);
+		}
+		String text = getAttribute(reader, ConstantAttributes.TEXT).trim();
+		if (!"".equals(text)) {
+			classification.setText(commonParser.pooled(text));
+		}
+		List<Reference> references = holder == null ? new LinkedList<>() : holder.list();
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case REFERENCE:
+				references.add(parseReference(reader, holder));
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		if (!references.isEmpty()) {
+			classification.setReferences(references);
+		}
+		return classification;
+	}
+	
+	/**
+	 * Extracts {@link Reference} object from xml stream
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private Reference parseReference(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		Reference reference = holder == null ? new Reference() : holder.reference();
+		Reference.Origin origin = commonParser.keyword(IDMEFkeywordTable.REFERENCE_ORIGIN,
+				getAttribute(reader, ConstantAttributes.ORIGIN));
+		if (origin != null) {
+			reference.setOrigin(origin);
+		} else {
+			reference.setOrigin(Reference.Origin.UNKNOWN);
+		}
+		
+		String meaning = getAttribute(reader, ConstantAttributes.MEANING).trim();
+		if (!"".equals(meaning)) {
+			reference.setMeaning(meaning);
+		}
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case NAME:
+				reference.setName(getTextContent(reader).trim());
+				break;
+			case URL:
+				reference.setUrl(getTextContent(reader).trim());
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		return reference;
+	}
+	
+	/**
+	 * Extracts {@link Source} object from xml stream
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private Source parseSource(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		Source.Spoofed spoofed = commonParser.keyword(IDMEFkeywordTable.SOURCE_SPOOFED,
+				getAttribute(reader, ConstantAttributes.SPOOFED));
+		Source source = parseCommonSourceTarget(reader, null, holder);
+		if (spoofed != null) {
+			source.setSpoofed(spoofed);
+		}
+		return source;
+	}
+	
+	/**
+	 * Extracts {@link Target} object from xml stream
+	 * <p>
+	 * Since {@link Source} and {@link Target} share common attributes, extracts common attributes from {@link Source}
+	 * and remaning fields are extracted
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private Target parseTarget(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		Target.Decoy decoy = commonParser.keyword(IDMEFkeywordTable.TARGET_DECOY,
+				getAttribute(reader, ConstantAttributes.DECOY));
+		List<File> files = holder == null ? new LinkedList<>() : holder.list();
+		Source common = parseCommonSourceTarget(reader, files, holder);
+		Target target = holder == null ? AlertxmlParser.createTargetFromSource(common)
+				: AlertxmlParser.createTargetFromSource(common, holder.target());
+		if (decoy != null) {
+			target.setDecoy(decoy);
+		}
+		
+		if (!files.isEmpty()) {
+			target.setFiles(files);
+		}
+		return target;
+	}
+	
+	/**
+	 * Extracts {@link Checksum} object from xml stream
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private Checksum parseCheckSum(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		Checksum checksum = holder == null ? new Checksum() : holder.checksum();
+		Checksum.Algorithm algorithm = commonParser.keyword(IDMEFkeywordTable.CHECKSUM_ALGORITHM,
+				getAttribute(reader, ConstantAttributes.ALGORITHM));
+		if (algorithm != null) {
+			checksum.setAlgorithm(algorithm);
+		}
+		while (nextChildElement(reader)) {
+			IDMEFtag childTag = getTag(tags, reader);
+			String text = getTextContent(reader).trim();
+			switch (childTag) {
+			case VALUE:
+				checksum.setValue(text);
+				break;
+			case KEY:
+				checksum.setKey(text);
+				break;
+			}
+		}
+		return checksum;
+	}
+	
+	/**
+	 * Extracts {@link File} object from xml stream
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private File parseFile(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		File file = holder == null ? new File() : holder.file();
+		String ident = getAttribute(reader, ConstantAttributes.IDENT).trim();
+		if (!"".equals(ident)) {
+			file.setIdent(ident);
+		}
+		File.Category category = commonParser.keyword(IDMEFkeywordTable.FILE_CATEGORY,
+				getAttribute(reader, ConstantAttributes.CATEGORY));
+		if (category != null) {
+			file.setCategory(category);
+		}
+		
+		String fsType = getAttribute(reader, ConstantAttributes.FSTYPE).trim();
+		if (!"".equals(fsType)) {
+			file.setFstype(fsType);
+		}
+		
+		String file_type = getAttribute(reader, ConstantAttributes.FILE_TYPE).trim();
+		if (!"".equals(file_type)) {
+			file.setFile_type(file_type);
+		}
+		
+		List<FileAccess> fileAccesses = holder == null ? new LinkedList<>() : holder.list();
+		List<Linkage> linkages = holder == null ? new LinkedList<>() : holder.list();
+		List<Checksum> checksums = holder == null ? new LinkedList<>() : holder.list();
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case NAME:
+				file.setName(getTextContent(reader).trim());
+				break;
+			case PATH:
+				file.setPath(getTextContent(reader).trim());
+				break;
+			case CREATE_TIME:
+				file.setCreateTime(commonParser.parseTime(reader, holder));
+				break;
+			case MODIFY_TIME:
+				file.setModifyTime(commonParser.parseTime(reader, holder));
+				break;
+			case ACCESS_TIME:
+				file.setAccessTime(commonParser.parseTime(reader, holder));
+				break;
+			case DATA_SIZE:
+				String data_size = getTextContent(reader).trim();
+				file.setDataSize(new BigInteger(data_size));
+				break;
+			case DISK_SIZE:
+				String disk_size = getTextContent(reader).trim();
+				file.setDiskSize(new BigInteger(disk_size));
+				break;
+			case FILEACCESS:
+				fileAccesses.add(parseFileAccess(reader, holder));
+				break;
+			case LINKAGE:
+				linkages.add(parseLinkage(reader, holder));
+				break;
+			case INODE:
+				file.setInode(parseInode(reader, holder));
+				break;
+			case CHECKSUM:
+				checksums.add(parseCheckSum(reader, holder));
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		
+		if (!fileAccesses.isEmpty()) {
+			file.setFileAccesses(fileAccesses);
+		}
+		
+		if (!linkages.isEmpty()) {
+			file.setLinkages(linkages);
+		}
+		
+		if (!checksums.isEmpty()) {
+			file.setChecksums(checksums);
+		}
+		
+		return file;
+	}
+	
+	/**
+	 * Extracts {@link Inode} object from xml stream
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 * @throws NumberFormatException
+	 */
+	private Inode parseInode(XMLStreamReader reader, IDMEFmessageHolder holder)
+			throws XMLStreamException, NumberFormatException {
+		Inode inode = holder == null ? new Inode() : holder.inode();
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case CHANGE_TIME:
+				inode.setChangeTime(commonParser.parseTime(reader, holder));
+				break;
+			case NUMBER:
+				String number = getTextContent(reader).trim();
+				inode.setNumber(Integer.parseInt(number));
+				break;
+			case MAJOR_DEVICE:
+				String major_device = getTextContent(reader).trim();
+				inode.setMajorDevice(Integer.parseInt(major_device));
+				break;
+			case MINOR_DEVICE:
+				String minor_device = getTextContent(reader).trim();
+				inode.setMinorDevice(Integer.parseInt(minor_device));
+				break;
+			case C_MAJOR_DEVICE:
+				String c_major_device = getTextContent(reader).trim();
+				inode.setCMajorDevice(Integer.parseInt(c_major_device));
+				break;
+			case C_MINOR_DEVICE:
+				String c_minor_device = getTextContent(reader).trim();
+				inode.setCMinorDevice(Integer.parseInt(c_minor_device));
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		return inode;
+	}
+	
+	/**
+	 * Extracts {@link FileAccess} object from xml stream
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private FileAccess parseFileAccess(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		FileAccess fileAccess = holder == null ? new FileAccess() : holder.fileAccess();
+		List<Permission> permissions = holder == null ? new LinkedList<>() : holder.list();
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case USERID:
+				fileAccess.setUserId(parseUserId(reader, holder));
+				break;
+			case PERMISSION:
+				Permission permission = commonParser.keyword(IDMEFkeywordTable.FILEACCESS_PERMISSION,
+						getAttribute(reader, ConstantAttributes.perms));
+				if (permission != null) {
+					permissions.add(permission);
+				}
+				skipElement(reader);
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		
+		if (!permissions.isEmpty()) {
+			fileAccess.setPermissions(permissions);
+		}
+		return fileAccess;
+	}
+	
+	/**
+	 * Extracts {@link Linkage} object from xml stream
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private Linkage parseLinkage(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		Linkage linkage = holder == null ? new Linkage() : holder.linkage();
+		Linkage.Category category = commonParser.keyword(IDMEFkeywordTable.LINKAGE_CATEGORY,
+				getAttribute(reader, ConstantAttributes.CATEGORY));
+		if (category != null) {
+			linkage.setCategory(category);
+		}
+		
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case NAME:
+				linkage.setName(getTextContent(reader).trim());
+				break;
+			case PATH:
+				linkage.setPath(getTextContent(reader).trim());
+				break;
+			case FILE:
+				linkage.setFile(parseFile(reader, holder));
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		return linkage;
+	}
+	
+	/**
+	 * Extracts {@link Source} object from xml stream
+	 * <p>
+	 * This method is used common extraction for {@link Source} and {@link Target}. Since stream can only be read once,
+	 * {@link File} children which only exist in {@link Target} are collected into given list
+	 * 
+	 * @param reader
+	 * @param files list to collect {@link File} children of target, null for source
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private Source parseCommonSourceTarget(XMLStreamReader reader, List<File> files, IDMEFmessageHolder holder)
+			throws XMLStreamException {
+		Source source = holder == null ? new Source() : holder.source();
+		String ident = getAttribute(reader, ConstantAttributes.IDENT).trim();
+		if (!"".equals(ident)) {
+			source.setIdent(ident);
+		}
+		String s_interface = getAttribute(reader, ConstantAttributes.INTERFACE).trim();
+		if (!"".equals(s_interface)) {
+			source.setIface(s_interface);
+		}
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case NODE:
+				// parse node
+				source.setNode(commonParser.parseNode(reader, holder));
+				break;
+			case USER:
+				// parse user
+				source.setUser(parseUser(reader, holder));
+				break;
+			case SERVICE:
+				// parse service
+				source.setService(parseService(reader, holder));
+				break;
+			case PROCESS:
+				// parse process
+				source.setProcess(commonParser.parseProcess(reader, holder));
+				break;
+			case FILE:
+				if (files != null) {
+					// parse file of target
+					files.add(parseFile(reader, holder));
+				} else {
+					skipElement(reader);
+				}
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		return source;
+	}
+	
+	/**
+	 * Extracts {@link Service} object from xml stream
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private Service parseService(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		Service service = holder == null ? new Service() : holder.service();
+		String ident = getAttribute(reader, ConstantAttributes.IDENT).trim();
+		if (!"".equals(ident)) {
+			service.setIdent(ident);
+		}
+		String ipVersion = getAttribute(reader, ConstantAttributes.IP_VERSION).trim();
+		if (!"".equals(ipVersion)) {
+			service.setIp_version(Integer.parseInt(ipVersion));
+		}
+		String iana_prot_num = getAttribute(reader, ConstantAttributes.IANA_PROTOCOL_NUMBER).trim();
+		if (!"".equals(iana_prot_num)) {
+			service.setIana_protocol_number(Integer.parseInt(iana_prot_num));
+		}
+		String iana_prot_name = getAttribute(reader, ConstantAttributes.IANA_PROTOCOL_NAME).trim();
+		if (!"".equals(iana_prot_name)) {
+			service.setIana_protocol_name(iana_prot_name);
+		}
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case NAME:
+				service.setName(commonParser.pooled(getTextContent(reader).trim()));
+				break;
+			case PORT:
+				// parse port
+				service.setPort(Integer.parseInt(getTextContent(reader).trim()));
+				break;
+			case PORTLIST:
+				// parse portlist
+				service.setPortSet(IDMEFportSet.parse(getTextContent(reader)));
+				break;
+			case PROTOCOL:
+				// parse protocol
+				service.setProtocol(getTextContent(reader).trim());
+				break;
+			case WEBSERVICE:
+				// parse webservice
+				service = parseWebService(service, reader);
+				break;
+			case SNMPSERVICE:
+				// parse snmp service
+				service = parseSNMPService(service, reader);
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		
+		return service;
+	}
+	
+	/**
+	 * Extracts {@link WebService} object from xml stream
+	 * 
+	 * @param service
+	 * @param reader
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private WebService parseWebService(Service service, XMLStreamReader reader) throws XMLStreamException {
+		WebService webService = new WebService(service);
+		List<String> args = new LinkedList<>();
+		while (nextChildElement(reader)) {
+			IDMEFtag childTag = getTag(tags, reader);
+			String text = getTextContent(reader).trim();
+			switch (childTag) {
+			case URL:
+				webService.setUrl(text);
+				break;
+			case CGI:
+				webService.setCgi(text);
+				break;
+			case HTTP_METHOD:
+				webService.setHttp_method(text);
+				break;
+			case ARG:
+				args.add(text);
+				break;
+			}
+		}
+		
+		if (!args.isEmpty()) {
+			webService.setArgs(args);
+		}
+		return webService;
+	}
+	
+	/**
+	 * Extracts {@link SNMPService} object from xml stream
+	 * 
+	 * @param service
+	 * @param reader
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private SNMPService parseSNMPService(Service service, XMLStreamReader reader) throws XMLStreamException {
+		SNMPService snmpService = new SNMPService(service);
+		while (nextChildElement(reader)) {
+			IDMEFtag childTag = getTag(tags, reader);
+			String text = getTextContent(reader).trim();
+			switch (childTag) {
+			case OID:
+				snmpService.setOid(text);
+				break;
+			case MESSAGEPROCESSINGMODEL:
+				snmpService.setMessageProcessingModel(Integer.parseInt(text));
+				break;
+			case SECURITYMODEL:
+				snmpService.setSecurityModel(Integer.parseInt(text));
+				break;
+			case SECURITYNAME:
+				snmpService.setSecurityName(text);
+				break;
+			case SECURITYLEVEL:
+				snmpService.setSecurityLevel(Integer.parseInt(text));
+				break;
+			case CONTEXTNAME:
+				snmpService.setContextName(text);
+				break;
+			case CONTEXTENGINEID:
+				snmpService.setContextEngineID(text);
+				break;
+			case COMMAND:
+				snmpService.setCommand(text);
+				break;
+			}
+		}
+		return snmpService;
+	}
+	
+	/**
+	 * Extracts {@link User} object from xml stream
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private User parseUser(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		User user = holder == null ? new User() : holder.user();
+		String ident = getAttribute(reader, ConstantAttributes.IDENT).trim();
+		if (!"".equals(ident)) {
+			user.setIdent(ident);
+		}
+		User.Category category = commonParser.keyword(IDMEFkeywordTable.USER_CATEGORY,
+				getAttribute(reader, ConstantAttributes.CATEGORY));
+		if (category != null) {
+			user.setCategory(category);
+		}
+		List<UserId> userIds = holder == null ? new LinkedList<>() : holder.list();
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case USERID:
+				userIds.add(parseUserId(reader, holder));
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		if (!userIds.isEmpty()) {
+			user.setUserIds(userIds);
+		}
+		return user;
+	}
+	
+	/**
+	 * Extracts {@link UserId} object from xml stream
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private UserId parseUserId(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		UserId userid = holder == null ? new UserId() : holder.userId();
+		String ident = getAttribute(reader, ConstantAttributes.IDENT).trim();
+		if (!"".equals(ident)) {
+			userid.setIdent(ident);
+		}
+		UserId.Type type = commonParser.keyword(IDMEFkeywordTable.USERID_TYPE,
+				getAttribute(reader, ConstantAttributes.TYPE));
+		if (type != null) {
+			userid.setType(type);
+		}
+		String tty = getAttribute(reader, ConstantAttributes.TTY).trim();
+		if (!"".equals(tty)) {
+			userid.setTty(tty);
+		}
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case NAME:
+				userid.setName(getTextContent(reader).trim());
+				break;
+			case NUMBER:
+				userid.setNumber(Integer.parseInt(getTextContent(reader).trim()));
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		return userid;
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.parser;
+
+import java.util.Properties;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import lombok.NonNull;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFxmlUtils;
+
+/**
+ * Thread-safe {@link IDMEFxmlParser} for DOM engine. One instance can be shared by all worker threads of an executor
+ * without external locking.
+ * <p>
+ * Each calling thread gets its own {@link DocumentBuilder}, created lazily from the given
+ * {@link DocumentBuilderFactory} on first parse of that thread and reused afterwards. Tag name {@link Properties} and
+ * sub-parsers are shared since they keep no state between calls.
+ * 
+ * @author alperenp
+ * 
+ */
+public class ConcurrentIDMEFxmlParser extends IDMEFxmlParser {
+	
+	/**
+	 * factory that per-thread builders are created from, also used as lock since {@link DocumentBuilderFactory} is
+	 * not guaranteed to be thread-safe
+	 */
+	private final DocumentBuilderFactory factory;
+	
+	/**
+	 * {@link DocumentBuilder} of each calling thread
+	 */
+	private final ThreadLocal<DocumentBuilder> builders = new ThreadLocal<>();
+	
+	/**
+	 * Constructor with {@link DocumentBuilderFactory} which asks user to define factory and give as input. Factory
+	 * should not be modified afterwards
+	 * 
+	 * @param factory
+	 * @throws ParserConfigurationException
+	 */
+	public ConcurrentIDMEFxmlParser(@NonNull DocumentBuilderFactory factory) throws ParserConfigurationException {
+		this(factory, new IDMEFxmlUtils().useDefaultProperties());
+	}
+	
+	/**
+	 * Constructor with {@link DocumentBuilderFactory} and {@link Properties} which may be required for using different
+	 * tagNames in xml
+	 * 
+	 * @param factory
+	 * @param properties
+	 * @throws ParserConfigurationException
+	 */
+	public ConcurrentIDMEFxmlParser(@NonNull DocumentBuilderFactory factory, @NonNull Properties properties)
+			throws ParserConfigurationException {
+		super(factory, properties);
+		this.factory = factory;
+	}
+	
+	@Override
+	protected boolean isThreadSafe() {
+		return true;
+	}
+	
+	@Override
+	protected DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
+		DocumentBuilder builder = builders.get();
+		if (builder == null) {
+			synchronized (factory) {
+				builder = factory.newDocumentBuilder();
+			}
+			builders.set(builder);
+		}
+		return builder;
+	}
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.parser;
+
+import java.util.Arrays;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtagDictionary;
+
+/**
+ * {@link XMLStreamReader} which hides elements outside of an {@link IDMEFfieldMask}. Hidden elements are passed over in
+ * the underlying reader, so stream parsers never see them and create nothing for them.
+ * 
+ * @author alperenp
+ * 
+ */
+class FieldMaskStreamReader extends StreamReaderDelegate {
+	
+	private final IDMEFtagDictionary tags;
+	
+	/**
+	 * masks of open elements, first one is the mask of the document level
+	 */
+	private IDMEFfieldMask.Node[] masks = new IDMEFfieldMask.Node[16];
+	
+	/**
+	 * number of open elements
+	 */
+	private int depth;
+	
+	FieldMaskStreamReader(XMLStreamReader reader, IDMEFtagDictionary tags, IDMEFfieldMask.Node document) {
+		super(reader);
+		this.tags = tags;
+		masks[0] = document;
+	}
+	
+	@Override
+	public int next() throws XMLStreamException {
+		while (true) {
+			int event = super.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				IDMEFfieldMask.Node mask = masks[depth].child(HeartbeatxmlStreamParser.getTag(tags, this));
+				if (mask == null) {
+					HeartbeatxmlStreamParser.skipElement(getParent());
+					continue;
+				}
+				depth++;
+				if (depth == masks.length) {
+					masks = Arrays.copyOf(masks, depth * 2);
+				}
+				masks[depth] = mask;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				masks[depth] = null;
+				depth--;
+			}
+			return event;
+		}
+	}
+	
+	@Override
+	public int nextTag() throws XMLStreamException {
+		int event = next();
+		while ((event == XMLStreamConstants.CHARACTERS && isWhiteSpace())
+				|| (event == XMLStreamConstants.CDATA && isWhiteSpace()) || event == XMLStreamConstants.SPACE
+				|| event == XMLStreamConstants.PROCESSING_INSTRUCTION || event == XMLStreamConstants.COMMENT) {
+			event = next();
+		}
+		if (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT) {
+			throw new XMLStreamException("expected start or end tag", getLocation());
+		}
+		return event;
+	}
+}
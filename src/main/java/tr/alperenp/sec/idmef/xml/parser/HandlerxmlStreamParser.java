@@ -0,0 +1,319 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.parser;
+
+import static tr.alperenp.sec.idmef.xml.parser.HeartbeatxmlStreamParser.getAttribute;
+import static tr.alperenp.sec.idmef.xml.parser.HeartbeatxmlStreamParser.getTag;
+import static tr.alperenp.sec.idmef.xml.parser.HeartbeatxmlStreamParser.getTextContent;
+import static tr.alperenp.sec.idmef.xml.parser.HeartbeatxmlStreamParser.nextChildElement;
+import static tr.alperenp.sec.idmef.xml.parser.HeartbeatxmlStreamParser.skipElement;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import lombok.NonNull;
+import tr.alperenp.sec.idmef.model.alert.support.Address;
+import tr.alperenp.sec.idmef.model.core.AdditionalData;
+import tr.alperenp.sec.idmef.model.misc.IenumIDMEF;
+import tr.alperenp.sec.idmef.xml.utils.ConstantAttributes;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFkeywordTable;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtag;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtagDictionary;
+
+/**
+ * Walks {@link XMLStreamReader} events of IDMEF documents and pushes their values to an {@link IDMEFhandler} instead
+ * of building model objects as {@link AlertxmlStreamParser} and {@link HeartbeatxmlStreamParser} do. Elements without
+ * a callback are skipped.
+ * <p>
+ * Every method except {@link #parseDocument(XMLStreamReader, IDMEFhandler)} expects the reader to be positioned on the
+ * START_ELEMENT of the element it reads and leaves the reader on the matching END_ELEMENT.
+ * 
+ * @author alperenp
+ * 
+ */
+class HandlerxmlStreamParser {
+	
+	/**
+	 * compiled XML Tag Names to be used in parse operation
+	 */
+	private final IDMEFtagDictionary tags;
+	
+	/**
+	 * receiver of unknown keywords, null if they are ignored
+	 */
+	IDMEFkeywordTable.UnknownKeywordListener unknownKeywordListener;
+	
+	HandlerxmlStreamParser(@NonNull IDMEFtagDictionary tags) {
+		this.tags = tags;
+	}
+	
+	/**
+	 * @param table
+	 * @param value keyword read from xml
+	 * @return matching constant, null if value is missing or unknown; unknown ones are given to
+	 *         {@link #unknownKeywordListener}
+	 */
+	private <E extends Enum<E> & IenumIDMEF> E keyword(IDMEFkeywordTable<E> table, String value) {
+		return table.parse(value, unknownKeywordListener);
+	}
+	
+	/**
+	 * Pushes all Alerts and Heartbeats of a document to handler
+	 * 
+	 * @param reader positioned before the IDMEF-Message element
+	 * @param handler
+	 * @return number of Alerts and Heartbeats, -1 if xml is not an IDMEF-Message
+	 * @throws XMLStreamException
+	 */
+	int parseDocument(XMLStreamReader reader, IDMEFhandler handler) throws XMLStreamException {
+		while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) {
+			// move to root element
+		}
+		if (!reader.isStartElement() || getTag(tags, reader) != IDMEFtag.IDMEFMESSAGE) {
+			return -1;
+		}
+		handler.onMessageStart(attribute(reader, ConstantAttributes.VERSION));
+		int count = 0;
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case ALERT:
+				parseAlert(reader, handler);
+				count++;
+				break;
+			case HEARTBEAT:
+				parseHeartbeat(reader, handler);
+				count++;
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		handler.onMessageEnd();
+		return count;
+	}
+	
+	private void parseAlert(XMLStreamReader reader, IDMEFhandler handler) throws XMLStreamException {
+		handler.onAlertStart(attribute(reader, ConstantAttributes.MESSAGEID));
+		while (nextChildElement(reader)) {
+			IDMEFtag tag = getTag(tags, reader);
+			switch (tag) {
+			case ANALYZER:
+				parseAnalyzer(reader, handler, 0);
+				break;
+			case CREATETIME:
+			case DETECTTIME:
+			case ANALYZERTIME:
+				parseTime(reader, handler, tag);
+				break;
+			case SOURCE:
+				handler.onSource(attribute(reader, ConstantAttributes.IDENT),
+						keyword(IDMEFkeywordTable.SOURCE_SPOOFED, getAttribute(reader, ConstantAttributes.SPOOFED)),
+						attribute(reader, ConstantAttributes.INTERFACE));
+				parseSourceTarget(reader, handler, tag);
+				break;
+			case TARGET:
+				handler.onTarget(attribute(reader, ConstantAttributes.IDENT),
+						keyword(IDMEFkeywordTable.TARGET_DECOY, getAttribute(reader, ConstantAttributes.DECOY)),
+						attribute(reader, ConstantAttributes.INTERFACE));
+				parseSourceTarget(reader, handler, tag);
+				break;
+			case CLASSIFICATION:
+				handler.onClassification(attribute(reader, ConstantAttributes.IDENT),
+						attribute(reader, ConstantAttributes.TEXT));
+				skipElement(reader);
+				break;
+			case ASSESSMENT:
+				while (nextChildElement(reader)) {
+					if (getTag(tags, reader) == IDMEFtag.IMPACT) {
+						parseImpact(reader, handler);
+					} else {
+						skipElement(reader);
+					}
+				}
+				break;
+			case ADDITIONALDATA:
+				parseAdditionalData(reader, handler);
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		handler.onAlertEnd();
+	}
+	
+	private void parseHeartbeat(XMLStreamReader reader, IDMEFhandler handler) throws XMLStreamException {
+		handler.onHeartbeatStart(attribute(reader, ConstantAttributes.MESSAGEID));
+		while (nextChildElement(reader)) {
+			IDMEFtag tag = getTag(tags, reader);
+			switch (tag) {
+			case ANALYZER:
+				parseAnalyzer(reader, handler, 0);
+				break;
+			case CREATETIME:
+			case ANALYZERTIME:
+				parseTime(reader, handler, tag);
+				break;
+			case ADDITIONALDATA:
+				parseAdditionalData(reader, handler);
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		handler.onHeartbeatEnd();
+	}
+	
+	private void parseImpact(XMLStreamReader reader, IDMEFhandler handler) throws XMLStreamException {
+		handler.onImpact(keyword(IDMEFkeywordTable.IMPACT_SEVERITY, getAttribute(reader, ConstantAttributes.SEVERITY)),
+				keyword(IDMEFkeywordTable.IMPACT_COMPLETION, getAttribute(reader, ConstantAttributes.COMPLETION)),
+				keyword(IDMEFkeywordTable.IMPACT_TYPE, getAttribute(reader, ConstantAttributes.TYPE)));
+		skipElement(reader);
+	}
+	
+	private void parseAnalyzer(XMLStreamReader reader, IDMEFhandler handler, int depth) throws XMLStreamException {
+		handler.onAnalyzer(depth, attribute(reader, ConstantAttributes.ANALYZERID),
+				attribute(reader, ConstantAttributes.NAME), attribute(reader, ConstantAttributes.MANUFACTURER),
+				attribute(reader, ConstantAttributes.MODEL), attribute(reader, ConstantAttributes.VERSION),
+				attribute(reader, ConstantAttributes.CLASS), attribute(reader, ConstantAttributes.OSTYPE),
+				attribute(reader, ConstantAttributes.OSVERSION));
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case NODE:
+				parseNode(reader, handler, IDMEFtag.ANALYZER);
+				break;
+			case ANALYZER:
+				parseAnalyzer(reader, handler, depth + 1);
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+	}
+	
+	private void parseTime(XMLStreamReader reader, IDMEFhandler handler, IDMEFtag tag) throws XMLStreamException {
+		String ntpstamp = attribute(reader, ConstantAttributes.ntpstamp);
+		handler.onTime(tag, ntpstamp, text(reader));
+	}
+	
+	/**
+	 * @param reader
+	 * @param handler
+	 * @param owner {@link IDMEFtag#SOURCE} or {@link IDMEFtag#TARGET}
+	 * @throws XMLStreamException
+	 */
+	private void parseSourceTarget(XMLStreamReader reader, IDMEFhandler handler, IDMEFtag owner)
+			throws XMLStreamException {
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case NODE:
+				parseNode(reader, handler, owner);
+				break;
+			case SERVICE:
+				parseService(reader, handler, owner);
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+	}
+	
+	private void parseNode(XMLStreamReader reader, IDMEFhandler handler, IDMEFtag owner) throws XMLStreamException {
+		while (nextChildElement(reader)) {
+			if (getTag(tags, reader) != IDMEFtag.ADDRESS) {
+				skipElement(reader);
+				continue;
+			}
+			Address.Category category = keyword(IDMEFkeywordTable.ADDRESS_CATEGORY,
+					getAttribute(reader, ConstantAttributes.CATEGORY));
+			String address = null;
+			String netmask = null;
+			while (nextChildElement(reader)) {
+				switch (getTag(tags, reader)) {
+				case IP_ADDRESS:
+					address = text(reader);
+					break;
+				case NETMASK:
+					netmask = text(reader);
+					break;
+				default:
+					skipElement(reader);
+					break;
+				}
+			}
+			handler.onAddress(owner, category, address, netmask);
+		}
+	}
+	
+	private void parseService(XMLStreamReader reader, IDMEFhandler handler, IDMEFtag owner)
+			throws XMLStreamException {
+		String name = null;
+		int port = -1;
+		String portlist = null;
+		String protocol = null;
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case NAME:
+				name = text(reader);
+				break;
+			case PORT:
+				port = Integer.parseInt(getTextContent(reader).trim());
+				break;
+			case PORTLIST:
+				portlist = text(reader);
+				break;
+			case PROTOCOL:
+				protocol = text(reader);
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		handler.onService(owner, name, port, portlist, protocol);
+	}
+	
+	private void parseAdditionalData(XMLStreamReader reader, IDMEFhandler handler) throws XMLStreamException {
+		String meaning = attribute(reader, ConstantAttributes.MEANING);
+		AdditionalData.Type type = keyword(IDMEFkeywordTable.ADDITIONALDATA_TYPE,
+				getAttribute(reader, ConstantAttributes.TYPE));
+		while (nextChildElement(reader)) {
+			// values are given untrimmed, as AdditionalData keeps them
+			handler.onAdditionalData(meaning, type, getTextContent(reader));
+		}
+	}
+	
+	/**
+	 * @return trimmed attribute value, null if it does not exist or is empty
+	 */
+	private static String attribute(XMLStreamReader reader, String name) {
+		String value = getAttribute(reader, name).trim();
+		return "".equals(value) ? null : value;
+	}
+	
+	/**
+	 * @return trimmed text content of current element
+	 */
+	private static String text(XMLStreamReader reader) throws XMLStreamException {
+		return getTextContent(reader).trim();
+	}
+}
@@ -17,10 +17,8 @@
 package tr.alperenp.sec.idmef.xml.parser;
 
 import java.text.ParseException;
-import java.time.Instant;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Properties;
 
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Element;
@@ -35,22 +33,67 @@ import tr.alperenp.sec.idmef.model.core.Analyzer;
 import tr.alperenp.sec.idmef.model.heartbeat.Heartbeat;
 import tr.alperenp.sec.idmef.model.misc.*;
 import tr.alperenp.sec.idmef.xml.utils.ConstantAttributes;
-import tr.alperenp.sec.idmef.xml.utils.ConstantElementNames;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFkeywordTable;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFanalyzerRegistry;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFstringPool;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtagDictionary;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtimeCodec;
 
 /**
  * 
  * @author alperenp
- *
+ * 
  */
 public class HeartbeatxmlParser {
 	
 	/**
-	 * Properties object containing XML Tag Names to be used in parse operation
+	 * compiled XML Tag Names to be used in parse operation
+	 */
+	IDMEFtagDictionary tags;
+	
+	/**
+	 * pool of values repeating across messages, null if values are not pooled
 	 */
-	Properties tagNames;
+	IDMEFstringPool stringPool;
 	
-	protected HeartbeatxmlParser(@NonNull Properties properties) {
-		this.tagNames = properties;
+	/**
+	 * registry of analyzers repeating across messages, null if analyzers are not shared
+	 */
+	IDMEFanalyzerRegistry analyzerRegistry;
+	
+	/**
+	 * receiver of unknown keywords, null if they are ignored
+	 */
+	IDMEFkeywordTable.UnknownKeywordListener unknownKeywordListener;
+	
+	protected HeartbeatxmlParser(@NonNull IDMEFtagDictionary tags) {
+		this.tags = tags;
+	}
+	
+	/**
+	 * @param value
+	 * @return pooled instance of value if a pool is set, value otherwise
+	 */
+	String pooled(String value) {
+		return stringPool == null ? value : stringPool.intern(value);
+	}
+	
+	/**
+	 * @param analyzer top level analyzer of a message
+	 * @return registered instance of analyzer if a registry is set, analyzer otherwise
+	 */
+	Analyzer registered(Analyzer analyzer) {
+		return analyzerRegistry == null ? analyzer : analyzerRegistry.register(analyzer);
+	}
+	
+	/**
+	 * @param table
+	 * @param value keyword read from xml
+	 * @return matching constant, null if value is missing or unknown; unknown ones are given to
+	 *         {@link #unknownKeywordListener}
+	 */
+	<E extends Enum<E> & IenumIDMEF> E keyword(IDMEFkeywordTable<E> table, String value) {
+		return table.parse(value, unknownKeywordListener);
 	}
 	
 	/**
@@ -69,25 +112,28 @@ public class HeartbeatxmlParser {
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.ANALYZER))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case ANALYZER:
 					// parse analyzer
-					heartbeat.setAnalyzer(parseAnalyzer((Element) child));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.CREATETIME))) {
+					heartbeat.setAnalyzer(registered(parseAnalyzer((Element) child)));
+					break;
+				case CREATETIME:
 					// parse create time
 					heartbeat.setCreateTime(parseTime((Element) child));
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.heartbeatinterval))) {
+					break;
+				case HEARTBEATINTERVAL:
 					// parse heartbeat interval
 					short interaval = Short.parseShort(((Element) child).getTextContent());
 					heartbeat.setHeartbeatInterval(interaval);
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.ANALYZERTIME))) {
+					break;
+				case ANALYZERTIME:
 					// parse AnalyzerTime
 					heartbeat.setAnalyzerTime(parseTime((Element) child));
-					
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.ADDITIONALDATA))) {
+					break;
+				case ADDITIONALDATA:
 					// parse additional data
 					extradata.add(parseAdditionalData((Element) child));
-					
+					break;
 				}
 			}
 		}
@@ -114,10 +160,10 @@ public class HeartbeatxmlParser {
 			data.setMeaning(meaning);
 		}
 		
-		String type = additionalDataRoot.getAttribute(ConstantAttributes.TYPE).trim().toUpperCase();
-		if (!"".equals(type)) {
-			type = type.replaceAll("-", "");
-			data.setDataType(AdditionalData.Type.valueOf(type));
+		AdditionalData.Type type = keyword(IDMEFkeywordTable.ADDITIONALDATA_TYPE,
+				additionalDataRoot.getAttribute(ConstantAttributes.TYPE));
+		if (type != null) {
+			data.setDataType(type);
 		}
 		
 		NodeList children = additionalDataRoot.getChildNodes();
@@ -142,50 +188,54 @@ public class HeartbeatxmlParser {
 		tr.alperenp.sec.idmef.model.core.Analyzer.AnalyzerBuilder builder = Analyzer.builder();
 		String analyzerId = analyzerRoot.getAttribute(ConstantAttributes.ANALYZERID).trim();
 		if (!"".equals(analyzerId)) {
-			builder.analyzerid(analyzerId);
+			builder.analyzerid(pooled(analyzerId));
 		}
 		String name = analyzerRoot.getAttribute(ConstantAttributes.NAME).trim();
 		if (!"".equals(name)) {
-			builder.name(name);
+			builder.name(pooled(name));
 		}
 		String manufacturer = analyzerRoot.getAttribute(ConstantAttributes.MANUFACTURER).trim();
 		if (!"".equals(manufacturer)) {
-			builder.manufacturer(manufacturer);
+			builder.manufacturer(pooled(manufacturer));
 		}
 		String model = analyzerRoot.getAttribute(ConstantAttributes.MODEL).trim();
 		if (!"".equals(model)) {
-			builder.model(model);
+			builder.model(pooled(model));
 		}
 		String version = analyzerRoot.getAttribute(ConstantAttributes.VERSION).trim();
 		if (!"".equals(version)) {
-			builder.version(version);
+			builder.version(pooled(version));
 		}
 		String clazz = analyzerRoot.getAttribute(ConstantAttributes.CLASS).trim();
 		if (!"".equals(clazz)) {
-			builder.clazz(clazz);
+			builder.clazz(pooled(clazz));
 		}
 		String ostype = analyzerRoot.getAttribute(ConstantAttributes.OSTYPE).trim();
 		if (!"".equals(ostype)) {
-			builder.ostype(ostype);
+			builder.ostype(pooled(ostype));
 		}
 		String osversion = analyzerRoot.getAttribute(ConstantAttributes.OSVERSION).trim();
 		if (!"".equals(osversion)) {
-			builder.osversion(osversion);
+			builder.osversion(pooled(osversion));
 		}
 		
 		NodeList children = analyzerRoot.getChildNodes();
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.NODE))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case NODE:
 					// parse node
 					builder.node(parseNode((Element) child));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.PROCESS))) {
+					break;
+				case PROCESS:
 					// parse process
 					builder.process(parseProcess((Element) child));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.ANALYZER))) {
+					break;
+				case ANALYZER:
 					// parse analyzer
 					builder.analyzer(parseAnalyzer((Element) child));
+					break;
 				}
 			}
 		}
@@ -211,16 +261,22 @@ public class HeartbeatxmlParser {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
 				String textContent = child.getTextContent().trim();
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.name))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case NAME:
 					process.setName(textContent);
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.pid))) {
+					break;
+				case PID:
 					process.setPid(Integer.parseInt(textContent));
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.path))) {
+					break;
+				case PATH:
 					process.setPath(textContent);
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.arg))) {
+					break;
+				case ARG:
 					args.add(textContent);
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.env))) {
+					break;
+				case ENV:
 					envs.add(textContent);
+					break;
 				}
 			}
 		}
@@ -243,57 +299,12 @@ public class HeartbeatxmlParser {
 	 */
 	protected IDMEFTime parseTime(Element timeRoot) {
 		IDMEFTime time = new IDMEFTime();
-		NTPStamp stamp = new NTPStamp(timeRoot.getAttribute(ConstantAttributes.ntpstamp));
-		time.setNtpstamp(stamp);
-		String dateTime = timeRoot.getTextContent().trim();
-		timeAdjustment(dateTime, time);
+		String stamp = timeRoot.getAttribute(ConstantAttributes.ntpstamp);
+		time.setNtpstampValue(NTPStamp.parseValue(stamp, 0, stamp.length()));
+		IDMEFtimeCodec.parse(timeRoot.getTextContent(), time);
 		return time;
 	}
 	
-	/**
-	 * Time adjustment method for parsing properly
-	 * 
-	 * @param dateTime
-	 * @param time
-	 */
-	private void timeAdjustment(String dateTime, IDMEFTime time) {
-		if (dateTime.contains("Z")) {
-			// UTC Date
-			time.setUTCtimeInMilis(Instant.parse(dateTime).toEpochMilli());
-		} else {
-			// non-UTC date
-			String[] dateParts = new String[2];
-			if (dateTime.contains("+")) {
-				// dateTime = YYYY-MM-DDThh:mm:ss.ss+hh:mm
-				dateParts = dateTime.split("\\+");
-				time.setOperator(IDMEFTime.Operator.PLUS);
-				
-			} else {
-				// dateTime = YYYY-MM-DDThh:mm:ss.ss-hh:mm
-				int operatorIndex = dateTime.lastIndexOf("-");
-				dateParts[0] = dateTime.substring(0, operatorIndex);
-				dateParts[1] = dateTime.substring(operatorIndex + 1, dateTime.length());
-				time.setOperator(IDMEFTime.Operator.MINUS);
-			}
-			time.setUTCtimeInMilis(Instant.parse(dateParts[0] + "Z").toEpochMilli());
-			time.setAdjustedTime(timeToMiliseconds(dateParts[1]));
-		}
-		
-	}
-	
-	/**
-	 * Converts time (hh:mm) into miliseconds
-	 * 
-	 * @param hhmm
-	 * @return
-	 */
-	private long timeToMiliseconds(String hhmm) {
-		String[] parts = hhmm.split(":");
-		long hourMilis = Integer.parseInt(parts[0]) * 3600000;
-		long minMilis = Integer.parseInt(parts[1]) * 60000;
-		return hourMilis + minMilis;
-	}
-	
 	/**
 	 * Extracts {@link tr.alperenp.sec.idmef.model.alert.support.Node} object from xml
 	 * 
@@ -302,9 +313,10 @@ public class HeartbeatxmlParser {
 	 */
 	protected tr.alperenp.sec.idmef.model.alert.support.Node parseNode(Element NodeRoot) {
 		tr.alperenp.sec.idmef.model.alert.support.Node node = new tr.alperenp.sec.idmef.model.alert.support.Node();
-		String category = NodeRoot.getAttribute(ConstantAttributes.CATEGORY).trim();
-		if (!"".equals(category)) {
-			node.setCategory(tr.alperenp.sec.idmef.model.alert.support.Node.Category.valueOf(category.toUpperCase()));
+		tr.alperenp.sec.idmef.model.alert.support.Node.Category category = keyword(IDMEFkeywordTable.NODE_CATEGORY,
+				NodeRoot.getAttribute(ConstantAttributes.CATEGORY));
+		if (category != null) {
+			node.setCategory(category);
 		}
 		String ident = NodeRoot.getAttribute(ConstantAttributes.IDENT).trim();
 		if (!"".equals(ident)) {
@@ -315,12 +327,16 @@ public class HeartbeatxmlParser {
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.LOCATION))) {
-					node.setLocation(child.getTextContent().trim());
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.name))) {
-					node.setName(child.getTextContent().trim());
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.Address))) {
+				switch (tags.lookup(child.getNodeName())) {
+				case LOCATION:
+					node.setLocation(pooled(child.getTextContent().trim()));
+					break;
+				case NAME:
+					node.setName(pooled(child.getTextContent().trim()));
+					break;
+				case ADDRESS:
 					addresses.add(parseAddress((Element) child));
+					break;
 				}
 			}
 		}
@@ -342,11 +358,10 @@ public class HeartbeatxmlParser {
 		if (!"".equals(ident)) {
 			address.setIdent(ident);
 		}
-		String category = addressRoot.getAttribute(ConstantAttributes.CATEGORY).trim();
-		if (!"".equals(category)) {
-			category = category.replaceAll("-", "");
-			address.setCategory(
-					tr.alperenp.sec.idmef.model.alert.support.Address.Category.valueOf(category.toUpperCase()));
+		tr.alperenp.sec.idmef.model.alert.support.Address.Category category = keyword(
+				IDMEFkeywordTable.ADDRESS_CATEGORY, addressRoot.getAttribute(ConstantAttributes.CATEGORY));
+		if (category != null) {
+			address.setCategory(category);
 		}
 		String vlan_name = addressRoot.getAttribute(ConstantAttributes.VLAN_NAME).trim();
 		if (!"".equals(vlan_name)) {
@@ -361,10 +376,13 @@ public class HeartbeatxmlParser {
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.address))) {
-					address.setAddress(child.getTextContent().trim());
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.netmask))) {
-					address.setNetmask(child.getTextContent().trim());
+				switch (tags.lookup(child.getNodeName())) {
+				case IP_ADDRESS:
+					address.setAddress(pooled(child.getTextContent().trim()));
+					break;
+				case NETMASK:
+					address.setNetmask(pooled(child.getTextContent().trim()));
+					break;
 				}
 			}
 		}
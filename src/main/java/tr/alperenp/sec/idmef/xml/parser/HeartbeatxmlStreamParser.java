@@ -0,0 +1,565 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.parser;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import lombok.NonNull;
+import tr.alperenp.sec.idmef.model.alert.support.Address;
+import tr.alperenp.sec.idmef.model.alert.support.Node;
+import tr.alperenp.sec.idmef.model.alert.support.Process;
+import tr.alperenp.sec.idmef.model.core.AdditionalData;
+import tr.alperenp.sec.idmef.model.core.Analyzer;
+import tr.alperenp.sec.idmef.model.heartbeat.Heartbeat;
+import tr.alperenp.sec.idmef.model.misc.IDMEFTime;
+import tr.alperenp.sec.idmef.model.misc.IenumIDMEF;
+import tr.alperenp.sec.idmef.model.misc.NTPStamp;
+import tr.alperenp.sec.idmef.xml.utils.ConstantAttributes;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFkeywordTable;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFanalyzerRegistry;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFstringPool;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtag;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtagDictionary;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtimeCodec;
+
+/**
+ * StAX counterpart of {@link HeartbeatxmlParser}. Builds the same model objects directly from {@link XMLStreamReader}
+ * events without creating a DOM tree.
+ * <p>
+ * Every parse method expects the reader to be positioned on the START_ELEMENT of the element it extracts and leaves
+ * the reader on the matching END_ELEMENT.
+ * 
+ * @author alperenp
+ * 
+ */
+public class HeartbeatxmlStreamParser {
+	
+	/**
+	 * compiled XML Tag Names to be used in parse operation
+	 */
+	IDMEFtagDictionary tags;
+	
+	/**
+	 * pool of values repeating across messages, null if values are not pooled
+	 */
+	IDMEFstringPool stringPool;
+	
+	/**
+	 * registry of analyzers repeating across messages, null if analyzers are not shared
+	 */
+	IDMEFanalyzerRegistry analyzerRegistry;
+	
+	/**
+	 * receiver of unknown keywords, null if they are ignored
+	 */
+	IDMEFkeywordTable.UnknownKeywordListener unknownKeywordListener;
+	
+	protected HeartbeatxmlStreamParser(@NonNull IDMEFtagDictionary tags) {
+		this.tags = tags;
+	}
+	
+	/**
+	 * @param value
+	 * @return pooled instance of value if a pool is set, value otherwise
+	 */
+	String pooled(String value) {
+		return stringPool == null ? value : stringPool.intern(value);
+	}
+	
+	/**
+	 * @param analyzer top level analyzer of a message
+	 * @return registered instance of analyzer if a registry is set, analyzer otherwise
+	 */
+	Analyzer registered(Analyzer analyzer) {
+		return analyzerRegistry == null ? analyzer : analyzerRegistry.register(analyzer);
+	}
+	
+	/**
+	 * @param table
+	 * @param value keyword read from xml
+	 * @return matching constant, null if value is missing or unknown; unknown ones are given to
+	 *         {@link #unknownKeywordListener}
+	 */
+	<E extends Enum<E> & IenumIDMEF> E keyword(IDMEFkeywordTable<E> table, String value) {
+		return table.parse(value, unknownKeywordListener);
+	}
+	
+	/**
+	 * Extracts {@link Heartbeat} object from xml stream
+	 * 
+	 * @param reader positioned on Heartbeat start element
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	protected Heartbeat parseHeartbeat(XMLStreamReader reader) throws XMLStreamException {
+		return parseHeartbeat(reader, null);
+	}
+	
+	/**
+	 * Extracts {@link Heartbeat} object from xml stream, reusing objects of given holder
+	 * 
+	 * @param reader positioned on Heartbeat start element
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	Heartbeat parseHeartbeat(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		Heartbeat heartbeat = holder == null ? new Heartbeat() : holder.heartbeat();
+		heartbeat.setMessageid(getAttribute(reader, ConstantAttributes.MESSAGEID));
+		List<AdditionalData> extradata = holder == null ? new LinkedList<>() : holder.list();
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case ANALYZER:
+				// parse analyzer
+				heartbeat.setAnalyzer(registered(parseAnalyzer(reader, holder)));
+				break;
+			case CREATETIME:
+				// parse create time
+				heartbeat.setCreateTime(parseTime(reader, holder));
+				break;
+			case HEARTBEATINTERVAL:
+				// parse heartbeat interval
+				short interaval = Short.parseShort(getTextContent(reader));
+				heartbeat.setHeartbeatInterval(interaval);
+				break;
+			case ANALYZERTIME:
+				// parse AnalyzerTime
+				heartbeat.setAnalyzerTime(parseTime(reader, holder));
+				break;
+			case ADDITIONALDATA:
+				// parse additional data
+				extradata.add(parseAdditionalData(reader, holder));
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		if (!extradata.isEmpty()) {
+			heartbeat.setAdditionalDatas(extradata);
+		}
+		
+		return heartbeat;
+	}
+	
+	/**
+	 * Extracts {@link AdditionalData} object from xml stream
+	 * <p>
+	 * WARNING: additional {@link List} of {@link String} values added to standard rfc in order to get value of
+	 * additional information
+	 * 
+	 * @param reader positioned on AdditionalData start element
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	protected AdditionalData parseAdditionalData(XMLStreamReader reader) throws XMLStreamException {
+		return parseAdditionalData(reader, null);
+	}
+	
+	/**
+	 * Extracts {@link AdditionalData} object from xml stream, reusing objects of given holder
+	 * 
+	 * @param reader positioned on AdditionalData start element
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	AdditionalData parseAdditionalData(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		AdditionalData data = holder == null ? new AdditionalData() : holder.additionalData();
+		String meaning = getAttribute(reader, ConstantAttributes.MEANING).trim();
+		if (!"".equals(meaning)) {
+			data.setMeaning(meaning);
+		}
+		
+		AdditionalData.Type type = keyword(IDMEFkeywordTable.ADDITIONALDATA_TYPE,
+				getAttribute(reader, ConstantAttributes.TYPE));
+		if (type != null) {
+			data.setDataType(type);
+		}
+		
+		List<String> values = holder == null ? new LinkedList<>() : holder.list();
+		while (nextChildElement(reader)) {
+			values.add(getTextContent(reader));
+		}
+		data.setValues(values);
+		return data;
+	}
+	
+	/**
+	 * Extracts {@link Analyzer} object from xml stream
+	 * 
+	 * @param reader positioned on Analyzer start element
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	protected Analyzer parseAnalyzer(XMLStreamReader reader) throws XMLStreamException {
+		return parseAnalyzer(reader, null);
+	}
+	
+	/**
+	 * Extracts {@link Analyzer} object from xml stream, reusing objects of given holder
+	 * 
+	 * @param reader positioned on Analyzer start element
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	Analyzer parseAnalyzer(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		Analyzer analyzer = holder == null ? Analyzer.builder().build() : holder.analyzer();
+		String analyzerId = getAttribute(reader, ConstantAttributes.ANALYZERID).trim();
+		if (!"".equals(analyzerId)) {
+			analyzer.setAnalyzerid(pooled(analyzerId));
+		}
+		String name = getAttribute(reader, ConstantAttributes.NAME).trim();
+		if (!"".equals(name)) {
+			analyzer.setName(pooled(name));
+		}
+		String manufacturer = getAttribute(reader, ConstantAttributes.MANUFACTURER).trim();
+		if (!"".equals(manufacturer)) {
+			analyzer.setManufacturer(pooled(manufacturer));
+		}
+		String model = getAttribute(reader, ConstantAttributes.MODEL).trim();
+		if (!"".equals(model)) {
+			analyzer.setModel(pooled(model));
+		}
+		String version = getAttribute(reader, ConstantAttributes.VERSION).trim();
+		if (!"".equals(version)) {
+			analyzer.setVersion(pooled(version));
+		}
+		String clazz = getAttribute(reader, ConstantAttributes.CLASS).trim();
+		if (!"".equals(clazz)) {
+			analyzer.setClazz(pooled(clazz));
+		}
+		String ostype = getAttribute(reader, ConstantAttributes.OSTYPE).trim();
+		if (!"".equals(ostype)) {
+			analyzer.setOstype(pooled(ostype));
+		}
+		String osversion = getAttribute(reader, ConstantAttributes.OSVERSION).trim();
+		if (!"".equals(osversion)) {
+			analyzer.setOsversion(pooled(osversion));
+		}
+		
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case NODE:
+				// parse node
+				analyzer.setNode(parseNode(reader, holder));
+				break;
+			case PROCESS:
+				// parse process
+				analyzer.setProcess(parseProcess(reader, holder));
+				break;
+			case ANALYZER:
+				// parse analyzer
+				analyzer.setAnalyzer(parseAnalyzer(reader, holder));
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		return analyzer;
+	}
+	
+	/**
+	 * Extracts {@link Process} object from xml stream
+	 * 
+	 * @param reader positioned on Process start element
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	protected Process parseProcess(XMLStreamReader reader) throws XMLStreamException {
+		return parseProcess(reader, null);
+	}
+	
+	/**
+	 * Extracts {@link Process} object from xml stream, reusing objects of given holder
+	 * 
+	 * @param reader positioned on Process start element
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	Process parseProcess(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		Process process = holder == null ? new Process() : holder.process();
+		String ident = getAttribute(reader, ConstantAttributes.IDENT).trim();
+		if (!"".equals(ident)) {
+			process.setIdent(ident);
+		}
+		List<String> args = holder == null ? new LinkedList<>() : holder.list();
+		List<String> envs = holder == null ? new LinkedList<>() : holder.list();
+		while (nextChildElement(reader)) {
+			IDMEFtag childTag = getTag(tags, reader);
+			String textContent = getTextContent(reader).trim();
+			switch (childTag) {
+			case NAME:
+				process.setName(textContent);
+				break;
+			case PID:
+				process.setPid(Integer.parseInt(textContent));
+				break;
+			case PATH:
+				process.setPath(textContent);
+				break;
+			case ARG:
+				args.add(textContent);
+				break;
+			case ENV:
+				envs.add(textContent);
+				break;
+			}
+		}
+		if (!args.isEmpty()) {
+			process.setArgs(args);
+		}
+		if (!envs.isEmpty()) {
+			process.setEnvs(envs);
+		}
+		return process;
+	}
+	
+	/**
+	 * Generic Time parser for IDMEF
+	 * <p>
+	 * Use to parse: CreateTime, DetectTime, AnalyzerTime, access-time, modify-time, change-time
+	 * 
+	 * @param reader positioned on time start element
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	protected IDMEFTime parseTime(XMLStreamReader reader) throws XMLStreamException {
+		return parseTime(reader, null);
+	}
+	
+	/**
+	 * Generic Time parser for IDMEF, reusing objects of given holder
+	 * 
+	 * @param reader positioned on time start element
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	IDMEFTime parseTime(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		IDMEFTime time = holder == null ? new IDMEFTime() : holder.time();
+		String stamp = getAttribute(reader, ConstantAttributes.ntpstamp);
+		time.setNtpstampValue(NTPStamp.parseValue(stamp, 0, stamp.length()));
+		IDMEFtimeCodec.parse(getTextContent(reader), time);
+		return time;
+	}
+	
+	/**
+	 * Extracts {@link Node} object from xml stream
+	 * 
+	 * @param reader positioned on Node start element
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	protected Node parseNode(XMLStreamReader reader) throws XMLStreamException {
+		return parseNode(reader, null);
+	}
+	
+	/**
+	 * Extracts {@link Node} object from xml stream, reusing objects of given holder
+	 * 
+	 * @param reader positioned on Node start element
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	Node parseNode(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		Node node = holder == null ? new Node() : holder.node();
+		Node.Category category = keyword(IDMEFkeywordTable.NODE_CATEGORY,
+				getAttribute(reader, ConstantAttributes.CATEGORY));
+		if (category != null) {
+			node.setCategory(category);
+		}
+		String ident = getAttribute(reader, ConstantAttributes.IDENT).trim();
+		if (!"".equals(ident)) {
+			node.setIdent(ident);
+		}
+		List<Address> addresses = holder == null ? new LinkedList<>() : holder.list();
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case LOCATION:
+				node.setLocation(pooled(getTextContent(reader).trim()));
+				break;
+			case NAME:
+				node.setName(pooled(getTextContent(reader).trim()));
+				break;
+			case ADDRESS:
+				addresses.add(parseAddress(reader, holder));
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		if (!addresses.isEmpty()) {
+			node.setAddresses(addresses);
+		}
+		return node;
+	}
+	
+	/**
+	 * Extracts {@link Address} object from xml stream
+	 * 
+	 * @param reader positioned on Address start element
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private Address parseAddress(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		Address address = holder == null ? new Address() : holder.address();
+		String ident = getAttribute(reader, ConstantAttributes.IDENT).trim();
+		if (!"".equals(ident)) {
+			address.setIdent(ident);
+		}
+		Address.Category category = keyword(IDMEFkeywordTable.ADDRESS_CATEGORY,
+				getAttribute(reader, ConstantAttributes.CATEGORY));
+		if (category != null) {
+			address.setCategory(category);
+		}
+		String vlan_name = getAttribute(reader, ConstantAttributes.VLAN_NAME).trim();
+		if (!"".equals(vlan_name)) {
+			address.setVlan_name(vlan_name);
+		}
+		String vlan_num = getAttribute(reader, ConstantAttributes.VLAN_NUM).trim();
+		if (!"".equals(vlan_num)) {
+			address.setVlan_num(Integer.parseInt(vlan_num));
+		}
+		
+		while (nextChildElement(reader)) {
+			switch (getTag(tags, reader)) {
+			case IP_ADDRESS:
+				address.setAddress(pooled(getTextContent(reader).trim()));
+				break;
+			case NETMASK:
+				address.setNetmask(pooled(getTextContent(reader).trim()));
+				break;
+			default:
+				skipElement(reader);
+				break;
+			}
+		}
+		return address;
+	}
+	
+	/* -------- STREAM NAVIGATION UTILS -------- */
+	
+	/**
+	 * Advances the reader to the next child element of the current element.
+	 * 
+	 * @param reader
+	 * @return true if reader is positioned on the START_ELEMENT of a child, false if it reached the END_ELEMENT of the
+	 *         current element
+	 * @throws XMLStreamException
+	 */
+	static boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException {
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				return true;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				return false;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Skips current element with all of its children. Reader is left on the matching END_ELEMENT.
+	 * 
+	 * @param reader
+	 * @throws XMLStreamException
+	 */
+	static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0 && reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+	
+	/**
+	 * Equivalent of {@link org.w3c.dom.Node#getTextContent()}: concatenates all text under the current element. Reader
+	 * is left on the matching END_ELEMENT.
+	 * 
+	 * @param reader
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	static String getTextContent(XMLStreamReader reader) throws XMLStreamException {
+		String first = null;
+		StringBuilder builder = null;
+		int depth = 1;
+		while (depth > 0 && reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			} else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+					|| event == XMLStreamConstants.SPACE) {
+				if (first == null) {
+					first = reader.getText();
+				} else {
+					if (builder == null) {
+						builder = new StringBuilder(first);
+					}
+					builder.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+				}
+			}
+		}
+		if (builder != null) {
+			return builder.toString();
+		}
+		return first == null ? "" : first;
+	}
+	
+	/**
+	 * Equivalent of {@link org.w3c.dom.Element#getAttribute(String)}: returns empty {@link String} if attribute does
+	 * not exist
+	 * 
+	 * @param reader
+	 * @param name
+	 * @return
+	 */
+	static String getAttribute(XMLStreamReader reader, String name) {
+		String value = reader.getAttributeValue(null, name);
+		return value == null ? "" : value;
+	}
+	
+	/**
+	 * Resolves current element to its {@link IDMEFtag} without building the qualified name
+	 * 
+	 * @param tags
+	 * @param reader
+	 * @return
+	 */
+	static IDMEFtag getTag(IDMEFtagDictionary tags, XMLStreamReader reader) {
+		return tags.lookup(reader.getPrefix(), reader.getLocalName());
+	}
+}
\ No newline at end of file
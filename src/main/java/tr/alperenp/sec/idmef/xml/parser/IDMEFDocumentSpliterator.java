@@ -0,0 +1,200 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.DOMException;
+import org.xml.sax.SAXException;
+
+import lombok.NonNull;
+import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFMessage;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFxmlDocumentSplitter;
+
+/**
+ * {@link Spliterator} over a stream of concatenated IDMEF-Message documents, e.g. an archive file. Documents are cut
+ * by {@link IDMEFxmlDocumentSplitter} and parsed one at a time, so memory use does not depend on the length of the
+ * stream. All Alerts and Heartbeats of each document are returned in document order, documents which are not
+ * IDMEF-Message are skipped.
+ * <p>
+ * Splitting for parallel {@link Stream}s reads a batch of raw documents and leaves their parsing to the other thread,
+ * together with the messages left in the current document;
+ * reading stays sequential while parsing runs in parallel. Given parser must then be safe to share between threads:
+ * use StAX engine or {@link ConcurrentIDMEFxmlParser}.
+ * <p>
+ * Read and parse errors are thrown as {@link UncheckedIOException} and {@link IllegalStateException} respectively.
+ * 
+ * @author alperenp
+ * 
+ */
+public class IDMEFDocumentSpliterator implements Spliterator<IDMEFMessage> {
+	
+	/**
+	 * number of documents added to each following batch
+	 */
+	private static final int BATCH_UNIT = 64;
+	
+	private static final int MAX_BATCH = 4096;
+	
+	private final IDMEFxmlParser parser;
+	
+	private final IDMEFxmlDocumentSplitter splitter;
+	
+	private int batch;
+	
+	/**
+	 * messages of current document not returned yet
+	 */
+	private Iterator<IDMEFMessage> pending = Collections.emptyIterator();
+	
+	/**
+	 * @param parser parser of single documents
+	 * @param input stream of documents, not closed by this class
+	 */
+	public IDMEFDocumentSpliterator(@NonNull IDMEFxmlParser parser, @NonNull InputStream input) {
+		this.parser = parser;
+		this.splitter = new IDMEFxmlDocumentSplitter(input);
+	}
+	
+	/**
+	 * creates {@link Iterator} reading messages of given stream one by one
+	 * 
+	 * @param parser
+	 * @param input stream of documents, not closed
+	 * @return
+	 */
+	public static Iterator<IDMEFMessage> iterator(@NonNull IDMEFxmlParser parser, @NonNull InputStream input) {
+		return Spliterators.iterator(new IDMEFDocumentSpliterator(parser, input));
+	}
+	
+	/**
+	 * creates {@link Stream} of messages of given stream
+	 * 
+	 * @param parser
+	 * @param input stream of documents, not closed
+	 * @param parallel true for parallel {@link Stream}, see class description for parser requirements
+	 * @return
+	 */
+	public static Stream<IDMEFMessage> stream(@NonNull IDMEFxmlParser parser, @NonNull InputStream input,
+			boolean parallel) {
+		return StreamSupport.stream(new IDMEFDocumentSpliterator(parser, input), parallel);
+	}
+	
+	/**
+	 * creates {@link Stream} of messages of given file. File is closed when the {@link Stream} is closed, so it should
+	 * be used in try-with-resources
+	 * 
+	 * @param parser
+	 * @param path file of concatenated documents
+	 * @param parallel true for parallel {@link Stream}, see class description for parser requirements
+	 * @return
+	 * @throws IOException if file can not be opened
+	 */
+	public static Stream<IDMEFMessage> stream(@NonNull IDMEFxmlParser parser, @NonNull Path path, boolean parallel)
+			throws IOException {
+		InputStream input = Files.newInputStream(path);
+		return stream(parser, input, parallel).onClose(() -> {
+			try {
+				input.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+	
+	@Override
+	public boolean tryAdvance(Consumer<? super IDMEFMessage> action) {
+		while (!pending.hasNext()) {
+			byte[] document = nextDocument();
+			if (document == null) {
+				return false;
+			}
+			pending = parse(document);
+		}
+		action.accept(pending.next());
+		return true;
+	}
+	
+	@Override
+	public Spliterator<IDMEFMessage> trySplit() {
+		int size = Math.min(batch + BATCH_UNIT, MAX_BATCH);
+		byte[][] documents = new byte[size][];
+		int count = 0;
+		byte[] document;
+		while (count < size && (document = nextDocument()) != null) {
+			documents[count++] = document;
+		}
+		if (count == 0 && !pending.hasNext()) {
+			return null;
+		}
+		batch = count;
+		// rest of current document comes before the batch in encounter order
+		Stream<IDMEFMessage> rest = StreamSupport.stream(Spliterators.spliteratorUnknownSize(pending, ORDERED), false);
+		pending = Collections.emptyIterator();
+		return Stream.concat(rest, Arrays.stream(documents, 0, count).flatMap(this::messages)).spliterator();
+	}
+	
+	@Override
+	public long estimateSize() {
+		return Long.MAX_VALUE;
+	}
+	
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+	
+	private byte[] nextDocument() {
+		try {
+			return splitter.nextDocument();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private Stream<IDMEFMessage> messages(byte[] document) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(parse(document), ORDERED | NONNULL), false);
+	}
+	
+	/**
+	 * @param document
+	 * @return messages of document, created while iterating
+	 */
+	private Iterator<IDMEFMessage> parse(byte[] document) {
+		try {
+			return parser.iterate(new ByteArrayInputStream(document));
+		} catch (ParserConfigurationException | SAXException | IOException | DOMException | ParseException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+}
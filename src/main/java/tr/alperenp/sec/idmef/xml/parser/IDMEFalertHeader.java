@@ -0,0 +1,139 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.parser;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.DOMException;
+import org.xml.sax.SAXException;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import tr.alperenp.sec.idmef.model.alert.Alert;
+import tr.alperenp.sec.idmef.model.assessment.Impact;
+import tr.alperenp.sec.idmef.model.misc.IDMEFTime;
+
+/**
+ * Header of an Alert, i.e. the few values needed to route it, created by
+ * {@link IDMEFxmlParser#parseHeader(byte[], int, int)} without building Source, Target, AdditionalData or any other
+ * subtree. Full {@link Alert} is created on demand by {@link #toAlert()} from the xml the header was parsed from.
+ * <p>
+ * Header keeps a reference to that xml; a byte array given to the parser must not be modified while the header is in
+ * use.
+ * 
+ * @author alperenp
+ * 
+ */
+@ToString
+public class IDMEFalertHeader {
+	
+	/**
+	 * messageid attribute of Alert, null if it does not exist
+	 */
+	@Getter
+	@Setter(AccessLevel.PACKAGE)
+	private String messageid;
+	
+	/**
+	 * analyzerid attribute of Analyzer, null if it does not exist
+	 */
+	@Getter
+	@Setter(AccessLevel.PACKAGE)
+	private String analyzerid;
+	
+	/**
+	 * CreateTime of Alert
+	 */
+	@Getter
+	@Setter(AccessLevel.PACKAGE)
+	private IDMEFTime createTime;
+	
+	/**
+	 * text attribute of Classification
+	 */
+	@Getter
+	@Setter(AccessLevel.PACKAGE)
+	private String classificationText;
+	
+	/**
+	 * severity attribute of Assessment Impact, null if it does not exist
+	 */
+	@Getter
+	@Setter(AccessLevel.PACKAGE)
+	private Impact.Severity severity;
+	
+	/**
+	 * parser which created the header and creates the full Alert
+	 */
+	@ToString.Exclude
+	private final IDMEFxmlParser parser;
+	
+	/**
+	 * xml the header was parsed from, null if it was given as bytes
+	 */
+	@ToString.Exclude
+	private final String xml;
+	
+	/**
+	 * array holding xml the header was parsed from, null if it was given as {@link String}
+	 */
+	@ToString.Exclude
+	private final byte[] data;
+	
+	@ToString.Exclude
+	private final int offset;
+	
+	@ToString.Exclude
+	private final int length;
+	
+	IDMEFalertHeader(IDMEFxmlParser parser, String xml) {
+		this.parser = parser;
+		this.xml = xml;
+		this.data = null;
+		this.offset = 0;
+		this.length = 0;
+	}
+	
+	IDMEFalertHeader(IDMEFxmlParser parser, byte[] data, int offset, int length) {
+		this.parser = parser;
+		this.xml = null;
+		this.data = data;
+		this.offset = offset;
+		this.length = length;
+	}
+	
+	/**
+	 * Parses the whole Alert the header belongs to, including parts outside of {@link IDMEFfieldMask} of the parser.
+	 * Each call creates a new {@link Alert}
+	 * 
+	 * @return
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 * @throws IOException
+	 * @throws DOMException
+	 * @throws ParseException
+	 */
+	public Alert toAlert()
+			throws ParserConfigurationException, SAXException, IOException, DOMException, ParseException {
+		return (Alert) parser.parseUnmasked(xml, data, offset, length);
+	}
+}
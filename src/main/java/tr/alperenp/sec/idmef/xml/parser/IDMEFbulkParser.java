@@ -0,0 +1,207 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.parser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.xml.sax.SAXException;
+
+import lombok.Getter;
+import lombok.NonNull;
+import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFMessage;
+
+/**
+ * Parses many raw documents in parallel on a {@link ForkJoinPool}, e.g. for backfills of archived alerts. Each
+ * document is parsed by a shared {@link IDMEFxmlParser}, which should use StAX engine or be a
+ * {@link ConcurrentIDMEFxmlParser}.
+ * <p>
+ * Documents which cannot be parsed do not abort the batch; they are collected as
+ * {@link IDMEFbulkResult.Failure}s. In order preserving mode messages are returned in input order, otherwise in the
+ * order they are completed, which saves the work of keeping input order across threads.
+ * 
+ * @author alperenp
+ * 
+ */
+public class IDMEFbulkParser {
+	
+	/**
+	 * parser shared by all worker threads
+	 */
+	@Getter private final IDMEFxmlParser parser;
+	
+	/**
+	 * pool whose threads parse the documents
+	 */
+	@Getter private final ForkJoinPool pool;
+	
+	/**
+	 * Constructor which parses on {@link ForkJoinPool#commonPool()}
+	 * 
+	 * @param parser
+	 * @throws IllegalArgumentException if parser cannot be shared by threads
+	 */
+	public IDMEFbulkParser(@NonNull IDMEFxmlParser parser) {
+		this(parser, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * @param parser
+	 * @param pool e.g. new ForkJoinPool(32) to use 32 threads
+	 * @throws IllegalArgumentException if parser cannot be shared by threads
+	 */
+	public IDMEFbulkParser(@NonNull IDMEFxmlParser parser, @NonNull ForkJoinPool pool) {
+		if (!parser.isThreadSafe()) {
+			throw new IllegalArgumentException("parser of DOM engine is not thread safe, use ConcurrentIDMEFxmlParser");
+		}
+		this.parser = parser;
+		this.pool = pool;
+	}
+	
+	/**
+	 * @param documents xml documents
+	 * @param ordered true to preserve input order
+	 * @return
+	 */
+	public IDMEFbulkResult<String> parse(@NonNull Collection<String> documents, boolean ordered) {
+		return parse(documents, ordered, parser::parseXml);
+	}
+	
+	/**
+	 * @param documents xml documents, consumed by the threads of the pool
+	 * @param ordered true to preserve encounter order
+	 * @return
+	 */
+	public IDMEFbulkResult<String> parse(@NonNull Stream<String> documents, boolean ordered) {
+		return parse(documents, ordered, parser::parseXml);
+	}
+	
+	/**
+	 * @param documents xml documents as bytes, encoding is detected from xml declaration
+	 * @param ordered true to preserve input order
+	 * @return
+	 */
+	public IDMEFbulkResult<byte[]> parseBytes(@NonNull Collection<byte[]> documents, boolean ordered) {
+		return parse(documents, ordered, data -> parser.parseXml(data, 0, data.length));
+	}
+	
+	/**
+	 * @param documents xml documents as bytes, consumed by the threads of the pool
+	 * @param ordered true to preserve encounter order
+	 * @return
+	 */
+	public IDMEFbulkResult<byte[]> parseBytes(@NonNull Stream<byte[]> documents, boolean ordered) {
+		return parse(documents, ordered, data -> parser.parseXml(data, 0, data.length));
+	}
+	
+	private <D> IDMEFbulkResult<D> parse(Collection<D> documents, boolean ordered, DocumentParser<D> documentParser) {
+		// indexed access lets the pool split input evenly
+		List<D> list = documents instanceof List && documents instanceof RandomAccess ? (List<D>) documents
+				: new ArrayList<>(documents);
+		List<Outcome<D>> outcomes = pool.invoke(ForkJoinTask.adapt(() -> {
+			IntStream indexes = IntStream.range(0, list.size()).parallel();
+			if (!ordered) {
+				indexes = indexes.unordered();
+			}
+			return indexes.mapToObj(i -> parse(i, list.get(i), documentParser)).collect(Collectors.toList());
+		}));
+		return toResult(outcomes, ordered);
+	}
+	
+	private <D> IDMEFbulkResult<D> parse(Stream<D> documents, boolean ordered, DocumentParser<D> documentParser) {
+		List<Outcome<D>> outcomes = pool.invoke(ForkJoinTask.adapt(() -> {
+			Stream<D> stream = documents.parallel();
+			if (!ordered) {
+				stream = stream.unordered();
+			}
+			return stream.map(document -> parse(-1, document, documentParser)).collect(Collectors.toList());
+		}));
+		if (ordered) {
+			// position in encounter order
+			for (int i = 0; i < outcomes.size(); i++) {
+				outcomes.get(i).index = i;
+			}
+		}
+		return toResult(outcomes, ordered);
+	}
+	
+	private static <D> Outcome<D> parse(int index, D document, DocumentParser<D> documentParser) {
+		Outcome<D> outcome = new Outcome<>(index, document);
+		try {
+			outcome.message = documentParser.parse(document);
+			if (outcome.message == null) {
+				outcome.cause = new SAXException("xml is not an IDMEF-Message or has neither Alert nor Heartbeat");
+			}
+		} catch (Exception e) {
+			outcome.cause = e;
+		}
+		return outcome;
+	}
+	
+	private static <D> IDMEFbulkResult<D> toResult(List<Outcome<D>> outcomes, boolean ordered) {
+		List<IDMEFMessage> messages = new ArrayList<>(outcomes.size());
+		List<IDMEFbulkResult.Failure<D>> failures = new LinkedList<>();
+		int successCount = 0;
+		for (Outcome<D> outcome : outcomes) {
+			if (outcome.cause == null) {
+				messages.add(outcome.message);
+				successCount++;
+			} else {
+				if (ordered) {
+					messages.add(null);
+				}
+				failures.add(new IDMEFbulkResult.Failure<>(outcome.index, outcome.document, outcome.cause));
+			}
+		}
+		return new IDMEFbulkResult<>(messages, failures, successCount);
+	}
+	
+	/**
+	 * parse method of a document type
+	 */
+	@FunctionalInterface
+	private interface DocumentParser<D> {
+		IDMEFMessage parse(D document) throws Exception;
+	}
+	
+	/**
+	 * result of a single document
+	 */
+	private static final class Outcome<D> {
+		
+		private int index;
+		
+		private final D document;
+		
+		private IDMEFMessage message;
+		
+		private Exception cause;
+		
+		private Outcome(int index, D document) {
+			this.index = index;
+			this.document = document;
+		}
+	}
+}
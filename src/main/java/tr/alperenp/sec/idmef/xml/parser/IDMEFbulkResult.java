@@ -0,0 +1,84 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.parser;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Value;
+import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFMessage;
+
+/**
+ * Outcome of a bulk parse by {@link IDMEFbulkParser}: created messages and the documents which could not be parsed
+ * 
+ * @author alperenp
+ * 
+ * @param <D> type of raw documents
+ */
+@Getter
+public class IDMEFbulkResult<D> {
+	
+	/**
+	 * In order preserving mode one entry for each document in input order, null for failed documents. Otherwise
+	 * messages of successfully parsed documents in no particular order
+	 */
+	private final List<IDMEFMessage> messages;
+	
+	/**
+	 * documents which could not be parsed, in input order in order preserving mode
+	 */
+	private final List<Failure<D>> failures;
+	
+	/**
+	 * number of successfully parsed documents
+	 */
+	private final int successCount;
+	
+	IDMEFbulkResult(List<IDMEFMessage> messages, List<Failure<D>> failures, int successCount) {
+		this.messages = messages;
+		this.failures = failures;
+		this.successCount = successCount;
+	}
+	
+	/**
+	 * @return true if at least one document could not be parsed
+	 */
+	public boolean hasFailures() {
+		return !failures.isEmpty();
+	}
+	
+	/**
+	 * A document which could not be parsed
+	 * 
+	 * @param <D> type of raw documents
+	 */
+	@Value
+	public static class Failure<D> {
+		
+		/**
+		 * position of the document in input, -1 if input is a {@link java.util.stream.Stream} parsed without order
+		 */
+		int index;
+		
+		D document;
+		
+		/**
+		 * exception thrown by the parser, or {@link org.xml.sax.SAXException} if xml is not an IDMEF-Message
+		 */
+		Exception cause;
+	}
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.parser;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import tr.alperenp.sec.idmef.xml.utils.ConstantAttributes;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtag;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtagDictionary;
+
+/**
+ * Selection of the parts of messages a consumer needs, given as IDMEF paths, e.g. {@code Alert.Assessment.Impact} or
+ * {@code Alert.Source.Node.Address.address}. Parser given a mask by {@link IDMEFxmlParser#setFieldMask(IDMEFfieldMask)}
+ * skips every element outside of it without creating any object:
+ * <ul>
+ * <li>A path ending with an element keeps the element with all of its content</li>
+ * <li>A path ending with an attribute name, e.g. {@code Alert.Classification.text}, keeps the element with its
+ * attributes but without child elements</li>
+ * <li>Elements on the way of a path are kept with their attributes and only the children selected by paths</li>
+ * <li>Alert and Heartbeat elements are always kept with their attributes; a message without any path keeps nothing
+ * else. Path {@code Alert} alone keeps whole Alerts</li>
+ * </ul>
+ * Names are local element names of tag name Properties of the parser, without prefix, and attribute names as defined
+ * in RFC 4765 for the last name of a path. Instances are immutable and compiled once by each parser they are given
+ * to.
+ * 
+ * @author alperenp
+ * 
+ */
+@EqualsAndHashCode
+public final class IDMEFfieldMask {
+	
+	/**
+	 * names of attributes read by parsers, i.e. values of {@link ConstantAttributes}
+	 */
+	private static final Set<String> ATTRIBUTES = attributeNames();
+	
+	/**
+	 * paths of the mask as given
+	 */
+	private final List<String> paths;
+	
+	private IDMEFfieldMask(List<String> paths) {
+		this.paths = Collections.unmodifiableList(paths);
+	}
+	
+	/**
+	 * @param paths e.g. Alert.Source.Node.Address.address
+	 * @return
+	 * @throws IllegalArgumentException if a path is empty or has an empty name
+	 */
+	public static IDMEFfieldMask of(@NonNull String... paths) {
+		return of(Arrays.asList(paths));
+	}
+	
+	/**
+	 * @param paths e.g. Alert.Source.Node.Address.address
+	 * @return
+	 * @throws IllegalArgumentException if a path is empty or has an empty name
+	 */
+	public static IDMEFfieldMask of(@NonNull Collection<String> paths) {
+		List<String> list = new ArrayList<>(paths.size());
+		for (String path : paths) {
+			String trimmed = path.trim();
+			if (trimmed.isEmpty() || trimmed.startsWith(".") || trimmed.endsWith(".") || trimmed.contains("..")) {
+				throw new IllegalArgumentException("invalid field mask path: " + path);
+			}
+			list.add(trimmed);
+		}
+		return new IDMEFfieldMask(list);
+	}
+	
+	/**
+	 * @return paths of the mask
+	 */
+	public List<String> getPaths() {
+		return paths;
+	}
+	
+	@Override
+	public String toString() {
+		return "IDMEFfieldMask " + paths;
+	}
+	
+	/**
+	 * Resolves names of paths with given tag names
+	 * 
+	 * @param tags
+	 * @return mask of the document level, whose only child is IDMEF-Message
+	 * @throws IllegalArgumentException if a path does not start with Alert or Heartbeat, has an unknown element name
+	 *             before its last name or ends with a name which is neither an element nor an attribute
+	 */
+	Node compile(IDMEFtagDictionary tags) {
+		Node message = new Node();
+		message.add(IDMEFtag.ALERT);
+		message.add(IDMEFtag.HEARTBEAT);
+		for (String path : paths) {
+			String[] names = path.split("\\.");
+			Node node = message;
+			boolean element = true;
+			for (int i = 0; i < names.length && !node.all; i++) {
+				IDMEFtag tag = tags.lookupLocalName(names[i].trim());
+				if (i == 0 && tag != IDMEFtag.ALERT && tag != IDMEFtag.HEARTBEAT) {
+					throw new IllegalArgumentException("field mask path should start with a message: " + path);
+				}
+				if (tag == IDMEFtag.UNKNOWN) {
+					if (i < names.length - 1) {
+						throw new IllegalArgumentException(
+								"unknown element " + names[i] + " in field mask path: " + path);
+					}
+					if (!ATTRIBUTES.contains(names[i].trim())) {
+						throw new IllegalArgumentException(
+								"unknown element or attribute " + names[i] + " in field mask path: " + path);
+					}
+					// attribute of the element selected so far
+					element = false;
+					break;
+				}
+				node = node.add(tag);
+			}
+			if (element) {
+				node.all = true;
+			}
+		}
+		Node document = new Node();
+		document.children[IDMEFtag.IDMEFMESSAGE.ordinal()] = message;
+		return document;
+	}
+	
+	private static Set<String> attributeNames() {
+		Set<String> names = new HashSet<>();
+		for (Field field : ConstantAttributes.class.getFields()) {
+			if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+				try {
+					names.add((String) field.get(null));
+				} catch (IllegalAccessException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		}
+		return Collections.unmodifiableSet(names);
+	}
+	
+	/**
+	 * compiled mask of an element
+	 */
+	static final class Node {
+		
+		/**
+		 * kept with all of its content
+		 */
+		static final Node ALL = new Node();
+		
+		static {
+			ALL.all = true;
+		}
+		
+		/**
+		 * true if element is kept with all of its content
+		 */
+		boolean all;
+		
+		/**
+		 * masks of kept children by {@link IDMEFtag#ordinal()}, null for skipped ones
+		 */
+		final Node[] children = new Node[IDMEFtag.values().length];
+		
+		/**
+		 * @param tag
+		 * @return mask of child element with given tag, null if it is skipped
+		 */
+		Node child(IDMEFtag tag) {
+			return all ? ALL : children[tag.ordinal()];
+		}
+		
+		private Node add(IDMEFtag tag) {
+			Node child = children[tag.ordinal()];
+			if (child == null) {
+				child = new Node();
+				children[tag.ordinal()] = child;
+			}
+			return child;
+		}
+	}
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.parser;
+
+import tr.alperenp.sec.idmef.model.alert.support.Address;
+import tr.alperenp.sec.idmef.model.assessment.Impact;
+import tr.alperenp.sec.idmef.model.core.AdditionalData;
+import tr.alperenp.sec.idmef.model.core.Source;
+import tr.alperenp.sec.idmef.model.core.Target;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtag;
+
+/**
+ * Receiver of IDMEF values pushed by {@link IDMEFxmlParser#parseXml(String, IDMEFhandler)} while xml is read, for
+ * consumers such as counters, samplers or exporters which do not need model objects. No Alert, Heartbeat or other
+ * model object is created; values are given as they appear in xml, keywords as their enum constants.
+ * <p>
+ * Callbacks come in document order. String values are trimmed, except values of AdditionalData, and null if they do
+ * not exist in xml. Every callback
+ * has an empty default, so implementations override only what they use. Exceptions thrown by a callback abort the
+ * parse and reach the caller.
+ * 
+ * @author alperenp
+ * 
+ */
+public interface IDMEFhandler {
+	
+	/**
+	 * IDMEF-Message element of a document is reached
+	 * 
+	 * @param version version attribute
+	 */
+	default void onMessageStart(String version) {
+	}
+	
+	/**
+	 * IDMEF-Message element of a document is finished
+	 */
+	default void onMessageEnd() {
+	}
+	
+	/**
+	 * @param messageid messageid attribute of the Alert
+	 */
+	default void onAlertStart(String messageid) {
+	}
+	
+	default void onAlertEnd() {
+	}
+	
+	/**
+	 * @param messageid messageid attribute of the Heartbeat
+	 */
+	default void onHeartbeatStart(String messageid) {
+	}
+	
+	default void onHeartbeatEnd() {
+	}
+	
+	/**
+	 * Analyzer of current message, followed by the Analyzers it is relayed by
+	 * 
+	 * @param depth 0 for the Analyzer of the message, 1 for the Analyzer under it and so on
+	 * @param analyzerid
+	 * @param name
+	 * @param manufacturer
+	 * @param model
+	 * @param version
+	 * @param clazz class attribute
+	 * @param ostype
+	 * @param osversion
+	 */
+	default void onAnalyzer(int depth, String analyzerid, String name, String manufacturer, String model,
+			String version, String clazz, String ostype, String osversion) {
+	}
+	
+	/**
+	 * CreateTime, DetectTime or AnalyzerTime of current message
+	 * 
+	 * @param tag {@link IDMEFtag#CREATETIME}, {@link IDMEFtag#DETECTTIME} or {@link IDMEFtag#ANALYZERTIME}
+	 * @param ntpstamp
+	 * @param value time as written in xml, see {@link tr.alperenp.sec.idmef.xml.utils.IDMEFtimeCodec}
+	 */
+	default void onTime(IDMEFtag tag, String ntpstamp, String value) {
+	}
+	
+	/**
+	 * Source of current Alert; its Address and Service callbacks follow
+	 * 
+	 * @param ident
+	 * @param spoofed
+	 * @param iface interface attribute
+	 */
+	default void onSource(String ident, Source.Spoofed spoofed, String iface) {
+	}
+	
+	/**
+	 * Target of current Alert; its Address and Service callbacks follow
+	 * 
+	 * @param ident
+	 * @param decoy
+	 * @param iface interface attribute
+	 */
+	default void onTarget(String ident, Target.Decoy decoy, String iface) {
+	}
+	
+	/**
+	 * Address of the Node of an Analyzer, Source or Target
+	 * 
+	 * @param owner {@link IDMEFtag#ANALYZER}, {@link IDMEFtag#SOURCE} or {@link IDMEFtag#TARGET}
+	 * @param category
+	 * @param address
+	 * @param netmask
+	 */
+	default void onAddress(IDMEFtag owner, Address.Category category, String address, String netmask) {
+	}
+	
+	/**
+	 * Service of a Source or Target
+	 * 
+	 * @param owner {@link IDMEFtag#SOURCE} or {@link IDMEFtag#TARGET}
+	 * @param name
+	 * @param port -1 if it does not exist
+	 * @param portlist
+	 * @param protocol
+	 */
+	default void onService(IDMEFtag owner, String name, int port, String portlist, String protocol) {
+	}
+	
+	/**
+	 * @param ident
+	 * @param text
+	 */
+	default void onClassification(String ident, String text) {
+	}
+	
+	/**
+	 * Impact of the Assessment of current Alert
+	 * 
+	 * @param severity
+	 * @param completion
+	 * @param type
+	 */
+	default void onImpact(Impact.Severity severity, Impact.Completion completion, Impact.Type type) {
+	}
+	
+	/**
+	 * AdditionalData of current message, once for each of its values
+	 * 
+	 * @param meaning
+	 * @param type
+	 * @param value
+	 */
+	default void onAdditionalData(String meaning, AdditionalData.Type type, String value) {
+	}
+}
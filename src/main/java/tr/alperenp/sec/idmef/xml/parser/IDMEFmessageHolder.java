@@ -0,0 +1,315 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import lombok.Getter;
+import tr.alperenp.sec.idmef.model.alert.Alert;
+import tr.alperenp.sec.idmef.model.alert.support.Address;
+import tr.alperenp.sec.idmef.model.alert.support.Checksum;
+import tr.alperenp.sec.idmef.model.alert.support.File;
+import tr.alperenp.sec.idmef.model.alert.support.FileAccess;
+import tr.alperenp.sec.idmef.model.alert.support.Inode;
+import tr.alperenp.sec.idmef.model.alert.support.Linkage;
+import tr.alperenp.sec.idmef.model.alert.support.Node;
+import tr.alperenp.sec.idmef.model.alert.support.Process;
+import tr.alperenp.sec.idmef.model.alert.support.Reference;
+import tr.alperenp.sec.idmef.model.alert.support.Service;
+import tr.alperenp.sec.idmef.model.alert.support.User;
+import tr.alperenp.sec.idmef.model.alert.support.UserId;
+import tr.alperenp.sec.idmef.model.assessment.Action;
+import tr.alperenp.sec.idmef.model.assessment.Confidence;
+import tr.alperenp.sec.idmef.model.assessment.Impact;
+import tr.alperenp.sec.idmef.model.core.AdditionalData;
+import tr.alperenp.sec.idmef.model.core.Analyzer;
+import tr.alperenp.sec.idmef.model.core.Assessment;
+import tr.alperenp.sec.idmef.model.core.Classification;
+import tr.alperenp.sec.idmef.model.core.Source;
+import tr.alperenp.sec.idmef.model.core.Target;
+import tr.alperenp.sec.idmef.model.heartbeat.Heartbeat;
+import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFMessage;
+import tr.alperenp.sec.idmef.model.misc.IDMEFTime;
+
+/**
+ * Reusable objects of a message for {@link IDMEFxmlParser#parseXml(byte[], int, int, IDMEFmessageHolder)}, for
+ * single threaded loops which process a message and move on. Model objects and lists of a parsed message are taken
+ * from the holder and {@code reset()} instead of created, so after the first few messages a parse allocates only
+ * values, i.e. strings, port sets and big integers, and the less common subclasses: CorrelationAlert, ToolAlert and
+ * OverflowAlert with their AlertIdents, WebService and SNMPService.
+ * <p>
+ * Ownership: a parse with the holder recycles all objects of the message parsed before with it. The message and
+ * everything reachable from it are valid only until the next parse with the same holder, so a caller must copy
+ * what it keeps and must not hand the message to other threads or caches. Analyzers shared through
+ * {@link tr.alperenp.sec.idmef.xml.utils.IDMEFanalyzerRegistry} are the exception, since the registry keeps its own
+ * copies. Serializing the message with an {@link tr.alperenp.sec.idmef.xml.serializer.IDMEFfragmentCache} is safe as
+ * well: the cache compares pooled Analyzers and Classifications against its own snapshots, not against the recycled
+ * instances. A holder must be used by one thread at a time; the parser itself can still be shared by threads each
+ * having its own holder.
+ * 
+ * @author alperenp
+ * 
+ */
+public class IDMEFmessageHolder {
+	
+	private final Pool<Alert> alerts = new Pool<>(Alert::new, Alert::reset);
+	
+	private final Pool<Heartbeat> heartbeats = new Pool<>(Heartbeat::new, Heartbeat::reset);
+	
+	private final Pool<Source> sources = new Pool<>(Source::new, Source::reset);
+	
+	private final Pool<Target> targets = new Pool<>(Target::new, Target::reset);
+	
+	private final Pool<Node> nodes = new Pool<>(Node::new, Node::reset);
+	
+	private final Pool<Address> addresses = new Pool<>(Address::new, Address::reset);
+	
+	private final Pool<Service> services = new Pool<>(Service::new, Service::reset);
+	
+	private final Pool<Classification> classifications = new Pool<>(Classification::new, Classification::reset);
+	
+	private final Pool<Reference> references = new Pool<>(Reference::new, Reference::reset);
+	
+	private final Pool<Analyzer> analyzers = new Pool<>(() -> Analyzer.builder().build(), Analyzer::reset);
+	
+	private final Pool<Process> processes = new Pool<>(Process::new, Process::reset);
+	
+	private final Pool<Assessment> assessments = new Pool<>(Assessment::new, Assessment::reset);
+	
+	private final Pool<Impact> impacts = new Pool<>(Impact::new, Impact::reset);
+	
+	private final Pool<Action> actions = new Pool<>(Action::new, Action::reset);
+	
+	private final Pool<Confidence> confidences = new Pool<>(() -> new Confidence(Confidence.Rating.NUMERIC),
+			Confidence::reset);
+	
+	private final Pool<User> users = new Pool<>(User::new, User::reset);
+	
+	private final Pool<UserId> userIds = new Pool<>(UserId::new, UserId::reset);
+	
+	private final Pool<File> files = new Pool<>(File::new, File::reset);
+	
+	private final Pool<FileAccess> fileAccesses = new Pool<>(FileAccess::new, FileAccess::reset);
+	
+	private final Pool<Linkage> linkages = new Pool<>(Linkage::new, Linkage::reset);
+	
+	private final Pool<Inode> inodes = new Pool<>(Inode::new, Inode::reset);
+	
+	private final Pool<Checksum> checksums = new Pool<>(Checksum::new, Checksum::reset);
+	
+	private final Pool<AdditionalData> additionalDatas = new Pool<>(AdditionalData::new, AdditionalData::reset);
+	
+	private final Pool<IDMEFTime> times = new Pool<>(IDMEFTime::new, IDMEFTime::reset);
+	
+	private final Pool<List<Object>> lists = new Pool<>(ArrayList::new, List::clear);
+	
+	/**
+	 * message of the last parse with this holder, null if there is none
+	 */
+	@Getter private IDMEFMessage message;
+	
+	/**
+	 * number of objects the holder has created, stops growing once the holder has seen the largest message of a feed
+	 */
+	@Getter private long createdCount;
+	
+	/**
+	 * number of objects the holder has given again
+	 */
+	@Getter private long reusedCount;
+	
+	/**
+	 * makes all objects available again, i.e. invalidates the last message
+	 */
+	void recycle() {
+		message = null;
+		alerts.recycle();
+		heartbeats.recycle();
+		sources.recycle();
+		targets.recycle();
+		nodes.recycle();
+		addresses.recycle();
+		services.recycle();
+		classifications.recycle();
+		references.recycle();
+		analyzers.recycle();
+		processes.recycle();
+		assessments.recycle();
+		impacts.recycle();
+		actions.recycle();
+		confidences.recycle();
+		users.recycle();
+		userIds.recycle();
+		files.recycle();
+		fileAccesses.recycle();
+		linkages.recycle();
+		inodes.recycle();
+		checksums.recycle();
+		additionalDatas.recycle();
+		times.recycle();
+		lists.recycle();
+	}
+	
+	void setMessage(IDMEFMessage message) {
+		this.message = message;
+	}
+	
+	Alert alert() {
+		return alerts.take();
+	}
+	
+	Heartbeat heartbeat() {
+		return heartbeats.take();
+	}
+	
+	Source source() {
+		return sources.take();
+	}
+	
+	Target target() {
+		return targets.take();
+	}
+	
+	Node node() {
+		return nodes.take();
+	}
+	
+	Address address() {
+		return addresses.take();
+	}
+	
+	Service service() {
+		return services.take();
+	}
+	
+	Classification classification() {
+		return classifications.take();
+	}
+	
+	Reference reference() {
+		return references.take();
+	}
+	
+	Analyzer analyzer() {
+		return analyzers.take();
+	}
+	
+	Process process() {
+		return processes.take();
+	}
+	
+	Assessment assessment() {
+		return assessments.take();
+	}
+	
+	Impact impact() {
+		return impacts.take();
+	}
+	
+	Action action() {
+		return actions.take();
+	}
+	
+	Confidence confidence() {
+		return confidences.take();
+	}
+	
+	User user() {
+		return users.take();
+	}
+	
+	UserId userId() {
+		return userIds.take();
+	}
+	
+	File file() {
+		return files.take();
+	}
+	
+	FileAccess fileAccess() {
+		return fileAccesses.take();
+	}
+	
+	Linkage linkage() {
+		return linkages.take();
+	}
+	
+	Inode inode() {
+		return inodes.take();
+	}
+	
+	Checksum checksum() {
+		return checksums.take();
+	}
+	
+	AdditionalData additionalData() {
+		return additionalDatas.take();
+	}
+	
+	IDMEFTime time() {
+		return times.take();
+	}
+	
+	/**
+	 * @return empty list, to be set to only one model object
+	 */
+	@SuppressWarnings("unchecked")
+	<T> List<T> list() {
+		return (List<T>) (List<?>) lists.take();
+	}
+	
+	/**
+	 * objects of one type, the first {@link #used} of them belong to the current message
+	 */
+	private final class Pool<T> {
+		
+		private final List<T> objects = new ArrayList<>();
+		
+		private final Supplier<T> factory;
+		
+		private final Consumer<T> reset;
+		
+		private int used;
+		
+		private Pool(Supplier<T> factory, Consumer<T> reset) {
+			this.factory = factory;
+			this.reset = reset;
+		}
+		
+		private T take() {
+			T object;
+			if (used < objects.size()) {
+				object = objects.get(used);
+				reset.accept(object);
+				reusedCount++;
+			} else {
+				object = factory.get();
+				objects.add(object);
+				createdCount++;
+			}
+			used++;
+			return object;
+		}
+		
+		private void recycle() {
+			used = 0;
+		}
+	}
+}
@@ -18,46 +18,86 @@ package tr.alperenp.sec.idmef.xml.parser;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
 import java.text.ParseException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Properties;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import lombok.NonNull;
+import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFEnvelope;
 import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFMessage;
+import tr.alperenp.sec.idmef.xml.utils.ByteBufferInputStream;
 import tr.alperenp.sec.idmef.xml.utils.ConstantAttributes;
-import tr.alperenp.sec.idmef.xml.utils.ConstantElementNames;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFanalyzerRegistry;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFkeywordTable;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFstringPool;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtag;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtagDictionary;
 import tr.alperenp.sec.idmef.xml.utils.IDMEFxmlUtils;
 
 /**
  * This class is responsible to parse xml IDMEF and create IDMEF object.
  * <p>
- * This parser uses DOM because it is assumed xml is not too large to cause problems in memory and could be faster for
- * de/serialization
+ * Two parse engines are available and selected by the factory given to the constructor:
+ * <ul>
+ * <li>{@link DocumentBuilderFactory}: DOM engine. Whole xml is loaded as {@link Document} and then walked by
+ * {@link AlertxmlParser} and {@link HeartbeatxmlParser}</li>
+ * <li>{@link XMLInputFactory}: StAX engine. Model is built directly from {@link XMLStreamReader} events by
+ * {@link AlertxmlStreamParser} and {@link HeartbeatxmlStreamParser} without creating an intermediate tree, which
+ * avoids the garbage of DOM on high message rates</li>
+ * </ul>
+ * Both engines create the same {@link IDMEFMessage} for the same xml.
+ * <p>
+ * An IDMEF-Message document may carry more than one Alert or Heartbeat. {@code parseXml} methods return the first of
+ * them, {@code parseAll} methods return all of them in an {@link IDMEFEnvelope} and {@code iterate} methods create
+ * them one by one while the caller iterates. {@code parseHeader} methods of StAX engine read only the values needed to
+ * route an Alert into an {@link IDMEFalertHeader}, and an {@link IDMEFfieldMask} limits created messages of StAX
+ * engine to the parts a consumer needs. Consumers which need no model objects at all can give an {@link IDMEFhandler}
+ * to StAX engine, which receives the values while xml is read, and single threaded loops can let StAX engine fill
+ * the reused objects of an {@link IDMEFmessageHolder}.
+ * <p>
+ * DOM engine holds a single {@link DocumentBuilder}, so an instance must not be shared between threads; use
+ * {@link ConcurrentIDMEFxmlParser} for that. StAX engine keeps no state between calls and can be shared once its
+ * factory is configured.
  * 
  * @author alperenp
- *
+ * 
  */
 public class IDMEFxmlParser {
 	
 	/**
-	 * DocumentBuilder for DOM parse
+	 * DocumentBuilder for DOM parse, null if StAX engine is used
 	 */
 	private DocumentBuilder builder;
 	
 	/**
-	 * {@link Properties} object containing XML Tag Names to be used in parse operation
+	 * {@link XMLInputFactory} for StAX parse, null if DOM engine is used
+	 */
+	private XMLInputFactory inputFactory;
+	
+	/**
+	 * XML Tag Names to be used in parse operation, compiled once from given {@link Properties}
 	 */
-	private Properties tagNames;
+	private IDMEFtagDictionary tags;
 	
 	/**
 	 * instance of {@link HeartbeatxmlParser} to speed up parseing
@@ -69,6 +109,46 @@ public class IDMEFxmlParser {
 	 */
 	private AlertxmlParser aParser;
 	
+	/**
+	 * instance of {@link HeartbeatxmlStreamParser} for StAX engine
+	 */
+	private HeartbeatxmlStreamParser hbStreamParser;
+	
+	/**
+	 * instance of {@link AlertxmlStreamParser} for StAX engine
+	 */
+	private AlertxmlStreamParser aStreamParser;
+	
+	/**
+	 * instance of {@link HandlerxmlStreamParser} for StAX engine
+	 */
+	private HandlerxmlStreamParser handlerParser;
+	
+	/**
+	 * pool of values repeating across messages, null if values are not pooled
+	 */
+	private IDMEFstringPool stringPool;
+	
+	/**
+	 * registry of analyzers repeating across messages, null if analyzers are not shared
+	 */
+	private IDMEFanalyzerRegistry analyzerRegistry;
+	
+	/**
+	 * receiver of unknown keywords, null if they are ignored
+	 */
+	private IDMEFkeywordTable.UnknownKeywordListener unknownKeywordListener;
+	
+	/**
+	 * parts of messages to be created, null if messages are created whole
+	 */
+	private IDMEFfieldMask fieldMask;
+	
+	/**
+	 * {@link #fieldMask} compiled with {@link #tags}
+	 */
+	private IDMEFfieldMask.Node compiledFieldMask;
+	
 	/**
 	 * Constructor with {@link DocumentBuilderFactory} which asks user to define factory and give as input
 	 * 
@@ -89,10 +169,141 @@ public class IDMEFxmlParser {
 	 */
 	public IDMEFxmlParser(@NonNull DocumentBuilderFactory factory, @NonNull Properties properties)
 			throws ParserConfigurationException {
-		this.tagNames = properties;
+		this.tags = new IDMEFtagDictionary(properties);
 		builder = factory.newDocumentBuilder();
-		hbParser = new HeartbeatxmlParser(tagNames);
-		aParser = new AlertxmlParser(tagNames);
+		hbParser = new HeartbeatxmlParser(tags);
+		aParser = new AlertxmlParser(tags);
+	}
+	
+	/**
+	 * Constructor with {@link XMLInputFactory} which selects StAX engine. Factory should be configured by user (e.g.
+	 * DTD and external entity support) before given as input
+	 * 
+	 * @param factory
+	 */
+	public IDMEFxmlParser(@NonNull XMLInputFactory factory) {
+		this(factory, new IDMEFxmlUtils().useDefaultProperties());
+	}
+	
+	/**
+	 * Constructor with {@link XMLInputFactory} and {@link Properties} which selects StAX engine and may be required for
+	 * using different tagNames in xml
+	 * 
+	 * @param factory
+	 * @param properties
+	 */
+	public IDMEFxmlParser(@NonNull XMLInputFactory factory, @NonNull Properties properties) {
+		this.tags = new IDMEFtagDictionary(properties);
+		inputFactory = factory;
+		hbStreamParser = new HeartbeatxmlStreamParser(tags);
+		aStreamParser = new AlertxmlStreamParser(tags);
+		handlerParser = new HandlerxmlStreamParser(tags);
+	}
+	
+	/**
+	 * @return pool of repeating values, null if values are not pooled
+	 */
+	public IDMEFstringPool getStringPool() {
+		return stringPool;
+	}
+	
+	/**
+	 * Sets pool which parsed values repeating across messages (e.g. analyzerid, Analyzer attributes, Classification
+	 * text, Node name and Address) are deduplicated by, so that messages kept in memory share one instance of each.
+	 * Should be set before parse starts; pool can be shared by parsers of different threads.
+	 * 
+	 * @param stringPool pool to be used, null to stop pooling
+	 */
+	public void setStringPool(IDMEFstringPool stringPool) {
+		this.stringPool = stringPool;
+		if (hbParser != null) {
+			hbParser.stringPool = stringPool;
+			aParser.commonParser.stringPool = stringPool;
+		}
+		if (hbStreamParser != null) {
+			hbStreamParser.stringPool = stringPool;
+			aStreamParser.commonParser.stringPool = stringPool;
+		}
+	}
+	
+	/**
+	 * @return registry of repeating analyzers, null if analyzers are not shared
+	 */
+	public IDMEFanalyzerRegistry getAnalyzerRegistry() {
+		return analyzerRegistry;
+	}
+	
+	/**
+	 * Sets registry which parsed {@link tr.alperenp.sec.idmef.model.core.Analyzer} of each message is looked up in, so
+	 * that messages of the same sensor share one Analyzer tree. Analyzers of parsed messages are then shared and must
+	 * not be modified. Should be set before parse starts; registry can be shared by parsers of different threads.
+	 * 
+	 * @param analyzerRegistry registry to be used, null to stop sharing
+	 */
+	public void setAnalyzerRegistry(IDMEFanalyzerRegistry analyzerRegistry) {
+		this.analyzerRegistry = analyzerRegistry;
+		if (hbParser != null) {
+			hbParser.analyzerRegistry = analyzerRegistry;
+			aParser.commonParser.analyzerRegistry = analyzerRegistry;
+		}
+		if (hbStreamParser != null) {
+			hbStreamParser.analyzerRegistry = analyzerRegistry;
+			aStreamParser.commonParser.analyzerRegistry = analyzerRegistry;
+		}
+	}
+	
+	/**
+	 * @return receiver of unknown keywords, null if they are ignored
+	 */
+	public IDMEFkeywordTable.UnknownKeywordListener getUnknownKeywordListener() {
+		return unknownKeywordListener;
+	}
+	
+	/**
+	 * Sets receiver of enum attributes whose keyword is not defined by RFC 4765, e.g. an unknown Impact severity. Such
+	 * attributes are left unset either way; listener may log or count them, or reject the message by throwing an
+	 * unchecked exception. Applies to this parser only. Should be set before parse starts; listener is called by all
+	 * threads using the parser.
+	 * 
+	 * @param unknownKeywordListener listener to be used, null to ignore unknown keywords
+	 */
+	public void setUnknownKeywordListener(IDMEFkeywordTable.UnknownKeywordListener unknownKeywordListener) {
+		this.unknownKeywordListener = unknownKeywordListener;
+		if (hbParser != null) {
+			hbParser.unknownKeywordListener = unknownKeywordListener;
+			aParser.commonParser.unknownKeywordListener = unknownKeywordListener;
+		}
+		if (hbStreamParser != null) {
+			hbStreamParser.unknownKeywordListener = unknownKeywordListener;
+			aStreamParser.commonParser.unknownKeywordListener = unknownKeywordListener;
+			handlerParser.unknownKeywordListener = unknownKeywordListener;
+		}
+	}
+	
+	/**
+	 * @return parts of messages created, null if messages are created whole
+	 */
+	public IDMEFfieldMask getFieldMask() {
+		return fieldMask;
+	}
+	
+	/**
+	 * Sets parts of messages to be created by {@code parseXml}, {@code parseAll} and {@code iterate} methods. Elements
+	 * outside of the mask are skipped by the reader without creating any object, so fields of created messages outside
+	 * of the mask are left unset. Mask is compiled once here and used for all messages. Available with StAX engine
+	 * only; should be set before parse starts
+	 * 
+	 * @param fieldMask mask to be used, null to create whole messages
+	 * @throws IllegalArgumentException if a path of the mask does not match tag names of this parser or ends with an
+	 *             unknown attribute
+	 * @throws IllegalStateException if parser uses DOM engine
+	 */
+	public void setFieldMask(IDMEFfieldMask fieldMask) {
+		if (inputFactory == null) {
+			throw new IllegalStateException("field mask requires StAX engine");
+		}
+		this.compiledFieldMask = fieldMask == null ? null : fieldMask.compile(tags);
+		this.fieldMask = fieldMask;
 	}
 	
 	/**
@@ -107,32 +318,707 @@ public class IDMEFxmlParser {
 	 */
 	public IDMEFMessage parseXml(@NonNull String xmlString)
 			throws ParserConfigurationException, SAXException, IOException, DOMException, ParseException {
+		if (inputFactory != null) {
+			return parseStream(xmlString, null);
+		}
+		return parseDocument(getDocumentBuilder().parse(new InputSource(new StringReader(xmlString))));
+	}
+	
+	/**
+	 * parses xml read from given {@link InputStream} and creates {@link IDMEFMessage} object. Encoding is detected by
+	 * the underlying parser from the xml declaration. Stream is not closed.
+	 * 
+	 * @param input
+	 * @return
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 * @throws IOException
+	 * @throws DOMException
+	 * @throws ParseException
+	 */
+	public IDMEFMessage parseXml(@NonNull InputStream input)
+			throws ParserConfigurationException, SAXException, IOException, DOMException, ParseException {
+		if (inputFactory != null) {
+			XMLStreamReader reader = null;
+			try {
+				reader = masked(inputFactory.createXMLStreamReader(input));
+				return parseStream(reader, null);
+			} catch (XMLStreamException e) {
+				throw new SAXException(e.getMessage(), e);
+			} finally {
+				closeQuietly(reader);
+			}
+		}
+		return parseDocument(getDocumentBuilder().parse(input));
+	}
+	
+	/**
+	 * parses xml in given range of byte array and creates {@link IDMEFMessage} object. Array is read in place, no
+	 * copy of the range is made
+	 * 
+	 * @param data
+	 * @param offset start index of xml in data
+	 * @param length number of bytes of xml
+	 * @return
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 * @throws IOException
+	 * @throws DOMException
+	 * @throws ParseException
+	 */
+	public IDMEFMessage parseXml(@NonNull byte[] data, int offset, int length)
+			throws ParserConfigurationException, SAXException, IOException, DOMException, ParseException {
+		checkRange(data, offset, length);
+		return parseXml(new ByteArrayInputStream(data, offset, length));
+	}
+	
+	/**
+	 * parses xml between position and limit of given {@link ByteBuffer} and creates {@link IDMEFMessage} object.
+	 * Heap buffers are read from their backing array, direct buffers through {@link ByteBufferInputStream}; neither
+	 * copies the content. Position of the buffer is not changed
+	 * 
+	 * @param buffer
+	 * @return
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 * @throws IOException
+	 * @throws DOMException
+	 * @throws ParseException
+	 */
+	public IDMEFMessage parseXml(@NonNull ByteBuffer buffer)
+			throws ParserConfigurationException, SAXException, IOException, DOMException, ParseException {
+		if (buffer.hasArray()) {
+			return parseXml(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+		}
+		return parseXml(new ByteBufferInputStream(buffer));
+	}
+	
+	/**
+	 * parses given xml {@link String} into objects of given holder, see
+	 * {@link #parseXml(byte[], int, int, IDMEFmessageHolder)}
+	 * 
+	 * @param xmlString
+	 * @param holder
+	 * @return message owned by holder, valid until the next parse with it
+	 * @throws SAXException
+	 * @throws IllegalStateException if parser uses DOM engine
+	 */
+	public IDMEFMessage parseXml(@NonNull String xmlString, @NonNull IDMEFmessageHolder holder) throws SAXException {
+		if (inputFactory == null) {
+			throw new IllegalStateException("holder parse requires StAX engine");
+		}
+		return parseStream(xmlString, holder);
+	}
+	
+	/**
+	 * parses xml in given range of byte array like {@link #parseXml(byte[], int, int)}, but fills reused objects of
+	 * given holder instead of creating new ones. Message parsed before with the holder is recycled by this call, see
+	 * {@link IDMEFmessageHolder} for ownership rules. Available with StAX engine only
+	 * 
+	 * @param data
+	 * @param offset start index of xml in data
+	 * @param length number of bytes of xml
+	 * @param holder
+	 * @return message owned by holder, valid until the next parse with it
+	 * @throws SAXException
+	 * @throws IllegalStateException if parser uses DOM engine
+	 */
+	public IDMEFMessage parseXml(@NonNull byte[] data, int offset, int length, @NonNull IDMEFmessageHolder holder)
+			throws SAXException {
+		checkRange(data, offset, length);
+		if (inputFactory == null) {
+			throw new IllegalStateException("holder parse requires StAX engine");
+		}
+		XMLStreamReader reader = null;
+		try {
+			reader = masked(inputFactory.createXMLStreamReader(new ByteArrayInputStream(data, offset, length)));
+			return parseStream(reader, holder);
+		} catch (XMLStreamException e) {
+			throw new SAXException(e.getMessage(), e);
+		} finally {
+			closeQuietly(reader);
+		}
+	}
+	
+	/**
+	 * parses only the header of the first Alert in given xml {@link String}, see
+	 * {@link #parseHeader(byte[], int, int)}
+	 * 
+	 * @param xmlString
+	 * @return header of the Alert, null if xml is not an IDMEF-Message or its first message is not an Alert
+	 * @throws SAXException
+	 * @throws IllegalStateException if parser uses DOM engine
+	 */
+	public IDMEFalertHeader parseHeader(@NonNull String xmlString) throws SAXException {
+		return parseHeader(new IDMEFalertHeader(this, xmlString), new StringReader(xmlString), null);
+	}
+	
+	/**
+	 * parses only the header of the first Alert in given range of byte array, i.e. messageid, analyzerid, CreateTime,
+	 * Classification text and Impact severity. Other subtrees are skipped by the reader without creating any object and
+	 * the xml after Assessment is not read at all. Array is not copied but referenced by the header, which creates the
+	 * full Alert from it on demand. Available with StAX engine only
+	 * 
+	 * @param data
+	 * @param offset start index of xml in data
+	 * @param length number of bytes of xml
+	 * @return header of the Alert, null if xml is not an IDMEF-Message or its first message is not an Alert
+	 * @throws SAXException
+	 * @throws IllegalStateException if parser uses DOM engine
+	 */
+	public IDMEFalertHeader parseHeader(@NonNull byte[] data, int offset, int length) throws SAXException {
+		checkRange(data, offset, length);
+		return parseHeader(new IDMEFalertHeader(this, data, offset, length), null,
+				new ByteArrayInputStream(data, offset, length));
+	}
+	
+	/**
+	 * parses given xml {@link String} and pushes values of all Alerts and Heartbeats in it to given handler, see
+	 * {@link #parseXml(InputStream, IDMEFhandler)}
+	 * 
+	 * @param xmlString
+	 * @param handler
+	 * @return number of Alerts and Heartbeats, -1 if xml is not an IDMEF-Message
+	 * @throws SAXException
+	 * @throws IllegalStateException if parser uses DOM engine
+	 */
+	public int parseXml(@NonNull String xmlString, @NonNull IDMEFhandler handler) throws SAXException {
+		if (inputFactory == null) {
+			throw new IllegalStateException("handler parse requires StAX engine");
+		}
+		try {
+			return parse(inputFactory.createXMLStreamReader(new StringReader(xmlString)), handler);
+		} catch (XMLStreamException e) {
+			throw new SAXException(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * parses xml read from given {@link InputStream} and pushes values of all Alerts and Heartbeats in it to given
+	 * handler while reading, without creating any model object. {@link #getFieldMask()} applies as it does for created
+	 * messages. Available with StAX engine only. Stream is not closed.
+	 * 
+	 * @param input
+	 * @param handler
+	 * @return number of Alerts and Heartbeats, -1 if xml is not an IDMEF-Message
+	 * @throws SAXException
+	 * @throws IllegalStateException if parser uses DOM engine
+	 */
+	public int parseXml(@NonNull InputStream input, @NonNull IDMEFhandler handler) throws SAXException {
+		if (inputFactory == null) {
+			throw new IllegalStateException("handler parse requires StAX engine");
+		}
+		try {
+			return parse(inputFactory.createXMLStreamReader(input), handler);
+		} catch (XMLStreamException e) {
+			throw new SAXException(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * parses given xml {@link String} and creates all Alerts and Heartbeats in it
+	 * 
+	 * @param xmlString
+	 * @return envelope holding messages in document order, null if xml is not an IDMEF-Message
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 * @throws IOException
+	 * @throws DOMException
+	 * @throws ParseException
+	 */
+	public IDMEFEnvelope parseAll(@NonNull String xmlString)
+			throws ParserConfigurationException, SAXException, IOException, DOMException, ParseException {
+		return toEnvelope(iterate(xmlString));
+	}
+	
+	/**
+	 * parses xml read from given {@link InputStream} and creates all Alerts and Heartbeats in it. Stream is not closed.
+	 * 
+	 * @param input
+	 * @return envelope holding messages in document order, null if xml is not an IDMEF-Message
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 * @throws IOException
+	 * @throws DOMException
+	 * @throws ParseException
+	 */
+	public IDMEFEnvelope parseAll(@NonNull InputStream input)
+			throws ParserConfigurationException, SAXException, IOException, DOMException, ParseException {
+		return toEnvelope(iterate(input));
+	}
+	
+	/**
+	 * returns an {@link Iterator} creating Alerts and Heartbeats of given xml {@link String} one by one, see
+	 * {@link #iterate(InputStream)}
+	 * 
+	 * @param xmlString
+	 * @return
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 * @throws IOException
+	 * @throws DOMException
+	 * @throws ParseException
+	 */
+	public Iterator<IDMEFMessage> iterate(@NonNull String xmlString)
+			throws ParserConfigurationException, SAXException, IOException, DOMException, ParseException {
+		if (inputFactory != null) {
+			try {
+				return iterate(masked(inputFactory.createXMLStreamReader(new StringReader(xmlString))));
+			} catch (XMLStreamException e) {
+				throw new SAXException(e.getMessage(), e);
+			}
+		}
+		return iterate(getDocumentBuilder().parse(new InputSource(new StringReader(xmlString))));
+	}
+	
+	/**
+	 * returns an {@link Iterator} creating Alerts and Heartbeats read from given {@link InputStream} one by one. Each
+	 * message is created when it is requested, so only one of them has to be kept in memory at a time. StAX engine
+	 * also reads the input while iterating, DOM engine loads the whole document first.
+	 * <p>
+	 * Errors of the document itself are thrown by this method, errors found while iterating are thrown by the
+	 * {@link Iterator} as {@link IllegalStateException}. Stream is not closed.
+	 * 
+	 * @param input
+	 * @return empty iterator if xml is not an IDMEF-Message
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 * @throws IOException
+	 * @throws DOMException
+	 * @throws ParseException
+	 */
+	public Iterator<IDMEFMessage> iterate(@NonNull InputStream input)
+			throws ParserConfigurationException, SAXException, IOException, DOMException, ParseException {
+		if (inputFactory != null) {
+			try {
+				return iterate(masked(inputFactory.createXMLStreamReader(input)));
+			} catch (XMLStreamException e) {
+				throw new SAXException(e.getMessage(), e);
+			}
+		}
+		return iterate(getDocumentBuilder().parse(input));
+	}
+	
+	/**
+	 * @return true if an instance can be shared by threads, i.e. StAX engine is used
+	 */
+	protected boolean isThreadSafe() {
+		return inputFactory != null;
+	}
+	
+	/**
+	 * returns {@link DocumentBuilder} to be used for DOM parse. Subclasses may override to supply a builder per caller
+	 * thread, see {@link ConcurrentIDMEFxmlParser}
+	 * 
+	 * @return
+	 * @throws ParserConfigurationException
+	 */
+	protected DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
+		return builder;
+	}
+	
+	/**
+	 * creates {@link IDMEFMessage} from parsed DOM {@link Document}
+	 * 
+	 * @param doc
+	 * @return first Alert or Heartbeat of the document, null if xml is not an IDMEF-Message or has neither
+	 * @throws DOMException
+	 * @throws ParseException
+	 */
+	private IDMEFMessage parseDocument(Document doc) throws DOMException, ParseException {
 		IDMEFMessage message = null;
-		ByteArrayInputStream input = new ByteArrayInputStream(xmlString.getBytes("UTF-8"));
-		Document doc = builder.parse(input);
 		Node mainTag = doc.getFirstChild();
-		if (!mainTag.getNodeName().equals(tagNames.getProperty(ConstantElementNames.IDMEFMESSAGE))) {
+		if (tags.lookup(mainTag.getNodeName()) != IDMEFtag.IDMEFMESSAGE) {
 			System.err.println("XML does not satisfy IDMEF standards");
 			// return null
 			return message;
 		}
 		
+		// first Alert or Heartbeat, other elements are skipped as DocumentMessageIterator does
 		NodeList children = mainTag.getChildNodes();
-		for (int i = 0; i < children.getLength(); i++) {
+		for (int i = 0; i < children.getLength() && message == null; i++) {
 			Node child = children.item(i);
 			if (child.getNodeType() == Node.ELEMENT_NODE) {
-				if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.HEARTBEAT))) {
-					// parse heartbeat
-					message = hbParser.parseHeartbeat((Element) child);
-				} else if (child.getNodeName().equals(tagNames.getProperty(ConstantElementNames.ALERT))) {
-					// parse alert
-					message = aParser.parseAlert((Element) child);
-				}
-				break;
+				message = parseMessage((Element) child);
 			}
-			
 		}
-		message.setVersion(((Element) mainTag).getAttribute(ConstantAttributes.VERSION));
+		if (message != null) {
+			message.setVersion(((Element) mainTag).getAttribute(ConstantAttributes.VERSION));
+		}
 		return message;
 	}
+	
+	/**
+	 * creates Alert or Heartbeat from given child of IDMEF-Message element
+	 * 
+	 * @param child
+	 * @return null if element is neither Alert nor Heartbeat
+	 * @throws DOMException
+	 * @throws ParseException
+	 */
+	private IDMEFMessage parseMessage(Element child) throws DOMException, ParseException {
+		switch (tags.lookup(child.getNodeName())) {
+		case HEARTBEAT:
+			// parse heartbeat
+			return hbParser.parseHeartbeat(child);
+		case ALERT:
+			// parse alert
+			return aParser.parseAlert(child);
+		default:
+			return null;
+		}
+	}
+	
+	/**
+	 * creates {@link Iterator} over messages of parsed DOM {@link Document}
+	 * 
+	 * @param doc
+	 * @return
+	 */
+	private Iterator<IDMEFMessage> iterate(Document doc) {
+		Element mainTag = doc.getDocumentElement();
+		if (tags.lookup(mainTag.getNodeName()) != IDMEFtag.IDMEFMESSAGE) {
+			return new DocumentMessageIterator(null, null);
+		}
+		return new DocumentMessageIterator(mainTag.getAttribute(ConstantAttributes.VERSION), mainTag.getChildNodes());
+	}
+	
+	/**
+	 * parses given xml {@link String} with StAX engine
+	 * 
+	 * @param xmlString
+	 * @param holder null to create all objects
+	 * @return
+	 * @throws SAXException wrapping {@link XMLStreamException} to keep signature of {@link #parseXml(String)}
+	 */
+	private IDMEFMessage parseStream(String xmlString, IDMEFmessageHolder holder) throws SAXException {
+		XMLStreamReader reader = null;
+		try {
+			reader = masked(inputFactory.createXMLStreamReader(new StringReader(xmlString)));
+			return parseStream(reader, holder);
+		} catch (XMLStreamException e) {
+			throw new SAXException(e.getMessage(), e);
+		} finally {
+			closeQuietly(reader);
+		}
+	}
+	
+	/**
+	 * parses whole message of given xml with StAX engine regardless of {@link #fieldMask}, for
+	 * {@link IDMEFalertHeader#toAlert()}
+	 * 
+	 * @param xmlString null if xml is given as bytes
+	 * @param data
+	 * @param offset
+	 * @param length
+	 * @return
+	 * @throws SAXException wrapping {@link XMLStreamException} as {@link #parseXml(String)} does
+	 */
+	IDMEFMessage parseUnmasked(String xmlString, byte[] data, int offset, int length) throws SAXException {
+		XMLStreamReader reader = null;
+		try {
+			reader = xmlString != null ? inputFactory.createXMLStreamReader(new StringReader(xmlString))
+					: inputFactory.createXMLStreamReader(new ByteArrayInputStream(data, offset, length));
+			return parseStream(reader, null);
+		} catch (XMLStreamException e) {
+			throw new SAXException(e.getMessage(), e);
+		} finally {
+			closeQuietly(reader);
+		}
+	}
+	
+	/**
+	 * @param reader
+	 * @return reader hiding elements outside of {@link #fieldMask}, given reader if there is no mask
+	 */
+	private XMLStreamReader masked(XMLStreamReader reader) {
+		IDMEFfieldMask.Node mask = compiledFieldMask;
+		return mask == null ? reader : new FieldMaskStreamReader(reader, tags, mask);
+	}
+	
+	/**
+	 * creates {@link IDMEFMessage} from given reader which is positioned before the IDMEF-Message element
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return first Alert or Heartbeat of the document, null if xml is not an IDMEF-Message or has neither
+	 * @throws XMLStreamException
+	 */
+	private IDMEFMessage parseStream(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		if (holder != null) {
+			holder.recycle();
+		}
+		IDMEFMessage message = null;
+		while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) {
+			// move to root element
+		}
+		if (!reader.isStartElement()
+				|| HeartbeatxmlStreamParser.getTag(tags, reader) != IDMEFtag.IDMEFMESSAGE) {
+			return null;
+		}
+		String version = HeartbeatxmlStreamParser.getAttribute(reader, ConstantAttributes.VERSION);
+		
+		// first Alert or Heartbeat, other elements are skipped as StreamMessageIterator does
+		while (message == null && HeartbeatxmlStreamParser.nextChildElement(reader)) {
+			message = parseMessage(reader, holder);
+			if (message == null) {
+				HeartbeatxmlStreamParser.skipElement(reader);
+			}
+		}
+		if (message == null) {
+			return null;
+		}
+		message.setVersion(version);
+		if (holder != null) {
+			holder.setMessage(message);
+		}
+		return message;
+	}
+	
+	/**
+	 * pushes values of the document of given reader to handler and closes the reader
+	 * 
+	 * @param reader
+	 * @param handler
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private int parse(XMLStreamReader reader, IDMEFhandler handler) throws XMLStreamException {
+		try {
+			return handlerParser.parseDocument(masked(reader), handler);
+		} finally {
+			closeQuietly(reader);
+		}
+	}
+	
+	/**
+	 * fills given header from a reader created on either given characters or bytes
+	 * 
+	 * @param header
+	 * @param characters
+	 * @param bytes
+	 * @return header, null if xml is not an IDMEF-Message or its first message is not an Alert
+	 * @throws SAXException wrapping {@link XMLStreamException} as {@link #parseXml(String)} does
+	 */
+	private IDMEFalertHeader parseHeader(IDMEFalertHeader header, StringReader characters, InputStream bytes)
+			throws SAXException {
+		if (inputFactory == null) {
+			throw new IllegalStateException("header parse requires StAX engine");
+		}
+		XMLStreamReader reader = null;
+		try {
+			reader = characters != null ? inputFactory.createXMLStreamReader(characters)
+					: inputFactory.createXMLStreamReader(bytes);
+			while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) {
+				// move to root element
+			}
+			if (!reader.isStartElement()
+					|| HeartbeatxmlStreamParser.getTag(tags, reader) != IDMEFtag.IDMEFMESSAGE) {
+				return null;
+			}
+			if (!HeartbeatxmlStreamParser.nextChildElement(reader)
+					|| HeartbeatxmlStreamParser.getTag(tags, reader) != IDMEFtag.ALERT) {
+				return null;
+			}
+			aStreamParser.parseAlertHeader(reader, header);
+			return header;
+		} catch (XMLStreamException e) {
+			throw new SAXException(e.getMessage(), e);
+		} finally {
+			closeQuietly(reader);
+		}
+	}
+	
+	/**
+	 * creates Alert or Heartbeat from child of IDMEF-Message element the reader is positioned on
+	 * 
+	 * @param reader
+	 * @param holder null to create all objects
+	 * @return null if element is neither Alert nor Heartbeat
+	 * @throws XMLStreamException
+	 */
+	private IDMEFMessage parseMessage(XMLStreamReader reader, IDMEFmessageHolder holder) throws XMLStreamException {
+		switch (HeartbeatxmlStreamParser.getTag(tags, reader)) {
+		case HEARTBEAT:
+			// parse heartbeat
+			return hbStreamParser.parseHeartbeat(reader, holder);
+		case ALERT:
+			// parse alert
+			return aStreamParser.parseAlert(reader, holder);
+		default:
+			return null;
+		}
+	}
+	
+	/**
+	 * creates {@link Iterator} over messages of given reader which is positioned before the IDMEF-Message element
+	 * 
+	 * @param reader
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private Iterator<IDMEFMessage> iterate(XMLStreamReader reader) throws XMLStreamException {
+		try {
+			while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) {
+				// move to root element
+			}
+			if (!reader.isStartElement()
+					|| HeartbeatxmlStreamParser.getTag(tags, reader) != IDMEFtag.IDMEFMESSAGE) {
+				closeQuietly(reader);
+				return new StreamMessageIterator(null, null);
+			}
+		} catch (XMLStreamException e) {
+			closeQuietly(reader);
+			throw e;
+		}
+		return new StreamMessageIterator(HeartbeatxmlStreamParser.getAttribute(reader, ConstantAttributes.VERSION),
+				reader);
+	}
+	
+	private static IDMEFEnvelope toEnvelope(Iterator<IDMEFMessage> iterator) {
+		MessageIterator messages = (MessageIterator) iterator;
+		if (messages.version == null) {
+			// not an IDMEF-Message
+			return null;
+		}
+		IDMEFEnvelope envelope = new IDMEFEnvelope();
+		envelope.setVersion(messages.version);
+		while (messages.hasNext()) {
+			envelope.getMessages().add(messages.next());
+		}
+		return envelope;
+	}
+	
+	/**
+	 * @throws IndexOutOfBoundsException if range is not inside data; compared without overflow of offset + length
+	 */
+	private static void checkRange(byte[] data, int offset, int length) {
+		if (offset < 0 || length < 0 || length > data.length - offset) {
+			throw new IndexOutOfBoundsException(
+					"offset: " + offset + ", length: " + length + ", array length: " + data.length);
+		}
+	}
+	
+	private static void closeQuietly(XMLStreamReader reader) {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (XMLStreamException e) {
+				// nothing to do, reader is already consumed
+			}
+		}
+	}
+	
+	/**
+	 * Base of lazy message iterators. Next message is created on {@link #hasNext()} and given version of the
+	 * IDMEF-Message element
+	 */
+	private abstract static class MessageIterator implements Iterator<IDMEFMessage> {
+		
+		/**
+		 * version attribute of IDMEF-Message element, null if document is not an IDMEF-Message
+		 */
+		private final String version;
+		
+		private IDMEFMessage next;
+		
+		private boolean finished;
+		
+		private MessageIterator(String version) {
+			this.version = version;
+			this.finished = version == null;
+		}
+		
+		/**
+		 * @return next Alert or Heartbeat, null if there is none left
+		 */
+		protected abstract IDMEFMessage fetch();
+		
+		@Override
+		public boolean hasNext() {
+			if (next == null && !finished) {
+				next = fetch();
+				if (next == null) {
+					finished = true;
+				} else {
+					next.setVersion(version);
+				}
+			}
+			return next != null;
+		}
+		
+		@Override
+		public IDMEFMessage next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			IDMEFMessage message = next;
+			next = null;
+			return message;
+		}
+	}
+	
+	/**
+	 * iterates over child elements of a parsed IDMEF-Message element
+	 */
+	private class DocumentMessageIterator extends MessageIterator {
+		
+		private final NodeList children;
+		
+		private int index;
+		
+		private DocumentMessageIterator(String version, NodeList children) {
+			super(version);
+			this.children = children;
+		}
+		
+		@Override
+		protected IDMEFMessage fetch() {
+			while (index < children.getLength()) {
+				Node child = children.item(index++);
+				if (child.getNodeType() == Node.ELEMENT_NODE) {
+					try {
+						IDMEFMessage message = parseMessage((Element) child);
+						if (message != null) {
+							return message;
+						}
+					} catch (DOMException | ParseException e) {
+						throw new IllegalStateException(e.getMessage(), e);
+					}
+				}
+			}
+			return null;
+		}
+	}
+	
+	/**
+	 * reads child elements of IDMEF-Message element while iterating. Reader is closed when it is consumed or fails
+	 */
+	private class StreamMessageIterator extends MessageIterator {
+		
+		private final XMLStreamReader reader;
+		
+		private StreamMessageIterator(String version, XMLStreamReader reader) {
+			super(version);
+			this.reader = reader;
+		}
+		
+		@Override
+		protected IDMEFMessage fetch() {
+			try {
+				while (HeartbeatxmlStreamParser.nextChildElement(reader)) {
+					IDMEFMessage message = parseMessage(reader, null);
+					if (message != null) {
+						return message;
+					}
+					HeartbeatxmlStreamParser.skipElement(reader);
+				}
+			} catch (XMLStreamException e) {
+				closeQuietly(reader);
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+			closeQuietly(reader);
+			return null;
+		}
+	}
 }
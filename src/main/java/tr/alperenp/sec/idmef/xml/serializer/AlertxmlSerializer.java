@@ -19,7 +19,6 @@ package tr.alperenp.sec.idmef.xml.serializer;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
-import java.util.stream.Collectors;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -27,6 +26,7 @@ import org.w3c.dom.Element;
 import lombok.NonNull;
 import tr.alperenp.sec.idmef.xml.utils.ConstantAttributes;
 import tr.alperenp.sec.idmef.xml.utils.ConstantElementNames;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFhexCodec;
 import tr.alperenp.sec.idmef.xml.utils.IDMEFxmlUtils;
 import tr.alperenp.sec.idmef.model.alert.Alert;
 import tr.alperenp.sec.idmef.model.alert.CorrelationAlert;
@@ -52,12 +52,12 @@ import tr.alperenp.sec.idmef.model.core.Classification;
 import tr.alperenp.sec.idmef.model.core.Source;
 import tr.alperenp.sec.idmef.model.core.Target;
 import tr.alperenp.sec.idmef.model.misc.AlertIdent;
-import tr.alperenp.sec.idmef.model.misc.IDMEFportRange;
+import tr.alperenp.sec.idmef.model.misc.IDMEFportSet;
 
 /**
  * 
  * @author alperenp
- *
+ * 
  */
 public class AlertxmlSerializer {
 	/**
@@ -256,8 +256,8 @@ public class AlertxmlSerializer {
 		util.createAndAppendStringElementWithTextContent(service.getPort(), document,
 				tagNames.getProperty(ConstantElementNames.port), serviceElement);
 		
-		if (service.getPortlist() != null) {
-			serializePortList(serviceElement, service.getPortlist());
+		if (service.getPortSet() != null) {
+			serializePortList(serviceElement, service.getPortSet());
 		}
 		
 		util.createAndAppendStringElementWithTextContent(service.getProtocol(), document,
@@ -324,9 +324,8 @@ public class AlertxmlSerializer {
 		parentElement.appendChild(webServiceElement);
 	}
 	
-	private void serializePortList(Element parentElement, List<IDMEFportRange> portlist) {
-		String portRanges = portlist.stream().map(portRange -> portRange.toString()).collect(Collectors.joining(","));
-		util.createAndAppendStringElementWithTextContent(portRanges, document,
+	private void serializePortList(Element parentElement, IDMEFportSet portSet) {
+		util.createAndAppendStringElementWithTextContent(portSet.toString(), document,
 				tagNames.getProperty(ConstantElementNames.portlist), parentElement);
 	}
 	
@@ -505,7 +504,7 @@ public class AlertxmlSerializer {
 			
 			parentElement.appendChild(checkSumElement);
 		}
-		
+	
 	}
 	
 	private void serializeAssessment(Element parentElement, Assessment assessment) {
@@ -586,22 +585,14 @@ public class AlertxmlSerializer {
 			util.createAndAppendStringElementWithTextContent(oAlert.getSize().toString(), document,
 					tagNames.getProperty(ConstantElementNames.size), oAlertElement);
 		}
-		if (oAlert.getBuffer() != null) {
-			util.createAndAppendStringElementWithTextContent(binaryListToHexString(oAlert.getBuffer()), document,
+		if (oAlert.getBufferBytes() != null) {
+			util.createAndAppendStringElementWithTextContent(IDMEFhexCodec.encode(oAlert.getBufferBytes()), document,
 					tagNames.getProperty(ConstantElementNames.buffer), oAlertElement);
 		}
 		
 		parentElement.appendChild(oAlertElement);
 	}
 	
-	private String binaryListToHexString(List<Byte> buffer) {
-		StringBuilder sb = new StringBuilder();
-		for (Byte puff : buffer) {
-			sb.append(String.format("%02X ", puff));
-		}
-		return sb.toString().replaceAll(" ", "").toLowerCase();
-	}
-	
 	private void serializeCorrelationAlert(Element parentElement, CorrelationAlert cAlert) {
 		Element cAlertElement = document.createElement(tagNames.getProperty(ConstantElementNames.CORRELATIONALERT));
 		
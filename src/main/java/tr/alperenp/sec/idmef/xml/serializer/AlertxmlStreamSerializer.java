@@ -0,0 +1,570 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.serializer;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+
+import lombok.NonNull;
+import tr.alperenp.sec.idmef.model.alert.Alert;
+import tr.alperenp.sec.idmef.model.alert.CorrelationAlert;
+import tr.alperenp.sec.idmef.model.alert.OverflowAlert;
+import tr.alperenp.sec.idmef.model.alert.ToolAlert;
+import tr.alperenp.sec.idmef.model.alert.support.Checksum;
+import tr.alperenp.sec.idmef.model.alert.support.File;
+import tr.alperenp.sec.idmef.model.alert.support.FileAccess;
+import tr.alperenp.sec.idmef.model.alert.support.FileAccess.Permission;
+import tr.alperenp.sec.idmef.model.alert.support.Inode;
+import tr.alperenp.sec.idmef.model.alert.support.Linkage;
+import tr.alperenp.sec.idmef.model.alert.support.Reference;
+import tr.alperenp.sec.idmef.model.alert.support.SNMPService;
+import tr.alperenp.sec.idmef.model.alert.support.Service;
+import tr.alperenp.sec.idmef.model.alert.support.User;
+import tr.alperenp.sec.idmef.model.alert.support.UserId;
+import tr.alperenp.sec.idmef.model.alert.support.WebService;
+import tr.alperenp.sec.idmef.model.assessment.Action;
+import tr.alperenp.sec.idmef.model.assessment.Confidence;
+import tr.alperenp.sec.idmef.model.assessment.Impact;
+import tr.alperenp.sec.idmef.model.core.Assessment;
+import tr.alperenp.sec.idmef.model.core.Classification;
+import tr.alperenp.sec.idmef.model.core.Source;
+import tr.alperenp.sec.idmef.model.core.Target;
+import tr.alperenp.sec.idmef.model.misc.AlertIdent;
+import tr.alperenp.sec.idmef.model.misc.IDMEFportSet;
+import tr.alperenp.sec.idmef.xml.utils.ConstantAttributes;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtag;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtagDictionary;
+
+/**
+ * Streaming counterpart of {@link AlertxmlSerializer}. Writes the same xml directly to {@link IDMEFxmlWriter} without
+ * creating a DOM tree.
+ * <p>
+ * Keeps no state between calls, a single instance can be used for any number of documents.
+ * 
+ * @author alperenp
+ * 
+ */
+public class AlertxmlStreamSerializer {
+	/**
+	 * compiled XML Tag Names to be used in serialization
+	 */
+	private IDMEFtagDictionary tags;
+	
+	/**
+	 * Common Serializer methods
+	 */
+	HeartbeatxmlStreamSerializer heartbeatSerializer;
+	
+	private final IDMEFfragmentCache.ElementWriter<Classification> classificationWriter = this::serializeClassification;
+	
+	protected AlertxmlStreamSerializer(@NonNull IDMEFtagDictionary tags) {
+		this.tags = tags;
+		heartbeatSerializer = new HeartbeatxmlStreamSerializer(tags);
+	}
+	
+	protected void serializeAlert(IDMEFxmlWriter writer, Alert alert) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.ALERT));
+		
+		if (alert.getMessageid() != null) {
+			writer.attribute(ConstantAttributes.MESSAGEID, alert.getMessageid());
+		}
+		
+		if (alert.getAnalyzer() != null) {
+			heartbeatSerializer.serializeCached(writer, alert.getAnalyzer(), heartbeatSerializer.analyzerWriter);
+		}
+		
+		heartbeatSerializer.serializeTime(writer, alert.getCreateTime(), IDMEFtag.CREATETIME);
+		
+		if (alert.getClassification() != null) {
+			heartbeatSerializer.serializeCached(writer, alert.getClassification(), classificationWriter);
+		}
+		
+		heartbeatSerializer.serializeTime(writer, alert.getDetectTime(), IDMEFtag.DETECTTIME);
+		
+		heartbeatSerializer.serializeTime(writer, alert.getAnalyzerTime(), IDMEFtag.ANALYZERTIME);
+		
+		if (alert.getSources() != null) {
+			serializeSources(writer, alert.getSources());
+		}
+		
+		if (alert.getTargets() != null) {
+			serializeTargets(writer, alert.getTargets());
+		}
+		
+		if (alert.getAssessment() != null) {
+			serializeAssessment(writer, alert.getAssessment());
+		}
+		
+		if (alert.getAdditionalDatas() != null) {
+			heartbeatSerializer.serializeAdditionalDatas(writer, alert.getAdditionalDatas());
+		}
+		
+		// subclasses
+		if (alert instanceof ToolAlert) {
+			serializeToolAlert(writer, (ToolAlert) alert);
+		} else if (alert instanceof OverflowAlert) {
+			serializeOverflowAlert(writer, (OverflowAlert) alert);
+		} else if (alert instanceof CorrelationAlert) {
+			serializeCorrelationAlert(writer, (CorrelationAlert) alert);
+		}
+		
+		writer.endElement();
+	}
+	
+	private void serializeClassification(IDMEFxmlWriter writer, Classification classification) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.CLASSIFICATION));
+		if (classification.getIdent() != null) {
+			writer.attribute(ConstantAttributes.IDENT, classification.getIdent());
+		}
+		
+		if (classification.getText() != null) {
+			writer.attribute(ConstantAttributes.TEXT, classification.getText());
+		}
+		
+		if (classification.getReferences() != null) {
+			serializeReferences(writer, classification.getReferences());
+		}
+		
+		writer.endElement();
+	}
+	
+	private void serializeReferences(IDMEFxmlWriter writer, List<Reference> references) throws IOException {
+		for (Reference reference : references) {
+			writer.startElement(tags.getName(IDMEFtag.REFERENCE));
+			
+			writer.putAttribute(ConstantAttributes.ORIGIN, reference.getOrigin());
+			
+			writer.putAttribute(ConstantAttributes.MEANING, reference.getMeaning());
+			
+			// Required field
+			writer.textElement(tags.getName(IDMEFtag.NAME), reference.getName());
+			
+			// Required field
+			writer.textElement(tags.getName(IDMEFtag.URL), reference.getUrl());
+			
+			writer.endElement();
+		}
+	}
+	
+	private void serializeSources(IDMEFxmlWriter writer, List<Source> sources) throws IOException {
+		for (Source source : sources) {
+			writer.startElement(tags.getName(IDMEFtag.SOURCE));
+			
+			writer.putAttribute(ConstantAttributes.IDENT, source.getIdent());
+			
+			writer.putAttribute(ConstantAttributes.SPOOFED, source.getSpoofed());
+			
+			writer.putAttribute(ConstantAttributes.INTERFACE, source.getIface());
+			
+			if (source.getNode() != null) {
+				heartbeatSerializer.serializeNode(writer, source.getNode());
+			}
+			
+			if (source.getUser() != null) {
+				serializeUser(writer, source.getUser());
+			}
+			
+			if (source.getProcess() != null) {
+				heartbeatSerializer.serializeProcess(writer, source.getProcess());
+			}
+			
+			if (source.getService() != null) {
+				serializeService(writer, source.getService());
+			}
+			writer.endElement();
+		}
+	}
+	
+	private void serializeUser(IDMEFxmlWriter writer, User user) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.USER));
+		
+		writer.putAttribute(ConstantAttributes.IDENT, user.getIdent());
+		
+		writer.putAttribute(ConstantAttributes.CATEGORY, user.getCategory());
+		
+		if (user.getUserIds() != null) {
+			// Required field
+			serializeUserIds(writer, user.getUserIds());
+		}
+		writer.endElement();
+	}
+	
+	private void serializeUserIds(IDMEFxmlWriter writer, List<UserId> userIds) throws IOException {
+		for (UserId userId : userIds) {
+			writer.startElement(tags.getName(IDMEFtag.USERID));
+			
+			writer.putAttribute(ConstantAttributes.IDENT, userId.getIdent());
+			
+			writer.putAttribute(ConstantAttributes.TYPE, userId.getType());
+			
+			writer.putAttribute(ConstantAttributes.TTY, userId.getTty());
+			
+			writer.textElement(tags.getName(IDMEFtag.NAME), userId.getName());
+			
+			writer.textElement(tags.getName(IDMEFtag.NUMBER), userId.getNumber());
+			
+			writer.endElement();
+		}
+	}
+	
+	private void serializeService(IDMEFxmlWriter writer, Service service) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.SERVICE));
+		
+		writer.putAttribute(ConstantAttributes.IDENT, service.getIdent());
+		
+		writer.putAttribute(ConstantAttributes.IP_VERSION, service.getIp_version());
+		
+		writer.putAttribute(ConstantAttributes.IANA_PROTOCOL_NUMBER, service.getIana_protocol_number());
+		
+		writer.putAttribute(ConstantAttributes.IANA_PROTOCOL_NAME, service.getIana_protocol_name());
+		
+		writer.textElement(tags.getName(IDMEFtag.NAME), service.getName());
+		
+		writer.textElement(tags.getName(IDMEFtag.PORT), service.getPort());
+		
+		if (service.getPortSet() != null) {
+			serializePortList(writer, service.getPortSet());
+		}
+		
+		writer.textElement(tags.getName(IDMEFtag.PROTOCOL), service.getProtocol());
+		
+		// sub classes
+		if (service instanceof SNMPService) {
+			serializeSNMPService(writer, (SNMPService) service);
+		} else if (service instanceof WebService) {
+			serializeWebService(writer, (WebService) service);
+		}
+		writer.endElement();
+	}
+	
+	private void serializeSNMPService(IDMEFxmlWriter writer, SNMPService snmpService) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.SNMPSERVICE));
+		
+		writer.textElement(tags.getName(IDMEFtag.OID), snmpService.getOid());
+		
+		writer.textElement(tags.getName(IDMEFtag.MESSAGEPROCESSINGMODEL), snmpService.getMessageProcessingModel());
+		
+		writer.textElement(tags.getName(IDMEFtag.SECURITYMODEL), snmpService.getSecurityModel());
+		
+		writer.textElement(tags.getName(IDMEFtag.SECURITYNAME), snmpService.getSecurityName());
+		
+		writer.textElement(tags.getName(IDMEFtag.SECURITYLEVEL), snmpService.getSecurityLevel());
+		
+		writer.textElement(tags.getName(IDMEFtag.CONTEXTNAME), snmpService.getContextName());
+		
+		writer.textElement(tags.getName(IDMEFtag.CONTEXTENGINEID), snmpService.getContextEngineID());
+		
+		writer.textElement(tags.getName(IDMEFtag.COMMAND), snmpService.getCommand());
+		
+		writer.endElement();
+	}
+	
+	private void serializeWebService(IDMEFxmlWriter writer, WebService webService) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.WEBSERVICE));
+		
+		// Required field
+		writer.textElement(tags.getName(IDMEFtag.URL), webService.getUrl());
+		
+		writer.textElement(tags.getName(IDMEFtag.CGI), webService.getCgi());
+		
+		writer.textElement(tags.getName(IDMEFtag.HTTP_METHOD), webService.getHttp_method());
+		
+		if (webService.getArgs() != null) {
+			for (String arg : webService.getArgs()) {
+				writer.textElement(tags.getName(IDMEFtag.ARG), arg);
+			}
+		}
+		writer.endElement();
+	}
+	
+	private void serializePortList(IDMEFxmlWriter writer, IDMEFportSet portSet) throws IOException {
+		writer.textElement(tags.getName(IDMEFtag.PORTLIST), portSet.toString());
+	}
+	
+	private void serializeTargets(IDMEFxmlWriter writer, List<Target> targets) throws IOException {
+		for (Target target : targets) {
+			writer.startElement(tags.getName(IDMEFtag.TARGET));
+			
+			writer.putAttribute(ConstantAttributes.IDENT, target.getIdent());
+			
+			writer.putAttribute(ConstantAttributes.DECOY, target.getDecoy());
+			
+			writer.putAttribute(ConstantAttributes.INTERFACE, target.getIface());
+			
+			if (target.getNode() != null) {
+				heartbeatSerializer.serializeNode(writer, target.getNode());
+			}
+			
+			if (target.getUser() != null) {
+				serializeUser(writer, target.getUser());
+			}
+			
+			if (target.getProcess() != null) {
+				heartbeatSerializer.serializeProcess(writer, target.getProcess());
+			}
+			
+			if (target.getService() != null) {
+				serializeService(writer, target.getService());
+			}
+			
+			if (target.getFiles() != null) {
+				serializeFiles(writer, target.getFiles());
+			}
+			writer.endElement();
+		}
+	}
+	
+	private void serializeFiles(IDMEFxmlWriter writer, List<File> files) throws IOException {
+		for (File file : files) {
+			writer.startElement(tags.getName(IDMEFtag.FILE));
+			
+			writer.putAttribute(ConstantAttributes.IDENT, file.getIdent());
+			
+			writer.putAttribute(ConstantAttributes.CATEGORY, file.getCategory());
+			
+			writer.putAttribute(ConstantAttributes.FSTYPE, file.getFstype());
+			
+			writer.putAttribute(ConstantAttributes.FILE_TYPE, file.getFile_type());
+			
+			writer.textElement(tags.getName(IDMEFtag.NAME), file.getName());
+			
+			writer.textElement(tags.getName(IDMEFtag.PATH), file.getPath());
+			
+			heartbeatSerializer.serializeTime(writer, file.getCreateTime(), IDMEFtag.CREATE_TIME);
+			
+			heartbeatSerializer.serializeTime(writer, file.getModifyTime(), IDMEFtag.MODIFY_TIME);
+			
+			heartbeatSerializer.serializeTime(writer, file.getAccessTime(), IDMEFtag.ACCESS_TIME);
+			
+			if (file.getDataSize() != null) {
+				writer.textElement(tags.getName(IDMEFtag.DATA_SIZE), file.getDataSize().toString());
+			}
+			
+			if (file.getDiskSize() != null) {
+				writer.textElement(tags.getName(IDMEFtag.DISK_SIZE), file.getDiskSize().toString());
+			}
+			
+			if (file.getFileAccesses() != null) {
+				serializeFileAccesses(writer, file.getFileAccesses());
+			}
+			
+			if (file.getLinkages() != null) {
+				serializeLinkages(writer, file.getLinkages());
+			}
+			
+			if (file.getInode() != null) {
+				serializeINode(writer, file.getInode());
+			}
+			
+			if (file.getChecksums() != null) {
+				serializeChecksums(writer, file.getChecksums());
+			}
+			
+			writer.endElement();
+		}
+	}
+	
+	private void serializeFileAccesses(IDMEFxmlWriter writer, List<FileAccess> accesses) throws IOException {
+		for (FileAccess fileAccess : accesses) {
+			writer.startElement(tags.getName(IDMEFtag.FILEACCESS));
+			
+			if (fileAccess.getUserId() != null) {
+				List<UserId> ids = new LinkedList<>();
+				ids.add(fileAccess.getUserId());
+				serializeUserIds(writer, ids);
+			}
+			
+			if (fileAccess.getPermissions() != null) {
+				// Required field
+				for (Permission permission : fileAccess.getPermissions()) {
+					writer.startElement(tags.getName(IDMEFtag.PERMISSION));
+					writer.putAttribute(ConstantAttributes.perms, permission);
+					writer.endElement();
+				}
+			}
+			
+			writer.endElement();
+		}
+	}
+	
+	private void serializeLinkages(IDMEFxmlWriter writer, List<Linkage> linkages) throws IOException {
+		for (Linkage linkage : linkages) {
+			writer.startElement(tags.getName(IDMEFtag.LINKAGE));
+			
+			writer.putAttribute(ConstantAttributes.CATEGORY, linkage.getCategory());
+			
+			writer.textElement(tags.getName(IDMEFtag.NAME), linkage.getName());
+			
+			writer.textElement(tags.getName(IDMEFtag.PATH), linkage.getPath());
+			
+			if (linkage.getFile() != null) {
+				List<File> files = new LinkedList<>();
+				files.add(linkage.getFile());
+				serializeFiles(writer, files);
+			}
+			
+			writer.endElement();
+		}
+	}
+	
+	private void serializeINode(IDMEFxmlWriter writer, Inode iNode) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.INODE));
+		
+		heartbeatSerializer.serializeTime(writer, iNode.getChangeTime(), IDMEFtag.CHANGE_TIME);
+		
+		writer.textElement(tags.getName(IDMEFtag.NUMBER), iNode.getNumber());
+		
+		writer.textElement(tags.getName(IDMEFtag.MAJOR_DEVICE), iNode.getMajorDevice());
+		
+		writer.textElement(tags.getName(IDMEFtag.MINOR_DEVICE), iNode.getMinorDevice());
+		
+		writer.textElement(tags.getName(IDMEFtag.C_MAJOR_DEVICE), iNode.getCMajorDevice());
+		
+		writer.textElement(tags.getName(IDMEFtag.C_MINOR_DEVICE), iNode.getCMinorDevice());
+		
+		writer.endElement();
+	}
+	
+	private void serializeChecksums(IDMEFxmlWriter writer, List<Checksum> checksums) throws IOException {
+		for (Checksum checksum : checksums) {
+			if (checksum.getValue() == null) {
+				// without value, checksum makes no sense. Therefore, it is skipped if it does not exist
+				continue;
+			}
+			
+			writer.startElement(tags.getName(IDMEFtag.CHECKSUM));
+			
+			writer.putAttribute(ConstantAttributes.ALGORITHM, checksum.getAlgorithm());
+			
+			writer.textElement(tags.getName(IDMEFtag.VALUE), checksum.getValue());
+			
+			writer.textElement(tags.getName(IDMEFtag.KEY), checksum.getKey());
+			
+			writer.endElement();
+		}
+	
+	}
+	
+	private void serializeAssessment(IDMEFxmlWriter writer, Assessment assessment) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.ASSESSMENT));
+		
+		if (assessment.getImpact() != null) {
+			serializeImpact(writer, assessment.getImpact());
+		}
+		
+		if (assessment.getActions() != null) {
+			serializeActions(writer, assessment.getActions());
+		}
+		
+		if (assessment.getConfidence() != null) {
+			serializeConfidence(writer, assessment.getConfidence());
+		}
+		writer.endElement();
+	}
+	
+	private void serializeImpact(IDMEFxmlWriter writer, Impact impact) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.IMPACT));
+		
+		writer.putAttribute(ConstantAttributes.SEVERITY, impact.getSeverity());
+		
+		writer.putAttribute(ConstantAttributes.COMPLETION, impact.getCompletion());
+		
+		writer.putAttribute(ConstantAttributes.TYPE, impact.getType());
+		
+		writer.endElement();
+	}
+	
+	private void serializeActions(IDMEFxmlWriter writer, List<Action> actions) throws IOException {
+		for (Action action : actions) {
+			writer.startElement(tags.getName(IDMEFtag.ACTION));
+			
+			// Required field
+			writer.putAttribute(ConstantAttributes.CATEGORY, action.getCategory());
+			
+			if (action.getDescription() != null) {
+				// Required field
+				writer.text(action.getDescription());
+			}
+			writer.endElement();
+		}
+	}
+	
+	private void serializeConfidence(IDMEFxmlWriter writer, Confidence confidence) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.CONFIDENCE));
+		
+		writer.putAttribute(ConstantAttributes.RATING, confidence.getRating());
+		
+		writer.endElement();
+	}
+	
+	private void serializeToolAlert(IDMEFxmlWriter writer, ToolAlert tAlert) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.TOOLALERT));
+		
+		writer.textElement(tags.getName(IDMEFtag.NAME), tAlert.getName());
+		
+		writer.textElement(tags.getName(IDMEFtag.COMMAND), tAlert.getCommand());
+		
+		if (tAlert.getAlertidents() != null) {
+			serializeAlertIdents(writer, tAlert.getAlertidents());
+		}
+		
+		writer.endElement();
+	}
+	
+	private void serializeOverflowAlert(IDMEFxmlWriter writer, OverflowAlert oAlert) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.OVERFLOWALERT));
+		
+		writer.textElement(tags.getName(IDMEFtag.PROGRAM), oAlert.getProgram());
+		
+		if (oAlert.getSize() != null) {
+			writer.textElement(tags.getName(IDMEFtag.SIZE), oAlert.getSize().toString());
+		}
+		writer.textElement(tags.getName(IDMEFtag.BUFFER), oAlert.getBufferBytes());
+		
+		writer.endElement();
+	}
+	
+	private void serializeCorrelationAlert(IDMEFxmlWriter writer, CorrelationAlert cAlert) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.CORRELATIONALERT));
+		
+		writer.textElement(tags.getName(IDMEFtag.NAME), cAlert.getName());
+		
+		if (cAlert.getAlertidents() != null) {
+			// Required field
+			serializeAlertIdents(writer, cAlert.getAlertidents());
+		}
+		
+		writer.endElement();
+	}
+	
+	private void serializeAlertIdents(IDMEFxmlWriter writer, List<AlertIdent> alertIdents) throws IOException {
+		for (AlertIdent alertIdent : alertIdents) {
+			writer.startElement(tags.getName(IDMEFtag.ALERTIDENT));
+			
+			// attributes must be written before content
+			writer.putAttribute(ConstantAttributes.ANALYZERID, alertIdent.getAnalyzerId());
+			
+			if (alertIdent.getAlertident() != null) {
+				// Required field
+				writer.text(alertIdent.getAlertident());
+			}
+			
+			writer.endElement();
+		}
+	}
+}
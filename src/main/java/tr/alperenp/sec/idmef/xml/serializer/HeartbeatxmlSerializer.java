@@ -16,7 +16,6 @@
 
 package tr.alperenp.sec.idmef.xml.serializer;
 
-import java.time.Instant;
 import java.util.List;
 import java.util.Properties;
 
@@ -31,14 +30,16 @@ import tr.alperenp.sec.idmef.model.core.Analyzer;
 import tr.alperenp.sec.idmef.model.alert.support.Process;
 import tr.alperenp.sec.idmef.model.heartbeat.Heartbeat;
 import tr.alperenp.sec.idmef.model.misc.IDMEFTime;
+import tr.alperenp.sec.idmef.model.misc.NTPStamp;
 import tr.alperenp.sec.idmef.xml.utils.ConstantAttributes;
 import tr.alperenp.sec.idmef.xml.utils.ConstantElementNames;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtimeCodec;
 import tr.alperenp.sec.idmef.xml.utils.IDMEFxmlUtils;
 
 /**
  * 
  * @author alperenp
- *
+ * 
  */
 public class HeartbeatxmlSerializer {
 	/**
@@ -56,6 +57,11 @@ public class HeartbeatxmlSerializer {
 	 */
 	private IDMEFxmlUtils util;
 	
+	/**
+	 * buffer ntpstamp attributes are formatted into
+	 */
+	private final char[] ntpstampChars = new char[NTPStamp.LENGTH];
+	
 	protected HeartbeatxmlSerializer(@NonNull Document doc, @NonNull Properties properties) {
 		this.tagNames = properties;
 		this.document = doc;
@@ -97,7 +103,8 @@ public class HeartbeatxmlSerializer {
 			additionalDataElement.setAttribute(ConstantAttributes.TYPE, data.getDataType().getKeyword());
 			additionalDataElement.setAttribute(ConstantAttributes.MEANING, data.getMeaning());
 			
-			String typeElementName = "idmef:" + data.getDataType().getKeyword();
+			String typeElementName = IDMEFxmlUtils.getPrefix(additionalDataElement.getTagName())
+					+ data.getDataType().getKeyword();
 			for (String value : data.getValues()) {
 				
 				util.createAndAppendStringElementWithTextContent(value, document, typeElementName,
@@ -108,52 +115,15 @@ public class HeartbeatxmlSerializer {
 	}
 	
 	protected void serializeTime(Element parentElement, IDMEFTime time, String elementName) {
-		if (time != null && time.getNtpstamp() != null) {
+		if (time != null && time.hasNtpstamp()) {
 			Element timeElement = document.createElement(tagNames.getProperty(elementName));
-			timeElement.setAttribute(ConstantAttributes.ntpstamp, time.getNtpstamp().getNtpstamp());
-			timeElement.setTextContent(createTimeString(time));
+			int length = NTPStamp.format(time.getNtpstampValue(), ntpstampChars, 0);
+			timeElement.setAttribute(ConstantAttributes.ntpstamp, new String(ntpstampChars, 0, length));
+			timeElement.setTextContent(IDMEFtimeCodec.format(time));
 			parentElement.appendChild(timeElement);
 		}
 	}
 	
-	/**
-	 * @param time
-	 * @return
-	 */
-	private String createTimeString(IDMEFTime time) {
-		// Serialize in UTC
-		// YYYY-MM-ddTHH:mm:ss.(SSS)
-		String timeStr = Instant.ofEpochMilli(time.getUTCtimeInMilis()).toString();
-		
-		// TODO: modify precision since time is capable of (SSS) for miliseconds
-		
-		if (time.getAdjustedTime() != 0L) {
-			StringBuilder builder = new StringBuilder();
-			// 2000-03-09T10:01:25.93464-05:00
-			// YYYY-MM-ddTHH:mm:ss[+/-]HH:mm
-			builder.append(timeStr.substring(0, timeStr.length() - 1)).append(time.getOperator().getValue())
-					.append(getAdjustedTime(time.getAdjustedTime()));
-			timeStr = builder.toString();
-			// Serialize time adjustment
-		}
-		return timeStr;
-	}
-	
-	private String getAdjustedTime(long timeInMiliseconds) {
-		String hour = Long.toString((timeInMiliseconds / 3600000) % 24);
-		String min = Long.toString((timeInMiliseconds / 60000) % 60);
-		StringBuilder builder = new StringBuilder();
-		if (hour.length() == 1) {
-			builder.append("0");
-		}
-		builder.append(hour).append(":");
-		if (min.length() == 1) {
-			builder.append("0");
-		}
-		builder.append(min);
-		return builder.toString();
-	}
-	
 	protected void serializeAnalyzer(Element parentElement, Analyzer analyzer) {
 		Element analyzerElement = document.createElement(tagNames.getProperty(ConstantElementNames.ANALYZER));
 		
@@ -0,0 +1,228 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.serializer;
+
+import java.io.IOException;
+import java.util.List;
+
+import lombok.NonNull;
+import tr.alperenp.sec.idmef.model.alert.support.Address;
+import tr.alperenp.sec.idmef.model.alert.support.Node;
+import tr.alperenp.sec.idmef.model.alert.support.Process;
+import tr.alperenp.sec.idmef.model.core.AdditionalData;
+import tr.alperenp.sec.idmef.model.core.Analyzer;
+import tr.alperenp.sec.idmef.model.heartbeat.Heartbeat;
+import tr.alperenp.sec.idmef.model.misc.IDMEFTime;
+import tr.alperenp.sec.idmef.xml.utils.ConstantAttributes;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtag;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtagDictionary;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFxmlUtils;
+
+/**
+ * Streaming counterpart of {@link HeartbeatxmlSerializer}. Writes the same xml directly to {@link IDMEFxmlWriter}
+ * without creating a DOM tree.
+ * <p>
+ * Keeps no state between calls, a single instance can be used for any number of documents.
+ * 
+ * @author alperenp
+ * 
+ */
+public class HeartbeatxmlStreamSerializer {
+	
+	/**
+	 * compiled XML Tag Names to be used in serialization
+	 */
+	private IDMEFtagDictionary tags;
+	
+	/**
+	 * cache of blocks repeating across messages, null if every block is rendered
+	 */
+	IDMEFfragmentCache fragmentCache;
+	
+	final IDMEFfragmentCache.ElementWriter<Analyzer> analyzerWriter = this::serializeAnalyzer;
+	
+	protected HeartbeatxmlStreamSerializer(@NonNull IDMEFtagDictionary tags) {
+		this.tags = tags;
+	}
+	
+	/**
+	 * writes a block repeating across messages through {@link #fragmentCache} if it is set
+	 * 
+	 * @param writer
+	 * @param value
+	 * @param elementWriter
+	 * @throws IOException
+	 */
+	<T> void serializeCached(IDMEFxmlWriter writer, T value, IDMEFfragmentCache.ElementWriter<T> elementWriter)
+			throws IOException {
+		if (fragmentCache == null) {
+			elementWriter.write(writer, value);
+		} else {
+			fragmentCache.write(writer, value, elementWriter);
+		}
+	}
+	
+	protected void serializeHeartbeat(IDMEFxmlWriter writer, Heartbeat heartbeat) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.HEARTBEAT));
+		writer.putAttribute(ConstantAttributes.MESSAGEID, heartbeat.getMessageid());
+		
+		if (heartbeat.getAnalyzer() != null) {
+			serializeCached(writer, heartbeat.getAnalyzer(), analyzerWriter);
+		}
+		
+		serializeTime(writer, heartbeat.getCreateTime(), IDMEFtag.CREATETIME);
+		
+		writer.textElement(tags.getName(IDMEFtag.HEARTBEATINTERVAL), heartbeat.getHeartbeatInterval());
+		
+		serializeTime(writer, heartbeat.getAnalyzerTime(), IDMEFtag.ANALYZERTIME);
+		
+		if (heartbeat.getAdditionalDatas() != null) {
+			serializeAdditionalDatas(writer, heartbeat.getAdditionalDatas());
+		}
+		
+		writer.endElement();
+	}
+	
+	protected void serializeAdditionalDatas(IDMEFxmlWriter writer, List<AdditionalData> additionalDatas)
+			throws IOException {
+		for (AdditionalData data : additionalDatas) {
+			
+			if (data.getValues() == null) {
+				// without values additional data does not makes sense. Therefore they are not added
+				continue;
+			}
+			
+			writer.startElement(tags.getName(IDMEFtag.ADDITIONALDATA));
+			writer.attribute(ConstantAttributes.TYPE, data.getDataType().getKeyword());
+			writer.attribute(ConstantAttributes.MEANING, data.getMeaning());
+			
+			String typeElementName = IDMEFxmlUtils.getPrefix(tags.getName(IDMEFtag.ADDITIONALDATA))
+					+ data.getDataType().getKeyword();
+			for (String value : data.getValues()) {
+				writer.textElement(typeElementName, value);
+			}
+			writer.endElement();
+		}
+	}
+	
+	protected void serializeTime(IDMEFxmlWriter writer, IDMEFTime time, IDMEFtag tag) throws IOException {
+		if (time != null && time.hasNtpstamp()) {
+			writer.startElement(tags.getName(tag));
+			writer.ntpstampAttribute(ConstantAttributes.ntpstamp, time.getNtpstampValue());
+			writer.text(time);
+			writer.endElement();
+		}
+	}
+	
+	protected void serializeAnalyzer(IDMEFxmlWriter writer, Analyzer analyzer) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.ANALYZER));
+		
+		writer.putAttribute(ConstantAttributes.ANALYZERID, analyzer.getAnalyzerid());
+		
+		writer.putAttribute(ConstantAttributes.NAME, analyzer.getName());
+		
+		writer.putAttribute(ConstantAttributes.MANUFACTURER, analyzer.getManufacturer());
+		
+		writer.putAttribute(ConstantAttributes.MODEL, analyzer.getModel());
+		
+		writer.putAttribute(ConstantAttributes.VERSION, analyzer.getVersion());
+		
+		writer.putAttribute(ConstantAttributes.CLASS, analyzer.getClazz());
+		
+		writer.putAttribute(ConstantAttributes.OSTYPE, analyzer.getOstype());
+		
+		writer.putAttribute(ConstantAttributes.OSVERSION, analyzer.getOsversion());
+		
+		if (analyzer.getNode() != null) {
+			serializeNode(writer, analyzer.getNode());
+		}
+		
+		if (analyzer.getProcess() != null) {
+			serializeProcess(writer, analyzer.getProcess());
+		}
+		
+		if (analyzer.getAnalyzer() != null) {
+			serializeAnalyzer(writer, analyzer.getAnalyzer());
+		}
+		
+		writer.endElement();
+	}
+	
+	protected void serializeNode(IDMEFxmlWriter writer, Node node) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.NODE));
+		
+		writer.putAttribute(ConstantAttributes.IDENT, node.getIdent());
+		
+		writer.putAttribute(ConstantAttributes.CATEGORY, node.getCategory());
+		
+		writer.textElement(tags.getName(IDMEFtag.LOCATION), node.getLocation());
+		
+		writer.textElement(tags.getName(IDMEFtag.NAME), node.getName());
+		
+		if (node.getAddresses() != null) {
+			serializeAddress(writer, node.getAddresses());
+		}
+		
+		writer.endElement();
+	}
+	
+	protected void serializeProcess(IDMEFxmlWriter writer, Process process) throws IOException {
+		writer.startElement(tags.getName(IDMEFtag.PROCESS));
+		
+		writer.putAttribute(ConstantAttributes.IDENT, process.getIdent());
+		
+		writer.textElement(tags.getName(IDMEFtag.NAME), process.getName());
+		
+		writer.textElement(tags.getName(IDMEFtag.PID), process.getPid());
+		
+		writer.textElement(tags.getName(IDMEFtag.PATH), process.getPath());
+		
+		if (process.getArgs() != null) {
+			for (String arg : process.getArgs()) {
+				writer.textElement(tags.getName(IDMEFtag.ARG), arg);
+			}
+		}
+		
+		if (process.getEnvs() != null) {
+			for (String env : process.getEnvs()) {
+				writer.textElement(tags.getName(IDMEFtag.ENV), env);
+			}
+		}
+		
+		writer.endElement();
+	}
+	
+	private void serializeAddress(IDMEFxmlWriter writer, List<Address> addresses) throws IOException {
+		for (Address address : addresses) {
+			writer.startElement(tags.getName(IDMEFtag.ADDRESS));
+			
+			writer.putAttribute(ConstantAttributes.IDENT, address.getIdent());
+			
+			writer.putAttribute(ConstantAttributes.CATEGORY, address.getCategory());
+			
+			writer.putAttribute(ConstantAttributes.VLAN_NAME, address.getVlan_name());
+			
+			writer.putAttribute(ConstantAttributes.VLAN_NUM, address.getVlan_num());
+			
+			writer.textElement(tags.getName(IDMEFtag.IP_ADDRESS), address.getAddress());
+			
+			writer.textElement(tags.getName(IDMEFtag.NETMASK), address.getNetmask());
+			
+			writer.endElement();
+		}
+	}
+}
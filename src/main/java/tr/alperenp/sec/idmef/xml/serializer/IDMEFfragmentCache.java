@@ -0,0 +1,376 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.serializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+import lombok.NonNull;
+import tr.alperenp.sec.idmef.model.alert.support.Reference;
+import tr.alperenp.sec.idmef.model.core.Analyzer;
+import tr.alperenp.sec.idmef.model.core.Classification;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFanalyzerRegistry;
+
+/**
+ * Bounded cache of pre-rendered xml fragments for blocks repeating across messages, i.e. Analyzer of a sensor and
+ * Classification of a signature. Streaming engine of {@link IDMEFxmlSerializer} renders such a block once and copies
+ * its text (or its UTF-8 bytes for byte targets) into following documents.
+ * <p>
+ * Fragments are keyed by a few identifying attributes of the block, analyzerid, name and model of an Analyzer and text
+ * and ident of a Classification, so that equal blocks of separately parsed messages share a fragment. Along with a
+ * fragment the cache keeps a snapshot of the rendered object, a copy which nothing else references, and writes the
+ * fragment only if the given object equals that snapshot. So objects modified in place after they are written, e.g.
+ * recycled by {@link tr.alperenp.sec.idmef.xml.parser.IDMEFmessageHolder}, are rendered again and never get a stale
+ * fragment. Read only analyzers of {@link IDMEFanalyzerRegistry} are their own snapshots, so messages sharing them
+ * are written without any comparison.
+ * <p>
+ * Fragments depend on tag names and indentation of the serializer, so a cache must be used by only one
+ * {@link IDMEFxmlSerializer}. Cache is split into segments by key hash, each guarded by its own lock, so that the
+ * serializer can still be shared by threads. Size is bounded over all segments; least recently used fragment of the
+ * cache is evicted when it is full.
+ * 
+ * @author alperenp
+ * 
+ */
+public class IDMEFfragmentCache {
+	
+	private static final int SEGMENTS = 16;
+	
+	private final Segment[] segments = new Segment[SEGMENTS];
+	
+	/**
+	 * maximum number of fragments in the cache
+	 */
+	@Getter private final int maxSize;
+	
+	private final AtomicInteger size = new AtomicInteger();
+	
+	/**
+	 * logical time of last use of fragments, to find least recently used one among segments
+	 */
+	private final AtomicLong clock = new AtomicLong();
+	
+	private final LongAdder hits = new LongAdder();
+	
+	private final LongAdder misses = new LongAdder();
+	
+	private final LongAdder evictions = new LongAdder();
+	
+	/**
+	 * @param maxSize maximum number of fragments in the cache
+	 * @throws IllegalArgumentException if maxSize is less than number of segments, 16
+	 */
+	public IDMEFfragmentCache(int maxSize) {
+		if (maxSize < SEGMENTS) {
+			throw new IllegalArgumentException("cache size should be at least " + SEGMENTS + ": " + maxSize);
+		}
+		this.maxSize = maxSize;
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment();
+		}
+	}
+	
+	/**
+	 * writes value as next child of current element of writer, from its cached fragment if there is a valid one
+	 * 
+	 * @param writer
+	 * @param value
+	 * @param elementWriter writes value as a single element
+	 * @throws IOException
+	 */
+	<T> void write(IDMEFxmlWriter writer, T value, ElementWriter<T> elementWriter) throws IOException {
+		int depth = writer.getDepth();
+		Key key = new Key(value);
+		Segment segment = segment(key);
+		IDMEFxmlFragment fragment = null;
+		synchronized (segment) {
+			Entry entry = segment.get(key);
+			if (entry != null) {
+				entry.lastUse = clock.incrementAndGet();
+				fragment = entry.fragment;
+			}
+		}
+		if (fragment != null && fragment.getDepth() == depth && fragment.getValue().equals(value)) {
+			hits.increment();
+		} else {
+			misses.increment();
+			StringBuilder builder = new StringBuilder(512);
+			elementWriter.write(writer.fragmentWriter(builder), value);
+			fragment = new IDMEFxmlFragment(builder.toString(), depth, snapshot(value));
+			Entry entry = new Entry(fragment, clock.incrementAndGet());
+			synchronized (segment) {
+				if (segment.put(key, entry) == null) {
+					size.incrementAndGet();
+				}
+			}
+			while (size.get() > maxSize && evict()) {
+				// until back within bound
+			}
+		}
+		writer.fragment(fragment);
+	}
+	
+	/**
+	 * removes fragment of given object, e.g. to release it before it would be evicted
+	 * 
+	 * @param value
+	 * @return true if there was a fragment of value
+	 */
+	public boolean invalidate(@NonNull Object value) {
+		Key key = new Key(value);
+		Segment segment = segment(key);
+		synchronized (segment) {
+			if (segment.remove(key) == null) {
+				return false;
+			}
+		}
+		size.decrementAndGet();
+		return true;
+	}
+	
+	/**
+	 * @return number of fragments in the cache
+	 */
+	public int size() {
+		return size.get();
+	}
+	
+	/**
+	 * @return number of blocks written from a cached fragment
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+	
+	/**
+	 * @return number of blocks rendered, for the first time or because of a change
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+	
+	/**
+	 * @return number of fragments evicted to keep the cache within {@link #getMaxSize()}
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+	
+	/**
+	 * @return hits over all written blocks, 0 if there is none yet
+	 */
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+	
+	/**
+	 * removes all fragments and resets metrics
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size.addAndGet(-segment.size());
+				segment.clear();
+			}
+		}
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+	
+	@Override
+	public String toString() {
+		return "IDMEFfragmentCache [size=" + size() + ", maxSize=" + maxSize + ", hits=" + getHitCount() + ", misses="
+				+ getMissCount() + ", evictions=" + getEvictionCount() + "]";
+	}
+	
+	/**
+	 * @return copy of value which cannot change with it, value itself if it is read only
+	 */
+	private static Object snapshot(Object value) {
+		if (value instanceof Analyzer) {
+			return IDMEFanalyzerRegistry.readOnly((Analyzer) value);
+		}
+		if (value instanceof Classification) {
+			Classification classification = (Classification) value;
+			Classification copy = new Classification();
+			copy.setIdent(classification.getIdent());
+			copy.setText(classification.getText());
+			if (classification.getReferences() != null) {
+				List<Reference> references = new ArrayList<>(classification.getReferences().size());
+				for (Reference reference : classification.getReferences()) {
+					references.add(reference == null ? null : copy(reference));
+				}
+				copy.setReferences(references);
+			}
+			return copy;
+		}
+		// other blocks are not cached by the serializer, they are expected to be immutable
+		return value;
+	}
+	
+	private static Reference copy(Reference reference) {
+		Reference copy = new Reference();
+		copy.setName(reference.getName());
+		copy.setUrl(reference.getUrl());
+		copy.setOrigin(reference.getOrigin());
+		copy.setMeaning(reference.getMeaning());
+		return copy;
+	}
+	
+	private Segment segment(Key key) {
+		int hash = key.hashCode();
+		return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+	}
+	
+	/**
+	 * removes least recently used fragment of the cache, comparing eldest fragments of segments
+	 * 
+	 * @return false if all segments are empty
+	 */
+	private boolean evict() {
+		Segment victim = null;
+		long oldest = Long.MAX_VALUE;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				Iterator<Entry> entries = segment.values().iterator();
+				if (entries.hasNext()) {
+					long lastUse = entries.next().lastUse;
+					if (lastUse < oldest) {
+						oldest = lastUse;
+						victim = segment;
+					}
+				}
+			}
+		}
+		if (victim == null) {
+			return false;
+		}
+		synchronized (victim) {
+			// eldest may have been used or removed meanwhile, which only makes the choice less exact
+			Iterator<Entry> entries = victim.values().iterator();
+			if (!entries.hasNext()) {
+				return true;
+			}
+			entries.next();
+			entries.remove();
+		}
+		size.decrementAndGet();
+		evictions.increment();
+		return true;
+	}
+	
+	/**
+	 * serialization method of a cached block
+	 * 
+	 * @param <T> type of the block
+	 */
+	@FunctionalInterface
+	interface ElementWriter<T> {
+		void write(IDMEFxmlWriter writer, T value) throws IOException;
+	}
+	
+	/**
+	 * identifying attributes of a cached object, cheap to hash and compare unlike the whole object
+	 */
+	private static final class Key {
+		
+		private final Class<?> type;
+		
+		private final Object first;
+		
+		private final Object second;
+		
+		private final Object third;
+		
+		private final int hash;
+		
+		private Key(Object value) {
+			if (value instanceof Analyzer) {
+				Analyzer analyzer = (Analyzer) value;
+				type = Analyzer.class;
+				first = analyzer.getAnalyzerid();
+				second = analyzer.getName();
+				third = analyzer.getModel();
+			} else if (value instanceof Classification) {
+				Classification classification = (Classification) value;
+				type = Classification.class;
+				first = classification.getText();
+				second = classification.getIdent();
+				third = null;
+			} else {
+				type = value.getClass();
+				first = value;
+				second = null;
+				third = null;
+			}
+			this.hash = Objects.hash(type, first, second, third);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return hash == other.hash && type == other.type && Objects.equals(first, other.first)
+					&& Objects.equals(second, other.second) && Objects.equals(third, other.third);
+		}
+	}
+	
+	/**
+	 * cached fragment with its last use
+	 */
+	private static final class Entry {
+		
+		private final IDMEFxmlFragment fragment;
+		
+		private long lastUse;
+		
+		private Entry(IDMEFxmlFragment fragment, long lastUse) {
+			this.fragment = fragment;
+			this.lastUse = lastUse;
+		}
+	}
+	
+	/**
+	 * map of one segment in least recently used order
+	 */
+	private static final class Segment extends LinkedHashMap<Key, Entry> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		Segment() {
+			super(16, 0.75f, true);
+		}
+	}
+}
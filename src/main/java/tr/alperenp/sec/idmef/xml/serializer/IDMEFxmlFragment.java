@@ -0,0 +1,59 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.serializer;
+
+import java.nio.charset.StandardCharsets;
+
+import lombok.Getter;
+
+/**
+ * xml of an element rendered once by {@link IDMEFxmlWriter} and kept by {@link IDMEFfragmentCache} to be written again
+ * into other documents at the same depth
+ * 
+ * @author alperenp
+ * 
+ */
+@Getter
+final class IDMEFxmlFragment {
+	
+	/**
+	 * rendered element, without the line break and indentation before it
+	 */
+	private final String xml;
+	
+	/**
+	 * {@link #xml} encoded as UTF-8
+	 */
+	private final byte[] utf8;
+	
+	/**
+	 * number of elements open around the fragment, which determines its indentation
+	 */
+	private final int depth;
+	
+	/**
+	 * snapshot of rendered value, compared with the value to be written when their keys are equal
+	 */
+	private final Object value;
+	
+	IDMEFxmlFragment(String xml, int depth, Object value) {
+		this.xml = xml;
+		this.utf8 = xml.getBytes(StandardCharsets.UTF_8);
+		this.depth = depth;
+		this.value = value;
+	}
+}
@@ -16,7 +16,16 @@
 
 package tr.alperenp.sec.idmef.xml.serializer;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -38,24 +47,38 @@ import org.w3c.dom.Element;
 import lombok.NonNull;
 import tr.alperenp.sec.idmef.model.alert.Alert;
 import tr.alperenp.sec.idmef.model.heartbeat.Heartbeat;
+import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFEnvelope;
 import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFMessage;
 import tr.alperenp.sec.idmef.xml.utils.ConstantAttributes;
 import tr.alperenp.sec.idmef.xml.utils.ConstantElementNames;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtag;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtagDictionary;
 import tr.alperenp.sec.idmef.xml.utils.IDMEFxmlUtils;
+import tr.alperenp.sec.idmef.xml.utils.Utf8Appendable;
 
 /**
  * This class is responsible to serialize IDMEF object and create corresponding xml.
  * <p>
- * This serializer uses DOM because it is assumed xml is not too large to cause problems in memory and could be faster
- * for de/serialization
+ * Two serialization engines are available and selected by the constructor:
+ * <ul>
+ * <li>with {@link DocumentBuilderFactory}: DOM engine. A {@link Document} is built by {@link AlertxmlSerializer} and
+ * {@link HeartbeatxmlSerializer} and then printed by a {@link Transformer}</li>
+ * <li>without factory: streaming engine. xml is written directly by {@link AlertxmlStreamSerializer} and
+ * {@link HeartbeatxmlStreamSerializer} through {@link IDMEFxmlWriter}, avoiding per message DOM and
+ * {@link Transformer} creation</li>
+ * </ul>
+ * Both engines create the same xml for the same {@link IDMEFMessage} and {@link IDMEFxmlSerializerConfig}. Streaming
+ * engine keeps no state between calls and can be shared by threads.
+ * <p>
+ * {@link IDMEFEnvelope} overloads write a batch of Alerts and Heartbeats into a single IDMEF-Message document.
  * 
  * @author alperenp
- *
+ * 
  */
 public class IDMEFxmlSerializer {
 	
 	/**
-	 * {@link DocumentBuilderFactory} object to create {@link Document}
+	 * {@link DocumentBuilderFactory} object to create {@link Document}, null if streaming engine is used
 	 */
 	private DocumentBuilderFactory factory;
 	
@@ -64,6 +87,71 @@ public class IDMEFxmlSerializer {
 	 */
 	private Properties tagNames;
 	
+	/**
+	 * output options
+	 */
+	private IDMEFxmlSerializerConfig config;
+	
+	/**
+	 * compiled XML Tag Names for streaming engine
+	 */
+	private IDMEFtagDictionary tags;
+	
+	/**
+	 * instance of {@link HeartbeatxmlStreamSerializer} for streaming engine
+	 */
+	private HeartbeatxmlStreamSerializer hbStreamSerializer;
+	
+	/**
+	 * instance of {@link AlertxmlStreamSerializer} for streaming engine
+	 */
+	private AlertxmlStreamSerializer aStreamSerializer;
+	
+	/**
+	 * cache of blocks repeating across messages, null if every block is rendered
+	 */
+	private IDMEFfragmentCache fragmentCache;
+	
+	/**
+	 * Constructor which selects streaming engine with default tag names
+	 */
+	public IDMEFxmlSerializer() {
+		this(new IDMEFxmlUtils().useDefaultProperties());
+	}
+	
+	/**
+	 * Constructor which selects streaming engine with default tag names and given output options
+	 * 
+	 * @param config
+	 */
+	public IDMEFxmlSerializer(@NonNull IDMEFxmlSerializerConfig config) {
+		this(new IDMEFxmlUtils().useDefaultProperties(), config);
+	}
+	
+	/**
+	 * Constructor with {@link Properties} which selects streaming engine and may be required for using different
+	 * tagNames in xml
+	 * 
+	 * @param properties
+	 */
+	public IDMEFxmlSerializer(@NonNull Properties properties) {
+		this(properties, IDMEFxmlSerializerConfig.defaults());
+	}
+	
+	/**
+	 * Constructor with {@link Properties} and output options which selects streaming engine
+	 * 
+	 * @param properties
+	 * @param config
+	 */
+	public IDMEFxmlSerializer(@NonNull Properties properties, @NonNull IDMEFxmlSerializerConfig config) {
+		this.config = config;
+		tagNames = config.applyTo(properties);
+		tags = new IDMEFtagDictionary(tagNames);
+		hbStreamSerializer = new HeartbeatxmlStreamSerializer(tags);
+		aStreamSerializer = new AlertxmlStreamSerializer(tags);
+	}
+	
 	/**
 	 * Constructor with {@link DocumentBuilderFactory} which asks user to define factory and give as input
 	 * 
@@ -74,6 +162,18 @@ public class IDMEFxmlSerializer {
 		this(factory, new IDMEFxmlUtils().useDefaultProperties());
 	}
 	
+	/**
+	 * Constructor with {@link DocumentBuilderFactory} and output options
+	 * 
+	 * @param factory
+	 * @param config
+	 * @throws ParserConfigurationException
+	 */
+	public IDMEFxmlSerializer(@NonNull DocumentBuilderFactory factory, @NonNull IDMEFxmlSerializerConfig config)
+			throws ParserConfigurationException {
+		this(factory, new IDMEFxmlUtils().useDefaultProperties(), config);
+	}
+	
 	/**
 	 * Constructor with {@link DocumentBuilderFactory} and {@link Properties} which may be required for using different
 	 * tagNames in xml
@@ -84,10 +184,47 @@ public class IDMEFxmlSerializer {
 	 */
 	public IDMEFxmlSerializer(@NonNull DocumentBuilderFactory factory, @NonNull Properties properties)
 			throws ParserConfigurationException {
-		tagNames = properties;
+		this(factory, properties, IDMEFxmlSerializerConfig.defaults());
+	}
+	
+	/**
+	 * Constructor with {@link DocumentBuilderFactory}, {@link Properties} and output options
+	 * 
+	 * @param factory
+	 * @param properties
+	 * @param config
+	 * @throws ParserConfigurationException
+	 */
+	public IDMEFxmlSerializer(@NonNull DocumentBuilderFactory factory, @NonNull Properties properties,
+			@NonNull IDMEFxmlSerializerConfig config) throws ParserConfigurationException {
+		this.config = config;
+		tagNames = config.applyTo(properties);
 		this.factory = factory;
 	}
 	
+	/**
+	 * @return cache of repeating blocks, null if every block is rendered
+	 */
+	public IDMEFfragmentCache getFragmentCache() {
+		return fragmentCache;
+	}
+	
+	/**
+	 * Sets cache which Analyzer and Classification blocks of streaming engine are written through, so that a block
+	 * repeating across messages is rendered once and then copied. Should be set before serialization starts and must
+	 * not be shared with other serializers; DOM engine does not use it. The cache keeps snapshots of rendered blocks,
+	 * so messages recycled by {@link tr.alperenp.sec.idmef.xml.parser.IDMEFmessageHolder} can be written through it.
+	 * 
+	 * @param fragmentCache cache to be used, null to render every block
+	 */
+	public void setFragmentCache(IDMEFfragmentCache fragmentCache) {
+		this.fragmentCache = fragmentCache;
+		if (hbStreamSerializer != null) {
+			hbStreamSerializer.fragmentCache = fragmentCache;
+			aStreamSerializer.heartbeatSerializer.fragmentCache = fragmentCache;
+		}
+	}
+	
 	/**
 	 * Generates default {@link Transformer} instance for serialization
 	 * 
@@ -100,8 +237,15 @@ public class IDMEFxmlSerializer {
 		Transformer transformer = TransformerFactory.newInstance().newTransformer();
 		transformer.setOutputProperty(OutputKeys.METHOD, "xml");
 		transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-		transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
-		transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+		if (config.isIndent()) {
+			transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
+			transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+		} else {
+			transformer.setOutputProperty(OutputKeys.INDENT, "no");
+		}
+		if (!config.isXmlDeclaration()) {
+			transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+		}
 		return transformer;
 	}
 	
@@ -132,40 +276,260 @@ public class IDMEFxmlSerializer {
 	 */
 	public String serialize(@NonNull IDMEFMessage message)
 			throws TransformerFactoryConfigurationError, TransformerException, ParserConfigurationException {
-		Document document = generateDocument(factory);
-		Element mainTag = document.createElement(tagNames.getProperty(ConstantElementNames.IDMEFMESSAGE));
-		mainTag.setAttribute(ConstantAttributes.VERSION, message.getVersion());
-		mainTag.setAttribute("xmlns:idmef", "http://iana.org/idmef");
-		if (message instanceof Heartbeat) {
-			Heartbeat heartbeat = (Heartbeat) message;
-			HeartbeatxmlSerializer heartBeatSerializer = new HeartbeatxmlSerializer(document, tagNames);
-			heartBeatSerializer.serializeHeartbeat(mainTag, heartbeat);
-		} else if (message instanceof Alert) {
-			Alert alert = (Alert) message;
-			AlertxmlSerializer alertSerializer = new AlertxmlSerializer(document, tagNames);
-			alertSerializer.serializeAlert(mainTag, alert);
-		} else {
-			// not supported implementation of IDMEFMessage
-		}
-		
-		document.appendChild(mainTag);
-		return convertDomSourceToString(new DOMSource(document));
+		return write(message.getVersion(), Collections.singletonList(message));
+	}
+	
+	/**
+	 * serializes given {@link IDMEFMessage} and writes xml to given {@link Writer}. Writer is neither flushed nor
+	 * closed
+	 * 
+	 * @param message
+	 * @param out
+	 * @throws IOException
+	 * @throws TransformerFactoryConfigurationError
+	 * @throws TransformerException
+	 * @throws ParserConfigurationException
+	 */
+	public void serialize(@NonNull IDMEFMessage message, @NonNull Writer out) throws IOException,
+			TransformerFactoryConfigurationError, TransformerException, ParserConfigurationException {
+		write(message.getVersion(), Collections.singletonList(message), out);
+	}
+	
+	/**
+	 * serializes given {@link IDMEFMessage} and appends xml to given {@link Appendable}. If target is a {@link Writer},
+	 * it is neither flushed nor closed
+	 * 
+	 * @param message
+	 * @param out
+	 * @throws IOException
+	 * @throws TransformerFactoryConfigurationError
+	 * @throws TransformerException
+	 * @throws ParserConfigurationException
+	 */
+	public void serialize(@NonNull IDMEFMessage message, @NonNull Appendable out) throws IOException,
+			TransformerFactoryConfigurationError, TransformerException, ParserConfigurationException {
+		write(message.getVersion(), Collections.singletonList(message), out);
+	}
+	
+	/**
+	 * serializes given {@link IDMEFMessage} and writes xml as UTF-8 bytes to given {@link OutputStream}. Stream is
+	 * neither flushed nor closed
+	 * 
+	 * @param message
+	 * @param out
+	 * @throws IOException
+	 * @throws TransformerFactoryConfigurationError
+	 * @throws TransformerException
+	 * @throws ParserConfigurationException
+	 */
+	public void serialize(@NonNull IDMEFMessage message, @NonNull OutputStream out) throws IOException,
+			TransformerFactoryConfigurationError, TransformerException, ParserConfigurationException {
+		write(message.getVersion(), Collections.singletonList(message), out);
+	}
+	
+	/**
+	 * serializes given {@link IDMEFMessage} and puts xml as UTF-8 bytes to given {@link ByteBuffer} starting from its
+	 * position. On success position is advanced past the xml. If xml does not fit between position and limit, false is
+	 * returned and position is restored; bytes after position may have been overwritten in that case
+	 * 
+	 * @param message
+	 * @param buffer
+	 * @return true if whole xml is written, false on overflow
+	 * @throws TransformerFactoryConfigurationError
+	 * @throws TransformerException
+	 * @throws ParserConfigurationException
+	 */
+	public boolean serialize(@NonNull IDMEFMessage message, @NonNull ByteBuffer buffer)
+			throws TransformerFactoryConfigurationError, TransformerException, ParserConfigurationException {
+		return write(message.getVersion(), Collections.singletonList(message), buffer);
 	}
 	
 	/**
-	 * Creates xml {@link String} from given {@link DOMSource}
+	 * serializes all messages of given {@link IDMEFEnvelope} into a single IDMEF-Message document and creates xml
+	 * {@link String}
 	 * 
-	 * @param domSource
+	 * @param envelope
 	 * @return
 	 * @throws TransformerFactoryConfigurationError
 	 * @throws TransformerException
+	 * @throws ParserConfigurationException
+	 */
+	public String serialize(@NonNull IDMEFEnvelope envelope)
+			throws TransformerFactoryConfigurationError, TransformerException, ParserConfigurationException {
+		return write(envelope.getVersion(), envelope.getMessages());
+	}
+	
+	/**
+	 * serializes all messages of given {@link IDMEFEnvelope} into a single IDMEF-Message document and appends xml to
+	 * given {@link Appendable}. If target is a {@link Writer}, it is neither flushed nor closed
+	 * 
+	 * @param envelope
+	 * @param out
+	 * @throws IOException
+	 * @throws TransformerFactoryConfigurationError
+	 * @throws TransformerException
+	 * @throws ParserConfigurationException
+	 */
+	public void serialize(@NonNull IDMEFEnvelope envelope, @NonNull Appendable out) throws IOException,
+			TransformerFactoryConfigurationError, TransformerException, ParserConfigurationException {
+		write(envelope.getVersion(), envelope.getMessages(), out);
+	}
+	
+	/**
+	 * serializes all messages of given {@link IDMEFEnvelope} into a single IDMEF-Message document and writes xml as
+	 * UTF-8 bytes to given {@link OutputStream}. Stream is neither flushed nor closed
+	 * 
+	 * @param envelope
+	 * @param out
+	 * @throws IOException
+	 * @throws TransformerFactoryConfigurationError
+	 * @throws TransformerException
+	 * @throws ParserConfigurationException
+	 */
+	public void serialize(@NonNull IDMEFEnvelope envelope, @NonNull OutputStream out) throws IOException,
+			TransformerFactoryConfigurationError, TransformerException, ParserConfigurationException {
+		write(envelope.getVersion(), envelope.getMessages(), out);
+	}
+	
+	/**
+	 * serializes all messages of given {@link IDMEFEnvelope} into a single IDMEF-Message document and puts xml as UTF-8
+	 * bytes to given {@link ByteBuffer}, see {@link #serialize(IDMEFMessage, ByteBuffer)}
+	 * 
+	 * @param envelope
+	 * @param buffer
+	 * @return true if whole xml is written, false on overflow
+	 * @throws TransformerFactoryConfigurationError
+	 * @throws TransformerException
+	 * @throws ParserConfigurationException
 	 */
-	private String convertDomSourceToString(DOMSource domSource)
-			throws TransformerFactoryConfigurationError, TransformerException {
+	public boolean serialize(@NonNull IDMEFEnvelope envelope, @NonNull ByteBuffer buffer)
+			throws TransformerFactoryConfigurationError, TransformerException, ParserConfigurationException {
+		return write(envelope.getVersion(), envelope.getMessages(), buffer);
+	}
+	
+	private String write(String version, List<? extends IDMEFMessage> messages)
+			throws TransformerFactoryConfigurationError, TransformerException, ParserConfigurationException {
+		if (factory == null) {
+			StringBuilder builder = new StringBuilder(1024 * messages.size());
+			try {
+				stream(version, messages, builder);
+			} catch (IOException e) {
+				// StringBuilder does not throw
+				throw new UncheckedIOException(e);
+			}
+			return builder.toString();
+		}
 		StringWriter sw = new StringWriter();
-		StreamResult sr = new StreamResult(sw);
-		Transformer transformer = generateTransformer();
-		transformer.transform(domSource, sr);
+		transform(version, messages, new StreamResult(sw));
 		return sw.toString();
 	}
+	
+	private void write(String version, List<? extends IDMEFMessage> messages, Appendable out) throws IOException,
+			TransformerFactoryConfigurationError, TransformerException, ParserConfigurationException {
+		if (factory == null) {
+			stream(version, messages, out);
+		} else if (out instanceof Writer) {
+			transform(version, messages, new StreamResult((Writer) out));
+		} else {
+			out.append(write(version, messages));
+		}
+	}
+	
+	private void write(String version, List<? extends IDMEFMessage> messages, OutputStream out) throws IOException,
+			TransformerFactoryConfigurationError, TransformerException, ParserConfigurationException {
+		if (factory == null) {
+			Utf8Appendable utf8 = new Utf8Appendable(out);
+			stream(version, messages, utf8);
+			utf8.finish();
+		} else {
+			transform(version, messages, new StreamResult(out));
+		}
+	}
+	
+	private boolean write(String version, List<? extends IDMEFMessage> messages, ByteBuffer buffer)
+			throws TransformerFactoryConfigurationError, TransformerException, ParserConfigurationException {
+		int position = buffer.position();
+		try {
+			if (factory == null) {
+				Utf8Appendable utf8 = new Utf8Appendable(buffer);
+				stream(version, messages, utf8);
+				utf8.finish();
+			} else {
+				buffer.put(write(version, messages).getBytes(StandardCharsets.UTF_8));
+			}
+			return true;
+		} catch (BufferOverflowException e) {
+			buffer.position(position);
+			return false;
+		} catch (IOException e) {
+			// ByteBuffer does not throw
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * writes given messages in one IDMEF-Message element with streaming engine
+	 * 
+	 * @param version
+	 * @param messages
+	 * @param out
+	 * @throws IOException
+	 */
+	private void stream(String version, List<? extends IDMEFMessage> messages, Appendable out) throws IOException {
+		IDMEFxmlWriter writer = new IDMEFxmlWriter(out, config.isIndent());
+		if (config.isXmlDeclaration()) {
+			writer.writeDeclaration();
+		}
+		writer.startElement(tags.getName(IDMEFtag.IDMEFMESSAGE));
+		writer.attribute(ConstantAttributes.VERSION, version);
+		writer.attribute(config.getNamespaceDeclaration(), IDMEFxmlSerializerConfig.IDMEF_NAMESPACE);
+		for (IDMEFMessage message : messages) {
+			if (message instanceof Heartbeat) {
+				hbStreamSerializer.serializeHeartbeat(writer, (Heartbeat) message);
+			} else if (message instanceof Alert) {
+				aStreamSerializer.serializeAlert(writer, (Alert) message);
+			} else {
+				// not supported implementation of IDMEFMessage
+			}
+		}
+		writer.endElement();
+	}
+	
+	/**
+	 * builds DOM of given messages in one IDMEF-Message element and prints it to given result
+	 * 
+	 * @param version
+	 * @param messages
+	 * @param result
+	 * @throws TransformerFactoryConfigurationError
+	 * @throws TransformerException
+	 * @throws ParserConfigurationException
+	 */
+	private void transform(String version, List<? extends IDMEFMessage> messages, StreamResult result)
+			throws TransformerFactoryConfigurationError, TransformerException, ParserConfigurationException {
+		Document document = generateDocument(factory);
+		Element mainTag = document.createElement(tagNames.getProperty(ConstantElementNames.IDMEFMESSAGE));
+		mainTag.setAttribute(ConstantAttributes.VERSION, version);
+		mainTag.setAttribute(config.getNamespaceDeclaration(), IDMEFxmlSerializerConfig.IDMEF_NAMESPACE);
+		HeartbeatxmlSerializer heartBeatSerializer = null;
+		AlertxmlSerializer alertSerializer = null;
+		for (IDMEFMessage message : messages) {
+			if (message instanceof Heartbeat) {
+				if (heartBeatSerializer == null) {
+					heartBeatSerializer = new HeartbeatxmlSerializer(document, tagNames);
+				}
+				heartBeatSerializer.serializeHeartbeat(mainTag, (Heartbeat) message);
+			} else if (message instanceof Alert) {
+				if (alertSerializer == null) {
+					alertSerializer = new AlertxmlSerializer(document, tagNames);
+				}
+				alertSerializer.serializeAlert(mainTag, (Alert) message);
+			} else {
+				// not supported implementation of IDMEFMessage
+			}
+		}
+		
+		document.appendChild(mainTag);
+		generateTransformer().transform(new DOMSource(document), result);
+	}
 }
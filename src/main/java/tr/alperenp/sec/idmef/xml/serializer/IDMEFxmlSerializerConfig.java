@@ -0,0 +1,111 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.serializer;
+
+import java.util.Properties;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Output options of {@link IDMEFxmlSerializer}. Applies to both DOM and streaming engines, which create the same xml
+ * for the same options.
+ * <p>
+ * Default configuration creates indented xml with declaration, element names are taken from tag name
+ * {@link Properties} as they are.
+ * <p>
+ * WARNING: This class is not part of RFC 4765 but used as a utility class
+ * 
+ * @author alperenp
+ * 
+ */
+@Value
+@Builder
+public class IDMEFxmlSerializerConfig {
+	
+	/**
+	 * namespace of IDMEF elements
+	 */
+	public static final String IDMEF_NAMESPACE = "http://iana.org/idmef";
+	
+	/**
+	 * prefix declared for {@link #IDMEF_NAMESPACE} if {@link #namespacePrefix} is not set
+	 */
+	public static final String DEFAULT_PREFIX = "idmef";
+	
+	/**
+	 * true to write each element on its own line indented by 4 spaces, false for compact output without any whitespace
+	 * between elements
+	 */
+	@Builder.Default
+	private boolean indent = true;
+	
+	/**
+	 * true to start document with xml declaration
+	 */
+	@Builder.Default
+	private boolean xmlDeclaration = true;
+	
+	/**
+	 * Optional. Namespace prefix of all elements, replacing the prefix found in tag names. Empty {@link String} writes
+	 * elements without prefix in default namespace. If not set, tag names are used as they are and namespace is declared
+	 * with {@link #DEFAULT_PREFIX}
+	 */
+	private String namespacePrefix;
+	
+	/**
+	 * @return configuration creating indented xml with declaration, same as serializers without configuration
+	 */
+	public static IDMEFxmlSerializerConfig defaults() {
+		return builder().build();
+	}
+	
+	/**
+	 * @return name of the attribute declaring IDMEF namespace on root element
+	 */
+	public String getNamespaceDeclaration() {
+		if (namespacePrefix == null) {
+			return "xmlns:" + DEFAULT_PREFIX;
+		}
+		return "".equals(namespacePrefix) ? "xmlns" : "xmlns:" + namespacePrefix;
+	}
+	
+	/**
+	 * Creates tag names with configured {@link #namespacePrefix}. Same tag names should be given to
+	 * {@link tr.alperenp.sec.idmef.xml.parser.IDMEFxmlParser} to read the xml back.
+	 * 
+	 * @param tagNames
+	 * @return given tag names if prefix is not set, otherwise a copy with replaced prefixes
+	 * @throws IllegalArgumentException if prefix contains ':'
+	 */
+	public Properties applyTo(@NonNull Properties tagNames) {
+		if (namespacePrefix == null) {
+			return tagNames;
+		}
+		if (namespacePrefix.indexOf(':') >= 0) {
+			throw new IllegalArgumentException("invalid namespace prefix: " + namespacePrefix);
+		}
+		String prefix = "".equals(namespacePrefix) ? "" : namespacePrefix + ":";
+		Properties result = new Properties();
+		for (String key : tagNames.stringPropertyNames()) {
+			String name = tagNames.getProperty(key);
+			result.setProperty(key, prefix + name.substring(name.indexOf(':') + 1));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,510 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.serializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import lombok.NonNull;
+import tr.alperenp.sec.idmef.model.misc.IDMEFTime;
+import tr.alperenp.sec.idmef.model.misc.IenumIDMEF;
+import tr.alperenp.sec.idmef.model.misc.NTPStamp;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFhexCodec;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtimeCodec;
+import tr.alperenp.sec.idmef.xml.utils.Utf8Appendable;
+
+/**
+ * Minimal streaming xml writer used by streaming serializers. Writes elements directly to an {@link Appendable}
+ * without building a tree.
+ * <p>
+ * Output is identical to what DOM serialization produces through {@link javax.xml.transform.Transformer} with 4
+ * spaces indentation or without indentation: attributes of an element are written namespace declarations first and
+ * the rest in alphabetical order, elements without content are closed with "/&gt;" and text is escaped the same way.
+ * <p>
+ * Instances are not thread-safe and are meant to be used for a single document.
+ * 
+ * @author alperenp
+ * 
+ */
+public class IDMEFxmlWriter {
+	
+	private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+	
+	private static final String INDENT = "    ";
+	
+	private static final String XMLNS = "xmlns";
+	
+	/**
+	 * placeholder value of a pending attribute whose value is in {@link #ntpstamps}, compared by identity
+	 */
+	private static final String NTPSTAMP = new String("ntpstamp");
+	
+	/**
+	 * target of the xml
+	 */
+	private final Appendable out;
+	
+	/**
+	 * false for compact output without line breaks and indentation
+	 */
+	private final boolean indent;
+	
+	/**
+	 * names of open elements
+	 */
+	private String[] elements = new String[16];
+	
+	/**
+	 * whether open element has child elements, indexed as {@link #elements}
+	 */
+	private boolean[] hasChildren = new boolean[16];
+	
+	/**
+	 * number of open elements
+	 */
+	private int depth;
+	
+	/**
+	 * depth this writer starts at, greater than 0 only for writers of fragments
+	 */
+	private final int baseDepth;
+	
+	/**
+	 * true while attributes of last started element may still be added
+	 */
+	private boolean startTagOpen;
+	
+	/**
+	 * true if text is written into current element
+	 */
+	private boolean hasText;
+	
+	/**
+	 * pending attributes of the open start tag, name and value pairs
+	 */
+	private String[] attributes = new String[16];
+	
+	/**
+	 * packed timestamps of pending {@link #ntpstampAttribute(String, long)} attributes, indexed by attribute number
+	 */
+	private long[] ntpstamps = new long[8];
+	
+	/**
+	 * buffer an ntpstamp is formatted into before it is appended
+	 */
+	private final char[] ntpstampChars = new char[NTPStamp.LENGTH];
+	
+	/**
+	 * number of pending attributes
+	 */
+	private int attributeCount;
+	
+	public IDMEFxmlWriter(@NonNull Appendable out) {
+		this(out, true);
+	}
+	
+	/**
+	 * @param out
+	 * @param indent false to write compact xml, as {@link javax.xml.transform.Transformer} does without indentation
+	 */
+	public IDMEFxmlWriter(@NonNull Appendable out, boolean indent) {
+		this(out, indent, 0);
+	}
+	
+	/**
+	 * Creates writer of a fragment which will be inserted by {@link #fragment(IDMEFxmlFragment)} at given depth, i.e.
+	 * as if given number of elements were already open
+	 * 
+	 * @param out
+	 * @param indent
+	 * @param depth
+	 */
+	private IDMEFxmlWriter(Appendable out, boolean indent, int depth) {
+		this.out = out;
+		this.indent = indent;
+		this.depth = depth;
+		this.baseDepth = depth;
+		if (depth >= elements.length) {
+			elements = new String[depth * 2];
+			hasChildren = new boolean[depth * 2];
+		}
+	}
+	
+	/**
+	 * @param fragmentOut target of the fragment
+	 * @return writer of a fragment to be inserted as next child of current element of this writer
+	 */
+	IDMEFxmlWriter fragmentWriter(Appendable fragmentOut) {
+		return new IDMEFxmlWriter(fragmentOut, indent, depth);
+	}
+	
+	/**
+	 * @return number of open elements
+	 */
+	int getDepth() {
+		return depth;
+	}
+	
+	/**
+	 * writes xml declaration, must be the first call
+	 * 
+	 * @throws IOException
+	 */
+	public void writeDeclaration() throws IOException {
+		out.append(XML_DECLARATION);
+	}
+	
+	/**
+	 * starts a new element as child of current element
+	 * 
+	 * @param name
+	 * @throws IOException
+	 */
+	public void startElement(String name) throws IOException {
+		if (depth > baseDepth) {
+			closeStartTag();
+			hasChildren[depth - 1] = true;
+			newLine(depth);
+		}
+		if (depth == elements.length) {
+			elements = Arrays.copyOf(elements, depth * 2);
+			hasChildren = Arrays.copyOf(hasChildren, depth * 2);
+		}
+		elements[depth] = name;
+		hasChildren[depth] = false;
+		depth++;
+		hasText = false;
+		startTagOpen = true;
+		out.append('<').append(name);
+	}
+	
+	/**
+	 * adds attribute to the element just started. null value is written as empty {@link String} as DOM does
+	 * 
+	 * @param name
+	 * @param value
+	 */
+	public void attribute(String name, String value) {
+		if (!startTagOpen) {
+			throw new IllegalStateException("attribute " + name + " is not directly after start of element");
+		}
+		if (attributeCount * 2 == attributes.length) {
+			attributes = Arrays.copyOf(attributes, attributes.length * 2);
+			ntpstamps = Arrays.copyOf(ntpstamps, attributes.length / 2);
+		}
+		attributes[attributeCount * 2] = name;
+		attributes[attributeCount * 2 + 1] = value == null ? "" : value;
+		attributeCount++;
+	}
+	
+	/**
+	 * adds attribute with text form of a packed timestamp, see {@link NTPStamp#format(long, char[], int)}. Neither a
+	 * {@link NTPStamp} nor a {@link String} is created
+	 * 
+	 * @param name
+	 * @param value packed timestamp
+	 */
+	public void ntpstampAttribute(String name, long value) {
+		attribute(name, NTPSTAMP);
+		ntpstamps[attributeCount - 1] = value;
+	}
+	
+	/**
+	 * adds attribute if value is not null
+	 * 
+	 * @param name
+	 * @param value
+	 */
+	public void putAttribute(String name, String value) {
+		if (value != null) {
+			attribute(name, value);
+		}
+	}
+	
+	/**
+	 * adds attribute with keyword of enum if value is not null
+	 * 
+	 * @param name
+	 * @param enumValue
+	 */
+	public void putAttribute(String name, IenumIDMEF enumValue) {
+		if (enumValue != null) {
+			attribute(name, enumValue.getKeyword());
+		}
+	}
+	
+	/**
+	 * adds attribute if value is not -1 (unset)
+	 * 
+	 * @param name
+	 * @param value
+	 */
+	public void putAttribute(String name, int value) {
+		if (value != -1) {
+			attribute(name, Integer.toString(value));
+		}
+	}
+	
+	/**
+	 * writes escaped text content into current element. Empty or null text writes nothing
+	 * 
+	 * @param text
+	 * @throws IOException
+	 */
+	public void text(String text) throws IOException {
+		if (text == null || text.isEmpty()) {
+			return;
+		}
+		closeStartTag();
+		hasText = true;
+		escape(text, false);
+	}
+	
+	/**
+	 * writes RFC 3339 date-time of given time as text content, without creating a {@link String}
+	 * 
+	 * @param time
+	 * @throws IOException
+	 */
+	public void text(@NonNull IDMEFTime time) throws IOException {
+		closeStartTag();
+		hasText = true;
+		IDMEFtimeCodec.format(time, out);
+	}
+	
+	/**
+	 * writes an element with text content if text is not null
+	 * 
+	 * @param name
+	 * @param text
+	 * @throws IOException
+	 */
+	public void textElement(String name, String text) throws IOException {
+		if (text != null) {
+			startElement(name);
+			text(text);
+			endElement();
+		}
+	}
+	
+	/**
+	 * writes an element with text content if value is not -1 (unset)
+	 * 
+	 * @param name
+	 * @param value
+	 * @throws IOException
+	 */
+	public void textElement(String name, int value) throws IOException {
+		if (value != -1) {
+			textElement(name, Integer.toString(value));
+		}
+	}
+	
+	/**
+	 * writes an element with hexBinary content if bytes is not null
+	 * 
+	 * @param name
+	 * @param bytes
+	 * @throws IOException
+	 */
+	public void textElement(String name, byte[] bytes) throws IOException {
+		if (bytes != null) {
+			startElement(name);
+			if (bytes.length > 0) {
+				closeStartTag();
+				hasText = true;
+				IDMEFhexCodec.encode(bytes, out);
+			}
+			endElement();
+		}
+	}
+	
+	/**
+	 * ends current element. Ending the root element finishes the document
+	 * 
+	 * @throws IOException
+	 */
+	public void endElement() throws IOException {
+		if (depth == baseDepth) {
+			throw new IllegalStateException("no open element");
+		}
+		depth--;
+		if (startTagOpen) {
+			writeAttributes();
+			startTagOpen = false;
+			out.append("/>");
+		} else {
+			if (hasChildren[depth]) {
+				newLine(depth);
+			}
+			out.append("</").append(elements[depth]).append('>');
+		}
+		elements[depth] = null;
+		hasText = false;
+		if (depth == 0 && indent) {
+			out.append('\n');
+		}
+	}
+	
+	/**
+	 * writes a fragment rendered by a {@link #fragmentWriter(Appendable)} of this writer at the same depth as child of
+	 * current element. Bytes of the fragment are copied as they are if this writer encodes to UTF-8
+	 * 
+	 * @param fragment
+	 * @throws IOException
+	 */
+	void fragment(IDMEFxmlFragment fragment) throws IOException {
+		if (depth == baseDepth) {
+			throw new IllegalStateException("no open element");
+		}
+		closeStartTag();
+		hasChildren[depth - 1] = true;
+		newLine(depth);
+		if (out instanceof Utf8Appendable) {
+			((Utf8Appendable) out).write(fragment.getUtf8());
+		} else {
+			out.append(fragment.getXml());
+		}
+		hasText = false;
+	}
+	
+	private void closeStartTag() throws IOException {
+		if (startTagOpen) {
+			writeAttributes();
+			startTagOpen = false;
+			out.append('>');
+		}
+	}
+	
+	private void newLine(int level) throws IOException {
+		if (!indent || hasText) {
+			// mixed content is not indented
+			return;
+		}
+		out.append('\n');
+		for (int i = 0; i < level; i++) {
+			out.append(INDENT);
+		}
+	}
+	
+	/**
+	 * writes pending attributes in DOM order: namespace declarations, then others sorted by name
+	 * 
+	 * @throws IOException
+	 */
+	private void writeAttributes() throws IOException {
+		// insertion sort, elements have only a few attributes
+		for (int i = 1; i < attributeCount; i++) {
+			String name = attributes[i * 2];
+			String value = attributes[i * 2 + 1];
+			long ntpstamp = ntpstamps[i];
+			int j = i - 1;
+			while (j >= 0 && compareAttributeNames(attributes[j * 2], name) > 0) {
+				attributes[(j + 1) * 2] = attributes[j * 2];
+				attributes[(j + 1) * 2 + 1] = attributes[j * 2 + 1];
+				ntpstamps[j + 1] = ntpstamps[j];
+				j--;
+			}
+			attributes[(j + 1) * 2] = name;
+			attributes[(j + 1) * 2 + 1] = value;
+			ntpstamps[j + 1] = ntpstamp;
+		}
+		for (int i = 0; i < attributeCount; i++) {
+			out.append(' ').append(attributes[i * 2]).append("=\"");
+			if (attributes[i * 2 + 1] == NTPSTAMP) {
+				// hex digits, 'x' and '.' need no escaping
+				int end = NTPStamp.format(ntpstamps[i], ntpstampChars, 0);
+				for (int k = 0; k < end; k++) {
+					out.append(ntpstampChars[k]);
+				}
+			} else {
+				escape(attributes[i * 2 + 1], true);
+			}
+			out.append('"');
+			attributes[i * 2] = null;
+			attributes[i * 2 + 1] = null;
+		}
+		attributeCount = 0;
+	}
+	
+	private static int compareAttributeNames(String first, String second) {
+		boolean firstNs = isNamespaceDeclaration(first);
+		boolean secondNs = isNamespaceDeclaration(second);
+		if (firstNs != secondNs) {
+			return firstNs ? -1 : 1;
+		}
+		return first.compareTo(second);
+	}
+	
+	private static boolean isNamespaceDeclaration(String name) {
+		return name.startsWith(XMLNS) && (name.length() == XMLNS.length() || name.charAt(XMLNS.length()) == ':');
+	}
+	
+	/**
+	 * escapes markup characters. Unchanged runs of characters are appended at once
+	 * 
+	 * @param value
+	 * @param attribute true to escape for attribute value, false for text content
+	 * @throws IOException
+	 */
+	private void escape(String value, boolean attribute) throws IOException {
+		int start = 0;
+		int length = value.length();
+		for (int i = 0; i < length; i++) {
+			String replacement;
+			char c = value.charAt(i);
+			switch (c) {
+			case '&':
+				replacement = "&amp;";
+				break;
+			case '<':
+				replacement = "&lt;";
+				break;
+			case '>':
+				replacement = "&gt;";
+				break;
+			case '\r':
+				replacement = "&#13;";
+				break;
+			case '"':
+				replacement = attribute ? "&quot;" : null;
+				break;
+			case '\n':
+				replacement = attribute ? "&#10;" : null;
+				break;
+			case '\t':
+				replacement = attribute ? "&#9;" : null;
+				break;
+			default:
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+					// supplementary characters are written as character references
+					out.append(value, start, i).append("&#")
+							.append(Integer.toString(Character.toCodePoint(c, value.charAt(i + 1)))).append(';');
+					start = i + 2;
+					i++;
+				}
+				replacement = null;
+				break;
+			}
+			if (replacement != null) {
+				out.append(value, start, i).append(replacement);
+				start = i + 1;
+			}
+		}
+		out.append(value, start, length);
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.utils;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import lombok.NonNull;
+
+/**
+ * {@link InputStream} view of a {@link ByteBuffer}. Bytes between position and limit are read directly from the
+ * buffer, so direct (off-heap) buffers are consumed without being copied to a heap array first.
+ * <p>
+ * Reading works on a duplicate, position and limit of the given buffer are not changed.
+ * 
+ * @author alperenp
+ * 
+ */
+public class ByteBufferInputStream extends InputStream {
+	
+	private final ByteBuffer buffer;
+	
+	public ByteBufferInputStream(@NonNull ByteBuffer buffer) {
+		this.buffer = buffer.duplicate();
+	}
+	
+	@Override
+	public int read() {
+		if (!buffer.hasRemaining()) {
+			return -1;
+		}
+		return buffer.get() & 0xFF;
+	}
+	
+	@Override
+	public int read(byte[] b, int off, int len) {
+		if (len == 0) {
+			return 0;
+		}
+		if (!buffer.hasRemaining()) {
+			return -1;
+		}
+		int count = Math.min(len, buffer.remaining());
+		buffer.get(b, off, count);
+		return count;
+	}
+	
+	@Override
+	public long skip(long n) {
+		if (n <= 0) {
+			return 0;
+		}
+		int count = (int) Math.min(n, buffer.remaining());
+		buffer.position(buffer.position() + count);
+		return count;
+	}
+	
+	@Override
+	public int available() {
+		return buffer.remaining();
+	}
+}
@@ -0,0 +1,292 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import tr.alperenp.sec.idmef.model.alert.support.Address;
+import tr.alperenp.sec.idmef.model.alert.support.Node;
+import tr.alperenp.sec.idmef.model.alert.support.Process;
+import tr.alperenp.sec.idmef.model.core.Analyzer;
+
+/**
+ * Bounded registry of canonical {@link Analyzer} trees. Every message of a sensor carries the same Analyzer with its
+ * Node, Process and relay Analyzer chain; parsers register each parsed Analyzer here and get the instance registered
+ * first for the same sensor, so that messages kept in memory share one Analyzer tree per sensor configuration.
+ * <p>
+ * Registered analyzers are shared between messages, so the registry keeps a read only copy of each: its setters and
+ * those of its Node, Addresses and Process throw {@link UnsupportedOperationException} and its lists are unmodifiable,
+ * so that one message cannot change the analyzer of others. A message whose analyzer has to be changed should be given
+ * a new Analyzer instead. Given analyzers are never modified; one is copied only if it is the first of its kind.
+ * 
+ * @author alperenp
+ * 
+ * @see IDMEFinstancePool
+ */
+public class IDMEFanalyzerRegistry extends IDMEFinstancePool<Analyzer> {
+	
+	/**
+	 * @param maxSize maximum number of analyzers in the registry
+	 */
+	public IDMEFanalyzerRegistry(int maxSize) {
+		super(maxSize);
+	}
+	
+	/**
+	 * @param analyzer
+	 * @return read only registered analyzer equal to given one, a read only copy of analyzer if it is first of its kind
+	 *         or null
+	 */
+	public Analyzer register(Analyzer analyzer) {
+		if (analyzer == null) {
+			return null;
+		}
+		return canonical(analyzer, IDMEFanalyzerRegistry::readOnly);
+	}
+	
+	/**
+	 * @param analyzer
+	 * @return read only copy of analyzer and of everything reachable from it, analyzer itself if it is already read
+	 *         only, e.g. a registered one, or null
+	 */
+	public static Analyzer readOnly(Analyzer analyzer) {
+		if (analyzer == null || analyzer instanceof ReadOnlyAnalyzer) {
+			return analyzer;
+		}
+		return new ReadOnlyAnalyzer(analyzer);
+	}
+	
+	private static final class ReadOnlyAnalyzer extends Analyzer {
+		
+		private ReadOnlyAnalyzer(Analyzer analyzer) {
+			super(analyzer.getAnalyzerid(), analyzer.getName(), analyzer.getManufacturer(), analyzer.getModel(),
+					analyzer.getVersion(), analyzer.getClazz(), analyzer.getOstype(), analyzer.getOsversion(),
+					analyzer.getNode() == null ? null : new ReadOnlyNode(analyzer.getNode()),
+					analyzer.getProcess() == null ? null : new ReadOnlyProcess(analyzer.getProcess()),
+					readOnly(analyzer.getAnalyzer()));
+		}
+		
+		@Override
+		public void setAnalyzerid(String analyzerid) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setName(String name) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setManufacturer(String manufacturer) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setModel(String model) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setVersion(String version) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setClazz(String clazz) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setOstype(String ostype) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setOsversion(String osversion) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setNode(Node node) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setProcess(Process process) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setAnalyzer(Analyzer analyzer) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void reset() {
+			throw readOnlyError();
+		}
+	}
+	
+	private static final class ReadOnlyNode extends Node {
+		
+		private ReadOnlyNode(Node node) {
+			super.setIdent(node.getIdent());
+			super.setCategory(node.getCategory());
+			super.setLocation(node.getLocation());
+			super.setName(node.getName());
+			if (node.getAddresses() != null) {
+				List<Address> addresses = new ArrayList<>(node.getAddresses().size());
+				for (Address address : node.getAddresses()) {
+					addresses.add(address == null ? null : new ReadOnlyAddress(address));
+				}
+				super.setAddresses(Collections.unmodifiableList(addresses));
+			}
+		}
+		
+		@Override
+		public void setIdent(String ident) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setCategory(Category category) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setLocation(String location) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setName(String name) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setAddresses(List<Address> addresses) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void reset() {
+			throw readOnlyError();
+		}
+	}
+	
+	private static final class ReadOnlyAddress extends Address {
+		
+		private ReadOnlyAddress(Address address) {
+			super.setIdent(address.getIdent());
+			super.setCategory(address.getCategory());
+			super.setVlan_name(address.getVlan_name());
+			super.setVlan_num(address.getVlan_num());
+			super.setAddress(address.getAddress());
+			super.setNetmask(address.getNetmask());
+		}
+		
+		@Override
+		public void setIdent(String ident) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setCategory(Category category) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setVlan_name(String vlan_name) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setVlan_num(int vlan_num) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setAddress(String address) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setNetmask(String netmask) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void reset() {
+			throw readOnlyError();
+		}
+	}
+	
+	private static final class ReadOnlyProcess extends Process {
+		
+		private ReadOnlyProcess(Process process) {
+			super.setIdent(process.getIdent());
+			super.setName(process.getName());
+			super.setPid(process.getPid());
+			super.setPath(process.getPath());
+			super.setArgs(process.getArgs() == null ? null
+					: Collections.unmodifiableList(new ArrayList<>(process.getArgs())));
+			super.setEnvs(process.getEnvs() == null ? null
+					: Collections.unmodifiableList(new ArrayList<>(process.getEnvs())));
+		}
+		
+		@Override
+		public void setIdent(String ident) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setName(String name) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setPid(int pid) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setPath(String path) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setArgs(List<String> args) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void setEnvs(List<String> envs) {
+			throw readOnlyError();
+		}
+		
+		@Override
+		public void reset() {
+			throw readOnlyError();
+		}
+	}
+	
+	private static UnsupportedOperationException readOnlyError() {
+		return new UnsupportedOperationException("registered analyzers are shared between messages and read only");
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.utils;
+
+import java.io.IOException;
+
+import lombok.NonNull;
+
+/**
+ * Table driven encoder and decoder of xml hexBinary content, e.g. Buffer of OverflowAlert. Encoding writes lower case
+ * digits, decoding accepts both cases.
+ * 
+ * @author alperenp
+ * 
+ */
+public final class IDMEFhexCodec {
+	
+	private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+	
+	/**
+	 * value of each ASCII char as hex digit, -1 if not a hex digit
+	 */
+	private static final byte[] VALUES = new byte[128];
+	
+	static {
+		for (int i = 0; i < VALUES.length; i++) {
+			VALUES[i] = -1;
+		}
+		for (int i = 0; i < 10; i++) {
+			VALUES['0' + i] = (byte) i;
+		}
+		for (int i = 0; i < 6; i++) {
+			VALUES['a' + i] = (byte) (10 + i);
+			VALUES['A' + i] = (byte) (10 + i);
+		}
+	}
+	
+	private IDMEFhexCodec() {
+	}
+	
+	/**
+	 * decodes hexBinary text, whitespace around it is ignored
+	 * 
+	 * @param text
+	 * @return
+	 * @throws IllegalArgumentException if text has odd length or a char which is not a hex digit
+	 */
+	public static byte[] decode(@NonNull CharSequence text) {
+		int start = 0;
+		int end = text.length();
+		while (start < end && text.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && text.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		if ((end - start) % 2 != 0) {
+			throw new IllegalArgumentException("hexBinary needs to be even-length: " + text);
+		}
+		byte[] bytes = new byte[(end - start) / 2];
+		for (int i = 0; i < bytes.length; i++) {
+			int high = value(text.charAt(start + 2 * i));
+			int low = value(text.charAt(start + 2 * i + 1));
+			if ((high | low) < 0) {
+				throw new IllegalArgumentException("invalid hexBinary digit at index " + (2 * i) + ": " + text);
+			}
+			bytes[i] = (byte) (high << 4 | low);
+		}
+		return bytes;
+	}
+	
+	/**
+	 * @param bytes
+	 * @return lower case hexBinary text of given bytes
+	 */
+	public static String encode(@NonNull byte[] bytes) {
+		char[] chars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[2 * i] = DIGITS[(bytes[i] >> 4) & 0xF];
+			chars[2 * i + 1] = DIGITS[bytes[i] & 0xF];
+		}
+		return new String(chars);
+	}
+	
+	/**
+	 * appends lower case hexBinary text of given bytes
+	 * 
+	 * @param bytes
+	 * @param out
+	 * @throws IOException
+	 */
+	public static void encode(@NonNull byte[] bytes, @NonNull Appendable out) throws IOException {
+		for (byte b : bytes) {
+			out.append(DIGITS[(b >> 4) & 0xF]).append(DIGITS[b & 0xF]);
+		}
+	}
+	
+	private static int value(char c) {
+		return c < VALUES.length ? VALUES[c] : -1;
+	}
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+import lombok.Getter;
+
+/**
+ * Bounded pool of canonical instances, i.e. the first instance of each distinct value (by
+ * {@link Object#equals(Object)}) is kept and returned for the equal values coming after it, so that parsed messages
+ * share one instance per distinct value instead of holding a copy each.
+ * <p>
+ * Pool is split into segments by hash, each a least recently used map guarded by its own lock, so that it can be
+ * shared by parser threads. Once a segment is full its least recently used value is evicted.
+ * 
+ * @author alperenp
+ * 
+ * @param <T> type of pooled values, must not be modified once pooled
+ */
+public abstract class IDMEFinstancePool<T> {
+	
+	private static final int SEGMENTS = 16;
+	
+	private final Segment[] segments;
+	
+	/**
+	 * maximum number of values in the pool
+	 */
+	@Getter private final int maxSize;
+	
+	private final LongAdder hits = new LongAdder();
+	
+	private final LongAdder misses = new LongAdder();
+	
+	private final LongAdder evictions = new LongAdder();
+	
+	/**
+	 * @param maxSize maximum number of values in the pool
+	 * @throws IllegalArgumentException if maxSize is less than number of segments, 16
+	 */
+	@SuppressWarnings("unchecked")
+	protected IDMEFinstancePool(int maxSize) {
+		if (maxSize < SEGMENTS) {
+			throw new IllegalArgumentException("pool size should be at least " + SEGMENTS + ": " + maxSize);
+		}
+		this.maxSize = maxSize;
+		segments = (Segment[]) new IDMEFinstancePool<?>.Segment[SEGMENTS];
+		for (int i = 0; i < SEGMENTS; i++) {
+			// remainder goes to the first segments
+			segments[i] = new Segment(maxSize / SEGMENTS + (i < maxSize % SEGMENTS ? 1 : 0));
+		}
+	}
+	
+	/**
+	 * @param value not null
+	 * @return pooled instance equal to value, value itself if it is first of its kind
+	 */
+	protected T canonical(T value) {
+		return canonical(value, UnaryOperator.identity());
+	}
+	
+	/**
+	 * @param value not null
+	 * @param copy creates the instance to be pooled from value if it is first of its kind, e.g. a read only copy
+	 * @return pooled instance equal to value
+	 */
+	protected T canonical(T value, UnaryOperator<T> copy) {
+		int hash = value.hashCode();
+		Segment segment = segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+		T pooled;
+		synchronized (segment) {
+			pooled = segment.get(value);
+			if (pooled == null) {
+				T created = copy.apply(value);
+				segment.put(created, created);
+				misses.increment();
+				return created;
+			}
+		}
+		hits.increment();
+		return pooled;
+	}
+	
+	/**
+	 * @return number of values in the pool
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+	
+	/**
+	 * @return number of lookups which returned a pooled instance
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+	
+	/**
+	 * @return number of lookups which added value to the pool
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+	
+	/**
+	 * @return number of values evicted to keep the pool within {@link #getMaxSize()}
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+	
+	/**
+	 * @return hits over pooled lookups, 0 if there is none yet
+	 */
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+	
+	/**
+	 * removes all values and resets metrics
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+	
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [size=" + size() + ", maxSize=" + maxSize + ", hits=" + getHitCount()
+				+ ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+	}
+	
+	/**
+	 * least recently used map of one segment
+	 */
+	private final class Segment extends LinkedHashMap<T, T> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final int capacity;
+		
+		Segment(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<T, T> eldest) {
+			if (size() > capacity) {
+				evictions.increment();
+				return true;
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.NonNull;
+import tr.alperenp.sec.idmef.model.alert.support.Address;
+import tr.alperenp.sec.idmef.model.alert.support.Checksum;
+import tr.alperenp.sec.idmef.model.alert.support.File;
+import tr.alperenp.sec.idmef.model.alert.support.FileAccess;
+import tr.alperenp.sec.idmef.model.alert.support.Linkage;
+import tr.alperenp.sec.idmef.model.alert.support.Node;
+import tr.alperenp.sec.idmef.model.alert.support.Reference;
+import tr.alperenp.sec.idmef.model.alert.support.User;
+import tr.alperenp.sec.idmef.model.alert.support.UserId;
+import tr.alperenp.sec.idmef.model.assessment.Action;
+import tr.alperenp.sec.idmef.model.assessment.Confidence;
+import tr.alperenp.sec.idmef.model.assessment.Impact;
+import tr.alperenp.sec.idmef.model.core.AdditionalData;
+import tr.alperenp.sec.idmef.model.core.Source;
+import tr.alperenp.sec.idmef.model.core.Target;
+import tr.alperenp.sec.idmef.model.misc.IenumIDMEF;
+
+/**
+ * Keyword to constant table of an {@link IenumIDMEF} enum, built once from
+ * {@link IenumIDMEF#getKeyword()} of its constants.
+ * <p>
+ * Keywords written as defined in RFC 4765 are resolved with a single hash lookup without creating any object.
+ * Other spellings accepted by earlier parsers (any case, with or without '-', surrounding whitespace, constant name)
+ * are resolved by comparing characters in place, still without allocation. Unknown keywords give null instead of an
+ * exception; those read from xml are given to the {@link UnknownKeywordListener} of the caller, if it has one.
+ * <p>
+ * Tables of all enums used by parsers are available as constants. Instances are immutable and safe to share between
+ * threads; listeners belong to parsers, see
+ * {@link tr.alperenp.sec.idmef.xml.parser.IDMEFxmlParser#setUnknownKeywordListener(UnknownKeywordListener)}.
+ * 
+ * @author alperenp
+ * 
+ */
+public final class IDMEFkeywordTable<E extends Enum<E> & IenumIDMEF> {
+	
+	public static final IDMEFkeywordTable<Action.Category> ACTION_CATEGORY = new IDMEFkeywordTable<>(
+			Action.Category.class);
+	
+	public static final IDMEFkeywordTable<Confidence.Rating> CONFIDENCE_RATING = new IDMEFkeywordTable<>(
+			Confidence.Rating.class);
+	
+	public static final IDMEFkeywordTable<Impact.Severity> IMPACT_SEVERITY = new IDMEFkeywordTable<>(
+			Impact.Severity.class);
+	
+	public static final IDMEFkeywordTable<Impact.Completion> IMPACT_COMPLETION = new IDMEFkeywordTable<>(
+			Impact.Completion.class);
+	
+	public static final IDMEFkeywordTable<Impact.Type> IMPACT_TYPE = new IDMEFkeywordTable<>(Impact.Type.class);
+	
+	public static final IDMEFkeywordTable<AdditionalData.Type> ADDITIONALDATA_TYPE = new IDMEFkeywordTable<>(
+			AdditionalData.Type.class);
+	
+	public static final IDMEFkeywordTable<Source.Spoofed> SOURCE_SPOOFED = new IDMEFkeywordTable<>(
+			Source.Spoofed.class);
+	
+	public static final IDMEFkeywordTable<Target.Decoy> TARGET_DECOY = new IDMEFkeywordTable<>(Target.Decoy.class);
+	
+	public static final IDMEFkeywordTable<Address.Category> ADDRESS_CATEGORY = new IDMEFkeywordTable<>(
+			Address.Category.class);
+	
+	public static final IDMEFkeywordTable<Checksum.Algorithm> CHECKSUM_ALGORITHM = new IDMEFkeywordTable<>(
+			Checksum.Algorithm.class);
+	
+	public static final IDMEFkeywordTable<File.Category> FILE_CATEGORY = new IDMEFkeywordTable<>(File.Category.class);
+	
+	public static final IDMEFkeywordTable<FileAccess.Permission> FILEACCESS_PERMISSION = new IDMEFkeywordTable<>(
+			FileAccess.Permission.class);
+	
+	public static final IDMEFkeywordTable<Linkage.Category> LINKAGE_CATEGORY = new IDMEFkeywordTable<>(
+			Linkage.Category.class);
+	
+	public static final IDMEFkeywordTable<Node.Category> NODE_CATEGORY = new IDMEFkeywordTable<>(Node.Category.class);
+	
+	public static final IDMEFkeywordTable<Reference.Origin> REFERENCE_ORIGIN = new IDMEFkeywordTable<>(
+			Reference.Origin.class);
+	
+	public static final IDMEFkeywordTable<User.Category> USER_CATEGORY = new IDMEFkeywordTable<>(User.Category.class);
+	
+	public static final IDMEFkeywordTable<UserId.Type> USERID_TYPE = new IDMEFkeywordTable<>(UserId.Type.class);
+	
+	/**
+	 * name of the enum used in reports, e.g. Impact.Severity
+	 */
+	@Getter private final String typeName;
+	
+	private final E[] constants;
+	
+	private final Map<String, E> byKeyword;
+	
+	public IDMEFkeywordTable(@NonNull Class<E> type) {
+		Class<?> enclosing = type.getEnclosingClass();
+		typeName = enclosing == null ? type.getSimpleName() : enclosing.getSimpleName() + "." + type.getSimpleName();
+		constants = type.getEnumConstants();
+		Map<String, E> byKeyword = new HashMap<>(constants.length * 2);
+		for (E constant : constants) {
+			byKeyword.putIfAbsent(constant.getKeyword(), constant);
+		}
+		this.byKeyword = byKeyword;
+	}
+	
+	/**
+	 * resolves given keyword
+	 * 
+	 * @param keyword
+	 * @return matching constant, null if keyword is null, blank or unknown
+	 */
+	public E lookup(String keyword) {
+		if (keyword == null) {
+			return null;
+		}
+		E constant = byKeyword.get(keyword);
+		if (constant != null) {
+			return constant;
+		}
+		for (E candidate : constants) {
+			if (matches(keyword, candidate.getKeyword()) || matches(keyword, candidate.name())) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * resolves keyword read from xml. Unknown keywords are given to listener if there is one; missing (null or blank)
+	 * ones are not
+	 * 
+	 * @param value
+	 * @param listener null to ignore unknown keywords
+	 * @return matching constant, null if value is missing or unknown
+	 */
+	public E parse(String value, UnknownKeywordListener listener) {
+		E constant = lookup(value);
+		if (constant == null && listener != null && value != null && !isBlank(value)) {
+			listener.unknownKeyword(typeName, value);
+		}
+		return constant;
+	}
+	
+	/**
+	 * compares value with candidate ignoring case, '-' and whitespace around value
+	 */
+	private static boolean matches(String value, String candidate) {
+		int start = 0;
+		int end = value.length();
+		while (start < end && value.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && value.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		int j = 0;
+		int length = candidate.length();
+		for (int i = start; i < end; i++) {
+			char c = value.charAt(i);
+			if (c == '-') {
+				continue;
+			}
+			while (j < length && candidate.charAt(j) == '-') {
+				j++;
+			}
+			if (j == length || Character.toUpperCase(c) != Character.toUpperCase(candidate.charAt(j))) {
+				return false;
+			}
+			j++;
+		}
+		while (j < length && candidate.charAt(j) == '-') {
+			j++;
+		}
+		return start < end && j == length;
+	}
+	
+	/**
+	 * receiver of keywords which are not defined for an enum, e.g. to log or count them or to reject the message by
+	 * throwing an unchecked exception
+	 */
+	@FunctionalInterface
+	public interface UnknownKeywordListener {
+		
+		/**
+		 * @param typeName name of the enum, e.g. Impact.Severity
+		 * @param value unknown keyword as read
+		 */
+		void unknownKeyword(String typeName, String value);
+	}
+	
+	private static boolean isBlank(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			if (value.charAt(i) > ' ') {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.utils;
+
+import lombok.Getter;
+
+/**
+ * Bounded pool of canonical {@link String} instances, consulted by parsers for values repeating across messages (e.g.
+ * analyzerid, Analyzer manufacturer/model/version, Classification text, Node name, Address address) so that parsed
+ * messages share one instance per distinct value instead of holding a copy each.
+ * 
+ * @author alperenp
+ * 
+ * @see IDMEFinstancePool
+ */
+public class IDMEFstringPool extends IDMEFinstancePool<String> {
+	
+	/**
+	 * values longer than this are not pooled by default, they rarely repeat
+	 */
+	public static final int DEFAULT_MAX_LENGTH = 256;
+	
+	/**
+	 * maximum length of a pooled value
+	 */
+	@Getter private final int maxLength;
+	
+	/**
+	 * @param maxSize maximum number of values in the pool
+	 */
+	public IDMEFstringPool(int maxSize) {
+		this(maxSize, DEFAULT_MAX_LENGTH);
+	}
+	
+	/**
+	 * @param maxSize maximum number of values in the pool
+	 * @param maxLength maximum length of a pooled value, longer values are returned as they are
+	 */
+	public IDMEFstringPool(int maxSize, int maxLength) {
+		super(maxSize);
+		this.maxLength = maxLength;
+	}
+	
+	/**
+	 * @param value
+	 * @return pooled instance equal to value, value itself if it is first of its kind, null or too long
+	 */
+	public String intern(String value) {
+		if (value == null || value.length() > maxLength) {
+			return value;
+		}
+		return canonical(value);
+	}
+}
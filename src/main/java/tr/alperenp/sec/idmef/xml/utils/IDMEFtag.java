@@ -0,0 +1,119 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.utils;
+
+/**
+ * Dispatch codes of xml elements. Each code is bound to its key in {@link ConstantElementNames} and resolved to the
+ * element name given in tag name Properties by {@link IDMEFtagDictionary}
+ * 
+ * @author alperenp
+ * 
+ */
+public enum IDMEFtag {
+	
+	IDMEFMESSAGE(ConstantElementNames.IDMEFMESSAGE),
+	CREATETIME(ConstantElementNames.CREATETIME),
+	ADDITIONALDATA(ConstantElementNames.ADDITIONALDATA),
+	NAME(ConstantElementNames.name),
+	PID(ConstantElementNames.pid),
+	PATH(ConstantElementNames.path),
+	ARG(ConstantElementNames.arg),
+	ENV(ConstantElementNames.env),
+	HEARTBEAT(ConstantElementNames.HEARTBEAT),
+	HEARTBEATINTERVAL(ConstantElementNames.heartbeatinterval),
+	ANALYZER(ConstantElementNames.ANALYZER),
+	NODE(ConstantElementNames.NODE),
+	PROCESS(ConstantElementNames.PROCESS),
+	USERID(ConstantElementNames.USERID),
+	LOCATION(ConstantElementNames.LOCATION),
+	ALERT(ConstantElementNames.ALERT),
+	CORRELATIONALERT(ConstantElementNames.CORRELATIONALERT),
+	OVERFLOWALERT(ConstantElementNames.OVERFLOWALERT),
+	TOOLALERT(ConstantElementNames.TOOLALERT),
+	DETECTTIME(ConstantElementNames.DETECTTIME),
+	ANALYZERTIME(ConstantElementNames.ANALYZERTIME),
+	ASSESSMENT(ConstantElementNames.ASSESSMENT),
+	IMPACT(ConstantElementNames.IMPACT),
+	ACTION(ConstantElementNames.ACTION),
+	CONFIDENCE(ConstantElementNames.CONFIDENCE),
+	SOURCE(ConstantElementNames.SOURCE),
+	TARGET(ConstantElementNames.TARGET),
+	FILE(ConstantElementNames.FILE),
+	CLASSIFICATION(ConstantElementNames.CLASSIFICATION),
+	USER(ConstantElementNames.USER),
+	SERVICE(ConstantElementNames.SERVICE),
+	ADDRESS(ConstantElementNames.Address),
+	IP_ADDRESS(ConstantElementNames.address),
+	NETMASK(ConstantElementNames.netmask),
+	URL(ConstantElementNames.url),
+	CGI(ConstantElementNames.cgi),
+	HTTP_METHOD(ConstantElementNames.http_method),
+	REFERENCE(ConstantElementNames.REFERENCE),
+	PORT(ConstantElementNames.port),
+	PORTLIST(ConstantElementNames.portlist),
+	PROTOCOL(ConstantElementNames.protocol),
+	WEBSERVICE(ConstantElementNames.WEBSERVICE),
+	SNMPSERVICE(ConstantElementNames.SNMPSERVICE),
+	CREATE_TIME(ConstantElementNames.create_time),
+	MODIFY_TIME(ConstantElementNames.modify_time),
+	ACCESS_TIME(ConstantElementNames.access_time),
+	DATA_SIZE(ConstantElementNames.data_size),
+	DISK_SIZE(ConstantElementNames.disk_size),
+	FILEACCESS(ConstantElementNames.FileAccess),
+	LINKAGE(ConstantElementNames.Linkage),
+	INODE(ConstantElementNames.Inode),
+	CHECKSUM(ConstantElementNames.CHECKSUM),
+	PERMISSION(ConstantElementNames.permission),
+	ALERTIDENT(ConstantElementNames.alertident),
+	COMMAND(ConstantElementNames.command),
+	VALUE(ConstantElementNames.value),
+	KEY(ConstantElementNames.key),
+	CHANGE_TIME(ConstantElementNames.change_time),
+	NUMBER(ConstantElementNames.number),
+	MAJOR_DEVICE(ConstantElementNames.major_device),
+	MINOR_DEVICE(ConstantElementNames.minor_device),
+	C_MAJOR_DEVICE(ConstantElementNames.c_major_device),
+	C_MINOR_DEVICE(ConstantElementNames.c_minor_device),
+	PROGRAM(ConstantElementNames.program),
+	SIZE(ConstantElementNames.size),
+	BUFFER(ConstantElementNames.buffer),
+	OID(ConstantElementNames.oid),
+	MESSAGEPROCESSINGMODEL(ConstantElementNames.messageProcessingModel),
+	SECURITYMODEL(ConstantElementNames.securityModel),
+	SECURITYNAME(ConstantElementNames.securityName),
+	SECURITYLEVEL(ConstantElementNames.securityLevel),
+	CONTEXTNAME(ConstantElementNames.contextName),
+	CONTEXTENGINEID(ConstantElementNames.contextEngineID),
+	
+	/**
+	 * element name which is not defined in tag name Properties
+	 */
+	UNKNOWN(null);
+	
+	/**
+	 * key of the element in tag name Properties
+	 */
+	private final String key;
+	
+	private IDMEFtag(String key) {
+		this.key = key;
+	}
+	
+	public String getKey() {
+		return key;
+	}
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.utils;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import lombok.NonNull;
+
+/**
+ * Immutable dictionary compiled once from tag name {@link Properties}. Maps element names found in xml to
+ * {@link IDMEFtag} dispatch codes so that parsers resolve each child element with a single hash lookup instead of
+ * querying {@link Properties} for every candidate tag.
+ * <p>
+ * Instances are safe to share between threads. If two keys are given the same element name, the first one in
+ * {@link IDMEFtag} order is used.
+ * 
+ * @author alperenp
+ * 
+ */
+public final class IDMEFtagDictionary {
+	
+	/**
+	 * qualified element name (prefix:localName) to tag
+	 */
+	private final Map<String, IDMEFtag> byName;
+	
+	/**
+	 * local name to tag candidates with their prefix, used by StAX lookups to avoid building qualified names
+	 */
+	private final Map<String, Candidate[]> byLocalName;
+	
+	/**
+	 * element name of each tag
+	 */
+	private final Map<IDMEFtag, String> names;
+	
+	public IDMEFtagDictionary(@NonNull Properties properties) {
+		Map<String, IDMEFtag> byName = new HashMap<>();
+		Map<String, Candidate[]> byLocalName = new HashMap<>();
+		Map<IDMEFtag, String> names = new EnumMap<>(IDMEFtag.class);
+		for (IDMEFtag tag : IDMEFtag.values()) {
+			if (tag.getKey() == null) {
+				continue;
+			}
+			String name = properties.getProperty(tag.getKey());
+			if (name == null || byName.containsKey(name)) {
+				continue;
+			}
+			byName.put(name, tag);
+			names.put(tag, name);
+			
+			int colon = name.indexOf(':');
+			String prefix = colon < 0 ? "" : name.substring(0, colon);
+			String localName = name.substring(colon + 1);
+			Candidate[] current = byLocalName.get(localName);
+			Candidate[] extended = new Candidate[current == null ? 1 : current.length + 1];
+			if (current != null) {
+				System.arraycopy(current, 0, extended, 0, current.length);
+			}
+			extended[extended.length - 1] = new Candidate(prefix, tag);
+			byLocalName.put(localName, extended);
+		}
+		this.byName = byName;
+		this.byLocalName = byLocalName;
+		this.names = names;
+	}
+	
+	/**
+	 * resolves element name as written in xml (prefix:localName)
+	 * 
+	 * @param qualifiedName
+	 * @return matching tag, {@link IDMEFtag#UNKNOWN} if name is not defined
+	 */
+	public IDMEFtag lookup(String qualifiedName) {
+		IDMEFtag tag = qualifiedName == null ? null : byName.get(qualifiedName);
+		return tag == null ? IDMEFtag.UNKNOWN : tag;
+	}
+	
+	/**
+	 * resolves element name given as prefix and local name, as reported by StAX readers
+	 * 
+	 * @param prefix null or empty if element has no prefix
+	 * @param localName
+	 * @return matching tag, {@link IDMEFtag#UNKNOWN} if name is not defined
+	 */
+	public IDMEFtag lookup(String prefix, String localName) {
+		Candidate[] candidates = localName == null ? null : byLocalName.get(localName);
+		if (candidates != null) {
+			String p = prefix == null ? "" : prefix;
+			for (Candidate candidate : candidates) {
+				if (candidate.prefix.equals(p)) {
+					return candidate.tag;
+				}
+			}
+		}
+		return IDMEFtag.UNKNOWN;
+	}
+	
+	/**
+	 * resolves element name without its prefix, e.g. a name of an IDMEF path
+	 * 
+	 * @param localName
+	 * @return matching tag, {@link IDMEFtag#UNKNOWN} if name is not defined
+	 */
+	public IDMEFtag lookupLocalName(String localName) {
+		Candidate[] candidates = localName == null ? null : byLocalName.get(localName);
+		return candidates == null ? IDMEFtag.UNKNOWN : candidates[0].tag;
+	}
+	
+	/**
+	 * @param tag
+	 * @return element name defined for given tag, null if not defined
+	 */
+	public String getName(@NonNull IDMEFtag tag) {
+		return names.get(tag);
+	}
+	
+	private static final class Candidate {
+		private final String prefix;
+		
+		private final IDMEFtag tag;
+		
+		private Candidate(String prefix, IDMEFtag tag) {
+			this.prefix = prefix;
+			this.tag = tag;
+		}
+	}
+}
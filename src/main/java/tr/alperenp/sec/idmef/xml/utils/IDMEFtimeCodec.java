@@ -0,0 +1,425 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.utils;
+
+import java.io.IOException;
+import java.time.format.DateTimeParseException;
+
+import lombok.NonNull;
+import tr.alperenp.sec.idmef.model.misc.IDMEFTime;
+
+/**
+ * Parser and formatter of RFC 3339 date-time strings (Section 3.2.6 of RFC 4765) used by {@link IDMEFTime}. Works
+ * directly on char and byte ranges, no intermediate {@link String} or {@link java.time} object is created.
+ * <p>
+ * As in earlier versions, {@link IDMEFTime#getUTCtimeInMilis()} holds date and time as written in the string and
+ * offset from UTC is kept in {@link IDMEFTime#getOperator()} and {@link IDMEFTime#getAdjustedTime()}. Fraction of
+ * second is kept up to nanoseconds, digits after the 9th are ignored.
+ * <p>
+ * Formatting follows {@link java.time.Instant#toString()}: fraction is written with 3, 6 or 9 digits and left out if
+ * zero. Offset is written as {@code Z} only if {@link IDMEFTime#getOperator()} is null, a parsed {@code +00:00} or
+ * {@code -00:00} keeps its operator and is written back as is. So formatting a parsed time and parsing it again gives
+ * the same {@link IDMEFTime}.
+ * 
+ * @author alperenp
+ * 
+ */
+public final class IDMEFtimeCodec {
+	
+	/**
+	 * maximum length of a formatted date-time, e.g. 2000-03-09T10:01:25.934640123-05:00
+	 */
+	public static final int MAX_LENGTH = 35;
+	
+	private static final long MILIS_PER_DAY = 86400000L;
+	
+	private static final int MILIS_PER_HOUR = 3600000;
+	
+	private static final int MILIS_PER_MINUTE = 60000;
+	
+	private static final int NANOS_PER_MILI = 1000000;
+	
+	/**
+	 * days from 0000-03-01 to 1970-01-01
+	 */
+	private static final long DAYS_0000_TO_1970 = 719468L;
+	
+	private static final int DAYS_PER_400_YEARS = 146097;
+	
+	/**
+	 * per thread buffer of {@link #format(IDMEFTime)} and {@link #format(IDMEFTime, Appendable)}
+	 */
+	private static final ThreadLocal<char[]> SCRATCH = ThreadLocal.withInitial(() -> new char[MAX_LENGTH]);
+	
+	private IDMEFtimeCodec() {
+	}
+	
+	/**
+	 * parses given date-time into time, whitespace around it is ignored
+	 * 
+	 * @param text
+	 * @param time
+	 * @throws DateTimeParseException if text is not an RFC 3339 date-time
+	 */
+	public static void parse(@NonNull CharSequence text, @NonNull IDMEFTime time) {
+		parse(text, 0, text.length(), time);
+	}
+	
+	/**
+	 * parses date-time between start (inclusive) and end (exclusive) into time, whitespace around it is ignored
+	 * 
+	 * @param text
+	 * @param start
+	 * @param end
+	 * @param time
+	 * @throws DateTimeParseException if range is not an RFC 3339 date-time
+	 */
+	public static void parse(@NonNull CharSequence text, int start, int end, @NonNull IDMEFTime time) {
+		new Scanner(text, start, end).parse(time);
+	}
+	
+	/**
+	 * parses date-time between start (inclusive) and end (exclusive) of ASCII compatible bytes (e.g. UTF-8) into time,
+	 * whitespace around it is ignored
+	 * 
+	 * @param bytes
+	 * @param start
+	 * @param end
+	 * @param time
+	 * @throws DateTimeParseException if range is not an RFC 3339 date-time
+	 */
+	public static void parse(@NonNull byte[] bytes, int start, int end, @NonNull IDMEFTime time) {
+		new Scanner(bytes, start, end).parse(time);
+	}
+	
+	/**
+	 * @param time
+	 * @return RFC 3339 date-time of given time
+	 * @throws IllegalArgumentException if year is not between 0000 and 9999
+	 */
+	public static String format(@NonNull IDMEFTime time) {
+		char[] buffer = SCRATCH.get();
+		return new String(buffer, 0, format(time, buffer, null, 0));
+	}
+	
+	/**
+	 * appends RFC 3339 date-time of given time
+	 * 
+	 * @param time
+	 * @param out
+	 * @throws IOException
+	 * @throws IllegalArgumentException if year is not between 0000 and 9999
+	 */
+	public static void format(@NonNull IDMEFTime time, @NonNull Appendable out) throws IOException {
+		char[] buffer = SCRATCH.get();
+		int end = format(time, buffer, null, 0);
+		for (int i = 0; i < end; i++) {
+			out.append(buffer[i]);
+		}
+	}
+	
+	/**
+	 * writes RFC 3339 date-time of given time into bytes as ASCII, at most {@link #MAX_LENGTH} bytes are written
+	 * 
+	 * @param time
+	 * @param bytes
+	 * @param offset
+	 * @return offset after the last written byte
+	 * @throws IllegalArgumentException if year is not between 0000 and 9999
+	 */
+	public static int format(@NonNull IDMEFTime time, @NonNull byte[] bytes, int offset) {
+		return format(time, null, bytes, offset);
+	}
+	
+	/**
+	 * writes RFC 3339 date-time of given time into chars, at most {@link #MAX_LENGTH} chars are written
+	 * 
+	 * @param time
+	 * @param chars
+	 * @param offset
+	 * @return offset after the last written char
+	 * @throws IllegalArgumentException if year is not between 0000 and 9999
+	 */
+	public static int format(@NonNull IDMEFTime time, @NonNull char[] chars, int offset) {
+		return format(time, chars, null, offset);
+	}
+	
+	/**
+	 * writes into chars if not null, into bytes otherwise
+	 */
+	private static int format(IDMEFTime time, char[] chars, byte[] bytes, int offset) {
+		long milis = time.getUTCtimeInMilis();
+		long epochDay = Math.floorDiv(milis, MILIS_PER_DAY);
+		int milisOfDay = (int) Math.floorMod(milis, MILIS_PER_DAY);
+		
+		// civil date of epoch day, days are counted from 0000-03-01 so that leap day is the last day of a year
+		long days = epochDay + DAYS_0000_TO_1970;
+		long era = Math.floorDiv(days, DAYS_PER_400_YEARS);
+		int dayOfEra = (int) (days - era * DAYS_PER_400_YEARS);
+		int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		int shiftedMonth = (5 * dayOfYear + 2) / 153;
+		int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+		int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+		long year = era * 400 + yearOfEra + (month <= 2 ? 1 : 0);
+		if (year < 0 || year > 9999) {
+			throw new IllegalArgumentException("year out of RFC 3339 range: " + year);
+		}
+		
+		int pos = offset;
+		pos = writeDigits(chars, bytes, pos, (int) year, 4);
+		pos = put(chars, bytes, pos, '-');
+		pos = writeDigits(chars, bytes, pos, month, 2);
+		pos = put(chars, bytes, pos, '-');
+		pos = writeDigits(chars, bytes, pos, day, 2);
+		pos = put(chars, bytes, pos, 'T');
+		pos = writeDigits(chars, bytes, pos, milisOfDay / MILIS_PER_HOUR, 2);
+		pos = put(chars, bytes, pos, ':');
+		pos = writeDigits(chars, bytes, pos, milisOfDay / MILIS_PER_MINUTE % 60, 2);
+		pos = put(chars, bytes, pos, ':');
+		pos = writeDigits(chars, bytes, pos, milisOfDay / 1000 % 60, 2);
+		
+		int nanos = milisOfDay % 1000 * NANOS_PER_MILI + time.getFractionNanos();
+		if (nanos != 0) {
+			pos = put(chars, bytes, pos, '.');
+			if (nanos % NANOS_PER_MILI == 0) {
+				pos = writeDigits(chars, bytes, pos, nanos / NANOS_PER_MILI, 3);
+			} else if (nanos % 1000 == 0) {
+				pos = writeDigits(chars, bytes, pos, nanos / 1000, 6);
+			} else {
+				pos = writeDigits(chars, bytes, pos, nanos, 9);
+			}
+		}
+		
+		long adjustedTime = time.getAdjustedTime();
+		if (time.getOperator() == null && adjustedTime == 0L) {
+			pos = put(chars, bytes, pos, 'Z');
+		} else {
+			pos = put(chars, bytes, pos, time.getOperator() == IDMEFTime.Operator.MINUS ? '-' : '+');
+			pos = writeDigits(chars, bytes, pos, (int) (adjustedTime / MILIS_PER_HOUR % 24), 2);
+			pos = put(chars, bytes, pos, ':');
+			pos = writeDigits(chars, bytes, pos, (int) (adjustedTime / MILIS_PER_MINUTE % 60), 2);
+		}
+		return pos;
+	}
+	
+	private static int writeDigits(char[] chars, byte[] bytes, int offset, int value, int digits) {
+		for (int i = offset + digits - 1; i >= offset; i--) {
+			put(chars, bytes, i, (char) ('0' + value % 10));
+			value /= 10;
+		}
+		return offset + digits;
+	}
+	
+	private static int put(char[] chars, byte[] bytes, int offset, char c) {
+		if (chars != null) {
+			chars[offset] = c;
+		} else {
+			bytes[offset] = (byte) c;
+		}
+		return offset + 1;
+	}
+	
+	/**
+	 * @return days from 1970-01-01 to given date
+	 */
+	private static long toEpochDay(int year, int month, int day) {
+		// years start on 03-01, see format
+		int shiftedYear = month <= 2 ? year - 1 : year;
+		int era = Math.floorDiv(shiftedYear, 400);
+		int yearOfEra = shiftedYear - era * 400;
+		int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return (long) era * DAYS_PER_400_YEARS + dayOfEra - DAYS_0000_TO_1970;
+	}
+	
+	private static int daysInMonth(int year, int month) {
+		switch (month) {
+		case 2:
+			return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+	
+	/**
+	 * Reads a date-time from chars or bytes. Only created for the length of a single parse call.
+	 */
+	private static final class Scanner {
+		
+		private final CharSequence text;
+		
+		private final byte[] bytes;
+		
+		private final int start;
+		
+		private final int end;
+		
+		private int pos;
+		
+		private Scanner(CharSequence text, int start, int end) {
+			this(text, null, start, end);
+		}
+		
+		private Scanner(byte[] bytes, int start, int end) {
+			this(null, bytes, start, end);
+		}
+		
+		private Scanner(CharSequence text, byte[] bytes, int start, int end) {
+			int length = text != null ? text.length() : bytes.length;
+			if (start < 0 || end > length || start > end) {
+				throw new IndexOutOfBoundsException("range [" + start + ", " + end + ") of length " + length);
+			}
+			this.text = text;
+			this.bytes = bytes;
+			while (start < end && charAt(start) <= ' ') {
+				start++;
+			}
+			while (end > start && charAt(end - 1) <= ' ') {
+				end--;
+			}
+			this.start = start;
+			this.end = end;
+			this.pos = start;
+		}
+		
+		private char charAt(int index) {
+			return text != null ? text.charAt(index) : (char) (bytes[index] & 0xFF);
+		}
+		
+		private void parse(IDMEFTime time) {
+			int year = digits(4);
+			expect('-');
+			int month = digits(2);
+			expect('-');
+			int day = digits(2);
+			if (month < 1 || month > 12) {
+				throw error("invalid month", pos - 4);
+			}
+			if (day < 1 || day > daysInMonth(year, month)) {
+				throw error("invalid day of month", pos - 1);
+			}
+			char separator = next();
+			if (separator != 'T' && separator != 't') {
+				throw error("expected 'T'", pos - 1);
+			}
+			int hour = digits(2);
+			expect(':');
+			int minute = digits(2);
+			expect(':');
+			int second = digits(2);
+			if (hour > 23 || minute > 59 || second > 60) {
+				throw error("invalid time", pos - 8);
+			}
+			if (second == 60) {
+				// leap second, kept as the last second of the minute
+				second = 59;
+			}
+			
+			int nanos = 0;
+			char c = next();
+			if (c == '.') {
+				int count = 0;
+				while (pos < end && isDigit(charAt(pos))) {
+					if (count < 9) {
+						nanos = nanos * 10 + charAt(pos) - '0';
+						count++;
+					}
+					pos++;
+				}
+				if (count == 0) {
+					throw error("expected fraction digits", pos);
+				}
+				for (int i = count; i < 9; i++) {
+					nanos *= 10;
+				}
+				c = next();
+			}
+			
+			if (c == 'Z' || c == 'z') {
+				time.setOperator(null);
+				time.setAdjustedTime(0L);
+			} else if (c == '+' || c == '-') {
+				int offsetHour = digits(2);
+				expect(':');
+				int offsetMinute = digits(2);
+				if (offsetHour > 23 || offsetMinute > 59) {
+					throw error("invalid offset", pos - 5);
+				}
+				time.setOperator(c == '+' ? IDMEFTime.Operator.PLUS : IDMEFTime.Operator.MINUS);
+				time.setAdjustedTime((long) offsetHour * MILIS_PER_HOUR + (long) offsetMinute * MILIS_PER_MINUTE);
+			} else {
+				throw error("expected 'Z' or offset", pos - 1);
+			}
+			if (pos != end) {
+				throw error("unexpected text after date-time", pos);
+			}
+			
+			long secondOfDay = hour * 3600L + minute * 60L + second;
+			time.setUTCtimeInMilis(toEpochDay(year, month, day) * MILIS_PER_DAY + secondOfDay * 1000L
+					+ nanos / NANOS_PER_MILI);
+			time.setFractionNanos(nanos % NANOS_PER_MILI);
+		}
+		
+		private int digits(int count) {
+			int value = 0;
+			for (int i = 0; i < count; i++) {
+				char c = next();
+				if (!isDigit(c)) {
+					throw error("expected digit", pos - 1);
+				}
+				value = value * 10 + c - '0';
+			}
+			return value;
+		}
+		
+		private void expect(char expected) {
+			if (next() != expected) {
+				throw error("expected '" + expected + "'", pos - 1);
+			}
+		}
+		
+		private char next() {
+			if (pos == end) {
+				pos++;
+				return 0;
+			}
+			return charAt(pos++);
+		}
+		
+		private static boolean isDigit(char c) {
+			return c >= '0' && c <= '9';
+		}
+		
+		/**
+		 * creates exception, text is only copied here
+		 */
+		private DateTimeParseException error(String reason, int index) {
+			StringBuilder parsed = new StringBuilder(end - start);
+			for (int i = start; i < end; i++) {
+				parsed.append(charAt(i));
+			}
+			return new DateTimeParseException("Text '" + parsed + "' could not be parsed, " + reason + " at index "
+					+ (index - start), parsed, Math.min(Math.max(index - start, 0), end - start));
+		}
+	}
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import lombok.NonNull;
+
+/**
+ * Splits a stream of concatenated xml documents (e.g. an archive of IDMEF-Message documents) into single documents
+ * without parsing them. Only markup needed to find the end of the root element is recognized: start and end tags
+ * with quoted attribute values, empty elements, comments, CDATA sections, processing instructions and the document
+ * type declaration.
+ * <p>
+ * Each document is held in memory only until it is returned, so memory use depends on the largest document and not
+ * on the length of the stream. Encoding must be ASCII compatible (e.g. UTF-8 or ISO-8859-x). Whitespace between
+ * documents is dropped.
+ * <p>
+ * Instances are not thread-safe.
+ * 
+ * @author alperenp
+ * 
+ */
+public class IDMEFxmlDocumentSplitter {
+	
+	private static final byte[] PI_END = { '?', '>' };
+	
+	private static final byte[] COMMENT_END = { '-', '-', '>' };
+	
+	private static final byte[] CDATA_END = { ']', ']', '>' };
+	
+	private final InputStream input;
+	
+	/**
+	 * bytes read from {@link #input} but not scanned yet
+	 */
+	private final byte[] readBuffer = new byte[8192];
+	
+	private int readPosition;
+	
+	private int readLimit;
+	
+	/**
+	 * bytes of the document being scanned, reused for all documents
+	 */
+	private byte[] document = new byte[8192];
+	
+	private int length;
+	
+	/**
+	 * @param input stream of documents, not closed by this class
+	 */
+	public IDMEFxmlDocumentSplitter(@NonNull InputStream input) {
+		this.input = input;
+	}
+	
+	/**
+	 * reads next document
+	 * 
+	 * @return bytes of the document from its first markup up to end of its root element, null at end of stream
+	 * @throws IOException if stream fails or ends inside a document
+	 */
+	public byte[] nextDocument() throws IOException {
+		length = 0;
+		int depth = 0;
+		int b;
+		while ((b = read()) != -1) {
+			if (length == 0 && isWhitespace(b)) {
+				// between documents
+				continue;
+			}
+			append(b);
+			if (b != '<') {
+				continue;
+			}
+			int next = readRequired();
+			append(next);
+			if (next == '?') {
+				scanUntil(PI_END);
+			} else if (next == '!') {
+				scanDeclaration();
+			} else if (next == '/') {
+				scanTag();
+				depth--;
+				if (depth == 0) {
+					return Arrays.copyOf(document, length);
+				}
+			} else if (!scanTag()) {
+				depth++;
+			} else if (depth == 0) {
+				// root element is empty
+				return Arrays.copyOf(document, length);
+			}
+		}
+		if (length > 0) {
+			throw new IOException("stream ended inside an xml document");
+		}
+		return null;
+	}
+	
+	/**
+	 * scans comment, CDATA section or document type declaration, after "&lt;!"
+	 * 
+	 * @throws IOException
+	 */
+	private void scanDeclaration() throws IOException {
+		int b = readRequired();
+		append(b);
+		if (b == '-') {
+			scanUntil(COMMENT_END);
+		} else if (b == '[') {
+			scanUntil(CDATA_END);
+		} else {
+			// DOCTYPE, internal subset may contain '>' in brackets
+			int brackets = 0;
+			while (b != '>' || brackets > 0) {
+				if (b == '[') {
+					brackets++;
+				} else if (b == ']') {
+					brackets--;
+				}
+				b = readRequired();
+				append(b);
+			}
+		}
+	}
+	
+	/**
+	 * scans the rest of a start or end tag
+	 * 
+	 * @return true if tag is an empty element tag
+	 * @throws IOException
+	 */
+	private boolean scanTag() throws IOException {
+		int quote = 0;
+		int last = 0;
+		while (true) {
+			int b = readRequired();
+			append(b);
+			if (quote != 0) {
+				if (b == quote) {
+					quote = 0;
+				}
+			} else if (b == '"' || b == '\'') {
+				quote = b;
+			} else if (b == '>') {
+				return last == '/';
+			}
+			last = b;
+		}
+	}
+	
+	private void scanUntil(byte[] terminator) throws IOException {
+		int matched = 0;
+		while (matched < terminator.length) {
+			int b = readRequired();
+			append(b);
+			if (b == terminator[matched]) {
+				matched++;
+			} else if (matched == 0 || b != terminator[matched - 1] || b != terminator[0]) {
+				// repeated first byte (e.g. "]]]>") keeps the match
+				matched = b == terminator[0] ? 1 : 0;
+			}
+		}
+	}
+	
+	private int readRequired() throws IOException {
+		int b = read();
+		if (b == -1) {
+			throw new IOException("stream ended inside an xml document");
+		}
+		return b;
+	}
+	
+	private int read() throws IOException {
+		if (readPosition == readLimit) {
+			readLimit = input.read(readBuffer, 0, readBuffer.length);
+			readPosition = 0;
+			if (readLimit <= 0) {
+				readLimit = 0;
+				return -1;
+			}
+		}
+		return readBuffer[readPosition++] & 0xFF;
+	}
+	
+	private void append(int b) {
+		if (length == document.length) {
+			document = Arrays.copyOf(document, length * 2);
+		}
+		document[length++] = (byte) b;
+	}
+	
+	private static boolean isWhitespace(int b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+	}
+}
@@ -31,7 +31,7 @@ import tr.alperenp.sec.idmef.model.misc.IenumIDMEF;
  * WARNING: This class is not part of RFC 4765 but used as a utility class
  * 
  * @author alperenp
- *
+ * 
  */
 public class IDMEFxmlUtils {
 	public Properties useDefaultProperties() {
@@ -49,6 +49,14 @@ public class IDMEFxmlUtils {
 	
 	/* -------- XML SERIALIZER UTILS -------- */
 	
+	/**
+	 * @param elementName
+	 * @return namespace prefix of given element name including ':', empty {@link String} if name has no prefix
+	 */
+	public static String getPrefix(String elementName) {
+		return elementName.substring(0, elementName.indexOf(':') + 1);
+	}
+	
 	public void createAndAppendStringElementWithTextContent(String text, Document document, String tagName,
 			Element parentElement) {
 		if (text != null) {
@@ -0,0 +1,263 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import lombok.NonNull;
+
+/**
+ * {@link Appendable} which encodes appended characters as UTF-8 and writes the bytes to an {@link OutputStream} or a
+ * {@link ByteBuffer}, so text can be sent to a byte sink without creating an intermediate {@link String}.
+ * <p>
+ * Bytes for an {@link OutputStream} are collected in a small chunk and passed to the stream when the chunk is full or
+ * {@link #finish()} is called. Bytes for a {@link ByteBuffer} are encoded straight into the buffer, through its backing
+ * array if it has one, so no intermediate array is allocated. Unpaired surrogates are written as '?', same as
+ * {@link String#getBytes(java.nio.charset.Charset)}.
+ * <p>
+ * Instances are not thread-safe and are meant to be used for a single document.
+ * 
+ * @author alperenp
+ * 
+ */
+public class Utf8Appendable implements Appendable {
+	
+	private static final int CHUNK_SIZE = 2048;
+	
+	private static final byte REPLACEMENT = '?';
+	
+	/**
+	 * target stream, null if bytes are written to {@link #buffer}
+	 */
+	private final OutputStream stream;
+	
+	/**
+	 * target buffer, null if bytes are written to {@link #stream}
+	 */
+	private final ByteBuffer buffer;
+	
+	/**
+	 * array encoded bytes are written to: chunk for {@link #stream}, backing array of {@link #buffer}, or null if
+	 * buffer has no accessible array and bytes are put one by one
+	 */
+	private final byte[] bytes;
+	
+	/**
+	 * index in {@link #bytes} where next byte is written
+	 */
+	private int count;
+	
+	/**
+	 * index in {@link #bytes} where writable space ends
+	 */
+	private final int limit;
+	
+	/**
+	 * high surrogate waiting for its low surrogate, 0 if there is none
+	 */
+	private char highSurrogate;
+	
+	/**
+	 * Creates an instance writing to given {@link OutputStream}. Stream is neither flushed nor closed
+	 * 
+	 * @param stream
+	 */
+	public Utf8Appendable(@NonNull OutputStream stream) {
+		this.stream = stream;
+		this.buffer = null;
+		this.bytes = new byte[CHUNK_SIZE];
+		this.count = 0;
+		this.limit = CHUNK_SIZE;
+	}
+	
+	/**
+	 * Creates an instance writing to given {@link ByteBuffer} starting from its position. If bytes do not fit between
+	 * position and limit, {@link BufferOverflowException} is thrown. Position of a buffer with a backing array is
+	 * updated by {@link #finish()}
+	 * 
+	 * @param buffer
+	 */
+	public Utf8Appendable(@NonNull ByteBuffer buffer) {
+		this.stream = null;
+		this.buffer = buffer;
+		if (buffer.hasArray()) {
+			this.bytes = buffer.array();
+			this.count = buffer.arrayOffset() + buffer.position();
+			this.limit = buffer.arrayOffset() + buffer.limit();
+		} else {
+			this.bytes = null;
+			this.count = 0;
+			this.limit = 0;
+		}
+	}
+	
+	@Override
+	public Appendable append(CharSequence csq) throws IOException {
+		if (csq == null) {
+			return append("null", 0, 4);
+		}
+		return append(csq, 0, csq.length());
+	}
+	
+	@Override
+	public Appendable append(CharSequence csq, int start, int end) throws IOException {
+		if (csq == null) {
+			return append("null", start, end);
+		}
+		for (int i = start; i < end; i++) {
+			char c = csq.charAt(i);
+			if (c < 0x80 && highSurrogate == 0) {
+				if (count == limit) {
+					ensureCapacity(1);
+				}
+				put((byte) c);
+			} else {
+				encode(c);
+			}
+		}
+		return this;
+	}
+	
+	@Override
+	public Appendable append(char c) throws IOException {
+		encode(c);
+		return this;
+	}
+	
+	/**
+	 * writes bytes which are already UTF-8 encoded, e.g. a pre-rendered fragment
+	 * 
+	 * @param src
+	 * @throws IOException
+	 */
+	public void write(@NonNull byte[] src) throws IOException {
+		if (highSurrogate != 0) {
+			highSurrogate = 0;
+			ensureCapacity(1);
+			put(REPLACEMENT);
+		}
+		if (bytes == null) {
+			buffer.put(src);
+			return;
+		}
+		if (src.length > limit - count) {
+			if (stream == null) {
+				overflow();
+			}
+			drain();
+			if (src.length > limit) {
+				stream.write(src);
+				return;
+			}
+		}
+		System.arraycopy(src, 0, bytes, count, src.length);
+		count += src.length;
+	}
+	
+	/**
+	 * passes all encoded bytes to the target. Must be called after last append
+	 * 
+	 * @throws IOException
+	 */
+	public void finish() throws IOException {
+		if (highSurrogate != 0) {
+			highSurrogate = 0;
+			ensureCapacity(1);
+			put(REPLACEMENT);
+		}
+		drain();
+	}
+	
+	private void encode(char c) throws IOException {
+		if (highSurrogate != 0) {
+			char high = highSurrogate;
+			highSurrogate = 0;
+			if (Character.isLowSurrogate(c)) {
+				int codePoint = Character.toCodePoint(high, c);
+				ensureCapacity(4);
+				put((byte) (0xF0 | (codePoint >> 18)));
+				put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+				put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+				put((byte) (0x80 | (codePoint & 0x3F)));
+				return;
+			}
+			ensureCapacity(1);
+			put(REPLACEMENT);
+		}
+		if (c < 0x80) {
+			ensureCapacity(1);
+			put((byte) c);
+		} else if (c < 0x800) {
+			ensureCapacity(2);
+			put((byte) (0xC0 | (c >> 6)));
+			put((byte) (0x80 | (c & 0x3F)));
+		} else if (Character.isHighSurrogate(c)) {
+			highSurrogate = c;
+		} else if (Character.isLowSurrogate(c)) {
+			ensureCapacity(1);
+			put(REPLACEMENT);
+		} else {
+			ensureCapacity(3);
+			put((byte) (0xE0 | (c >> 12)));
+			put((byte) (0x80 | ((c >> 6) & 0x3F)));
+			put((byte) (0x80 | (c & 0x3F)));
+		}
+	}
+	
+	private void put(byte b) {
+		if (bytes != null) {
+			bytes[count++] = b;
+		} else {
+			buffer.put(b);
+		}
+	}
+	
+	private void ensureCapacity(int length) throws IOException {
+		if (bytes == null) {
+			if (buffer.remaining() < length) {
+				throw new BufferOverflowException();
+			}
+		} else if (count + length > limit) {
+			if (stream == null) {
+				overflow();
+			}
+			drain();
+		}
+	}
+	
+	/**
+	 * keeps position of {@link #buffer} at last written byte and throws {@link BufferOverflowException}
+	 */
+	private void overflow() {
+		buffer.position(count - buffer.arrayOffset());
+		throw new BufferOverflowException();
+	}
+	
+	private void drain() throws IOException {
+		if (stream != null) {
+			if (count > 0) {
+				stream.write(bytes, 0, count);
+				count = 0;
+			}
+		} else if (bytes != null) {
+			buffer.position(count - buffer.arrayOffset());
+		}
+	}
+}
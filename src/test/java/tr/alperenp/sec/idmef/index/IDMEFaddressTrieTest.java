@@ -0,0 +1,228 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.alert.Alert;
+import tr.alperenp.sec.idmef.model.alert.support.Address;
+import tr.alperenp.sec.idmef.model.alert.support.Node;
+import tr.alperenp.sec.idmef.model.core.Source;
+import tr.alperenp.sec.idmef.model.core.Target;
+import tr.alperenp.sec.idmef.model.misc.IDMEFipAddress;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class IDMEFaddressTrieTest {
+	
+	/**
+	 * entries of footprint benchmark, e.g. -Didmef.benchmark.entries=10000000 with enough heap
+	 */
+	private static final int BENCHMARK_ENTRIES = Integer.getInteger("idmef.benchmark.entries", 200000);
+	
+	@Test
+	public void queryTest() {
+		log.info("Address trie query Test started...");
+		Random random = new Random(4765);
+		IDMEFaddressTrie<Integer> trie = new IDMEFaddressTrie<>();
+		List<IDMEFipAddress> keys = new ArrayList<>();
+		List<Integer> values = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) {
+			IDMEFipAddress key = randomAddress(random);
+			Integer value = Integer.valueOf(i % 500 + 1000);
+			if (trie.put(key, value)) {
+				keys.add(key);
+				values.add(value);
+			}
+		}
+		Assertions.assertEquals(keys.size(), trie.size());
+		assertQueries(random, trie, keys, values);
+		
+		// remove half of the entries, including their glue nodes
+		for (int i = keys.size() - 1; i >= 0; i -= 2) {
+			Assertions.assertTrue(trie.remove(keys.get(i), values.get(i)));
+			Assertions.assertFalse(trie.remove(keys.get(i), values.get(i)));
+			keys.remove(i);
+			values.remove(i);
+		}
+		Assertions.assertEquals(keys.size(), trie.size());
+		assertQueries(random, trie, keys, values);
+		
+		for (int i = 0; i < keys.size(); i++) {
+			Assertions.assertTrue(trie.remove(keys.get(i), values.get(i)));
+		}
+		Assertions.assertTrue(trie.isEmpty());
+		Assertions.assertTrue(trie.within(IDMEFipAddress.parse("0.0.0.0/0")).isEmpty());
+		log.info("Address trie query Test finished!");
+	}
+	
+	@Test
+	public void alertIndexTest() {
+		log.info("Address index Test started...");
+		IDMEFaddressIndex index = new IDMEFaddressIndex();
+		Alert first = createAlert("192.0.2.50", "10.1.2.3");
+		Alert second = createAlert("192.0.2.51", "10.200.0.0/16");
+		Alert third = createAlert("2001:db8::1", "addr-1");
+		Assertions.assertEquals(2, index.add(first));
+		Assertions.assertEquals(2, index.add(second));
+		Assertions.assertEquals(1, index.add(third));
+		Assertions.assertEquals(0, index.add(third));
+		
+		Assertions.assertEquals(setOf(first, second), index.findWithin(IDMEFipAddress.parse("10.0.0.0/8")));
+		Assertions.assertEquals(setOf(first), index.findWithin(IDMEFipAddress.parse("192.0.2.50")));
+		Set<IDMEFipAddress> prefixes = new HashSet<>();
+		prefixes.add(IDMEFipAddress.parse("192.0.2.51"));
+		prefixes.add(IDMEFipAddress.parse("2001:db8::/32"));
+		Assertions.assertEquals(setOf(second, third), index.findWithin(prefixes));
+		Assertions.assertEquals(Collections.singletonList(second),
+				index.findLongestPrefix(IDMEFipAddress.parse("10.200.3.4")));
+		Assertions.assertTrue(index.findLongestPrefix(IDMEFipAddress.parse("10.201.3.4")).isEmpty());
+		
+		Assertions.assertEquals(2, index.remove(second));
+		Assertions.assertEquals(setOf(first), index.findWithin(IDMEFipAddress.parse("10.0.0.0/8")));
+		Assertions.assertEquals(3, index.size());
+		log.info("Address index Test finished!");
+	}
+	
+	@Test
+	public void footprintBenchmarkTest() {
+		log.info("Address trie footprint Test started...");
+		Random random = new Random(3339);
+		Object value = new Object();
+		IDMEFipAddress[] keys = new IDMEFipAddress[BENCHMARK_ENTRIES];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = i % 4 == 0 ? IDMEFipAddress.ofIPv6(random.nextLong(), random.nextLong())
+					: IDMEFipAddress.ofIPv4(random.nextInt());
+		}
+		long before = usedMemory();
+		long start = System.nanoTime();
+		IDMEFaddressTrie<Object> trie = new IDMEFaddressTrie<>();
+		for (IDMEFipAddress key : keys) {
+			trie.put(key, value);
+		}
+		long insert = System.nanoTime() - start;
+		long used = usedMemory() - before;
+		log.info("{} entries: {} bytes/entry, {} ns/insert", trie.size(), used / Math.max(1, trie.size()),
+				insert / keys.length);
+		Assertions.assertEquals(1, trie.longestPrefixMatch(keys[keys.length / 2]).size());
+		log.info("Address trie footprint Test finished!");
+	}
+	
+	private static void assertQueries(Random random, IDMEFaddressTrie<Integer> trie, List<IDMEFipAddress> keys,
+			List<Integer> values) {
+		for (int i = 0; i < 500; i++) {
+			IDMEFipAddress query = i % 2 == 0 ? randomAddress(random) : keys.get(random.nextInt(keys.size()));
+			List<Integer> expectedWithin = new ArrayList<>();
+			int longest = -1;
+			List<Integer> expectedLongest = new ArrayList<>();
+			for (int j = 0; j < keys.size(); j++) {
+				IDMEFipAddress key = keys.get(j);
+				if (query.contains(key)) {
+					expectedWithin.add(values.get(j));
+				}
+				if (key.contains(query)) {
+					int length = key.getPrefixLength();
+					if (length > longest) {
+						longest = length;
+						expectedLongest.clear();
+					}
+					if (length == longest) {
+						expectedLongest.add(values.get(j));
+					}
+				}
+			}
+			assertSameElements(expectedWithin, trie.within(query));
+			assertSameElements(expectedLongest, trie.longestPrefixMatch(query));
+		}
+	}
+	
+	private static void assertSameElements(List<Integer> expected, List<Integer> actual) {
+		List<Integer> sortedExpected = new ArrayList<>(expected);
+		List<Integer> sortedActual = new ArrayList<>(actual);
+		Collections.sort(sortedExpected);
+		Collections.sort(sortedActual);
+		Assertions.assertEquals(sortedExpected, sortedActual);
+	}
+	
+	/**
+	 * addresses from a few small networks, so that prefixes nest
+	 */
+	private static IDMEFipAddress randomAddress(Random random) {
+		IDMEFipAddress address;
+		if (random.nextInt(4) == 0) {
+			address = IDMEFipAddress.ofIPv6(0x20010db800000000L | random.nextInt(4), random.nextInt(64));
+			return address.withPrefixLength(random.nextBoolean() ? 128 : 30 + random.nextInt(99));
+		}
+		address = IDMEFipAddress.ofIPv4(0x0a000000 | random.nextInt(1 << 10) << 8 | random.nextInt(8));
+		return address.withPrefixLength(random.nextBoolean() ? 32 : 8 + random.nextInt(25));
+	}
+	
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+	
+	private static Set<Alert> setOf(Alert... alerts) {
+		Set<Alert> set = Collections.newSetFromMap(new IdentityHashMap<>());
+		Collections.addAll(set, alerts);
+		return set;
+	}
+	
+	private static Alert createAlert(String sourceAddress, String targetAddress) {
+		Alert alert = new Alert();
+		Source source = new Source();
+		source.setNode(createNode(sourceAddress));
+		Target target = new Target();
+		target.setNode(createNode(targetAddress));
+		List<Source> sources = new LinkedList<>();
+		sources.add(source);
+		List<Target> targets = new LinkedList<>();
+		targets.add(target);
+		alert.setSources(sources);
+		alert.setTargets(targets);
+		return alert;
+	}
+	
+	private static Node createNode(String text) {
+		Address address = new Address();
+		address.setCategory(text.contains(":") ? Address.Category.IPV6ADDR : Address.Category.IPV4ADDR);
+		address.setAddress(text);
+		List<Address> addresses = new LinkedList<>();
+		addresses.add(address);
+		Node node = new Node();
+		node.setAddresses(addresses);
+		return node;
+	}
+}
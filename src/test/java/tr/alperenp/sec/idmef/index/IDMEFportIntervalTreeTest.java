@@ -0,0 +1,149 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.alert.Alert;
+import tr.alperenp.sec.idmef.model.alert.support.Service;
+import tr.alperenp.sec.idmef.model.core.Source;
+import tr.alperenp.sec.idmef.model.core.Target;
+import tr.alperenp.sec.idmef.model.misc.IDMEFportSet;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class IDMEFportIntervalTreeTest {
+	
+	@Test
+	public void queryTest() {
+		log.info("Port interval tree query Test started...");
+		Random random = new Random(4765);
+		IDMEFportIntervalTree<Integer> tree = new IDMEFportIntervalTree<>();
+		List<int[]> entries = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			int from = random.nextInt(2000);
+			int to = from + (random.nextBoolean() ? 0 : random.nextInt(100));
+			// values are compared by identity, cached Integer instances keep them comparable
+			int value = random.nextInt(128);
+			if (tree.put(from, to, Integer.valueOf(value))) {
+				entries.add(new int[] { from, to, value });
+			}
+		}
+		Assertions.assertEquals(entries.size(), tree.size());
+		assertQueries(random, tree, entries);
+		
+		// evict in insertion order, as a window would
+		for (int i = 0; i < entries.size() / 2; i++) {
+			int[] entry = entries.get(i);
+			Assertions.assertTrue(tree.remove(entry[0], entry[1], Integer.valueOf(entry[2])));
+			Assertions.assertFalse(tree.remove(entry[0], entry[1], Integer.valueOf(entry[2])));
+		}
+		entries = new ArrayList<>(entries.subList(entries.size() / 2, entries.size()));
+		Assertions.assertEquals(entries.size(), tree.size());
+		assertQueries(random, tree, entries);
+		
+		for (int[] entry : entries) {
+			Assertions.assertTrue(tree.remove(entry[0], entry[1], Integer.valueOf(entry[2])));
+		}
+		Assertions.assertTrue(tree.isEmpty());
+		Assertions.assertTrue(tree.overlapping(0, IDMEFportSet.MAX_PORT).isEmpty());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> tree.put(10, 9, Integer.valueOf(0)));
+		log.info("Port interval tree query Test finished!");
+	}
+	
+	@Test
+	public void alertIndexTest() {
+		log.info("Port index Test started...");
+		IDMEFportIndex index = new IDMEFportIndex();
+		Alert smb = createAlert(445, null);
+		Alert netbios = createAlert(-1, "5-25,37,42,43,53,69-119,123-514");
+		Alert web = createAlert(80, "8080,8443");
+		Assertions.assertEquals(1, index.add(smb));
+		Assertions.assertEquals(6, index.add(netbios));
+		Assertions.assertEquals(3, index.add(web));
+		Assertions.assertEquals(0, index.add(web));
+		
+		IDMEFportSet ports = IDMEFportSet.parse("135-139,445");
+		Assertions.assertEquals(setOf(smb, netbios), index.findOverlapping(ports));
+		Assertions.assertEquals(setOf(netbios, web), index.findByPort(80));
+		Assertions.assertEquals(setOf(web), index.findOverlapping(8000, 9000));
+		Assertions.assertTrue(index.findByPort(26).isEmpty());
+		
+		Assertions.assertEquals(6, index.remove(netbios));
+		Assertions.assertEquals(setOf(smb), index.findOverlapping(ports));
+		Assertions.assertEquals(4, index.size());
+		log.info("Port index Test finished!");
+	}
+	
+	private static void assertQueries(Random random, IDMEFportIntervalTree<Integer> tree, List<int[]> entries) {
+		for (int i = 0; i < 1000; i++) {
+			int from = random.nextInt(2200);
+			int to = from + (i % 2 == 0 ? 0 : random.nextInt(50));
+			List<Integer> expected = new ArrayList<>();
+			for (int[] entry : entries) {
+				if (entry[0] <= to && entry[1] >= from) {
+					expected.add(entry[2]);
+				}
+			}
+			List<Integer> actual = new ArrayList<>(from == to ? tree.containing(from) : tree.overlapping(from, to));
+			Collections.sort(expected);
+			Collections.sort(actual);
+			Assertions.assertEquals(expected, actual);
+		}
+	}
+	
+	private static Set<Alert> setOf(Alert... alerts) {
+		Set<Alert> set = Collections.newSetFromMap(new IdentityHashMap<>());
+		Collections.addAll(set, alerts);
+		return set;
+	}
+	
+	private static Alert createAlert(int targetPort, String sourcePortlist) {
+		Alert alert = new Alert();
+		Service targetService = new Service();
+		targetService.setPort(targetPort);
+		Target target = new Target();
+		target.setService(targetService);
+		List<Target> targets = new LinkedList<>();
+		targets.add(target);
+		alert.setTargets(targets);
+		if (sourcePortlist != null) {
+			Service sourceService = new Service();
+			sourceService.setPortSet(IDMEFportSet.parse(sourcePortlist));
+			Source source = new Source();
+			source.setService(sourceService);
+			List<Source> sources = new LinkedList<>();
+			sources.add(source);
+			alert.setSources(sources);
+		}
+		return alert;
+	}
+}
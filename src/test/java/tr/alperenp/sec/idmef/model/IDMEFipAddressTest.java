@@ -0,0 +1,129 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.model;
+
+import java.net.InetAddress;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.alert.support.Address;
+import tr.alperenp.sec.idmef.model.misc.IDMEFipAddress;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class IDMEFipAddressTest {
+	
+	@Test
+	public void parseTest() throws Exception {
+		log.info("IP address parse Test started...");
+		// samples of RFC 4765
+		Assertions.assertEquals("192.0.2.50", IDMEFipAddress.parse("192.0.2.50", "255.255.255.255").toString());
+		Assertions.assertEquals("222.121.111.112", IDMEFipAddress.parse("0xde796f70").toString());
+		
+		Assertions.assertEquals("10.0.0.0/8", IDMEFipAddress.parse(" 10.0.0.0/8 ").toString());
+		Assertions.assertEquals("10.0.0.0/8", IDMEFipAddress.parse("10.0.0.0/255.0.0.0").toString());
+		Assertions.assertEquals("10.0.0.0/8", IDMEFipAddress.parse("10.0.0.0", "8").toString());
+		Assertions.assertEquals("10.0.0.0/255.0.255.0", IDMEFipAddress.parse("10.0.0.0", "255.0.255.0").toString());
+		Assertions.assertEquals(-1, IDMEFipAddress.parse("10.0.0.0/255.0.255.0").getPrefixLength());
+		Assertions.assertEquals(0, IDMEFipAddress.parse("0.0.0.0/0").getPrefixLength());
+		
+		String[][] ipv6 = { { "2001:DB8:0:0:0:0:0:1", "2001:db8::1" }, { "::", "::" }, { "::1", "::1" },
+				{ "1::", "1::" }, { "2001:db8:0:1:1:1:1:1", "2001:db8:0:1:1:1:1:1" },
+				{ "2001:0:0:1:0:0:0:1", "2001:0:0:1::1" }, { "::ffff:192.0.2.1", "::ffff:c000:201" },
+				{ "20010db8000000000000000000000001", "2001:db8::1" }, { "2001:db8::/32", "2001:db8::/32" },
+				{ "fe80::1/ffff:ffff:ffff:ffff::", "fe80::1/64" } };
+		for (String[] sample : ipv6) {
+			IDMEFipAddress ip = IDMEFipAddress.parse(sample[0]);
+			Assertions.assertTrue(ip.isIpv6(), sample[0]);
+			Assertions.assertEquals(sample[1], ip.toString(), sample[0]);
+			Assertions.assertEquals(ip, IDMEFipAddress.parse(ip.toString()));
+		}
+		
+		String[] invalids = { "", "addr-1", "1.2.3", "1.2.3.4.5", "256.1.1.1", "1.2.3.4/33", "1.2.3.4/ff::",
+				"1:2:3:4:5:6:7", "1:2:3:4:5:6:7:8:9", "1::2::3", "1:::2", "1:", ":1", "12345::", "::/129", "0x1234" };
+		for (String invalid : invalids) {
+			Assertions.assertThrows(IllegalArgumentException.class, () -> IDMEFipAddress.parse(invalid), invalid);
+		}
+		
+		Random random = new Random(4765);
+		for (int i = 0; i < 1000; i++) {
+			byte[] bytes = new byte[i % 2 == 0 ? 4 : 16];
+			random.nextBytes(bytes);
+			InetAddress inet = InetAddress.getByAddress(bytes);
+			IDMEFipAddress ip = IDMEFipAddress.parse(inet.getHostAddress());
+			Assertions.assertArrayEquals(bytes, ip.getAddressBytes());
+			Assertions.assertEquals(ip, IDMEFipAddress.parse(ip.toString()));
+		}
+		log.info("IP address parse Test finished!");
+	}
+	
+	@Test
+	public void matchTest() {
+		log.info("IP address match Test started...");
+		IDMEFipAddress net = IDMEFipAddress.parse("10.0.0.0/8");
+		Assertions.assertTrue(net.contains(IDMEFipAddress.parse("10.1.2.3")));
+		Assertions.assertTrue(net.contains(IDMEFipAddress.parse("10.1.0.0/16")));
+		Assertions.assertTrue(net.contains(net));
+		Assertions.assertFalse(net.contains(IDMEFipAddress.parse("11.0.0.1")));
+		Assertions.assertFalse(net.contains(IDMEFipAddress.parse("0.0.0.0/0")));
+		Assertions.assertFalse(net.contains(IDMEFipAddress.parse("::ffff:10.0.0.1")));
+		Assertions.assertTrue(IDMEFipAddress.parse("0.0.0.0/0").contains(IDMEFipAddress.parse("192.0.2.1")));
+		
+		IDMEFipAddress net6 = IDMEFipAddress.parse("2001:db8::/33");
+		Assertions.assertTrue(net6.contains(IDMEFipAddress.parse("2001:db8:7fff::1")));
+		Assertions.assertFalse(net6.contains(IDMEFipAddress.parse("2001:db8:8000::1")));
+		Assertions.assertEquals(IDMEFipAddress.parse("10.0.0.0/8"), IDMEFipAddress.parse("10.1.2.3/8").getNetwork());
+		Assertions.assertEquals(net, IDMEFipAddress.parse("10.0.0.0").withPrefixLength(8));
+		
+		Assertions.assertTrue(IDMEFipAddress.parse("9.255.255.255").compareTo(net) < 0);
+		Assertions.assertTrue(IDMEFipAddress.parse("255.255.255.255").compareTo(IDMEFipAddress.parse("::")) < 0);
+		Assertions.assertTrue(IDMEFipAddress.parse("8000::").compareTo(IDMEFipAddress.parse("7fff::")) > 0);
+		log.info("IP address match Test finished!");
+	}
+	
+	@Test
+	public void addressTest() {
+		log.info("Address ip Test started...");
+		Address address = new Address();
+		address.setAddress("192.0.2.50");
+		Assertions.assertNull(address.getIp());
+		address.setCategory(Address.Category.IPV4NETMASK);
+		address.setNetmask("255.255.255.0");
+		IDMEFipAddress ip = address.getIp();
+		Assertions.assertEquals("192.0.2.50/24", ip.toString());
+		Assertions.assertSame(ip, address.getIp());
+		
+		address.setAddress("addr-1");
+		Assertions.assertNull(address.getIp());
+		address.setAddress("192.0.2.50");
+		
+		Address other = new Address();
+		other.setCategory(Address.Category.IPV4NETMASK);
+		other.setAddress("192.0.2.50");
+		other.setNetmask("255.255.255.0");
+		Assertions.assertEquals(address, other);
+		Assertions.assertEquals(address.getIp(), other.getIp());
+		log.info("Address ip Test finished!");
+	}
+}
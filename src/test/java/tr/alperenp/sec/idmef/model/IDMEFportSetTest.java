@@ -0,0 +1,124 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.model;
+
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.alert.support.Service;
+import tr.alperenp.sec.idmef.model.misc.IDMEFportRange;
+import tr.alperenp.sec.idmef.model.misc.IDMEFportSet;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class IDMEFportSetTest {
+	
+	@Test
+	public void parseTest() {
+		log.info("Port set parse Test started...");
+		// sample of RFC 4765, written back unchanged
+		String portlist = "5-25,37,42,43,53,69-119,123-514";
+		IDMEFportSet set = IDMEFportSet.parse(portlist);
+		Assertions.assertEquals(portlist, set.toString());
+		Assertions.assertEquals(6, set.getRangeCount());
+		Assertions.assertEquals(21 + 1 + 2 + 1 + 51 + 392, set.size());
+		Assertions.assertTrue(set.contains(5) && set.contains(43) && set.contains(514));
+		Assertions.assertFalse(set.contains(4) || set.contains(44) || set.contains(120) || set.contains(515));
+		
+		Assertions.assertEquals(set, IDMEFportSet.parse(" 123-514 ,\n53, 43,42,37,69 - 119,5-25\n"));
+		Assertions.assertEquals("1-9", IDMEFportSet.parse("1-3,4,5-6,7,8-9,2-5").toString());
+		Assertions.assertEquals("80,81", IDMEFportSet.parse("81,80,80-80").toString());
+		Assertions.assertEquals("0,65535", IDMEFportSet.parse("65535,0").toString());
+		// reversed ranges are skipped as in earlier versions
+		Assertions.assertEquals("15", IDMEFportSet.parse("15,30-20").toString());
+		Assertions.assertTrue(IDMEFportSet.parse(" ").isEmpty());
+		
+		for (String invalid : new String[] { ",", "1,", "1-", "-1", "1;2", "1 2", "65536", "1-99999", "a" }) {
+			Assertions.assertThrows(IllegalArgumentException.class, () -> IDMEFportSet.parse(invalid), invalid);
+		}
+		log.info("Port set parse Test finished!");
+	}
+	
+	@Test
+	public void queryTest() {
+		log.info("Port set query Test started...");
+		Random random = new Random(4765);
+		for (int i = 0; i < 200; i++) {
+			BitSet expected = new BitSet();
+			IDMEFportSet.Builder builder = IDMEFportSet.builder();
+			for (int j = random.nextInt(20); j > 0; j--) {
+				int from = random.nextInt(1000);
+				int to = from + random.nextInt(10);
+				builder.add(from, to);
+				expected.set(from, to + 1);
+			}
+			IDMEFportSet set = builder.build();
+			Assertions.assertEquals(expected.cardinality(), set.size());
+			Assertions.assertArrayEquals(expected.stream().toArray(), set.ports().toArray());
+			Assertions.assertEquals(set, IDMEFportSet.parse(set.toString()));
+			Assertions.assertEquals(set, IDMEFportSet.of(set.toList()));
+			for (int port = 0; port < 1020; port++) {
+				Assertions.assertEquals(expected.get(port), set.contains(port));
+				int to = port + random.nextInt(5);
+				int next = expected.nextSetBit(port);
+				Assertions.assertEquals(next >= 0 && next <= to, set.intersects(port, to));
+			}
+			
+			IDMEFportSet other = IDMEFportSet.of(random.ints(5, 0, 1000).toArray());
+			boolean intersects = other.ports().anyMatch(expected::get);
+			Assertions.assertEquals(intersects, set.intersects(other));
+			Assertions.assertEquals(intersects, other.intersects(set));
+		}
+		Assertions.assertThrows(IllegalArgumentException.class, () -> IDMEFportSet.of(-1));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> IDMEFportSet.builder().add(10, 9));
+		log.info("Port set query Test finished!");
+	}
+	
+	@Test
+	public void servicePortlistTest() {
+		log.info("Service portlist Test started...");
+		Service service = new Service();
+		Assertions.assertNull(service.getPortlist());
+		
+		List<IDMEFportRange> portlist = new LinkedList<>();
+		portlist.add(new IDMEFportRange(55, 115));
+		portlist.add(new IDMEFportRange(15));
+		portlist.add(new IDMEFportRange(100, 120));
+		service.setPortlist(portlist);
+		Assertions.assertEquals("15,55-120", service.getPortSet().toString());
+		Assertions.assertEquals(2, service.getPortlist().size());
+		Assertions.assertEquals(new IDMEFportRange(55, 120), service.getPortlist().get(1));
+		// changes through the derived list would be lost, so they fail
+		Assertions.assertThrows(UnsupportedOperationException.class,
+				() -> service.getPortlist().add(new IDMEFportRange(8080)));
+		Assertions.assertEquals("15,55-120", service.getPortSet().toString());
+		
+		service.setPortlist(null);
+		Assertions.assertNull(service.getPortSet());
+		log.info("Service portlist Test finished!");
+	}
+}
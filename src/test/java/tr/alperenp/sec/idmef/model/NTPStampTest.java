@@ -0,0 +1,126 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.misc.IDMEFTime;
+import tr.alperenp.sec.idmef.model.misc.NTPStamp;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtimeCodec;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class NTPStampTest {
+	
+	@Test
+	public void rfcSamplesTest() {
+		log.info("NTPStamp RFC samples Test started...");
+		// samples of RFC 4765 with their date-times
+		assertSample("0xbc722ebe.0x00000000", "2000-03-09T14:07:58Z");
+		assertSample("0xbc71f4f5.0xef449129", "2000-03-09T10:01:25.93464Z");
+		assertSample("0xbc7221c0.0x4ccccccc", "2000-03-09T08:12:32.300-05:00");
+		
+		NTPStamp stamp = new NTPStamp("0xBC722EBE.0X00000000");
+		Assertions.assertEquals(0xbc722ebeL, stamp.getSeconds());
+		Assertions.assertEquals(0L, stamp.getFraction());
+		Assertions.assertEquals("0xbc722ebe.0x00000000", stamp.getNtpstamp());
+		Assertions.assertEquals(new NTPStamp("0xbc722ebe.0x00000000"), stamp);
+		
+		String[] invalids = { "", "0xbc722ebe", "0xbc722ebe.0x0000000", "0xbc722ebe,0x00000000",
+				"bc722ebe00.0x00000000", "0xbc722ebg.0x00000000", "0xbc722ebe.0x0000000 ", "0xbc722ebe.0x-0000000" };
+		for (String invalid : invalids) {
+			Assertions.assertThrows(IllegalArgumentException.class, () -> new NTPStamp(invalid), invalid);
+		}
+		log.info("NTPStamp RFC samples Test finished!");
+	}
+	
+	@Test
+	public void conversionTest() {
+		log.info("NTPStamp conversion Test started...");
+		Random random = new Random(4765);
+		char[] chars = new char[NTPStamp.LENGTH + 1];
+		for (int i = 0; i < 100000; i++) {
+			NTPStamp stamp = new NTPStamp(random.nextLong());
+			Assertions.assertEquals(stamp, new NTPStamp(stamp.getNtpstamp()));
+			Assertions.assertEquals(NTPStamp.LENGTH + 1, NTPStamp.format(stamp.getValue(), chars, 1));
+			Assertions.assertEquals(stamp.getValue(), NTPStamp.parseValue(new String(chars), 1, NTPStamp.LENGTH + 1));
+			
+			long epochSeconds = stamp.toEpochSeconds();
+			int nanos = stamp.getNanos();
+			NTPStamp fromNanos = NTPStamp.ofEpochNanos(epochSeconds, nanos);
+			Assertions.assertEquals(epochSeconds, fromNanos.toEpochSeconds());
+			Assertions.assertEquals(nanos, fromNanos.getNanos());
+			
+			long epochMilis = stamp.toEpochMilis();
+			Assertions.assertEquals(epochMilis, NTPStamp.ofEpochMilis(epochMilis).toEpochMilis());
+			Assertions.assertEquals(Instant.ofEpochSecond(epochSeconds, nanos).toEpochMilli(), epochMilis);
+			
+			IDMEFTime time = stamp.toIDMEFTime();
+			Assertions.assertEquals(fromNanos, NTPStamp.of(time));
+			Assertions.assertSame(stamp, time.getNtpstamp());
+		}
+		Assertions.assertEquals(0L, NTPStamp.ofEpochMilis(-2208988800000L).getValue());
+		log.info("NTPStamp conversion Test finished!");
+	}
+	
+	@Test
+	public void comparisonTest() {
+		log.info("NTPStamp comparison Test started...");
+		Random random = new Random(3339);
+		List<NTPStamp> stamps = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			stamps.add(new NTPStamp(random.nextLong()));
+		}
+		stamps.add(new NTPStamp(0L));
+		stamps.add(new NTPStamp(-1L));
+		Collections.sort(stamps);
+		Assertions.assertEquals(0L, stamps.get(0).getValue());
+		Assertions.assertEquals(-1L, stamps.get(stamps.size() - 1).getValue());
+		for (int i = 1; i < stamps.size(); i++) {
+			NTPStamp previous = stamps.get(i - 1);
+			NTPStamp current = stamps.get(i);
+			// text form has fixed length, so it sorts the same way
+			Assertions.assertTrue(previous.getNtpstamp().compareTo(current.getNtpstamp()) <= 0);
+			Assertions.assertTrue(previous.getSeconds() < current.getSeconds()
+					|| (previous.getSeconds() == current.getSeconds()
+							&& previous.getFraction() <= current.getFraction()));
+		}
+		log.info("NTPStamp comparison Test finished!");
+	}
+	
+	private static void assertSample(String ntpstamp, String dateTime) {
+		IDMEFTime time = new IDMEFTime();
+		IDMEFtimeCodec.parse(dateTime, time);
+		NTPStamp stamp = new NTPStamp(ntpstamp);
+		Assertions.assertEquals(ntpstamp, stamp.getNtpstamp());
+		// RFC samples are rounded to the precision of their date-times
+		long difference = NTPStamp.of(time).getValue() - stamp.getValue();
+		Assertions.assertTrue(Math.abs(difference) < (1L << 32) / 1000, ntpstamp + " " + dateTime);
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.parser;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFMessage;
+import tr.alperenp.sec.idmef.test.util.TestUtil;
+import tr.alperenp.sec.idmef.xml.parser.ConcurrentIDMEFxmlParser;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFxmlParser;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class ConcurrentIDMEFxmlParserTest {
+	
+	private static final int ROUNDS = 200;
+	
+	@Test
+	public void sharedInstanceThroughputTest() throws Exception {
+		log.info("Concurrent parser throughput Test started...");
+		List<byte[]> samples = new ArrayList<>();
+		List<IDMEFMessage> expected = new ArrayList<>();
+		IDMEFxmlParser reference = new IDMEFxmlParser(TestUtil.createFactory());
+		for (String directory : new String[] { TestUtil.RFC_HEARTBEATS_DIRECTORY, TestUtil.CRAFTED_HEARTBEATS_DIRECTORY,
+				TestUtil.RFC_ALERTS_DIRECTORY, TestUtil.CRAFTED_ALERTS_DIRECTORY }) {
+			File folder = new File(getClass().getClassLoader().getResource(directory).getFile());
+			for (File testFile : folder.listFiles()) {
+				if (!testFile.getAbsolutePath().endsWith(".xml")) {
+					continue;
+				}
+				byte[] data = Files.readAllBytes(Paths.get(testFile.getAbsolutePath()));
+				samples.add(data);
+				expected.add(reference.parseXml(data, 0, data.length));
+			}
+		}
+		Assertions.assertTrue(!samples.isEmpty());
+		
+		ConcurrentIDMEFxmlParser parser = new ConcurrentIDMEFxmlParser(TestUtil.createFactory());
+		int cores = Runtime.getRuntime().availableProcessors();
+		// warm up
+		run(parser, samples, expected, 1);
+		long single = run(parser, samples, expected, 1);
+		long multi = run(parser, samples, expected, cores);
+		long total = (long) ROUNDS * samples.size();
+		log.info("single thread: {} msg/s, {} threads: {} msg/s", total * 1000000000L / single, cores,
+				total * cores * 1000000000L / multi);
+		log.info("Concurrent parser throughput Test finished!");
+	}
+	
+	/**
+	 * every thread parses all samples {@link #ROUNDS} times with the shared parser and checks the results
+	 * 
+	 * @return elapsed nanoseconds
+	 */
+	private long run(IDMEFxmlParser parser, List<byte[]> samples, List<IDMEFMessage> expected, int threads)
+			throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		AtomicInteger mismatches = new AtomicInteger();
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			long start = System.nanoTime();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					for (int r = 0; r < ROUNDS; r++) {
+						for (int i = 0; i < samples.size(); i++) {
+							byte[] data = samples.get(i);
+							if (!expected.get(i).equals(parser.parseXml(data, 0, data.length))) {
+								mismatches.incrementAndGet();
+							}
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+			long elapsed = System.nanoTime() - start;
+			Assertions.assertEquals(0, mismatches.get());
+			return elapsed;
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
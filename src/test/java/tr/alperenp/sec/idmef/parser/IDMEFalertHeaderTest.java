@@ -0,0 +1,114 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.parser;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.alert.Alert;
+import tr.alperenp.sec.idmef.model.assessment.Impact;
+import tr.alperenp.sec.idmef.test.util.TestUtil;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFalertHeader;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFfieldMask;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFxmlParser;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class IDMEFalertHeaderTest {
+	
+	@Test
+	public void headerTest() throws Exception {
+		log.info("Alert header Test started...");
+		IDMEFxmlParser parser = new IDMEFxmlParser(TestUtil.createInputFactory());
+		int count = 0;
+		for (String directory : new String[] { TestUtil.RFC_ALERTS_DIRECTORY, TestUtil.CRAFTED_ALERTS_DIRECTORY }) {
+			File folder = new File(getClass().getClassLoader().getResource(directory).getFile());
+			for (File testFile : folder.listFiles()) {
+				if (!testFile.getName().endsWith(".xml")) {
+					continue;
+				}
+				byte[] data = Files.readAllBytes(testFile.toPath());
+				// xml in the middle of a larger array, as in a receive buffer
+				byte[] buffer = new byte[data.length + 20];
+				System.arraycopy(data, 0, buffer, 10, data.length);
+				Alert alert = (Alert) parser.parseXml(new String(data));
+				for (IDMEFalertHeader header : new IDMEFalertHeader[] { parser.parseHeader(buffer, 10, data.length),
+						parser.parseHeader(new String(data)) }) {
+					assertHeader(alert, header, testFile.getName());
+					Assertions.assertEquals(alert, header.toAlert(), testFile.getName());
+				}
+				count++;
+			}
+		}
+		Assertions.assertTrue(count > 0);
+		log.info("Alert header Test finished!");
+	}
+	
+	@Test
+	public void fieldMaskTest() throws Exception {
+		log.info("Alert header with field mask Test started...");
+		IDMEFxmlParser parser = new IDMEFxmlParser(TestUtil.createInputFactory());
+		IDMEFxmlParser masked = new IDMEFxmlParser(TestUtil.createInputFactory());
+		masked.setFieldMask(IDMEFfieldMask.of("Alert.Classification.text"));
+		File testFile = new File(getClass().getClassLoader()
+				.getResource(TestUtil.RFC_ALERTS_DIRECTORY + "/7.1.1_teardropAttack_idmef.xml").getFile());
+		byte[] data = Files.readAllBytes(testFile.toPath());
+		Alert alert = (Alert) parser.parseXml(new String(data));
+		Alert maskedAlert = (Alert) masked.parseXml(new String(data));
+		Assertions.assertNotNull(alert.getSources());
+		Assertions.assertNull(maskedAlert.getSources());
+		// header is promoted to the whole Alert, not to the masked one
+		for (IDMEFalertHeader header : new IDMEFalertHeader[] { masked.parseHeader(data, 0, data.length),
+				masked.parseHeader(new String(data)) }) {
+			assertHeader(alert, header, testFile.getName());
+			Assertions.assertEquals(alert, header.toAlert());
+		}
+		log.info("Alert header with field mask Test finished!");
+	}
+	
+	@Test
+	public void notAlertTest() throws Exception {
+		log.info("Alert header of other messages Test started...");
+		File testFile = new File(getClass().getClassLoader()
+				.getResource(TestUtil.RFC_HEARTBEATS_DIRECTORY + "/7.7_heartbeat_idmef.xml").getFile());
+		String heartbeat = new String(Files.readAllBytes(testFile.toPath()));
+		Assertions.assertNull(new IDMEFxmlParser(TestUtil.createInputFactory()).parseHeader(heartbeat));
+		Assertions.assertThrows(IllegalStateException.class,
+				() -> new IDMEFxmlParser(TestUtil.createFactory()).parseHeader(heartbeat));
+		log.info("Alert header of other messages Test finished!");
+	}
+	
+	private static void assertHeader(Alert alert, IDMEFalertHeader header, String name) {
+		Assertions.assertNotNull(header, name);
+		Assertions.assertEquals(alert.getMessageid(), header.getMessageid(), name);
+		Assertions.assertEquals(alert.getAnalyzer() == null ? null : alert.getAnalyzer().getAnalyzerid(),
+				header.getAnalyzerid(), name);
+		Assertions.assertEquals(alert.getCreateTime(), header.getCreateTime(), name);
+		Assertions.assertEquals(alert.getClassification() == null ? null : alert.getClassification().getText(),
+				header.getClassificationText(), name);
+		Impact impact = alert.getAssessment() == null ? null : alert.getAssessment().getImpact();
+		Assertions.assertEquals(impact == null ? null : impact.getSeverity(), header.getSeverity(), name);
+	}
+}
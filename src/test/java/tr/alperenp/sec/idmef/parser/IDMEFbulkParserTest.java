@@ -0,0 +1,142 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.parser;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFMessage;
+import tr.alperenp.sec.idmef.test.util.TestUtil;
+import tr.alperenp.sec.idmef.xml.parser.ConcurrentIDMEFxmlParser;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFbulkParser;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFbulkResult;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFxmlParser;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class IDMEFbulkParserTest {
+	
+	private static final int COPIES = 50;
+	
+	private static final String BROKEN = "<idmef:IDMEF-Message xmlns:idmef=\"http://iana.org/idmef\"><idmef:Alert>";
+	
+	@Test
+	public void bulkParseTest() throws Exception {
+		log.info("Bulk parser Test started...");
+		List<String> samples = new ArrayList<>();
+		List<IDMEFMessage> expected = new ArrayList<>();
+		IDMEFxmlParser parser = new IDMEFxmlParser(TestUtil.createInputFactory());
+		for (String directory : new String[] { TestUtil.RFC_HEARTBEATS_DIRECTORY, TestUtil.RFC_ALERTS_DIRECTORY,
+				TestUtil.CRAFTED_ALERTS_DIRECTORY }) {
+			File folder = new File(getClass().getClassLoader().getResource(directory).getFile());
+			for (File testFile : folder.listFiles()) {
+				if (testFile.getName().endsWith(".xml")) {
+					String data = new String(Files.readAllBytes(testFile.toPath()));
+					samples.add(data);
+					expected.add(parser.parseXml(data));
+				}
+			}
+		}
+		List<String> documents = new ArrayList<>();
+		List<IDMEFMessage> expectedMessages = new ArrayList<>();
+		List<Integer> expectedFailures = new ArrayList<>();
+		for (int c = 0; c < COPIES; c++) {
+			for (int i = 0; i < samples.size(); i++) {
+				documents.add(samples.get(i));
+				expectedMessages.add(expected.get(i));
+			}
+			// every tenth copy carries a broken document and a document which is not an IDMEF-Message
+			if (c % 10 == 0) {
+				expectedFailures.add(documents.size());
+				documents.add(BROKEN);
+				expectedFailures.add(documents.size());
+				documents.add("<root/>");
+				expectedMessages.add(null);
+				expectedMessages.add(null);
+			}
+		}
+		
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			IDMEFbulkParser bulkParser = new IDMEFbulkParser(parser, pool);
+			IDMEFbulkResult<String> ordered = bulkParser.parse(documents, true);
+			Assertions.assertEquals(expectedMessages, ordered.getMessages());
+			Assertions.assertEquals(documents.size() - expectedFailures.size(), ordered.getSuccessCount());
+			Assertions.assertTrue(ordered.hasFailures());
+			List<Integer> failures = new ArrayList<>();
+			for (IDMEFbulkResult.Failure<String> failure : ordered.getFailures()) {
+				Assertions.assertSame(documents.get(failure.getIndex()), failure.getDocument());
+				Assertions.assertNotNull(failure.getCause());
+				failures.add(failure.getIndex());
+			}
+			Assertions.assertEquals(expectedFailures, failures);
+			
+			Assertions.assertEquals(expectedMessages, bulkParser.parse(documents.stream(), true).getMessages());
+			IDMEFbulkResult<String> unordered = bulkParser.parse(documents.stream(), false);
+			Assertions.assertEquals(ordered.getSuccessCount(), unordered.getMessages().size());
+			Assertions.assertEquals(expectedFailures.size(), unordered.getFailures().size());
+			
+			List<byte[]> bytes = new ArrayList<>();
+			documents.forEach(document -> bytes.add(document.getBytes()));
+			IDMEFbulkResult<byte[]> unorderedBytes = bulkParser.parseBytes(bytes, false);
+			Assertions.assertEquals(ordered.getSuccessCount(), unorderedBytes.getSuccessCount());
+			Assertions.assertTrue(unorderedBytes.getMessages().containsAll(expected));
+			
+			// shared DOM parser is only allowed when it is concurrent
+			Assertions.assertThrows(IllegalArgumentException.class,
+					() -> new IDMEFbulkParser(new IDMEFxmlParser(TestUtil.createFactory()), pool));
+			Assertions.assertEquals(expectedMessages, new IDMEFbulkParser(
+					new ConcurrentIDMEFxmlParser(TestUtil.createFactory()), pool).parse(documents, true).getMessages());
+		} finally {
+			pool.shutdown();
+		}
+		
+		int cores = Runtime.getRuntime().availableProcessors();
+		// warm up
+		run(parser, documents, 1);
+		long single = run(parser, documents, 1);
+		long multi = run(parser, documents, cores);
+		log.info("1 thread: {} msg/s, {} threads: {} msg/s", documents.size() * 1000000000L / single, cores,
+				documents.size() * 1000000000L / multi);
+		log.info("Bulk parser Test finished!");
+	}
+	
+	/**
+	 * @return elapsed nanoseconds of an unordered bulk parse on a pool of given size
+	 */
+	private static long run(IDMEFxmlParser parser, List<String> documents, int threads) {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			long start = System.nanoTime();
+			new IDMEFbulkParser(parser, pool).parse(documents, false);
+			return System.nanoTime() - start;
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
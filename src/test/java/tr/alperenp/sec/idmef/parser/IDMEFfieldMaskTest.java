@@ -0,0 +1,145 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.parser;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.alert.Alert;
+import tr.alperenp.sec.idmef.model.alert.support.Address;
+import tr.alperenp.sec.idmef.model.core.Source;
+import tr.alperenp.sec.idmef.model.heartbeat.Heartbeat;
+import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFMessage;
+import tr.alperenp.sec.idmef.test.util.TestUtil;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFfieldMask;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFxmlParser;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class IDMEFfieldMaskTest {
+	
+	@Test
+	public void projectionTest() throws Exception {
+		log.info("Field mask projection Test started...");
+		String xml = read(TestUtil.CRAFTED_ALERTS_DIRECTORY + "/serializerTest.xml");
+		IDMEFxmlParser parser = new IDMEFxmlParser(TestUtil.createInputFactory());
+		Alert full = (Alert) parser.parseXml(xml);
+		IDMEFfieldMask mask = IDMEFfieldMask.of("Alert.Source.Node.Address.address", "Alert.Assessment.Impact",
+				"Alert.Classification.text");
+		parser.setFieldMask(mask);
+		Assertions.assertSame(mask, parser.getFieldMask());
+		Alert alert = (Alert) parser.parseXml(xml);
+		
+		Assertions.assertEquals(full.getMessageid(), alert.getMessageid());
+		Assertions.assertNotNull(full.getAnalyzer());
+		Assertions.assertNull(alert.getAnalyzer());
+		Assertions.assertNull(alert.getCreateTime());
+		Assertions.assertNull(alert.getTargets());
+		Assertions.assertNull(alert.getAdditionalDatas());
+		Assertions.assertEquals(full.getClassification().getText(), alert.getClassification().getText());
+		Assertions.assertEquals(full.getClassification().getIdent(), alert.getClassification().getIdent());
+		Assertions.assertNotNull(full.getClassification().getReferences());
+		Assertions.assertNull(alert.getClassification().getReferences());
+		Assertions.assertEquals(full.getAssessment().getImpact(), alert.getAssessment().getImpact());
+		Assertions.assertNull(alert.getAssessment().getConfidence());
+		
+		Assertions.assertEquals(full.getSources().size(), alert.getSources().size());
+		for (int i = 0; i < alert.getSources().size(); i++) {
+			Source fullSource = full.getSources().get(i);
+			Source source = alert.getSources().get(i);
+			Assertions.assertEquals(fullSource.getIdent(), source.getIdent());
+			Assertions.assertNull(source.getService());
+			Assertions.assertNull(source.getNode().getName());
+			Assertions.assertEquals(fullSource.getNode().getAddresses().size(), source.getNode().getAddresses().size());
+			for (int j = 0; j < source.getNode().getAddresses().size(); j++) {
+				Address address = source.getNode().getAddresses().get(j);
+				Address fullAddress = fullSource.getNode().getAddresses().get(j);
+				Assertions.assertEquals(fullAddress.getAddress(), address.getAddress());
+				Assertions.assertEquals(fullAddress.getCategory(), address.getCategory());
+				Assertions.assertNull(address.getNetmask());
+			}
+		}
+		
+		// messages without a path keep their attributes only
+		Heartbeat heartbeat = (Heartbeat) parser
+				.parseXml(read(TestUtil.RFC_HEARTBEATS_DIRECTORY + "/7.7_heartbeat_idmef.xml"));
+		Assertions.assertNotNull(heartbeat.getMessageid());
+		Assertions.assertNull(heartbeat.getAnalyzer());
+		log.info("Field mask projection Test finished!");
+	}
+	
+	@Test
+	public void wholeMessageTest() throws Exception {
+		log.info("Field mask whole message Test started...");
+		IDMEFxmlParser parser = new IDMEFxmlParser(TestUtil.createInputFactory());
+		IDMEFxmlParser masked = new IDMEFxmlParser(TestUtil.createInputFactory());
+		masked.setFieldMask(IDMEFfieldMask.of("Alert", "Heartbeat"));
+		for (String directory : new String[] { TestUtil.RFC_HEARTBEATS_DIRECTORY, TestUtil.CRAFTED_HEARTBEATS_DIRECTORY,
+				TestUtil.RFC_ALERTS_DIRECTORY, TestUtil.CRAFTED_ALERTS_DIRECTORY }) {
+			File folder = new File(getClass().getClassLoader().getResource(directory).getFile());
+			for (File testFile : folder.listFiles()) {
+				if (!testFile.getName().endsWith(".xml")) {
+					continue;
+				}
+				String xml = new String(Files.readAllBytes(testFile.toPath()));
+				IDMEFMessage expected = parser.parseXml(xml);
+				Assertions.assertEquals(expected, masked.parseXml(xml), testFile.getName());
+				Iterator<IDMEFMessage> iterator = masked.iterate(xml);
+				Assertions.assertEquals(expected, iterator.next(), testFile.getName());
+			}
+		}
+		log.info("Field mask whole message Test finished!");
+	}
+	
+	@Test
+	public void invalidMaskTest() throws Exception {
+		log.info("Field mask validation Test started...");
+		IDMEFxmlParser parser = new IDMEFxmlParser(TestUtil.createInputFactory());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> IDMEFfieldMask.of("Alert..Source"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> IDMEFfieldMask.of(" "));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> parser.setFieldMask(IDMEFfieldMask.of("Source.Node")));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> parser.setFieldMask(IDMEFfieldMask.of("Alert.Nowhere.address")));
+		// misspelled last names are neither elements nor attributes
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> parser.setFieldMask(IDMEFfieldMask.of("Alert.Clasification")));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> parser.setFieldMask(IDMEFfieldMask.of("Alert.Classification.txt")));
+		parser.setFieldMask(IDMEFfieldMask.of("Alert.Classification.text", "Alert.Source.Node.category"));
+		parser.setFieldMask(null);
+		Assertions.assertNull(parser.getFieldMask());
+		Assertions.assertThrows(IllegalStateException.class,
+				() -> new IDMEFxmlParser(TestUtil.createFactory()).setFieldMask(IDMEFfieldMask.of("Alert")));
+		Assertions.assertEquals(IDMEFfieldMask.of("Alert.Assessment"), IDMEFfieldMask.of(" Alert.Assessment"));
+		log.info("Field mask validation Test finished!");
+	}
+	
+	private String read(String resource) throws Exception {
+		File file = new File(getClass().getClassLoader().getResource(resource).getFile());
+		return new String(Files.readAllBytes(file.toPath()));
+	}
+}
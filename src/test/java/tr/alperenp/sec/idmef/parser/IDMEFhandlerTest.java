@@ -0,0 +1,268 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.alert.Alert;
+import tr.alperenp.sec.idmef.model.alert.support.Address;
+import tr.alperenp.sec.idmef.model.alert.support.Node;
+import tr.alperenp.sec.idmef.model.alert.support.Service;
+import tr.alperenp.sec.idmef.model.core.AdditionalData;
+import tr.alperenp.sec.idmef.model.core.Analyzer;
+import tr.alperenp.sec.idmef.model.core.Source;
+import tr.alperenp.sec.idmef.model.core.Target;
+import tr.alperenp.sec.idmef.model.heartbeat.Heartbeat;
+import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFMessage;
+import tr.alperenp.sec.idmef.test.util.TestUtil;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFhandler;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFxmlParser;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtag;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class IDMEFhandlerTest {
+	
+	private static final int ROUNDS = 200;
+	
+	@Test
+	public void callbackTest() throws Exception {
+		log.info("Handler callback Test started...");
+		IDMEFxmlParser parser = new IDMEFxmlParser(TestUtil.createInputFactory());
+		List<byte[]> samples = new ArrayList<>();
+		for (String directory : new String[] { TestUtil.RFC_HEARTBEATS_DIRECTORY, TestUtil.CRAFTED_HEARTBEATS_DIRECTORY,
+				TestUtil.RFC_ALERTS_DIRECTORY, TestUtil.CRAFTED_ALERTS_DIRECTORY }) {
+			File folder = new File(getClass().getClassLoader().getResource(directory).getFile());
+			for (File testFile : folder.listFiles()) {
+				if (!testFile.getName().endsWith(".xml")) {
+					continue;
+				}
+				byte[] data = Files.readAllBytes(testFile.toPath());
+				samples.add(data);
+				List<String> expected = new ArrayList<>();
+				for (IDMEFMessage message : parser.parseAll(new String(data)).getMessages()) {
+					describe(message, expected);
+				}
+				// crafted samples do not always keep RFC element order, callbacks come in document order
+				Collections.sort(expected);
+				RecordingHandler handler = new RecordingHandler();
+				Assertions.assertEquals(1, parser.parseXml(new ByteArrayInputStream(data), handler));
+				Collections.sort(handler.events);
+				Assertions.assertEquals(expected, handler.events, testFile.getName());
+				handler = new RecordingHandler();
+				Assertions.assertEquals(1, parser.parseXml(new String(data), handler));
+				Collections.sort(handler.events);
+				Assertions.assertEquals(expected, handler.events, testFile.getName());
+			}
+		}
+		Assertions.assertFalse(samples.isEmpty());
+		
+		// consumer which keeps nothing but a counter
+		int[] addresses = new int[1];
+		IDMEFhandler counter = new IDMEFhandler() {
+			@Override
+			public void onAddress(IDMEFtag owner, Address.Category category, String address, String netmask) {
+				addresses[0]++;
+			}
+		};
+		long handlerTime = 0;
+		long modelTime = 0;
+		for (int round = 0; round < 2; round++) {
+			long start = System.nanoTime();
+			for (int r = 0; r < ROUNDS; r++) {
+				for (byte[] data : samples) {
+					parser.parseXml(new ByteArrayInputStream(data), counter);
+				}
+			}
+			handlerTime = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int r = 0; r < ROUNDS; r++) {
+				for (byte[] data : samples) {
+					parser.parseXml(data, 0, data.length);
+				}
+			}
+			modelTime = System.nanoTime() - start;
+		}
+		Assertions.assertTrue(addresses[0] > 0);
+		long total = (long) ROUNDS * samples.size();
+		log.info("handler: {} ns/msg, model: {} ns/msg", handlerTime / total, modelTime / total);
+		log.info("Handler callback Test finished!");
+	}
+	
+	@Test
+	public void notIDMEFTest() throws Exception {
+		log.info("Handler of other documents Test started...");
+		RecordingHandler handler = new RecordingHandler();
+		Assertions.assertEquals(-1, new IDMEFxmlParser(TestUtil.createInputFactory()).parseXml("<root/>", handler));
+		Assertions.assertTrue(handler.events.isEmpty());
+		Assertions.assertThrows(IllegalStateException.class,
+				() -> new IDMEFxmlParser(TestUtil.createFactory()).parseXml("<root/>", handler));
+		log.info("Handler of other documents Test finished!");
+	}
+	
+	/**
+	 * writes the events a handler should receive for given message
+	 */
+	private static void describe(IDMEFMessage message, List<String> events) {
+		if (message instanceof Heartbeat) {
+			Heartbeat heartbeat = (Heartbeat) message;
+			events.add("heartbeat " + heartbeat.getMessageid());
+			describe(heartbeat.getAnalyzer(), 0, events);
+			describe(heartbeat.getAdditionalDatas(), events);
+			events.add("heartbeat end");
+			return;
+		}
+		Alert alert = (Alert) message;
+		events.add("alert " + alert.getMessageid());
+		describe(alert.getAnalyzer(), 0, events);
+		if (alert.getSources() != null) {
+			for (Source source : alert.getSources()) {
+				events.add("source " + source.getIdent() + " " + source.getSpoofed() + " " + source.getIface());
+				describe(source.getNode(), IDMEFtag.SOURCE, events);
+				describe(source.getService(), IDMEFtag.SOURCE, events);
+			}
+		}
+		if (alert.getTargets() != null) {
+			for (Target target : alert.getTargets()) {
+				events.add("target " + target.getIdent() + " " + target.getDecoy() + " " + target.getIface());
+				describe(target.getNode(), IDMEFtag.TARGET, events);
+				describe(target.getService(), IDMEFtag.TARGET, events);
+			}
+		}
+		if (alert.getClassification() != null) {
+			events.add("classification " + alert.getClassification().getIdent() + " "
+					+ alert.getClassification().getText());
+		}
+		describe(alert.getAdditionalDatas(), events);
+		events.add("alert end");
+	}
+	
+	private static void describe(Analyzer analyzer, int depth, List<String> events) {
+		if (analyzer == null) {
+			return;
+		}
+		events.add("analyzer " + depth + " " + analyzer.getAnalyzerid() + " " + analyzer.getManufacturer() + " "
+				+ analyzer.getModel());
+		describe(analyzer.getNode(), IDMEFtag.ANALYZER, events);
+		describe(analyzer.getAnalyzer(), depth + 1, events);
+	}
+	
+	private static void describe(Node node, IDMEFtag owner, List<String> events) {
+		if (node == null || node.getAddresses() == null) {
+			return;
+		}
+		for (Address address : node.getAddresses()) {
+			events.add("address " + owner + " " + address.getCategory() + " " + address.getAddress() + " "
+					+ address.getNetmask());
+		}
+	}
+	
+	private static void describe(Service service, IDMEFtag owner, List<String> events) {
+		if (service != null) {
+			events.add("service " + owner + " " + service.getName() + " " + service.getPort() + " "
+					+ (service.getPortSet() == null ? null : service.getPortSet().toString()));
+		}
+	}
+	
+	private static void describe(List<AdditionalData> datas, List<String> events) {
+		if (datas == null) {
+			return;
+		}
+		for (AdditionalData data : datas) {
+			for (String value : data.getValues()) {
+				events.add("data " + data.getMeaning() + " " + data.getDataType() + " " + value);
+			}
+		}
+	}
+	
+	/**
+	 * records the callbacks {@link #describe(IDMEFMessage, List)} writes
+	 */
+	private static class RecordingHandler implements IDMEFhandler {
+		
+		private final List<String> events = new ArrayList<>();
+		
+		@Override
+		public void onAlertStart(String messageid) {
+			events.add("alert " + messageid);
+		}
+		
+		@Override
+		public void onAlertEnd() {
+			events.add("alert end");
+		}
+		
+		@Override
+		public void onHeartbeatStart(String messageid) {
+			events.add("heartbeat " + messageid);
+		}
+		
+		@Override
+		public void onHeartbeatEnd() {
+			events.add("heartbeat end");
+		}
+		
+		@Override
+		public void onAnalyzer(int depth, String analyzerid, String name, String manufacturer, String model,
+				String version, String clazz, String ostype, String osversion) {
+			events.add("analyzer " + depth + " " + analyzerid + " " + manufacturer + " " + model);
+		}
+		
+		@Override
+		public void onSource(String ident, Source.Spoofed spoofed, String iface) {
+			events.add("source " + ident + " " + spoofed + " " + iface);
+		}
+		
+		@Override
+		public void onTarget(String ident, Target.Decoy decoy, String iface) {
+			events.add("target " + ident + " " + decoy + " " + iface);
+		}
+		
+		@Override
+		public void onAddress(IDMEFtag owner, Address.Category category, String address, String netmask) {
+			events.add("address " + owner + " " + category + " " + address + " " + netmask);
+		}
+		
+		@Override
+		public void onService(IDMEFtag owner, String name, int port, String portlist, String protocol) {
+			events.add("service " + owner + " " + name + " " + port + " " + portlist);
+		}
+		
+		@Override
+		public void onClassification(String ident, String text) {
+			events.add("classification " + ident + " " + text);
+		}
+		
+		@Override
+		public void onAdditionalData(String meaning, AdditionalData.Type type, String value) {
+			events.add("data " + meaning + " " + type + " " + value);
+		}
+	}
+}
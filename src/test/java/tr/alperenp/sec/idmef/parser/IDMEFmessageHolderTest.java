@@ -0,0 +1,299 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.parser;
+
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.alert.Alert;
+import tr.alperenp.sec.idmef.model.alert.support.Address;
+import tr.alperenp.sec.idmef.model.alert.support.Inode;
+import tr.alperenp.sec.idmef.model.alert.support.Process;
+import tr.alperenp.sec.idmef.model.alert.support.Reference;
+import tr.alperenp.sec.idmef.model.alert.support.Service;
+import tr.alperenp.sec.idmef.model.alert.support.UserId;
+import tr.alperenp.sec.idmef.model.assessment.Action;
+import tr.alperenp.sec.idmef.model.assessment.Confidence;
+import tr.alperenp.sec.idmef.model.assessment.Impact;
+import tr.alperenp.sec.idmef.model.core.Analyzer;
+import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFMessage;
+import tr.alperenp.sec.idmef.model.misc.IDMEFTime;
+import tr.alperenp.sec.idmef.model.misc.NTPStamp;
+import tr.alperenp.sec.idmef.model.misc.IDMEFportSet;
+import tr.alperenp.sec.idmef.test.util.TestUtil;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFmessageHolder;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFxmlParser;
+import tr.alperenp.sec.idmef.xml.serializer.IDMEFfragmentCache;
+import tr.alperenp.sec.idmef.xml.serializer.IDMEFxmlSerializer;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFanalyzerRegistry;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class IDMEFmessageHolderTest {
+	
+	private static final int ROUNDS = 200;
+	
+	@Test
+	public void reuseTest() throws Exception {
+		log.info("Message holder reuse Test started...");
+		IDMEFxmlParser parser = new IDMEFxmlParser(TestUtil.createInputFactory());
+		List<byte[]> samples = readSamples();
+		List<IDMEFMessage> expected = new ArrayList<>();
+		for (byte[] data : samples) {
+			expected.add(parser.parseXml(data, 0, data.length));
+		}
+		IDMEFmessageHolder holder = new IDMEFmessageHolder();
+		List<Integer> order = new ArrayList<>();
+		for (int i = 0; i < samples.size(); i++) {
+			order.add(i);
+		}
+		Random random = new Random(4765);
+		long created = 0;
+		for (int round = 0; round < 5; round++) {
+			// every message leaves different objects behind for the next one
+			Collections.shuffle(order, random);
+			for (int i : order) {
+				byte[] data = samples.get(i);
+				IDMEFMessage message = parser.parseXml(data, 0, data.length, holder);
+				Assertions.assertEquals(expected.get(i), message, "sample " + i);
+				Assertions.assertSame(message, holder.getMessage());
+			}
+			if (round == 0) {
+				created = holder.getCreatedCount();
+			}
+		}
+		// holder has seen every sample after the first round
+		Assertions.assertEquals(created, holder.getCreatedCount());
+		Assertions.assertTrue(holder.getReusedCount() > created);
+		
+		byte[] data = samples.get(order.get(0));
+		IDMEFMessage first = parser.parseXml(new String(data), holder);
+		Assertions.assertSame(first, parser.parseXml(new String(data), holder));
+		Assertions.assertThrows(IllegalStateException.class,
+				() -> new IDMEFxmlParser(TestUtil.createFactory()).parseXml(data, 0, data.length, holder));
+		
+		// registered analyzers are copies, so recycled analyzers of the holder do not reach other messages
+		parser.setAnalyzerRegistry(new IDMEFanalyzerRegistry(64));
+		for (int round = 0; round < 2; round++) {
+			for (int i : order) {
+				byte[] sample = samples.get(i);
+				Assertions.assertEquals(expected.get(i), parser.parseXml(sample, 0, sample.length, holder));
+			}
+		}
+		log.info("Message holder reuse Test finished!");
+	}
+	
+	@Test
+	public void fragmentCacheTest() throws Exception {
+		log.info("Message holder with fragment cache Test started...");
+		IDMEFxmlParser parser = new IDMEFxmlParser(TestUtil.createInputFactory());
+		List<byte[]> samples = readSamples();
+		IDMEFxmlSerializer plain = new IDMEFxmlSerializer();
+		List<String> expected = new ArrayList<>();
+		for (byte[] data : samples) {
+			expected.add(plain.serialize(parser.parseXml(data, 0, data.length)));
+		}
+		IDMEFxmlSerializer cached = new IDMEFxmlSerializer();
+		IDMEFfragmentCache cache = new IDMEFfragmentCache(64);
+		cached.setFragmentCache(cache);
+		IDMEFmessageHolder holder = new IDMEFmessageHolder();
+		List<Integer> order = new ArrayList<>();
+		for (int i = 0; i < samples.size(); i++) {
+			order.add(i);
+		}
+		Random random = new Random(3339);
+		for (int round = 0; round < 5; round++) {
+			// analyzers and classifications of the previous message are recycled into the next one
+			Collections.shuffle(order, random);
+			for (int i : order) {
+				byte[] data = samples.get(i);
+				IDMEFMessage message = parser.parseXml(data, 0, data.length, holder);
+				Assertions.assertEquals(expected.get(i), cached.serialize(message), "sample " + i);
+			}
+		}
+		Assertions.assertTrue(cache.getHitCount() > 0);
+		log.info("Message holder with fragment cache Test finished!");
+	}
+	
+	@Test
+	public void resetTest() {
+		log.info("Model reset Test started...");
+		Service service = new Service();
+		service.setName("http");
+		service.setPort(80);
+		service.setPortSet(IDMEFportSet.parse("8080"));
+		service.reset();
+		Assertions.assertEquals(new Service(), service);
+		Address address = new Address();
+		address.setCategory(Address.Category.IPV4ADDR);
+		address.setAddress("192.0.2.1");
+		Assertions.assertNotNull(address.getIp());
+		address.reset();
+		Assertions.assertEquals(new Address(), address);
+		Assertions.assertNull(address.getIp());
+		Alert alert = new Alert();
+		alert.setMessageid("abc");
+		alert.setVersion("2.0");
+		alert.reset();
+		Assertions.assertEquals(new Alert(), alert);
+		
+		// defaults are restored
+		Analyzer analyzer = Analyzer.builder().analyzerid("a").process(new Process()).build();
+		analyzer.reset();
+		Assertions.assertEquals(Analyzer.builder().build(), analyzer);
+		Impact impact = new Impact();
+		impact.setType(Impact.Type.DOS);
+		impact.setSeverity(Impact.Severity.HIGH);
+		impact.reset();
+		Assertions.assertEquals(new Impact(), impact);
+		Action action = new Action(Action.Category.BLOCKINSTALLED);
+		action.setDescription("mail");
+		action.reset();
+		Assertions.assertEquals(new Action(), action);
+		Confidence confidence = new Confidence(Confidence.Rating.HIGH);
+		confidence.reset();
+		Assertions.assertEquals(Confidence.Rating.NUMERIC, confidence.getRating());
+		UserId userId = new UserId();
+		userId.setType(UserId.Type.GROUPPRIVS);
+		userId.setNumber(0);
+		userId.reset();
+		Assertions.assertEquals(new UserId(), userId);
+		Process process = new Process();
+		process.setPid(42);
+		process.setArgs(Collections.singletonList("-d"));
+		process.reset();
+		Assertions.assertEquals(new Process(), process);
+		Reference reference = new Reference();
+		reference.setOrigin(Reference.Origin.CVE);
+		reference.reset();
+		Assertions.assertEquals(new Reference(), reference);
+		Inode inode = new Inode();
+		inode.setNumber(7);
+		inode.reset();
+		Assertions.assertEquals(new Inode(), inode);
+		
+		// ntpstamp is kept packed, with or without an NTPStamp
+		IDMEFTime time = new IDMEFTime();
+		time.setNtpstampValue(0xbc723b45ef449129L);
+		Assertions.assertTrue(time.hasNtpstamp());
+		Assertions.assertEquals(new NTPStamp("0xbc723b45.0xef449129"), time.getNtpstamp());
+		Assertions.assertSame(time.getNtpstamp(), time.getNtpstamp());
+		Assertions.assertTrue(time.toString().contains("ntpstamp=0xbc723b45.0xef449129"), time.toString());
+		IDMEFTime withStamp = new IDMEFTime();
+		withStamp.setNtpstamp(new NTPStamp(0xbc723b45ef449129L));
+		Assertions.assertEquals(withStamp, time);
+		time.reset();
+		Assertions.assertFalse(time.hasNtpstamp());
+		Assertions.assertNull(time.getNtpstamp());
+		Assertions.assertEquals(new IDMEFTime(), time);
+		log.info("Model reset Test finished!");
+	}
+	
+	@Test
+	public void gcPressureBenchmarkTest() throws Exception {
+		log.info("Message holder GC pressure benchmark Test started...");
+		IDMEFxmlParser parser = new IDMEFxmlParser(TestUtil.createInputFactory());
+		List<byte[]> samples = readSamples();
+		IDMEFmessageHolder holder = new IDMEFmessageHolder();
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long total = (long) ROUNDS * samples.size();
+		long[] fresh = new long[3];
+		long[] reused = new long[3];
+		for (int round = 0; round < 2; round++) {
+			// second round is measured, first one warms up
+			measure(threads, fresh, () -> {
+				for (int r = 0; r < ROUNDS; r++) {
+					for (byte[] data : samples) {
+						parser.parseXml(data, 0, data.length);
+					}
+				}
+			});
+			measure(threads, reused, () -> {
+				for (int r = 0; r < ROUNDS; r++) {
+					for (byte[] data : samples) {
+						parser.parseXml(data, 0, data.length, holder);
+					}
+				}
+			});
+		}
+		log.info("new objects: {} bytes/msg, {} ns/msg, {} collections", fresh[0] / total, fresh[1] / total, fresh[2]);
+		log.info("holder: {} bytes/msg, {} ns/msg, {} collections", reused[0] / total, reused[1] / total, reused[2]);
+		if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+			Assertions.assertTrue(reused[0] < fresh[0]);
+		}
+		log.info("Message holder GC pressure benchmark Test finished!");
+	}
+	
+	/**
+	 * runs work on current thread
+	 * 
+	 * @param result allocated bytes, elapsed nanoseconds and garbage collections of the run
+	 */
+	private static void measure(com.sun.management.ThreadMXBean threads, long[] result, Work work) throws Exception {
+		long thread = Thread.currentThread().getId();
+		long bytes = threads.getThreadAllocatedBytes(thread);
+		long collections = collectionCount();
+		long start = System.nanoTime();
+		work.run();
+		result[1] = System.nanoTime() - start;
+		result[0] = threads.getThreadAllocatedBytes(thread) - bytes;
+		result[2] = collectionCount() - collections;
+	}
+	
+	private static long collectionCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, collector.getCollectionCount());
+		}
+		return count;
+	}
+	
+	private List<byte[]> readSamples() throws Exception {
+		List<byte[]> samples = new ArrayList<>();
+		for (String directory : new String[] { TestUtil.RFC_HEARTBEATS_DIRECTORY, TestUtil.CRAFTED_HEARTBEATS_DIRECTORY,
+				TestUtil.RFC_ALERTS_DIRECTORY, TestUtil.CRAFTED_ALERTS_DIRECTORY }) {
+			File folder = new File(getClass().getClassLoader().getResource(directory).getFile());
+			for (File testFile : folder.listFiles()) {
+				if (testFile.getName().endsWith(".xml")) {
+					samples.add(Files.readAllBytes(testFile.toPath()));
+				}
+			}
+		}
+		Assertions.assertFalse(samples.isEmpty());
+		return samples;
+	}
+	
+	@FunctionalInterface
+	private interface Work {
+		void run() throws Exception;
+	}
+}
@@ -16,15 +16,28 @@
 
 package tr.alperenp.sec.idmef.parser;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactoryConfigurationError;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -37,15 +50,20 @@ import tr.alperenp.sec.idmef.model.alert.CorrelationAlert;
 import tr.alperenp.sec.idmef.model.alert.OverflowAlert;
 import tr.alperenp.sec.idmef.model.alert.ToolAlert;
 import tr.alperenp.sec.idmef.model.heartbeat.Heartbeat;
+import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFEnvelope;
 import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFMessage;
 import tr.alperenp.sec.idmef.test.util.TestUtil;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFDocumentSpliterator;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFmessageHolder;
 import tr.alperenp.sec.idmef.xml.parser.IDMEFxmlParser;
+import tr.alperenp.sec.idmef.xml.serializer.IDMEFxmlSerializer;
 import tr.alperenp.sec.idmef.xml.util.IDMEFXmlTestUtils;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFxmlUtils;
 
 /**
  * 
  * @author alperenp
- *
+ * 
  */
 @Slf4j
 public class IDMEFxmlParserTest {
@@ -211,4 +229,319 @@ public class IDMEFxmlParserTest {
 		}
 		log.info("Parse Alerts from crafted xml files Test finished!");
 	}
+	
+	@Test
+	public void staxEngineEquivalenceTest() {
+		log.info("StAX engine equivalence Test started...");
+		IDMEFxmlParser domParser = null;
+		IDMEFxmlParser staxParser = null;
+		try {
+			domParser = new IDMEFxmlParser(TestUtil.createFactory());
+			staxParser = new IDMEFxmlParser(TestUtil.createInputFactory());
+		} catch (ParserConfigurationException e) {
+			log.error("{}", e);
+			Assertions.fail();
+		}
+		
+		int count = 0;
+		for (String directory : new String[] { TestUtil.RFC_HEARTBEATS_DIRECTORY, TestUtil.CRAFTED_HEARTBEATS_DIRECTORY,
+				TestUtil.RFC_ALERTS_DIRECTORY, TestUtil.CRAFTED_ALERTS_DIRECTORY }) {
+			File folder = new File(getClass().getClassLoader().getResource(directory).getFile());
+			for (File testFile : folder.listFiles()) {
+				if (!testFile.getAbsolutePath().endsWith(".xml")) {
+					continue;
+				}
+				try {
+					String data = new String(Files.readAllBytes(Paths.get(testFile.getAbsolutePath())));
+					IDMEFMessage domMessage = domParser.parseXml(data);
+					IDMEFMessage staxMessage = staxParser.parseXml(data);
+					Assertions.assertNotNull(staxMessage, testFile.getName());
+					Assertions.assertEquals(domMessage, staxMessage, testFile.getName());
+					count++;
+				} catch (IOException | ParserConfigurationException | SAXException | DOMException | ParseException e) {
+					log.error("{}", e);
+					Assertions.fail(testFile.getName());
+				}
+			}
+		}
+		Assertions.assertTrue(count > 0);
+		log.info("StAX engine equivalence Test finished!");
+	}
+	
+	@Test
+	public void byteInputEquivalenceTest() {
+		log.info("Byte input equivalence Test started...");
+		List<IDMEFxmlParser> parsers = new LinkedList<>();
+		try {
+			parsers.add(new IDMEFxmlParser(TestUtil.createFactory()));
+			parsers.add(new IDMEFxmlParser(TestUtil.createInputFactory()));
+		} catch (ParserConfigurationException e) {
+			log.error("{}", e);
+			Assertions.fail();
+		}
+		
+		int count = 0;
+		for (String directory : new String[] { TestUtil.RFC_HEARTBEATS_DIRECTORY, TestUtil.CRAFTED_HEARTBEATS_DIRECTORY,
+				TestUtil.RFC_ALERTS_DIRECTORY, TestUtil.CRAFTED_ALERTS_DIRECTORY }) {
+			File folder = new File(getClass().getClassLoader().getResource(directory).getFile());
+			for (File testFile : folder.listFiles()) {
+				if (!testFile.getAbsolutePath().endsWith(".xml")) {
+					continue;
+				}
+				try {
+					byte[] data = Files.readAllBytes(Paths.get(testFile.getAbsolutePath()));
+					// surround xml with garbage to check offset and length handling
+					byte[] padded = new byte[data.length + 16];
+					Arrays.fill(padded, (byte) '#');
+					System.arraycopy(data, 0, padded, 7, data.length);
+					ByteBuffer direct = ByteBuffer.allocateDirect(padded.length);
+					direct.put(padded);
+					direct.position(7).limit(7 + data.length);
+					ByteBuffer heap = ByteBuffer.wrap(padded, 7, data.length).slice();
+					
+					for (IDMEFxmlParser parser : parsers) {
+						IDMEFMessage expected = parser.parseXml(new String(data, StandardCharsets.UTF_8));
+						Assertions.assertNotNull(expected, testFile.getName());
+						Assertions.assertEquals(expected, parser.parseXml(new ByteArrayInputStream(data)),
+								testFile.getName());
+						Assertions.assertEquals(expected, parser.parseXml(padded, 7, data.length), testFile.getName());
+						Assertions.assertEquals(expected, parser.parseXml(heap), testFile.getName());
+						Assertions.assertEquals(expected, parser.parseXml(direct), testFile.getName());
+						Assertions.assertEquals(7, direct.position());
+					}
+					count++;
+				} catch (IOException | ParserConfigurationException | SAXException | DOMException | ParseException e) {
+					log.error("{}", e);
+					Assertions.fail(testFile.getName());
+				}
+			}
+		}
+		Assertions.assertTrue(count > 0);
+		
+		// ranges outside of the array, including ones where offset + length overflows
+		byte[] data = new byte[16];
+		IDMEFxmlParser staxParser = parsers.get(1);
+		IDMEFmessageHolder holder = new IDMEFmessageHolder();
+		int[][] ranges = { { -1, 4 }, { 4, -1 }, { 8, 9 }, { 17, 0 }, { 8, Integer.MAX_VALUE },
+				{ Integer.MAX_VALUE, 8 } };
+		for (int[] range : ranges) {
+			String name = range[0] + ", " + range[1];
+			for (IDMEFxmlParser parser : parsers) {
+				Assertions.assertThrows(IndexOutOfBoundsException.class,
+						() -> parser.parseXml(data, range[0], range[1]), name);
+			}
+			Assertions.assertThrows(IndexOutOfBoundsException.class,
+					() -> staxParser.parseXml(data, range[0], range[1], holder), name);
+			Assertions.assertThrows(IndexOutOfBoundsException.class,
+					() -> staxParser.parseHeader(data, range[0], range[1]), name);
+		}
+		log.info("Byte input equivalence Test finished!");
+	}
+	
+	@Test
+	public void customTagNamesTest() {
+		log.info("Custom tag names Test started...");
+		Properties custom = new IDMEFxmlUtils().useDefaultProperties();
+		for (String key : custom.stringPropertyNames()) {
+			custom.setProperty(key, custom.getProperty(key).replace("idmef:", "ids:"));
+		}
+		List<IDMEFxmlParser[]> parsers = new LinkedList<>();
+		try {
+			parsers.add(new IDMEFxmlParser[] { new IDMEFxmlParser(TestUtil.createFactory()),
+					new IDMEFxmlParser(TestUtil.createFactory(), custom) });
+			parsers.add(new IDMEFxmlParser[] { new IDMEFxmlParser(TestUtil.createInputFactory()),
+					new IDMEFxmlParser(TestUtil.createInputFactory(), custom) });
+		} catch (ParserConfigurationException e) {
+			log.error("{}", e);
+			Assertions.fail();
+		}
+		
+		int count = 0;
+		for (String directory : new String[] { TestUtil.RFC_HEARTBEATS_DIRECTORY, TestUtil.RFC_ALERTS_DIRECTORY }) {
+			File folder = new File(getClass().getClassLoader().getResource(directory).getFile());
+			for (File testFile : folder.listFiles()) {
+				if (!testFile.getAbsolutePath().endsWith(".xml")) {
+					continue;
+				}
+				try {
+					String data = new String(Files.readAllBytes(Paths.get(testFile.getAbsolutePath())));
+					String customData = data.replace("idmef:", "ids:").replace("xmlns:idmef", "xmlns:ids");
+					for (IDMEFxmlParser[] pair : parsers) {
+						IDMEFMessage expected = pair[0].parseXml(data);
+						Assertions.assertNotNull(expected, testFile.getName());
+						Assertions.assertEquals(expected, pair[1].parseXml(customData), testFile.getName());
+						// default names are unknown for custom parser
+						Assertions.assertNull(pair[1].parseXml(data), testFile.getName());
+					}
+					count++;
+				} catch (IOException | ParserConfigurationException | SAXException | DOMException | ParseException e) {
+					log.error("{}", e);
+					Assertions.fail(testFile.getName());
+				}
+			}
+		}
+		Assertions.assertTrue(count > 0);
+		log.info("Custom tag names Test finished!");
+	}
+	
+	@Test
+	public void envelopeTest() {
+		log.info("Envelope Test started...");
+		try {
+			IDMEFxmlParser domParser = new IDMEFxmlParser(TestUtil.createFactory());
+			IDMEFEnvelope envelope = new IDMEFEnvelope();
+			for (String directory : new String[] { TestUtil.RFC_HEARTBEATS_DIRECTORY, TestUtil.RFC_ALERTS_DIRECTORY,
+					TestUtil.CRAFTED_ALERTS_DIRECTORY }) {
+				File folder = new File(getClass().getClassLoader().getResource(directory).getFile());
+				for (File testFile : folder.listFiles()) {
+					if (testFile.getAbsolutePath().endsWith(".xml")) {
+						String data = new String(Files.readAllBytes(Paths.get(testFile.getAbsolutePath())));
+						envelope.getMessages().add(domParser.parseXml(data));
+					}
+				}
+			}
+			Assertions.assertTrue(envelope.getMessages().size() > 1);
+			
+			String batch = new IDMEFxmlSerializer().serialize(envelope);
+			Assertions.assertEquals(new IDMEFxmlSerializer(TestUtil.createFactory()).serialize(envelope), batch);
+			// unknown elements between messages are skipped
+			String marker = "\n    <idmef:";
+			int index = batch.indexOf(marker, batch.indexOf(marker) + 1) + 1;
+			String withUnknown = batch.substring(0, index) + "<idmef:Unknown><idmef:Alert/></idmef:Unknown>"
+					+ batch.substring(index);
+			byte[] bytes = withUnknown.getBytes(StandardCharsets.UTF_8);
+			
+			for (IDMEFxmlParser parser : new IDMEFxmlParser[] { domParser,
+					new IDMEFxmlParser(TestUtil.createInputFactory()) }) {
+				Assertions.assertEquals(envelope, parser.parseAll(batch));
+				Assertions.assertEquals(envelope, parser.parseAll(new ByteArrayInputStream(bytes)));
+				Assertions.assertEquals(envelope.getMessages().get(0), parser.parseXml(batch));
+				
+				Iterator<IDMEFMessage> iterator = parser.iterate(new ByteArrayInputStream(bytes));
+				for (IDMEFMessage expected : envelope.getMessages()) {
+					Assertions.assertTrue(iterator.hasNext());
+					Assertions.assertEquals(expected, iterator.next());
+				}
+				Assertions.assertFalse(iterator.hasNext());
+				Assertions.assertThrows(NoSuchElementException.class, () -> iterator.next());
+				
+				String notIdmef = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><other/>";
+				Assertions.assertNull(parser.parseAll(notIdmef));
+				Assertions.assertFalse(parser.iterate(notIdmef).hasNext());
+				
+				// every message of concatenated multi-message documents
+				byte[] twice = (batch + "\n" + batch).getBytes(StandardCharsets.UTF_8);
+				List<IDMEFMessage> split = IDMEFDocumentSpliterator
+						.stream(parser, new ByteArrayInputStream(twice), false).collect(Collectors.toList());
+				Assertions.assertEquals(2 * envelope.getMessages().size(), split.size());
+				Assertions.assertEquals(envelope.getMessages(), split.subList(0, envelope.getMessages().size()));
+				if (parser != domParser) {
+					try (Stream<IDMEFMessage> stream = IDMEFDocumentSpliterator.stream(parser,
+							new ByteArrayInputStream(twice), true)) {
+						Assertions.assertEquals(split, stream.collect(Collectors.toList()));
+					}
+				}
+			}
+		} catch (IOException | ParserConfigurationException | SAXException | DOMException | ParseException
+				| TransformerFactoryConfigurationError | TransformerException e) {
+			log.error("{}", e);
+			Assertions.fail();
+		}
+		log.info("Envelope Test finished!");
+	}
+	
+	@Test
+	public void concatenatedDocumentsTest() {
+		log.info("Concatenated documents Test started...");
+		Path archive = null;
+		try {
+			IDMEFxmlParser domParser = new IDMEFxmlParser(TestUtil.createFactory());
+			List<IDMEFMessage> expected = new LinkedList<>();
+			StringBuilder content = new StringBuilder();
+			for (String directory : new String[] { TestUtil.RFC_HEARTBEATS_DIRECTORY, TestUtil.CRAFTED_HEARTBEATS_DIRECTORY,
+					TestUtil.RFC_ALERTS_DIRECTORY, TestUtil.CRAFTED_ALERTS_DIRECTORY }) {
+				File folder = new File(getClass().getClassLoader().getResource(directory).getFile());
+				for (File testFile : folder.listFiles()) {
+					if (testFile.getAbsolutePath().endsWith(".xml")) {
+						String data = new String(Files.readAllBytes(Paths.get(testFile.getAbsolutePath())),
+								StandardCharsets.UTF_8);
+						expected.add(domParser.parseXml(data));
+						content.append(data).append("\n\n");
+					}
+				}
+			}
+			// markup which looks like end of document inside comment, CDATA and attribute values
+			String tricky = "<?xml version=\"1.0\"?>"
+					+ "<idmef:IDMEF-Message version=\"1.0\" xmlns:idmef=\"http://iana.org/idmef\">"
+					+ "<!-- </idmef:IDMEF-Message> -->"
+					+ "<idmef:Heartbeat messageid=\"a>b/\"><idmef:AdditionalData type=\"string\">"
+					+ "<idmef:string><![CDATA[</idmef:IDMEF-Message>]]]]><![CDATA[>]]></idmef:string>"
+					+ "</idmef:AdditionalData><idmef:Analyzer analyzerid='x/'/></idmef:Heartbeat></idmef:IDMEF-Message>";
+			IDMEFMessage trickyMessage = domParser.parseXml(tricky);
+			Assertions.assertNotNull(trickyMessage);
+			expected.add(trickyMessage);
+			content.append(tricky);
+			byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+			archive = Files.createTempFile("idmef", ".xml");
+			Files.write(archive, bytes);
+			
+			IDMEFxmlParser staxParser = new IDMEFxmlParser(TestUtil.createInputFactory());
+			List<IDMEFMessage> iterated = new LinkedList<>();
+			IDMEFDocumentSpliterator.iterator(domParser, new ByteArrayInputStream(bytes)).forEachRemaining(iterated::add);
+			Assertions.assertEquals(expected, iterated);
+			Assertions.assertEquals(expected, IDMEFDocumentSpliterator
+					.stream(staxParser, new ByteArrayInputStream(bytes), false).collect(Collectors.toList()));
+			try (Stream<IDMEFMessage> stream = IDMEFDocumentSpliterator.stream(staxParser, archive, true)) {
+				Assertions.assertEquals(expected, stream.collect(Collectors.toList()));
+			}
+			
+			// truncated stream
+			Assertions.assertThrows(UncheckedIOException.class,
+					() -> IDMEFDocumentSpliterator
+							.stream(staxParser, new ByteArrayInputStream(bytes, 0, bytes.length - 5), false)
+							.count());
+		} catch (IOException | ParserConfigurationException | SAXException | DOMException | ParseException e) {
+			log.error("{}", e);
+			Assertions.fail();
+		} finally {
+			if (archive != null) {
+				archive.toFile().delete();
+			}
+		}
+		log.info("Concatenated documents Test finished!");
+	}
+	
+	@Test
+	public void messagelessDocumentTest() {
+		log.info("Messageless document Test started...");
+		String start = "<idmef:IDMEF-Message version=\"1.0\" xmlns:idmef=\"http://iana.org/idmef\">";
+		String end = "</idmef:IDMEF-Message>";
+		String heartbeat = "<idmef:Heartbeat messageid=\"abc\"><idmef:Analyzer analyzerid=\"x\"/></idmef:Heartbeat>";
+		String unknown = "<idmef:Unknown><idmef:Heartbeat messageid=\"nested\"/></idmef:Unknown>";
+		try {
+			IDMEFxmlParser domParser = new IDMEFxmlParser(TestUtil.createFactory());
+			IDMEFxmlParser staxParser = new IDMEFxmlParser(TestUtil.createInputFactory());
+			IDMEFmessageHolder holder = new IDMEFmessageHolder();
+			for (String xml : new String[] { start + end, start + unknown + end }) {
+				byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+				Assertions.assertNull(domParser.parseXml(xml), xml);
+				Assertions.assertNull(staxParser.parseXml(xml), xml);
+				Assertions.assertNull(staxParser.parseXml(bytes, 0, bytes.length, holder), xml);
+				Assertions.assertNull(holder.getMessage());
+			}
+			
+			// elements before the first Alert or Heartbeat are skipped
+			String xml = start + unknown + heartbeat + end;
+			byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+			IDMEFMessage expected = domParser.parseXml(start + heartbeat + end);
+			Assertions.assertEquals("abc", ((Heartbeat) expected).getMessageid());
+			Assertions.assertEquals(expected, domParser.parseXml(xml));
+			Assertions.assertEquals(expected, staxParser.parseXml(xml));
+			Assertions.assertEquals(expected, staxParser.parseXml(bytes, 0, bytes.length, holder));
+		} catch (IOException | ParserConfigurationException | SAXException | DOMException | ParseException e) {
+			log.error("{}", e);
+			Assertions.fail();
+		}
+		log.info("Messageless document Test finished!");
+	}
 }
@@ -25,6 +25,7 @@ import java.util.Iterator;
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactoryConfigurationError;
 
@@ -67,6 +68,14 @@ public class TestUtil {
 		return factory;
 	}
 	
+	public static XMLInputFactory createInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		// disable DTDs (External Entities) completely
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return factory;
+	}
+	
 	public static void evaluateResult(IDMEFMessage message, File testFile) {
 		try {
 			String result = new IDMEFxmlSerializer(TestUtil.createFactory()).serialize(message);
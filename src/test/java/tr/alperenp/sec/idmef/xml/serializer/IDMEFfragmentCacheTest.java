@@ -0,0 +1,265 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.alert.Alert;
+import tr.alperenp.sec.idmef.model.alert.support.Address;
+import tr.alperenp.sec.idmef.model.alert.support.Node;
+import tr.alperenp.sec.idmef.model.alert.support.Reference;
+import tr.alperenp.sec.idmef.model.core.Analyzer;
+import tr.alperenp.sec.idmef.model.core.Classification;
+import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFMessage;
+import tr.alperenp.sec.idmef.model.misc.IDMEFTime;
+import tr.alperenp.sec.idmef.test.util.TestUtil;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFmessageHolder;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFxmlParser;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFanalyzerRegistry;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class IDMEFfragmentCacheTest {
+	
+	/**
+	 * messages of sensor skewed benchmark, e.g. -Didmef.benchmark.messages=1000000
+	 */
+	private static final int BENCHMARK_MESSAGES = Integer.getInteger("idmef.benchmark.messages", 20000);
+	
+	@Test
+	public void equivalenceTest() throws Exception {
+		log.info("Fragment cache equivalence Test started...");
+		IDMEFxmlParser parser = new IDMEFxmlParser(TestUtil.createInputFactory());
+		parser.setAnalyzerRegistry(new IDMEFanalyzerRegistry(64));
+		List<IDMEFMessage> messages = new ArrayList<>();
+		for (String directory : new String[] { TestUtil.RFC_HEARTBEATS_DIRECTORY, TestUtil.CRAFTED_HEARTBEATS_DIRECTORY,
+				TestUtil.RFC_ALERTS_DIRECTORY, TestUtil.CRAFTED_ALERTS_DIRECTORY }) {
+			File folder = new File(getClass().getClassLoader().getResource(directory).getFile());
+			for (File testFile : folder.listFiles()) {
+				if (testFile.getName().endsWith(".xml")) {
+					messages.add(parser.parseXml(new String(Files.readAllBytes(testFile.toPath()))));
+				}
+			}
+		}
+		for (boolean indent : new boolean[] { true, false }) {
+			IDMEFxmlSerializerConfig config = IDMEFxmlSerializerConfig.builder().indent(indent).build();
+			IDMEFxmlSerializer plain = new IDMEFxmlSerializer(config);
+			IDMEFxmlSerializer cached = new IDMEFxmlSerializer(config);
+			IDMEFfragmentCache cache = new IDMEFfragmentCache(256);
+			cached.setFragmentCache(cache);
+			Assertions.assertSame(cache, cached.getFragmentCache());
+			// second round is written from fragments
+			for (int round = 0; round < 2; round++) {
+				for (IDMEFMessage message : messages) {
+					String expected = plain.serialize(message);
+					Assertions.assertEquals(expected, cached.serialize(message));
+					ByteArrayOutputStream stream = new ByteArrayOutputStream();
+					cached.serialize(message, stream);
+					Assertions.assertEquals(expected, new String(stream.toByteArray(), StandardCharsets.UTF_8));
+					ByteBuffer buffer = ByteBuffer.allocate(expected.length() * 2);
+					Assertions.assertTrue(cached.serialize(message, buffer));
+					Assertions.assertEquals(expected,
+							new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+				}
+			}
+			Assertions.assertTrue(cache.getHitCount() > cache.getMissCount());
+			log.info("indent={}: {}", indent, cache);
+		}
+		log.info("Fragment cache equivalence Test finished!");
+	}
+	
+	@Test
+	public void invalidationTest() throws Exception {
+		log.info("Fragment cache invalidation Test started...");
+		IDMEFxmlSerializer serializer = new IDMEFxmlSerializer();
+		IDMEFfragmentCache cache = new IDMEFfragmentCache(16);
+		serializer.setFragmentCache(cache);
+		Alert alert = createAlert(createAnalyzer(0), createClassification(0));
+		String first = serializer.serialize(alert);
+		Assertions.assertEquals(first, serializer.serialize(alert));
+		Assertions.assertEquals(2, cache.getHitCount());
+		// equal blocks of another message are written from the same fragments
+		Assertions.assertEquals(first, serializer.serialize(createAlert(createAnalyzer(0), createClassification(0))));
+		Assertions.assertEquals(4, cache.getHitCount());
+		Assertions.assertEquals(2, cache.size());
+		
+		// change of key attributes is detected
+		alert.getClassification().setText("changed classification");
+		String changed = serializer.serialize(alert);
+		Assertions.assertTrue(changed.contains("changed classification"));
+		Assertions.assertEquals(new IDMEFxmlSerializer().serialize(alert), changed);
+		Assertions.assertEquals(3, cache.getMissCount());
+		
+		Assertions.assertTrue(cache.invalidate(alert.getAnalyzer()));
+		Assertions.assertFalse(cache.invalidate(alert.getAnalyzer()));
+		Assertions.assertEquals(changed, serializer.serialize(alert));
+		Assertions.assertEquals(4, cache.getMissCount());
+		
+		for (int i = 0; i < 100; i++) {
+			serializer.serialize(createAlert(createAnalyzer(i), createClassification(i)));
+		}
+		Assertions.assertTrue(cache.size() <= 16);
+		Assertions.assertEquals(16, cache.size());
+		Assertions.assertTrue(cache.getEvictionCount() > 0);
+		// most recent blocks are kept whichever segments they fall into
+		long hits = cache.getHitCount();
+		for (int i = 92; i < 100; i++) {
+			serializer.serialize(createAlert(createAnalyzer(i), createClassification(i)));
+		}
+		Assertions.assertEquals(hits + 16, cache.getHitCount());
+		cache.clear();
+		Assertions.assertEquals(0, cache.size());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new IDMEFfragmentCache(8));
+		log.info("Fragment cache invalidation Test finished!");
+	}
+	
+	@Test
+	public void recycledMessageTest() throws Exception {
+		log.info("Fragment cache recycled message Test started...");
+		IDMEFxmlParser parser = new IDMEFxmlParser(TestUtil.createInputFactory());
+		IDMEFmessageHolder holder = new IDMEFmessageHolder();
+		IDMEFxmlSerializer plain = new IDMEFxmlSerializer();
+		IDMEFxmlSerializer cached = new IDMEFxmlSerializer();
+		IDMEFfragmentCache cache = new IDMEFfragmentCache(64);
+		cached.setFragmentCache(cache);
+		// same key attributes every time, only the holder's recycled objects carry the change
+		String[] locations = { "ROOM-A", "ROOM-B", "ROOM-B", "ROOM-A" };
+		for (String location : locations) {
+			Analyzer analyzer = createAnalyzer(0);
+			analyzer.getNode().setLocation(location);
+			Classification classification = createClassification(0);
+			Reference reference = new Reference();
+			reference.setName(location);
+			reference.setUrl("http://example.com/" + location);
+			List<Reference> references = new ArrayList<>();
+			references.add(reference);
+			classification.setReferences(references);
+			byte[] data = plain.serialize(createAlert(analyzer, classification)).getBytes(StandardCharsets.UTF_8);
+			
+			IDMEFMessage message = parser.parseXml(data, 0, data.length, holder);
+			String result = cached.serialize(message);
+			Assertions.assertEquals(plain.serialize(message), result, location);
+			Assertions.assertTrue(result.contains("http://example.com/" + location), location);
+		}
+		// the repeated location is written from its fragments, the changed ones are rendered
+		Assertions.assertEquals(2, cache.getHitCount());
+		Assertions.assertEquals(6, cache.getMissCount());
+		log.info("Fragment cache recycled message Test finished!");
+	}
+	
+	@Test
+	public void sensorSkewedBenchmarkTest() throws Exception {
+		log.info("Fragment cache benchmark Test started...");
+		// few sensors send most of the alerts and few signatures fire most, as on a real feed
+		Random random = new Random(4765);
+		Analyzer[] analyzers = new Analyzer[50];
+		for (int i = 0; i < analyzers.length; i++) {
+			analyzers[i] = createAnalyzer(i);
+		}
+		Classification[] classifications = new Classification[500];
+		for (int i = 0; i < classifications.length; i++) {
+			classifications[i] = createClassification(i);
+		}
+		List<Alert> alerts = new ArrayList<>(BENCHMARK_MESSAGES);
+		for (int i = 0; i < BENCHMARK_MESSAGES; i++) {
+			alerts.add(createAlert(analyzers[skewed(random, analyzers.length)],
+					classifications[skewed(random, classifications.length)]));
+		}
+		IDMEFxmlSerializer plain = new IDMEFxmlSerializer();
+		IDMEFxmlSerializer cached = new IDMEFxmlSerializer();
+		IDMEFfragmentCache cache = new IDMEFfragmentCache(256);
+		cached.setFragmentCache(cache);
+		
+		ByteArrayOutputStream plainOut = new ByteArrayOutputStream(BENCHMARK_MESSAGES * 1024);
+		ByteArrayOutputStream cachedOut = new ByteArrayOutputStream(BENCHMARK_MESSAGES * 1024);
+		long plainTime = 0;
+		long cachedTime = 0;
+		for (int round = 0; round < 3; round++) {
+			plainOut.reset();
+			cachedOut.reset();
+			long start = System.nanoTime();
+			for (Alert alert : alerts) {
+				plain.serialize(alert, plainOut);
+			}
+			plainTime = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (Alert alert : alerts) {
+				cached.serialize(alert, cachedOut);
+			}
+			cachedTime = System.nanoTime() - start;
+		}
+		Assertions.assertArrayEquals(plainOut.toByteArray(), cachedOut.toByteArray());
+		log.info("{} alerts: {} ns/alert rendered, {} ns/alert with fragments, {}", alerts.size(),
+				plainTime / alerts.size(), cachedTime / alerts.size(), cache);
+		log.info("Fragment cache benchmark Test finished!");
+	}
+	
+	/**
+	 * @return index in [0, bound) where low indexes are much more likely, roughly Zipf distributed
+	 */
+	private static int skewed(Random random, int bound) {
+		return (int) Math.min(bound - 1, Math.floor(Math.pow(bound + 1, random.nextDouble())) - 1);
+	}
+	
+	private static Alert createAlert(Analyzer analyzer, Classification classification) {
+		Alert alert = new Alert();
+		alert.setVersion("1.0");
+		alert.setMessageid("abc123456789");
+		alert.setAnalyzer(analyzer);
+		IDMEFTime createTime = new IDMEFTime();
+		createTime.setUTCtimeInMilis(1_000_000_000_000L);
+		alert.setCreateTime(createTime);
+		alert.setClassification(classification);
+		return alert;
+	}
+	
+	private static Analyzer createAnalyzer(int sensor) {
+		Node node = new Node();
+		node.setName("sensor" + sensor + ".example.com");
+		Address address = new Address();
+		address.setCategory(Address.Category.IPV4ADDR);
+		address.setAddress("192.0.2." + sensor);
+		List<Address> addresses = new ArrayList<>();
+		addresses.add(address);
+		node.setAddresses(addresses);
+		return Analyzer.builder().analyzerid("sensor-" + sensor).manufacturer("Example.com").model("IDS")
+				.version("4.7.65").clazz("NIDS").ostype("Linux").osversion("4.19").node(node)
+				.analyzer(Analyzer.builder().analyzerid("relay-" + sensor % 4).build()).build();
+	}
+	
+	private static Classification createClassification(int signature) {
+		Classification classification = new Classification();
+		classification.setText("signature " + signature + " & friends <" + signature + ">");
+		classification.setIdent("sig-" + signature);
+		return classification;
+	}
+}
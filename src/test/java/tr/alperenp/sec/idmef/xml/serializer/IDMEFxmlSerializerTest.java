@@ -16,12 +16,20 @@
 
 package tr.alperenp.sec.idmef.xml.serializer;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.StringWriter;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Properties;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import tr.alperenp.sec.idmef.model.alert.Alert;
@@ -46,15 +54,18 @@ import tr.alperenp.sec.idmef.model.core.Classification;
 import tr.alperenp.sec.idmef.model.core.Source;
 import tr.alperenp.sec.idmef.model.core.Target;
 import tr.alperenp.sec.idmef.model.heartbeat.Heartbeat;
+import tr.alperenp.sec.idmef.model.idmefmessage.IDMEFMessage;
 import tr.alperenp.sec.idmef.model.misc.IDMEFTime;
 import tr.alperenp.sec.idmef.model.misc.IDMEFportRange;
 import tr.alperenp.sec.idmef.model.misc.NTPStamp;
 import tr.alperenp.sec.idmef.test.util.TestUtil;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFxmlParser;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFxmlUtils;
 
 /**
  * 
  * @author alperenp
- *
+ * 
  */
 public class IDMEFxmlSerializerTest {
 	
@@ -107,6 +118,167 @@ public class IDMEFxmlSerializerTest {
 		TestUtil.evaluateResult(hb, testFile);
 	}
 	
+	@Test
+	void streamingEngineEquivalenceTest() throws Exception {
+		IDMEFxmlParser parser = new IDMEFxmlParser(TestUtil.createFactory());
+		IDMEFxmlSerializer domSerializer = new IDMEFxmlSerializer(TestUtil.createFactory());
+		IDMEFxmlSerializer streamSerializer = new IDMEFxmlSerializer();
+		
+		int count = 0;
+		for (String directory : new String[] { TestUtil.RFC_HEARTBEATS_DIRECTORY, TestUtil.CRAFTED_HEARTBEATS_DIRECTORY,
+				TestUtil.RFC_ALERTS_DIRECTORY, TestUtil.CRAFTED_ALERTS_DIRECTORY }) {
+			File folder = new File(getClass().getClassLoader().getResource(directory).getFile());
+			for (File testFile : folder.listFiles()) {
+				if (!testFile.getAbsolutePath().endsWith(".xml")) {
+					continue;
+				}
+				String data = new String(Files.readAllBytes(Paths.get(testFile.getAbsolutePath())));
+				IDMEFMessage message = parser.parseXml(data);
+				String expected = domSerializer.serialize(message);
+				Assertions.assertEquals(expected, streamSerializer.serialize(message), testFile.getName());
+				StringWriter writer = new StringWriter();
+				streamSerializer.serialize(message, writer);
+				Assertions.assertEquals(expected, writer.toString(), testFile.getName());
+				count++;
+			}
+		}
+		Assertions.assertTrue(count > 0);
+	}
+	
+	@Test
+	void streamingEngineEscapeTest() throws Exception {
+		Heartbeat hb = createEscapeHeartbeat();
+		
+		String expected = new IDMEFxmlSerializer(TestUtil.createFactory()).serialize(hb);
+		String result = new IDMEFxmlSerializer().serialize(hb);
+		Assertions.assertEquals(expected, result);
+		Assertions.assertEquals(hb, new IDMEFxmlParser(TestUtil.createFactory()).parseXml(result));
+	}
+	
+	@Test
+	void ntpstampAttributeTest() throws Exception {
+		StringBuilder out = new StringBuilder();
+		IDMEFxmlWriter writer = new IDMEFxmlWriter(out, false);
+		writer.startElement("Time");
+		for (int i = 9; i >= 0; i--) {
+			if (i == 4) {
+				writer.ntpstampAttribute("a4", 0xbc723b45ef449129L);
+			} else {
+				writer.attribute("a" + i, "<" + i + ">");
+			}
+		}
+		writer.ntpstampAttribute("xmlns:idmef", 0L);
+		writer.endElement();
+		Assertions.assertEquals("<Time xmlns:idmef=\"0x00000000.0x00000000\" a0=\"&lt;0&gt;\" a1=\"&lt;1&gt;\" "
+				+ "a2=\"&lt;2&gt;\" a3=\"&lt;3&gt;\" a4=\"0xbc723b45.0xef449129\" a5=\"&lt;5&gt;\" a6=\"&lt;6&gt;\" "
+				+ "a7=\"&lt;7&gt;\" a8=\"&lt;8&gt;\" a9=\"&lt;9&gt;\"/>", out.toString());
+	}
+	
+	@Test
+	void byteSinkTest() throws Exception {
+		IDMEFxmlParser parser = new IDMEFxmlParser(TestUtil.createFactory());
+		String testFilePath = TestUtil.RFC_ALERTS_DIRECTORY + "/7.5_correlatedAlerts_idmef.xml";
+		File testFile = new File(getClass().getClassLoader().getResource(testFilePath).getFile());
+		String data = new String(Files.readAllBytes(Paths.get(testFile.getAbsolutePath())));
+		IDMEFMessage alert = parser.parseXml(data);
+		IDMEFMessage heartbeat = createEscapeHeartbeat();
+		
+		for (IDMEFxmlSerializer serializer : new IDMEFxmlSerializer[] {
+				new IDMEFxmlSerializer(TestUtil.createFactory()), new IDMEFxmlSerializer() }) {
+			for (IDMEFMessage message : new IDMEFMessage[] { alert, heartbeat }) {
+				String expectedString = serializer.serialize(message);
+				byte[] expected = expectedString.getBytes(StandardCharsets.UTF_8);
+				
+				ByteArrayOutputStream stream = new ByteArrayOutputStream();
+				serializer.serialize(message, stream);
+				Assertions.assertArrayEquals(expected, stream.toByteArray());
+				
+				StringBuilder builder = new StringBuilder("prefix");
+				serializer.serialize(message, (Appendable) builder);
+				Assertions.assertEquals("prefix" + expectedString, builder.toString());
+				
+				// slice has a non-zero array offset
+				ByteBuffer slice = ByteBuffer.wrap(new byte[expected.length + 8], 5, expected.length + 3).slice();
+				for (ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.allocate(expected.length + 3),
+						ByteBuffer.allocateDirect(expected.length + 3), slice }) {
+					buffer.position(3);
+					Assertions.assertTrue(serializer.serialize(message, buffer));
+					Assertions.assertEquals(buffer.limit(), buffer.position());
+					byte[] written = new byte[expected.length];
+					buffer.position(3);
+					buffer.get(written);
+					Assertions.assertArrayEquals(expected, written);
+					
+					// overflow by one byte
+					buffer.clear();
+					buffer.position(4);
+					Assertions.assertFalse(serializer.serialize(message, buffer));
+					Assertions.assertEquals(4, buffer.position());
+				}
+			}
+		}
+	}
+	
+	@Test
+	void serializerConfigRoundTripTest() throws Exception {
+		IDMEFxmlSerializerConfig[] configs = { IDMEFxmlSerializerConfig.builder().indent(false).build(),
+				IDMEFxmlSerializerConfig.builder().xmlDeclaration(false).build(),
+				IDMEFxmlSerializerConfig.builder().indent(false).xmlDeclaration(false).build(),
+				IDMEFxmlSerializerConfig.builder().namespacePrefix("ids").build(),
+				IDMEFxmlSerializerConfig.builder().namespacePrefix("").build(),
+				IDMEFxmlSerializerConfig.builder().indent(false).xmlDeclaration(false).namespacePrefix("x").build() };
+		IDMEFxmlParser parser = new IDMEFxmlParser(TestUtil.createFactory());
+		Properties defaultTagNames = new IDMEFxmlUtils().useDefaultProperties();
+		
+		List<IDMEFMessage> messages = new LinkedList<>();
+		for (String directory : new String[] { TestUtil.RFC_HEARTBEATS_DIRECTORY, TestUtil.RFC_ALERTS_DIRECTORY }) {
+			File folder = new File(getClass().getClassLoader().getResource(directory).getFile());
+			for (File testFile : folder.listFiles()) {
+				if (testFile.getAbsolutePath().endsWith(".xml")) {
+					String data = new String(Files.readAllBytes(Paths.get(testFile.getAbsolutePath())));
+					messages.add(parser.parseXml(data));
+				}
+			}
+		}
+		messages.add(createEscapeHeartbeat());
+		
+		for (IDMEFxmlSerializerConfig config : configs) {
+			IDMEFxmlSerializer domSerializer = new IDMEFxmlSerializer(TestUtil.createFactory(), config);
+			IDMEFxmlSerializer streamSerializer = new IDMEFxmlSerializer(config);
+			Properties tagNames = config.applyTo(defaultTagNames);
+			IDMEFxmlParser domParser = new IDMEFxmlParser(TestUtil.createFactory(), tagNames);
+			IDMEFxmlParser staxParser = new IDMEFxmlParser(TestUtil.createInputFactory(), tagNames);
+			for (IDMEFMessage message : messages) {
+				String result = domSerializer.serialize(message);
+				Assertions.assertEquals(result, streamSerializer.serialize(message), config.toString());
+				Assertions.assertEquals(config.isXmlDeclaration(), result.startsWith("<?xml"), config.toString());
+				if (!config.isIndent()) {
+					Assertions.assertFalse(result.contains("\n    <"), config.toString());
+				}
+				Assertions.assertEquals(message, domParser.parseXml(result), config.toString());
+				Assertions.assertEquals(message, staxParser.parseXml(result), config.toString());
+			}
+		}
+	}
+	
+	private Heartbeat createEscapeHeartbeat() {
+		Heartbeat hb = new Heartbeat();
+		hb.setVersion("1.0");
+		hb.setMessageid("id \"quoted\" & <tagged>\t'single'\r\n\ud83d\ude00");
+		hb.setAnalyzer(createAnalyzer());
+		hb.setCreateTime(createSomeUTCTime());
+		AdditionalData data = new AdditionalData();
+		data.setDataType(AdditionalData.Type.STRING);
+		List<String> values = new LinkedList<>();
+		values.add("a < b && c > d \"q\" 'q'\r\nnext line \u00e9\u4e2d\ud83d\ude00");
+		values.add("");
+		data.setValues(values);
+		List<AdditionalData> datas = new LinkedList<>();
+		datas.add(data);
+		hb.setAdditionalDatas(datas);
+		return hb;
+	}
+	
 	private List<Target> createTargets() {
 		Target trg1 = new Target();
 		trg1.setDecoy(Target.Decoy.YES);
@@ -280,7 +452,7 @@ public class IDMEFxmlSerializerTest {
 		service.setPortlist(portList);
 		
 		return service;
-		
+	
 	}
 	
 	private Assessment createAssessment() {
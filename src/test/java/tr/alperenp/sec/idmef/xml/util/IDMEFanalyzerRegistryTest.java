@@ -0,0 +1,134 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.util;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.alert.Alert;
+import tr.alperenp.sec.idmef.model.alert.support.Address;
+import tr.alperenp.sec.idmef.model.alert.support.Node;
+import tr.alperenp.sec.idmef.model.alert.support.Process;
+import tr.alperenp.sec.idmef.model.core.Analyzer;
+import tr.alperenp.sec.idmef.test.util.TestUtil;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFxmlParser;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFanalyzerRegistry;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class IDMEFanalyzerRegistryTest {
+	
+	@Test
+	public void registerTest() {
+		log.info("Analyzer registry Test started...");
+		IDMEFanalyzerRegistry registry = new IDMEFanalyzerRegistry(16);
+		Analyzer relay = Analyzer.builder().analyzerid("relay").build();
+		Analyzer first = Analyzer.builder().analyzerid("hq-dmz-analyzer01").manufacturer("Example.com")
+				.analyzer(relay).build();
+		Analyzer second = Analyzer.builder().analyzerid("hq-dmz-analyzer01").manufacturer("Example.com")
+				.analyzer(Analyzer.builder().analyzerid("relay").build()).build();
+		Analyzer registered = registry.register(first);
+		Assertions.assertEquals(first, registered);
+		Assertions.assertNotSame(first, registered);
+		Assertions.assertSame(registered, registry.register(second));
+		Assertions.assertSame(registered, registry.register(registered));
+		Assertions.assertNotSame(registered.getAnalyzer(),
+				registry.register(Analyzer.builder().analyzerid("relay").build()));
+		Assertions.assertNull(registry.register(null));
+		
+		// registered tree is read only, given tree is not changed
+		Node node = new Node();
+		Address address = new Address();
+		address.setAddress("192.0.2.50");
+		node.setAddresses(new ArrayList<>(Collections.singletonList(address)));
+		Process process = new Process();
+		process.setArgs(new ArrayList<>(Collections.singletonList("-d")));
+		Analyzer sensor = Analyzer.builder().analyzerid("sensor").node(node).process(process).build();
+		Analyzer readOnly = registry.register(sensor);
+		Assertions.assertEquals(sensor, readOnly);
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> readOnly.setAnalyzerid("other"));
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> readOnly.getNode().reset());
+		Assertions.assertThrows(UnsupportedOperationException.class,
+				() -> readOnly.getNode().getAddresses().get(0).setAddress("192.0.2.1"));
+		Assertions.assertThrows(UnsupportedOperationException.class,
+				() -> readOnly.getNode().getAddresses().add(new Address()));
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> readOnly.getProcess().setPid(1));
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> readOnly.getProcess().getArgs().clear());
+		address.setAddress("192.0.2.1");
+		Assertions.assertEquals("192.0.2.50", readOnly.getNode().getAddresses().get(0).getAddress());
+		Assertions.assertEquals(2, registry.getHitCount());
+		Assertions.assertEquals(3, registry.getMissCount());
+		
+		for (int i = 0; i < 100; i++) {
+			registry.register(Analyzer.builder().analyzerid("analyzer" + i).build());
+		}
+		Assertions.assertTrue(registry.size() <= 16);
+		Assertions.assertEquals(103 - registry.size(), registry.getEvictionCount());
+		log.info("Analyzer registry Test finished!");
+	}
+	
+	@Test
+	public void parserRegistryTest() throws Exception {
+		log.info("Analyzer registry parser Test started...");
+		IDMEFanalyzerRegistry registry = new IDMEFanalyzerRegistry(64);
+		IDMEFxmlParser[] parsers = { new IDMEFxmlParser(TestUtil.createFactory()),
+				new IDMEFxmlParser(TestUtil.createInputFactory()) };
+		for (IDMEFxmlParser parser : parsers) {
+			parser.setAnalyzerRegistry(registry);
+			Assertions.assertSame(registry, parser.getAnalyzerRegistry());
+		}
+		String alert = read(TestUtil.RFC_ALERTS_DIRECTORY + "/7.1.1_teardropAttack_idmef.xml");
+		Alert first = (Alert) parsers[0].parseXml(alert);
+		Alert second = (Alert) parsers[1].parseXml(alert);
+		Alert third = (Alert) parsers[1].parseXml(alert);
+		Assertions.assertNotNull(first.getAnalyzer());
+		Assertions.assertSame(first.getAnalyzer(), second.getAnalyzer());
+		Assertions.assertSame(first.getAnalyzer(), third.getAnalyzer());
+		Assertions.assertEquals(2, registry.getHitCount());
+		
+		// without a registry every parse builds its own analyzer
+		parsers[0].setAnalyzerRegistry(null);
+		Alert fourth = (Alert) parsers[0].parseXml(alert);
+		Assertions.assertEquals(first.getAnalyzer(), fourth.getAnalyzer());
+		Assertions.assertNotSame(first.getAnalyzer(), fourth.getAnalyzer());
+		
+		// shared analyzer cannot be changed through one message, own analyzer of another message can be
+		Analyzer shared = first.getAnalyzer();
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> shared.setName("changed"));
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> shared.getNode().setName("changed"));
+		fourth.getAnalyzer().getNode().setName("changed");
+		Assertions.assertEquals(second.getAnalyzer(), third.getAnalyzer());
+		Assertions.assertNotEquals("changed", third.getAnalyzer().getNode().getName());
+		Assertions.assertNotSame(shared, registry.register(fourth.getAnalyzer()));
+		log.info("Analyzer registry parser Test finished!");
+	}
+	
+	private String read(String resource) throws Exception {
+		File file = new File(getClass().getClassLoader().getResource(resource).getFile());
+		return new String(Files.readAllBytes(file.toPath()));
+	}
+}
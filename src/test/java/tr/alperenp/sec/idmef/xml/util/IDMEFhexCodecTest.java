@@ -0,0 +1,109 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.util;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.alert.Alert;
+import tr.alperenp.sec.idmef.model.alert.OverflowAlert;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFhexCodec;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class IDMEFhexCodecTest {
+	
+	@Test
+	public void roundTripTest() throws Exception {
+		log.info("Hex codec round trip Test started...");
+		byte[] all = new byte[256];
+		for (int i = 0; i < all.length; i++) {
+			all[i] = (byte) i;
+		}
+		String hex = IDMEFhexCodec.encode(all);
+		Assertions.assertEquals(512, hex.length());
+		Assertions.assertTrue(hex.startsWith("000102") && hex.contains("7e7f8081") && hex.endsWith("fdfeff"));
+		Assertions.assertArrayEquals(all, IDMEFhexCodec.decode(hex));
+		Assertions.assertArrayEquals(all, IDMEFhexCodec.decode(" \n" + hex.toUpperCase() + "\t"));
+		
+		Random random = new Random(4765);
+		for (int i = 0; i < 1000; i++) {
+			byte[] bytes = new byte[random.nextInt(4096)];
+			random.nextBytes(bytes);
+			String encoded = IDMEFhexCodec.encode(bytes);
+			Assertions.assertEquals(formatHex(bytes), encoded);
+			StringBuilder appended = new StringBuilder();
+			IDMEFhexCodec.encode(bytes, appended);
+			Assertions.assertEquals(encoded, appended.toString());
+			Assertions.assertArrayEquals(bytes, IDMEFhexCodec.decode(encoded));
+		}
+		
+		Assertions.assertEquals(0, IDMEFhexCodec.decode("").length);
+		for (String invalid : new String[] { "0", "abc", "0g", "g0", "0 00", "ab١٢" }) {
+			Assertions.assertThrows(IllegalArgumentException.class, () -> IDMEFhexCodec.decode(invalid), invalid);
+		}
+		log.info("Hex codec round trip Test finished!");
+	}
+	
+	@Test
+	public void overflowBufferViewsTest() {
+		log.info("Overflow buffer views Test started...");
+		OverflowAlert alert = new OverflowAlert(new Alert());
+		Assertions.assertNull(alert.getBuffer());
+		Assertions.assertNull(alert.getBufferView());
+		
+		List<Byte> list = new LinkedList<>();
+		list.add((byte) 0x90);
+		list.add((byte) 0x31);
+		list.add((byte) -1);
+		alert.setBuffer(list);
+		Assertions.assertArrayEquals(new byte[] { (byte) 0x90, 0x31, (byte) 0xff }, alert.getBufferBytes());
+		Assertions.assertEquals(list, alert.getBuffer());
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> alert.getBuffer().add((byte) 0));
+		
+		ByteBuffer view = alert.getBufferView();
+		Assertions.assertTrue(view.isReadOnly());
+		Assertions.assertEquals(3, view.remaining());
+		Assertions.assertEquals((byte) 0x90, view.get(0));
+		
+		OverflowAlert other = new OverflowAlert(new Alert());
+		other.setBufferBytes(new byte[] { (byte) 0x90, 0x31, (byte) 0xff });
+		Assertions.assertEquals(alert, other);
+		log.info("Overflow buffer views Test finished!");
+	}
+	
+	/**
+	 * encoding of earlier serializer versions
+	 */
+	private static String formatHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder();
+		for (byte b : bytes) {
+			sb.append(String.format("%02X ", b));
+		}
+		return sb.toString().replaceAll(" ", "").toLowerCase();
+	}
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.alert.support.Checksum;
+import tr.alperenp.sec.idmef.model.alert.support.FileAccess;
+import tr.alperenp.sec.idmef.model.assessment.Action;
+import tr.alperenp.sec.idmef.model.assessment.Impact;
+import tr.alperenp.sec.idmef.model.misc.IenumIDMEF;
+import tr.alperenp.sec.idmef.test.util.TestUtil;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFhandler;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFxmlParser;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFkeywordTable;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class IDMEFkeywordTableTest {
+	
+	private static final int ROUNDS = 200000;
+	
+	@Test
+	public void allKeywordsTest() throws Exception {
+		log.info("Keyword table Test started...");
+		int tables = 0;
+		for (Field field : IDMEFkeywordTable.class.getFields()) {
+			if (!Modifier.isStatic(field.getModifiers()) || field.getType() != IDMEFkeywordTable.class) {
+				continue;
+			}
+			IDMEFkeywordTable<?> table = (IDMEFkeywordTable<?>) field.get(null);
+			Class<?> type = (Class<?>) ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
+			for (Object constant : type.getEnumConstants()) {
+				String keyword = ((IenumIDMEF) constant).getKeyword();
+				String name = ((Enum<?>) constant).name();
+				Assertions.assertSame(constant, table.lookup(keyword), keyword);
+				Assertions.assertSame(constant, table.lookup(name), name);
+				Assertions.assertSame(constant, table.lookup(" " + keyword.toUpperCase() + "\n"), keyword);
+			}
+			Assertions.assertNull(table.lookup(null));
+			Assertions.assertNull(table.lookup(""));
+			Assertions.assertNull(table.lookup("  "));
+			Assertions.assertNull(table.lookup("no-such-keyword"));
+			tables++;
+		}
+		Assertions.assertEquals(17, tables);
+		
+		Assertions.assertSame(Impact.Severity.HIGH, IDMEFkeywordTable.IMPACT_SEVERITY.lookup(" HIGH "));
+		Assertions.assertSame(Action.Category.BLOCKINSTALLED,
+				IDMEFkeywordTable.ACTION_CATEGORY.lookup("Block-Installed"));
+		Assertions.assertSame(Action.Category.BLOCKINSTALLED,
+				IDMEFkeywordTable.ACTION_CATEGORY.lookup("BLOCKINSTALLED"));
+		Assertions.assertSame(Checksum.Algorithm.SHA2256, IDMEFkeywordTable.CHECKSUM_ALGORITHM.lookup("SHA2-256"));
+		Assertions.assertSame(Checksum.Algorithm.SHA2256, IDMEFkeywordTable.CHECKSUM_ALGORITHM.lookup("sha2256"));
+		Assertions.assertSame(FileAccess.Permission.NOACCESS,
+				IDMEFkeywordTable.FILEACCESS_PERMISSION.lookup("noAccess"));
+		
+		// unknown keywords are reported to the caller, missing ones are not
+		IDMEFkeywordTable<Impact.Severity> table = IDMEFkeywordTable.IMPACT_SEVERITY;
+		List<String> unknown = new ArrayList<>();
+		IDMEFkeywordTable.UnknownKeywordListener listener = (typeName, value) -> unknown.add(typeName + ":" + value);
+		Assertions.assertNull(table.parse("severe", null));
+		Assertions.assertNull(table.parse("severe", listener));
+		Assertions.assertNull(table.parse(" ", listener));
+		Assertions.assertNull(table.parse(null, listener));
+		Assertions.assertSame(Impact.Severity.HIGH, table.parse("high", listener));
+		Assertions.assertEquals(Collections.singletonList("Impact.Severity:severe"), unknown);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> table.parse("severe", (typeName, value) -> {
+			throw new IllegalArgumentException(value);
+		}));
+		Assertions.assertNull(IDMEFkeywordTable.IMPACT_SEVERITY.lookup("hig"));
+		Assertions.assertNull(IDMEFkeywordTable.IMPACT_SEVERITY.lookup("highh"));
+		log.info("Keyword table Test finished!");
+	}
+	
+	@Test
+	public void parserListenerTest() throws Exception {
+		log.info("Keyword table parser listener Test started...");
+		String sample = TestUtil.RFC_ALERTS_DIRECTORY + "/7.6_unauthorizedrootacquisition_idmef.xml";
+		String xml = new String(Files.readAllBytes(
+				Paths.get(getClass().getClassLoader().getResource(sample).toURI())), StandardCharsets.UTF_8)
+						.replace("severity=\"high\"", "severity=\"severe\"")
+						.replace("category=\"os-device\"", "category=\"os-machine\"");
+		List<String> expected = Arrays.asList("User.Category:os-machine", "Impact.Severity:severe");
+		IDMEFxmlParser[] parsers = { new IDMEFxmlParser(TestUtil.createFactory()),
+				new IDMEFxmlParser(TestUtil.createInputFactory()) };
+		for (IDMEFxmlParser parser : parsers) {
+			// listener belongs to one parser, others using the same tables are not affected
+			IDMEFxmlParser other = new IDMEFxmlParser(TestUtil.createInputFactory());
+			other.setUnknownKeywordListener((typeName, value) -> Assertions.fail(typeName + ":" + value));
+			List<String> unknown = new ArrayList<>();
+			parser.setUnknownKeywordListener((typeName, value) -> unknown.add(typeName + ":" + value));
+			Assertions.assertNotNull(parser.parseXml(xml));
+			Assertions.assertEquals(expected, unknown);
+			
+			parser.setUnknownKeywordListener(null);
+			Assertions.assertNotNull(parser.parseXml(xml));
+			Assertions.assertEquals(expected, unknown);
+		}
+		List<String> unknown = new ArrayList<>();
+		parsers[1].setUnknownKeywordListener((typeName, value) -> unknown.add(typeName + ":" + value));
+		Assertions.assertEquals(1, parsers[1].parseXml(xml, new IDMEFhandler() {
+		}));
+		Assertions.assertEquals(Collections.singletonList("Impact.Severity:severe"), unknown);
+		log.info("Keyword table parser listener Test finished!");
+	}
+	
+	@Test
+	public void lookupThroughputTest() {
+		log.info("Keyword table throughput Test started...");
+		String[] keywords = { "info", "low", "medium", "high" };
+		int matches = 0;
+		// warm up
+		matches += decodeWithValueOf(keywords) + decodeWithTable(keywords);
+		long start = System.nanoTime();
+		matches += decodeWithValueOf(keywords);
+		long valueOf = System.nanoTime() - start;
+		start = System.nanoTime();
+		matches += decodeWithTable(keywords);
+		long table = System.nanoTime() - start;
+		Assertions.assertEquals(4 * ROUNDS * keywords.length, matches);
+		long total = (long) ROUNDS * keywords.length;
+		log.info("valueOf: {} ns/keyword, table: {} ns/keyword", (double) valueOf / total, (double) table / total);
+		log.info("Keyword table throughput Test finished!");
+	}
+	
+	/**
+	 * decodes keywords as parsers did before keyword tables
+	 */
+	private int decodeWithValueOf(String[] keywords) {
+		int matches = 0;
+		for (int r = 0; r < ROUNDS; r++) {
+			for (String keyword : keywords) {
+				if (Impact.Severity.valueOf(keyword.trim().toUpperCase().replaceAll("-", "")) != null) {
+					matches++;
+				}
+			}
+		}
+		return matches;
+	}
+	
+	private int decodeWithTable(String[] keywords) {
+		int matches = 0;
+		for (int r = 0; r < ROUNDS; r++) {
+			for (String keyword : keywords) {
+				if (IDMEFkeywordTable.IMPACT_SEVERITY.lookup(keyword) != null) {
+					matches++;
+				}
+			}
+		}
+		return matches;
+	}
+}
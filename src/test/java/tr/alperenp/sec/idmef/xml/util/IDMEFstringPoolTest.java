@@ -0,0 +1,98 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.util;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.alert.Alert;
+import tr.alperenp.sec.idmef.test.util.TestUtil;
+import tr.alperenp.sec.idmef.xml.parser.IDMEFxmlParser;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFstringPool;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class IDMEFstringPoolTest {
+	
+	@Test
+	public void internTest() {
+		log.info("String pool intern Test started...");
+		IDMEFstringPool pool = new IDMEFstringPool(64, 8);
+		String first = new String("analyzer");
+		String second = new String("analyzer");
+		Assertions.assertSame(first, pool.intern(first));
+		Assertions.assertSame(first, pool.intern(second));
+		Assertions.assertNull(pool.intern(null));
+		String longValue = new String("longer than eight");
+		Assertions.assertSame(longValue, pool.intern(longValue));
+		Assertions.assertNotSame(longValue, pool.intern(new String(longValue)));
+		Assertions.assertEquals(1, pool.getHitCount());
+		Assertions.assertEquals(1, pool.getMissCount());
+		Assertions.assertEquals(0.5, pool.getHitRate());
+		
+		// keep pool bounded while distinct values keep coming
+		for (int i = 0; i < 1000; i++) {
+			pool.intern("v" + i);
+		}
+		Assertions.assertTrue(pool.size() <= pool.getMaxSize());
+		Assertions.assertEquals(1001 - pool.size(), pool.getEvictionCount());
+		
+		pool.clear();
+		Assertions.assertEquals(0, pool.size());
+		Assertions.assertEquals(0, pool.getHitRate());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new IDMEFstringPool(8));
+		log.info("String pool intern Test finished!");
+	}
+	
+	@Test
+	public void parserPoolTest() throws Exception {
+		log.info("String pool parser Test started...");
+		File testFile = new File(getClass().getClassLoader()
+				.getResource(TestUtil.RFC_ALERTS_DIRECTORY + "/7.1.1_teardropAttack_idmef.xml").getFile());
+		String data = new String(Files.readAllBytes(testFile.toPath()));
+		IDMEFstringPool pool = new IDMEFstringPool(1024);
+		IDMEFxmlParser[] parsers = { new IDMEFxmlParser(TestUtil.createFactory()),
+				new IDMEFxmlParser(TestUtil.createInputFactory()) };
+		for (IDMEFxmlParser parser : parsers) {
+			parser.setStringPool(pool);
+			Assertions.assertSame(pool, parser.getStringPool());
+		}
+		Alert first = (Alert) parsers[0].parseXml(data);
+		Alert second = (Alert) parsers[1].parseXml(data);
+		Assertions.assertEquals(first, second);
+		Assertions.assertSame(first.getAnalyzer().getAnalyzerid(), second.getAnalyzer().getAnalyzerid());
+		Assertions.assertSame(first.getClassification().getText(), second.getClassification().getText());
+		Assertions.assertSame(first.getTargets().get(0).getNode().getAddresses().get(0).getAddress(),
+				second.getTargets().get(0).getNode().getAddresses().get(0).getAddress());
+		Assertions.assertTrue(pool.getHitCount() > 0);
+		
+		// without a pool every parse holds its own copy
+		parsers[1].setStringPool(null);
+		Alert third = (Alert) parsers[1].parseXml(data);
+		Assertions.assertEquals(first, third);
+		Assertions.assertNotSame(first.getClassification().getText(), third.getClassification().getText());
+		log.info("String pool parser Test finished!");
+	}
+}
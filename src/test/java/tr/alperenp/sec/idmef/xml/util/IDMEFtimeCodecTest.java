@@ -0,0 +1,201 @@
+/**
+ * Copyright 2018, alperenp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tr.alperenp.sec.idmef.xml.util;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import lombok.extern.slf4j.Slf4j;
+import tr.alperenp.sec.idmef.model.misc.IDMEFTime;
+import tr.alperenp.sec.idmef.xml.utils.IDMEFtimeCodec;
+
+/**
+ * 
+ * @author alperenp
+ * 
+ */
+@Slf4j
+public class IDMEFtimeCodecTest {
+	
+	/**
+	 * 0000-01-01T00:00:00Z
+	 */
+	private static final long MIN_MILIS = Instant.parse("0000-01-01T00:00:00Z").toEpochMilli();
+	
+	/**
+	 * 9999-12-31T23:59:59.999Z
+	 */
+	private static final long MAX_MILIS = Instant.parse("9999-12-31T23:59:59.999Z").toEpochMilli();
+	
+	@Test
+	public void rfcSamplesTest() {
+		log.info("Time codec RFC samples Test started...");
+		IDMEFTime time = parse("2000-03-09T10:01:25.93464-05:00");
+		Assertions.assertEquals(Instant.parse("2000-03-09T10:01:25.934Z").toEpochMilli(), time.getUTCtimeInMilis());
+		Assertions.assertEquals(640000, time.getFractionNanos());
+		Assertions.assertEquals(IDMEFTime.Operator.MINUS, time.getOperator());
+		Assertions.assertEquals(5 * 3600000L, time.getAdjustedTime());
+		Assertions.assertEquals("2000-03-09T10:01:25.934640-05:00", IDMEFtimeCodec.format(time));
+		
+		time = parse("  2000-03-09T15:31:00.12+05:30\n");
+		Assertions.assertEquals(Instant.parse("2000-03-09T15:31:00.120Z").toEpochMilli(), time.getUTCtimeInMilis());
+		Assertions.assertEquals(0, time.getFractionNanos());
+		Assertions.assertEquals(IDMEFTime.Operator.PLUS, time.getOperator());
+		Assertions.assertEquals(5 * 3600000L + 30 * 60000L, time.getAdjustedTime());
+		Assertions.assertEquals("2000-03-09T15:31:00.120+05:30", IDMEFtimeCodec.format(time));
+		
+		time = parse("2000-03-09T10:01:25Z");
+		Assertions.assertNull(time.getOperator());
+		Assertions.assertEquals(0L, time.getAdjustedTime());
+		Assertions.assertEquals("2000-03-09T10:01:25Z", IDMEFtimeCodec.format(time));
+		
+		Assertions.assertEquals("2000-03-09T10:01:25.123456789Z",
+				IDMEFtimeCodec.format(parse("2000-03-09t10:01:25.1234567891z")));
+		Assertions.assertEquals("1998-12-31T23:59:59Z", IDMEFtimeCodec.format(parse("1998-12-31T23:59:60Z")));
+		log.info("Time codec RFC samples Test finished!");
+	}
+	
+	@Test
+	public void instantCompatibilityTest() {
+		log.info("Time codec Instant compatibility Test started...");
+		// every day of four centuries, crossing leap years of all kinds
+		for (LocalDate date = LocalDate.of(1800, 1, 1); date.getYear() < 2200; date = date.plusDays(1)) {
+			String text = date + "T23:59:58.5Z";
+			IDMEFTime time = parse(text);
+			Assertions.assertEquals(Instant.parse(text).toEpochMilli(), time.getUTCtimeInMilis(), text);
+			Assertions.assertEquals(Instant.parse(text).toString(), IDMEFtimeCodec.format(time));
+		}
+		
+		Random random = new Random(4765);
+		IDMEFTime time = new IDMEFTime();
+		for (int i = 0; i < 200000; i++) {
+			long milis = MIN_MILIS + (long) (random.nextDouble() * (MAX_MILIS - MIN_MILIS));
+			int nanos = random.nextInt(4) == 0 ? 0 : random.nextInt(1000000);
+			time.setUTCtimeInMilis(milis);
+			time.setFractionNanos(nanos);
+			String expected = Instant.ofEpochMilli(milis).plusNanos(nanos).toString();
+			Assertions.assertEquals(expected, IDMEFtimeCodec.format(time));
+			
+			IDMEFTime parsed = parse(expected);
+			Assertions.assertEquals(milis, parsed.getUTCtimeInMilis(), expected);
+			Assertions.assertEquals(nanos, parsed.getFractionNanos(), expected);
+		}
+		
+		time.setUTCtimeInMilis(MIN_MILIS);
+		time.setFractionNanos(0);
+		Assertions.assertEquals("0000-01-01T00:00:00Z", IDMEFtimeCodec.format(time));
+		time.setUTCtimeInMilis(MIN_MILIS - 1);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> IDMEFtimeCodec.format(time));
+		time.setUTCtimeInMilis(MAX_MILIS + 1);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> IDMEFtimeCodec.format(time));
+		log.info("Time codec Instant compatibility Test finished!");
+	}
+	
+	@Test
+	public void offsetRoundTripTest() {
+		log.info("Time codec offset round trip Test started...");
+		Random random = new Random(3339);
+		char[] chars = new char[IDMEFtimeCodec.MAX_LENGTH + 2];
+		byte[] bytes = new byte[IDMEFtimeCodec.MAX_LENGTH + 2];
+		for (int hour = 0; hour < 24; hour++) {
+			for (int minute = 0; minute < 60; minute++) {
+				for (IDMEFTime.Operator operator : IDMEFTime.Operator.values()) {
+					IDMEFTime time = new IDMEFTime();
+					time.setUTCtimeInMilis(MIN_MILIS + (long) (random.nextDouble() * (MAX_MILIS - MIN_MILIS)));
+					time.setFractionNanos(random.nextInt(1000000));
+					long adjustedTime = hour * 3600000L + minute * 60000L;
+					time.setAdjustedTime(adjustedTime);
+					time.setOperator(operator);
+					
+					String text = IDMEFtimeCodec.format(time);
+					Assertions.assertEquals(time, parse(text), text);
+					
+					// char and byte ranges inside larger buffers
+					int end = IDMEFtimeCodec.format(time, chars, 1);
+					Assertions.assertEquals(text, new String(chars, 1, end - 1));
+					IDMEFTime parsed = new IDMEFTime();
+					IDMEFtimeCodec.parse(CharBuffer.wrap(chars), 1, end, parsed);
+					Assertions.assertEquals(time, parsed, text);
+					
+					end = IDMEFtimeCodec.format(time, bytes, 2);
+					Assertions.assertEquals(text, new String(bytes, 2, end - 2, StandardCharsets.US_ASCII));
+					parsed = new IDMEFTime();
+					IDMEFtimeCodec.parse(bytes, 2, end, parsed);
+					Assertions.assertEquals(time, parsed, text);
+				}
+			}
+		}
+		log.info("Time codec offset round trip Test finished!");
+	}
+	
+	@Test
+	public void zeroOffsetRoundTripTest() throws IOException {
+		log.info("Time codec zero offset round trip Test started...");
+		char[] chars = new char[IDMEFtimeCodec.MAX_LENGTH];
+		byte[] bytes = new byte[IDMEFtimeCodec.MAX_LENGTH];
+		StringBuilder builder = new StringBuilder();
+		String[] texts = { "2000-03-09T10:01:25Z", "2000-03-09T10:01:25+00:00", "2000-03-09T10:01:25-00:00",
+				"2000-03-09T10:01:25.500+00:00" };
+		IDMEFTime.Operator[] operators = { null, IDMEFTime.Operator.PLUS, IDMEFTime.Operator.MINUS,
+				IDMEFTime.Operator.PLUS };
+		for (int i = 0; i < texts.length; i++) {
+			IDMEFTime time = parse(texts[i]);
+			Assertions.assertEquals(operators[i], time.getOperator(), texts[i]);
+			Assertions.assertEquals(0L, time.getAdjustedTime(), texts[i]);
+			Assertions.assertEquals(texts[i], IDMEFtimeCodec.format(time));
+			Assertions.assertEquals(texts[i], new String(chars, 0, IDMEFtimeCodec.format(time, chars, 0)));
+			Assertions.assertEquals(texts[i],
+					new String(bytes, 0, IDMEFtimeCodec.format(time, bytes, 0), StandardCharsets.US_ASCII));
+			builder.setLength(0);
+			IDMEFtimeCodec.format(time, builder);
+			Assertions.assertEquals(texts[i], builder.toString());
+			Assertions.assertEquals(time, parse(IDMEFtimeCodec.format(time)), texts[i]);
+		}
+		log.info("Time codec zero offset round trip Test finished!");
+	}
+	
+	@Test
+	public void invalidDateTimeTest() {
+		log.info("Time codec invalid date-time Test started...");
+		String[] invalids = { "", "2000-03-09", "2000-03-09T10:01:25", "2000-03-09T10:01:25.Z", "2000-3-09T10:01:25Z",
+				"2000-03-09 10:01:25Z", "2000-03-09T10:01Z", "2000-00-09T10:01:25Z", "2000-13-09T10:01:25Z",
+				"2000-03-00T10:01:25Z", "2000-04-31T10:01:25Z", "1900-02-29T10:01:25Z", "2000-03-09T24:00:00Z",
+				"2000-03-09T10:60:25Z", "2000-03-09T10:01:61Z", "2000-03-09T10:01:25+24:00", "2000-03-09T10:01:25+05",
+				"2000-03-09T10:01:25+05:60", "2000-03-09T10:01:25Zx",
+				"2000-03-09T10:01:25 Z", "x2000-03-09T10:01:25Z" };
+		for (String invalid : invalids) {
+			Assertions.assertThrows(DateTimeParseException.class, () -> parse(invalid), invalid);
+		}
+		Assertions.assertEquals(Instant.parse("2000-02-29T00:00:00Z").toEpochMilli(),
+				parse("2000-02-29T00:00:00Z").getUTCtimeInMilis());
+		log.info("Time codec invalid date-time Test finished!");
+	}
+	
+	private static IDMEFTime parse(String text) {
+		IDMEFTime time = new IDMEFTime();
+		IDMEFtimeCodec.parse(text, time);
+		return time;
+	}
+}